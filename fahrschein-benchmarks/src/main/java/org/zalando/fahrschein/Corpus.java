@@ -0,0 +1,201 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import com.fasterxml.jackson.databind.annotation.JsonTypeResolver;
+import org.zalando.fahrschein.domain.Event;
+import org.zalando.fahrschein.domain.Metadata;
+import org.zalando.fahrschein.simulator.EventGenerator;
+import org.zalando.fahrschein.typeresolver.MetadataTypeResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic payloads modelled after order events, so that results are comparable between runs and releases.
+ */
+final class Corpus {
+    static final String ORDER_CREATED = "order_created";
+    static final String ORDER_SHIPPED = "order_shipped";
+
+    private static final String[] COUNTRIES = {"DE", "AT", "CH", "NL", "FR", "PL", "SE", "IT"};
+    private static final String[] PAYMENT_METHODS = {"INVOICE", "CREDIT_CARD", "PAYPAL", "PREPAYMENT"};
+
+    private Corpus() {
+    }
+
+    static String event(Random random, int index) {
+        final String eventType = index % 4 == 3 ? ORDER_SHIPPED : ORDER_CREATED;
+        final String eid = new UUID(random.nextLong(), random.nextLong()).toString();
+        final String orderNumber = String.format(Locale.ROOT, "%014d", 10410018540147L + index);
+
+        final StringBuilder sb = new StringBuilder(512);
+        sb.append("{\"metadata\":{\"occurred_at\":\"2017-03-15T02:00:47.689Z\",\"eid\":\"").append(eid)
+                .append("\",\"event_type\":\"").append(eventType)
+                .append("\",\"partition\":\"").append(index % 8)
+                .append("\",\"received_at\":\"2017-03-15T02:00:51.437Z\",\"flow_id\":\"GH5kZY88Zkj6O5QKVnPBQbZw\",\"version\":\"0.1.0\"},")
+                .append("\"order_number\":\"").append(orderNumber).append('"');
+        if (ORDER_CREATED.equals(eventType)) {
+            sb.append(",\"customer_number\":\"").append(100000 + random.nextInt(900000))
+                    .append("\",\"shipping_country\":\"").append(COUNTRIES[random.nextInt(COUNTRIES.length)])
+                    .append("\",\"payment_method\":\"").append(PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)])
+                    .append("\",\"items\":[");
+            final int items = 1 + random.nextInt(5);
+            for (int i = 0; i < items; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append("{\"sku\":\"SKU").append(1000000 + random.nextInt(9000000))
+                        .append("\",\"quantity\":").append(1 + random.nextInt(3))
+                        .append(",\"price\":").append(random.nextInt(20000) / 100.0).append('}');
+            }
+            sb.append(']');
+        }
+        return sb.append('}').toString();
+    }
+
+    static String events(int count) {
+        final Random random = new Random(count);
+        final StringBuilder sb = new StringBuilder(count * 512);
+        sb.append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(event(random, i));
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Generates the events of a {@link org.zalando.fahrschein.simulator.NakadiSimulator}, the same position always results in the same event.
+     */
+    static EventGenerator generator() {
+        return (eventType, partition, position) -> event(new Random(position), (int) position);
+    }
+
+    /**
+     * A stream of event batches, each followed by the given number of keep alive batches, in the format of the low-level api.
+     */
+    static byte[] stream(int batches, int eventsPerBatch, int keepAlivesPerBatch) {
+        final String events = events(eventsPerBatch);
+        final StringBuilder sb = new StringBuilder();
+        long offset = 0;
+        for (int i = 0; i < batches; i++) {
+            offset += eventsPerBatch;
+            final String cursor = String.format(Locale.ROOT, "{\"partition\":\"%d\",\"offset\":\"001-0001-%018d\"}", i % 8, offset);
+            sb.append("{\"cursor\":").append(cursor);
+            if (eventsPerBatch > 0) {
+                sb.append(",\"events\":").append(events);
+            }
+            sb.append("}\n");
+            for (int j = 0; j < keepAlivesPerBatch; j++) {
+                sb.append("{\"cursor\":").append(cursor).append("}\n");
+            }
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static class OrderItem {
+        public String sku;
+        public int quantity;
+        public double price;
+    }
+
+    public static class OrderEvent implements Event {
+        public Metadata metadata;
+        @JsonProperty("order_number")
+        public String orderNumber;
+        @JsonProperty("customer_number")
+        public String customerNumber;
+        @JsonProperty("shipping_country")
+        public String shippingCountry;
+        @JsonProperty("payment_method")
+        public String paymentMethod;
+        public List<OrderItem> items;
+
+        @Override
+        public Metadata getMetadata() {
+            return metadata;
+        }
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.CUSTOM)
+    @JsonTypeResolver(MetadataTypeResolver.class)
+    @JsonSubTypes({@JsonSubTypes.Type(OrderCreated.class), @JsonSubTypes.Type(OrderShipped.class)})
+    public abstract static class PolymorphicOrderEvent implements Event {
+    }
+
+    @JsonTypeName(ORDER_CREATED)
+    public static class OrderCreated extends PolymorphicOrderEvent {
+        private final Metadata metadata;
+        private final String orderNumber;
+        private final String customerNumber;
+        private final String shippingCountry;
+        private final String paymentMethod;
+        private final List<OrderItem> items;
+
+        @JsonCreator
+        public OrderCreated(@JsonProperty("metadata") Metadata metadata, @JsonProperty("order_number") String orderNumber, @JsonProperty("customer_number") String customerNumber,
+                            @JsonProperty("shipping_country") String shippingCountry, @JsonProperty("payment_method") String paymentMethod, @JsonProperty("items") List<OrderItem> items) {
+            this.metadata = metadata;
+            this.orderNumber = orderNumber;
+            this.customerNumber = customerNumber;
+            this.shippingCountry = shippingCountry;
+            this.paymentMethod = paymentMethod;
+            this.items = items;
+        }
+
+        @Override
+        public Metadata getMetadata() {
+            return metadata;
+        }
+
+        public String getOrderNumber() {
+            return orderNumber;
+        }
+
+        public String getCustomerNumber() {
+            return customerNumber;
+        }
+
+        public String getShippingCountry() {
+            return shippingCountry;
+        }
+
+        public String getPaymentMethod() {
+            return paymentMethod;
+        }
+
+        public List<OrderItem> getItems() {
+            return items;
+        }
+    }
+
+    @JsonTypeName(ORDER_SHIPPED)
+    public static class OrderShipped extends PolymorphicOrderEvent {
+        private final Metadata metadata;
+        private final String orderNumber;
+
+        @JsonCreator
+        public OrderShipped(@JsonProperty("metadata") Metadata metadata, @JsonProperty("order_number") String orderNumber) {
+            this.metadata = metadata;
+            this.orderNumber = orderNumber;
+        }
+
+        @Override
+        public Metadata getMetadata() {
+            return metadata;
+        }
+
+        public String getOrderNumber() {
+            return orderNumber;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.zalando.fahrschein;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.profile.ProfilerException;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Cpu time of the benchmark process per operation and the average number of busy cores. Unlike the time of the benchmark thread,
+ * this includes background threads like http client pools, garbage collection and jit compilation.
+ * Enable with {@code -prof org.zalando.fahrschein.CpuTimeProfiler}.
+ */
+public class CpuTimeProfiler implements InternalProfiler {
+    private final com.sun.management.OperatingSystemMXBean operatingSystem;
+    private long startCpuTime;
+    private long startTime;
+
+    public CpuTimeProfiler() throws ProfilerException {
+        final OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+        if (!(operatingSystem instanceof com.sun.management.OperatingSystemMXBean)) {
+            throw new ProfilerException("Process cpu time is not supported by this jvm");
+        }
+        this.operatingSystem = (com.sun.management.OperatingSystemMXBean) operatingSystem;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Process cpu time per operation";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        startCpuTime = operatingSystem.getProcessCpuTime();
+        startTime = System.nanoTime();
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams, IterationResult result) {
+        final long cpuTime = operatingSystem.getProcessCpuTime() - startCpuTime;
+        final long time = System.nanoTime() - startTime;
+        final long ops = result.getMetadata().getAllOps();
+
+        return Arrays.asList(
+                new ScalarResult("·cpu.time.norm", ops == 0 ? Double.NaN : (double) cpuTime / ops, "ns/op", AggregationPolicy.AVG),
+                new ScalarResult("·cpu.utilization", time == 0 ? Double.NaN : (double) cpuTime / time, "cores", AggregationPolicy.AVG));
+    }
+}
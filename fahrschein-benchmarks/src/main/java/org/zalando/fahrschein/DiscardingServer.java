@@ -0,0 +1,122 @@
+package org.zalando.fahrschein;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Http server discarding request bodies, started in a separate process so that its allocations are not attributed to the
+ * client by the gc profiler. The server prints its port on startup and exits when its standard input is closed.
+ */
+final class DiscardingServer implements Closeable {
+
+    private static final String RECEIVED_BYTES_PATH = "/received-bytes";
+
+    private final Process process;
+    private final URI baseUri;
+
+    private DiscardingServer(Process process, int port) {
+        this.process = process;
+        this.baseUri = URI.create("http://localhost:" + port);
+    }
+
+    static DiscardingServer start() throws IOException {
+        final String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        final Process process = new ProcessBuilder(java, "-Xmx256m", "-cp", System.getProperty("java.class.path"), DiscardingServer.class.getName())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        final String port = reader.readLine();
+        if (port == null) {
+            process.destroy();
+            throw new IOException("Discarding server exited before reporting its port");
+        }
+        return new DiscardingServer(process, Integer.parseInt(port));
+    }
+
+    URI getBaseUri() {
+        return baseUri;
+    }
+
+    /**
+     * @return The number of request body bytes received by the server so far.
+     */
+    long getReceivedBytes() throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) baseUri.resolve(RECEIVED_BYTES_PATH).toURL().openConnection();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            return Long.parseLong(reader.readLine());
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        process.getOutputStream().close();
+        try {
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        final byte[] buffer = new byte[8192];
+        // requests are handled sequentially by the default executor
+        final long[] receivedBytes = new long[1];
+
+        server.createContext("/", exchange -> {
+            receivedBytes[0] += discard(exchange.getRequestBody(), buffer);
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.createContext(RECEIVED_BYTES_PATH, exchange -> respond(exchange, Long.toString(receivedBytes[0])));
+        server.start();
+
+        System.out.println(server.getAddress().getPort());
+        System.out.flush();
+
+        try {
+            discard(System.in, buffer);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static long discard(InputStream in, byte[] buffer) throws IOException {
+        long count = 0;
+        try (InputStream input = in) {
+            int read;
+            while ((read = input.read(buffer)) >= 0) {
+                count += read;
+            }
+        }
+        return count;
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
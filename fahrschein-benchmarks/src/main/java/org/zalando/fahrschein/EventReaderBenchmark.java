@@ -0,0 +1,95 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link EventReader} implementations on batches of order events: databinding to a concrete class,
+ * polymorphic databinding using the {@code MetadataTypeResolver}, forwarding raw bytes and parallel databinding.
+ * Parallel databinding is measured with different numbers of threads, which should not exceed the available cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventReaderBenchmark {
+    @Param({"10", "1000"})
+    public int eventsPerBatch;
+
+    /**
+     * Threads of the executor and number of tasks a batch is split into by the {@link ParallelMappingEventReader}.
+     */
+    @Param({"1", "4", "16"})
+    public int parallelism;
+
+    private byte[] batch;
+    private ObjectMapper objectMapper;
+    private ExecutorService executorService;
+    private EventReader<Corpus.OrderEvent> mappingEventReader;
+    private EventReader<Corpus.PolymorphicOrderEvent> polymorphicEventReader;
+    private EventReader<RawEvent> rawEventReader;
+    private EventReader<Corpus.OrderEvent> parallelEventReader;
+
+    @Setup
+    public void setup() {
+        batch = Corpus.events(eventsPerBatch).getBytes(StandardCharsets.UTF_8);
+        objectMapper = DefaultObjectMapper.INSTANCE;
+        executorService = Executors.newFixedThreadPool(parallelism);
+        mappingEventReader = new MappingEventReader<>(Corpus.OrderEvent.class, objectMapper);
+        polymorphicEventReader = new MappingEventReader<>(Corpus.PolymorphicOrderEvent.class, objectMapper);
+        rawEventReader = new RawEventReader(objectMapper);
+        parallelEventReader = new ParallelMappingEventReader<>(Corpus.OrderEvent.class, objectMapper, 64 * 1024, executorService, parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    private <T> List<T> read(EventReader<T> eventReader) throws IOException {
+        try (final JsonParser jsonParser = objectMapper.getFactory().createParser(batch)) {
+            return eventReader.read(jsonParser);
+        }
+    }
+
+    @Benchmark
+    public List<Corpus.OrderEvent> mapping() throws IOException {
+        return read(mappingEventReader);
+    }
+
+    @Benchmark
+    public List<Corpus.PolymorphicOrderEvent> polymorphic() throws IOException {
+        return read(polymorphicEventReader);
+    }
+
+    @Benchmark
+    public List<RawEvent> raw() throws IOException {
+        return read(rawEventReader);
+    }
+
+    @Benchmark
+    public List<Corpus.OrderEvent> parallel() throws IOException {
+        return read(parallelEventReader);
+    }
+}
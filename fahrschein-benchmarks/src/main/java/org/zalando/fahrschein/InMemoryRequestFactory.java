@@ -0,0 +1,124 @@
+package org.zalando.fahrschein;
+
+import org.zalando.fahrschein.http.api.ContentType;
+import org.zalando.fahrschein.http.api.Headers;
+import org.zalando.fahrschein.http.api.HeadersImpl;
+import org.zalando.fahrschein.http.api.Request;
+import org.zalando.fahrschein.http.api.RequestFactory;
+import org.zalando.fahrschein.http.api.Response;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+
+/**
+ * {@link RequestFactory} answering every request with the same response from memory, so that benchmarks only measure the client.
+ * Request bodies are discarded after counting their size.
+ */
+final class InMemoryRequestFactory implements RequestFactory {
+    private final int statusCode;
+    private final String statusText;
+    private final ContentType contentType;
+    private final byte[] responseBody;
+    private long bytesWritten;
+
+    InMemoryRequestFactory(int statusCode, String statusText, ContentType contentType, byte[] responseBody) {
+        this.statusCode = statusCode;
+        this.statusText = statusText;
+        this.contentType = contentType;
+        this.responseBody = responseBody;
+    }
+
+    static InMemoryRequestFactory ok(byte[] responseBody) {
+        return new InMemoryRequestFactory(200, "OK", ContentType.APPLICATION_JSON, responseBody);
+    }
+
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public Request createRequest(URI uri, String method) {
+        return new InMemoryRequest(uri, method);
+    }
+
+    private final class InMemoryRequest implements Request {
+        private final URI uri;
+        private final String method;
+        private final Headers headers = new HeadersImpl();
+
+        InMemoryRequest(URI uri, String method) {
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public String getMethod() {
+            return method;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        public Headers getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return new OutputStream() {
+                @Override
+                public void write(int b) {
+                    bytesWritten++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    bytesWritten += len;
+                }
+            };
+        }
+
+        @Override
+        public Response execute() {
+            return new InMemoryResponse();
+        }
+    }
+
+    private final class InMemoryResponse implements Response {
+        private final Headers headers = new HeadersImpl();
+
+        InMemoryResponse() {
+            headers.setContentType(contentType);
+        }
+
+        @Override
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        @Override
+        public String getStatusText() {
+            return statusText;
+        }
+
+        @Override
+        public Headers getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return new ByteArrayInputStream(responseBody);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.JsonToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.zalando.fahrschein.domain.Cursor;
+import org.zalando.fahrschein.domain.Subscription;
+import org.zalando.fahrschein.http.api.RequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the batch framing in {@link NakadiReader}, that is reading cursors, keep alive batches and handing over events,
+ * without databinding the events. Run with {@code -prof gc} to see the allocation rate per batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NakadiReaderBenchmark {
+    static final int BATCHES = 1000;
+
+    private static final URI EVENTS_URI = URI.create("http://localhost/event-types/order_created/events");
+
+    private static final CursorManager NO_OP_CURSOR_MANAGER = new CursorManager() {
+        @Override
+        public void onSuccess(String eventName, Cursor cursor) {
+        }
+
+        @Override
+        public void onSuccess(String eventName, List<Cursor> cursors) {
+        }
+
+        @Override
+        public Collection<Cursor> getCursors(String eventName) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void addStreamId(Subscription subscription, String streamId) {
+        }
+    };
+
+    private static final List<Object> EVENTS = Collections.singletonList(new Object());
+
+    @Param({"1", "50"})
+    public int eventsPerBatch;
+
+    @Param({"0", "1"})
+    public int keepAlivesPerBatch;
+
+    private RequestFactory requestFactory;
+    private int processedBatches;
+
+    @Setup
+    public void setup() {
+        requestFactory = InMemoryRequestFactory.ok(Corpus.stream(BATCHES, eventsPerBatch, keepAlivesPerBatch));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCHES)
+    public int readBatches() throws IOException {
+        processedBatches = 0;
+
+        final EventReader<Object> eventReader = jsonParser -> {
+            if (jsonParser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected array of events");
+            }
+            jsonParser.skipChildren();
+            return EVENTS;
+        };
+
+        final NakadiReader<Object> nakadiReader = new NakadiReader<>(EVENTS_URI, requestFactory, new NoBackoffStrategy(), NO_OP_CURSOR_MANAGER,
+                Collections.singleton(Corpus.ORDER_CREATED), Optional.empty(), Optional.empty(), eventReader, events -> processedBatches++,
+                DefaultBatchHandler.INSTANCE, NoMetricsCollector.NO_METRICS_COLLECTOR);
+
+        try {
+            nakadiReader.runInternal();
+        } catch (BackoffException e) {
+            // end of the stream
+        }
+        return processedBatches;
+    }
+}
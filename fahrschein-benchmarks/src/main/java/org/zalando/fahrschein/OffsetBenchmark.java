@@ -0,0 +1,82 @@
+package org.zalando.fahrschein;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.zalando.fahrschein.domain.Offset;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and comparing offsets, and watermark checks over the offsets of many partitions using an {@link OffsetTable}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OffsetBenchmark {
+    static final int PARTITIONS = 5000;
+
+    private static final String LEGACY_OFFSET = "000000000001234567";
+    private static final String VERSIONED_OFFSET = "001-0001-000000000001234567";
+
+    private final String[] partitions = new String[PARTITIONS];
+    private final Offset[] oldestAvailableOffsets = new Offset[PARTITIONS];
+    private final OffsetTable committedOffsets = new OffsetTable(PARTITIONS);
+    private Offset offset;
+    private Offset otherOffset;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < PARTITIONS; i++) {
+            partitions[i] = String.valueOf(i);
+            committedOffsets.put(partitions[i], Offset.parse(String.format(Locale.ROOT, "001-0001-%018d", 1000L + i)));
+            oldestAvailableOffsets[i] = Offset.parse(String.format(Locale.ROOT, "001-0001-%018d", 1000L + 2 * i));
+        }
+        offset = Offset.parse(VERSIONED_OFFSET);
+        otherOffset = Offset.parse("001-0001-000000000001234568");
+    }
+
+    @Benchmark
+    public Offset parseLegacy() {
+        return Offset.parse(LEGACY_OFFSET);
+    }
+
+    @Benchmark
+    public Offset parseVersioned() {
+        return Offset.parse(VERSIONED_OFFSET);
+    }
+
+    @Benchmark
+    public int compare() {
+        return offset.compareTo(otherOffset);
+    }
+
+    @Benchmark
+    public long distance() {
+        return offset.distance(otherOffset);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PARTITIONS)
+    public int watermarks() {
+        int unavailable = 0;
+        for (int i = 0; i < PARTITIONS; i++) {
+            if (committedOffsets.compare(partitions[i], oldestAvailableOffsets[i]) < 0) {
+                unavailable++;
+            }
+        }
+        return unavailable;
+    }
+}
@@ -0,0 +1,86 @@
+package org.zalando.fahrschein;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.zalando.fahrschein.http.api.ContentType;
+import org.zalando.fahrschein.http.api.RequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of error responses into {@link IOProblem problems} and {@link EventPublishingException publishing failures}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProblemHandlingRequestBenchmark {
+    private static final URI EVENTS_URI = URI.create("http://localhost/event-types/order_created/events");
+    private static final int BATCH_ITEMS = 100;
+
+    private RequestFactory problem;
+    private RequestFactory authError;
+    private RequestFactory batchItemResponse;
+
+    @Setup
+    public void setup() {
+        problem = new ProblemHandlingRequestFactory(new InMemoryRequestFactory(422, "Unprocessable Entity", ContentType.APPLICATION_PROBLEM_JSON,
+                bytes("{\"type\":\"http://httpstatus.es/422\",\"title\":\"Unprocessable Entity\",\"status\":422,\"detail\":\"Error deserializing event: unexpected token\"}")));
+        authError = new ProblemHandlingRequestFactory(new InMemoryRequestFactory(401, "Unauthorized", ContentType.APPLICATION_JSON,
+                bytes("{\"error\":\"invalid_token\",\"error_description\":\"Access Token not valid\"}")));
+
+        final StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < BATCH_ITEMS; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            final boolean failed = i % 10 == 0;
+            sb.append(String.format(Locale.ROOT, "{\"eid\":\"%08d-5ae9-3964-91fa-26ecb7588d67\",\"publishing_status\":\"%s\",\"step\":\"%s\",\"detail\":\"%s\"}",
+                    i, failed ? "failed" : "aborted", failed ? "validating" : "publishing", failed ? "#/order_number: expected type: String, found: Integer" : "baseline"));
+        }
+        sb.append(']');
+        batchItemResponse = new ProblemHandlingRequestFactory(new InMemoryRequestFactory(422, "Unprocessable Entity", ContentType.APPLICATION_JSON, bytes(sb.toString())));
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static IOException execute(RequestFactory requestFactory) throws IOException {
+        try {
+            requestFactory.createRequest(EVENTS_URI, "POST").execute();
+        } catch (IOProblem | EventPublishingException e) {
+            return e;
+        }
+        throw new IllegalStateException("Expected an error response");
+    }
+
+    @Benchmark
+    public IOException problem() throws IOException {
+        return execute(problem);
+    }
+
+    @Benchmark
+    public IOException authError() throws IOException {
+        return execute(authError);
+    }
+
+    @Benchmark
+    public IOException batchItemResponse() throws IOException {
+        return execute(batchItemResponse);
+    }
+}
@@ -0,0 +1,56 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of events in {@link NakadiClient#publish(String, List)} for different batch sizes, the score is in batches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PublishBenchmark {
+    private static final TypeReference<List<Corpus.OrderEvent>> LIST_OF_EVENTS = new TypeReference<List<Corpus.OrderEvent>>() {
+    };
+
+    @Param({"1", "100", "1000"})
+    public int batchSize;
+
+    private InMemoryRequestFactory requestFactory;
+    private NakadiClient nakadiClient;
+    private List<Corpus.OrderEvent> events;
+
+    @Setup
+    public void setup() throws IOException {
+        events = DefaultObjectMapper.INSTANCE.readValue(Corpus.events(batchSize), LIST_OF_EVENTS);
+        requestFactory = InMemoryRequestFactory.ok(new byte[0]);
+        nakadiClient = NakadiClient.builder(URI.create("http://localhost"))
+                .withRequestFactory(requestFactory)
+                .withAccessTokenProvider(() -> "token")
+                .build();
+    }
+
+    @Benchmark
+    public long publish() throws IOException {
+        nakadiClient.publish(Corpus.ORDER_CREATED, events);
+        return requestFactory.getBytesWritten();
+    }
+}
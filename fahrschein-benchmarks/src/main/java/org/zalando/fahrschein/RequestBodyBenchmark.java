@@ -0,0 +1,108 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.zalando.fahrschein.http.api.ContentType;
+import org.zalando.fahrschein.http.api.Request;
+import org.zalando.fahrschein.http.api.RequestFactory;
+import org.zalando.fahrschein.http.api.Response;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap churn of publishing large batches with a buffered or a {@link Request#setBody(Request.Body) streaming} request body, for the
+ * different {@link Transport transports}. The events are posted to a {@link DiscardingServer} running in a separate process, so that
+ * the allocations reported by the gc profiler ({@code gc.alloc.rate.norm}) only contain serializing and sending the body on the client.
+ * Transports that do not support streaming, like {@code SPRING_OKHTTP}, buffer the body in both modes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class RequestBodyBenchmark {
+    private static final TypeReference<List<Corpus.OrderEvent>> LIST_OF_EVENTS = new TypeReference<List<Corpus.OrderEvent>>() {
+    };
+
+    public enum BodyMode {
+        BUFFERED, STREAMING
+    }
+
+    @Param({"SIMPLE", "APACHE", "SPRING_OKHTTP"})
+    public Transport transport;
+
+    @Param({"BUFFERED", "STREAMING"})
+    public BodyMode bodyMode;
+
+    /**
+     * About 400 bytes per event, so 25000 events are a batch of 10 MB.
+     */
+    @Param({"2500", "25000"})
+    public int batchSize;
+
+    private final List<Closeable> resources = new ArrayList<>();
+    private final ObjectMapper objectMapper = DefaultObjectMapper.INSTANCE;
+    private DiscardingServer server;
+    private RequestFactory requestFactory;
+    private URI uri;
+    private List<Corpus.OrderEvent> events;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        server = DiscardingServer.start();
+        uri = server.getBaseUri().resolve("/event-types/" + Corpus.ORDER_CREATED + "/events");
+        requestFactory = transport.createRequestFactory(resources);
+        resources.add(server);
+        events = objectMapper.readValue(Corpus.events(batchSize), LIST_OF_EVENTS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (Closeable resource : resources) {
+            resource.close();
+        }
+        resources.clear();
+    }
+
+    @Benchmark
+    public int publish() throws IOException {
+        final Request request = requestFactory.createRequest(uri, "POST");
+        request.getHeaders().setContentType(ContentType.APPLICATION_JSON);
+
+        if (bodyMode == BodyMode.STREAMING) {
+            request.setBody(body -> objectMapper.writeValue(body, events));
+        } else {
+            try (OutputStream body = request.getBody()) {
+                objectMapper.writeValue(body, events);
+            }
+        }
+
+        try (Response response = request.execute()) {
+            return response.getStatusCode();
+        }
+    }
+
+    long getReceivedBytes() throws IOException {
+        return server.getReceivedBytes();
+    }
+}
@@ -0,0 +1,67 @@
+package org.zalando.fahrschein;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of running many streams with a {@link StreamRunner}. All streams are started and block like an idle stream waiting for the next batch,
+ * then all of them are woken up and block a few more times like active streams sleeping during backoff.
+ * On JDKs without virtual threads both runners use platform threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StreamRunnerBenchmark {
+    private static final int ACTIVE_ROUNDS = 5;
+
+    @Param({"1000", "5000", "10000"})
+    public int streams;
+
+    @Param({"virtual", "platform"})
+    public String threads;
+
+    @Benchmark
+    public void idleThenActive() throws IOException, InterruptedException {
+        final CountDownLatch running = new CountDownLatch(streams);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(streams);
+
+        try (final StreamRunner streamRunner = "virtual".equals(threads) ? StreamRunner.create("benchmark-") : StreamRunner.platformThreads("benchmark-")) {
+            for (int i = 0; i < streams; i++) {
+                streamRunner.start(() -> {
+                    try {
+                        running.countDown();
+                        release.await();
+                        for (int j = 0; j < ACTIVE_ROUNDS; j++) {
+                            Thread.sleep(1);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while blocking");
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            running.await();
+            release.countDown();
+            done.await();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.zalando.fahrschein;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
+import org.zalando.fahrschein.http.api.RequestFactory;
+import org.zalando.fahrschein.http.apache.HttpComponentsRequestFactory;
+import org.zalando.fahrschein.http.simple.SimpleRequestFactory;
+import org.zalando.fahrschein.http.spring.SpringRequestFactory;
+
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * The {@link RequestFactory} implementations compared by the transport benchmarks, configured like in the readme.
+ */
+public enum Transport {
+    SIMPLE {
+        @Override
+        RequestFactory createRequestFactory(List<Closeable> resources) {
+            return new SimpleRequestFactory();
+        }
+    },
+    APACHE {
+        @Override
+        RequestFactory createRequestFactory(List<Closeable> resources) {
+            final CloseableHttpClient httpClient = HttpClients.custom()
+                    .disableAutomaticRetries()
+                    .disableRedirectHandling()
+                    .disableContentCompression()
+                    .setMaxConnTotal(8)
+                    .setMaxConnPerRoute(2)
+                    .build();
+            resources.add(httpClient);
+            return new HttpComponentsRequestFactory(httpClient);
+        }
+    },
+    SPRING_OKHTTP {
+        @Override
+        RequestFactory createRequestFactory(List<Closeable> resources) {
+            final OkHttp3ClientHttpRequestFactory clientHttpRequestFactory = new OkHttp3ClientHttpRequestFactory();
+            resources.add(clientHttpRequestFactory::destroy);
+            return new SpringRequestFactory(clientHttpRequestFactory);
+        }
+    };
+
+    /**
+     * @param resources Collects resources that have to be closed after the benchmark
+     */
+    abstract RequestFactory createRequestFactory(List<Closeable> resources);
+}
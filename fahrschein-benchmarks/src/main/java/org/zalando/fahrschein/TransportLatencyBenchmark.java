@@ -0,0 +1,113 @@
+package org.zalando.fahrschein;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.zalando.fahrschein.domain.Cursor;
+import org.zalando.fahrschein.domain.Subscription;
+import org.zalando.fahrschein.http.api.RequestFactory;
+import org.zalando.fahrschein.simulator.NakadiSimulator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency percentiles of a subscription stream with the different {@link Transport transports}, against a {@link NakadiSimulator}
+ * in the same process. {@code batchLatency} measures from appending an event until the listener received it, which includes
+ * waking up the stream in the simulator and possibly the commit of the previous batch. {@code commit} measures the round trip of
+ * committing a cursor while the stream is running. {@link TransportReport} runs this benchmark with the relevant profilers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransportLatencyBenchmark {
+    private static final int RETENTION = 1000;
+
+    @Param({"SIMPLE", "APACHE", "SPRING_OKHTTP"})
+    public Transport transport;
+
+    private final List<Closeable> resources = new ArrayList<>();
+    private final Semaphore delivered = new Semaphore(0);
+    private NakadiSimulator simulator;
+    private ManagedCursorManager cursorManager;
+    private ExecutorService executorService;
+    private List<String> event;
+    private Cursor cursor;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, InterruptedException {
+        simulator = NakadiSimulator.builder()
+                .withEventType(Corpus.ORDER_CREATED, 1)
+                .withRetention(RETENTION)
+                .start();
+        final RequestFactory requestFactory = transport.createRequestFactory(resources);
+        cursorManager = new ManagedCursorManager(simulator.getBaseUri(), requestFactory);
+        final NakadiClient nakadiClient = NakadiClient.builder(simulator.getBaseUri())
+                .withRequestFactory(requestFactory)
+                .withCursorManager(cursorManager)
+                .build();
+
+        final Subscription subscription = nakadiClient.subscription("fahrschein-benchmarks", Corpus.ORDER_CREATED).readFromEnd().subscribe();
+        final IORunnable runnable = nakadiClient.stream(subscription)
+                .withBackoffStrategy(new NoBackoffStrategy())
+                .runnable(Corpus.OrderEvent.class, events -> delivered.release(events.size()));
+
+        executorService = Executors.newSingleThreadExecutor();
+        executorService.submit(() -> {
+            runnable.run();
+            return null;
+        });
+
+        event = Collections.singletonList(Corpus.event(new Random(0), 0));
+        cursor = new Cursor("0", "001-0001-000000000000000000", Corpus.ORDER_CREATED, "benchmark");
+
+        // the first event also waits for the stream to be connected, so that commits use its stream id
+        simulator.append(Corpus.ORDER_CREATED, "0", event);
+        if (!delivered.tryAcquire(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Subscription stream did not connect");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+        simulator.close();
+        executorService.shutdownNow();
+        executorService.awaitTermination(10, TimeUnit.SECONDS);
+        for (Closeable resource : resources) {
+            resource.close();
+        }
+        resources.clear();
+    }
+
+    @Benchmark
+    public void batchLatency() throws InterruptedException {
+        simulator.append(Corpus.ORDER_CREATED, "0", event);
+        delivered.acquire();
+    }
+
+    @Benchmark
+    public void commit() throws IOException {
+        cursorManager.onSuccess(Corpus.ORDER_CREATED, cursor);
+    }
+}
@@ -0,0 +1,33 @@
+package org.zalando.fahrschein;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the transport benchmarks with the gc and cpu time profilers and writes the results as json to {@code transport-report.json}.
+ * Further arguments are passed to JMH, for example {@code -p transport=SIMPLE,APACHE}.
+ */
+public final class TransportReport {
+    private TransportReport() {
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        final Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(TransportThroughputBenchmark.class.getSimpleName())
+                .include(TransportLatencyBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .addProfiler(CpuTimeProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("transport-report.json")
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,180 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.zalando.fahrschein.domain.Cursor;
+import org.zalando.fahrschein.domain.Subscription;
+import org.zalando.fahrschein.http.api.RequestFactory;
+import org.zalando.fahrschein.simulator.NakadiSimulator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Events per second when consuming and publishing over http with the different {@link Transport transports}, against a
+ * {@link NakadiSimulator} in the same process. Consuming skips databinding, so that the score is dominated by the transport,
+ * publishing includes the serialization of the events. The simulator uses the same cpu time and allocations for every transport.
+ * {@link TransportReport} runs this benchmark with the relevant profilers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransportThroughputBenchmark {
+    static final int PARTITIONS = 4;
+    static final int EVENTS = 10000;
+    static final int BATCH_SIZE = 50;
+
+    private static final TypeReference<List<Corpus.OrderEvent>> LIST_OF_EVENTS = new TypeReference<List<Corpus.OrderEvent>>() {
+    };
+
+    private static final List<Object> EVENTS_MARKER = Collections.singletonList(new Object());
+
+    /**
+     * Bytes of the consumed streams, reported as rate, so that the cpu time per megabyte can be derived from the cpu utilization.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Traffic {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Param({"SIMPLE", "APACHE", "SPRING_OKHTTP"})
+    public Transport transport;
+
+    /**
+     * Whether the consumed streams are requested gzip compressed, the reported bytes are the decompressed ones.
+     */
+    @Param({"false", "true"})
+    public boolean responseCompression;
+
+    private final List<Closeable> resources = new ArrayList<>();
+    private NakadiSimulator simulator;
+    private RequestFactory requestFactory;
+    private NakadiClient nakadiClient;
+    private URI streamUri;
+    private CursorManager cursorManager;
+    private List<Corpus.OrderEvent> events;
+
+    private int consumedEvents;
+    private long streamBytes;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        simulator = NakadiSimulator.builder()
+                .withEventType(Corpus.ORDER_CREATED, PARTITIONS)
+                .withEvents(EVENTS / PARTITIONS)
+                .withRetention(EVENTS / PARTITIONS)
+                .withEventGenerator(Corpus.generator())
+                .start();
+        requestFactory = transport.createRequestFactory(resources);
+        nakadiClient = NakadiClient.builder(simulator.getBaseUri())
+                .withRequestFactory(requestFactory)
+                .build();
+        streamUri = simulator.getBaseUri().resolve("/event-types/" + Corpus.ORDER_CREATED + "/events?batch_limit=" + BATCH_SIZE + "&stream_limit=" + EVENTS);
+
+        final List<Cursor> cursors = new ArrayList<>(PARTITIONS);
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            cursors.add(new Cursor(String.valueOf(partition), "BEGIN"));
+        }
+        cursorManager = new CursorManager() {
+            @Override
+            public void onSuccess(String eventName, Cursor cursor) {
+            }
+
+            @Override
+            public void onSuccess(String eventName, List<Cursor> cursors) {
+            }
+
+            @Override
+            public Collection<Cursor> getCursors(String eventName) {
+                return cursors;
+            }
+
+            @Override
+            public void addStreamId(Subscription subscription, String streamId) {
+            }
+        };
+
+        events = DefaultObjectMapper.INSTANCE.readValue(Corpus.events(BATCH_SIZE), LIST_OF_EVENTS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (Closeable resource : resources) {
+            resource.close();
+        }
+        resources.clear();
+        simulator.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public int consume(Traffic traffic) throws IOException {
+        consumedEvents = 0;
+        streamBytes = 0;
+
+        final EventReader<Object> eventReader = jsonParser -> {
+            if (jsonParser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected array of events");
+            }
+            while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+                jsonParser.skipChildren();
+                consumedEvents++;
+            }
+            streamBytes = jsonParser.getCurrentLocation().getByteOffset();
+            return EVENTS_MARKER;
+        };
+
+        final NakadiReader<Object> nakadiReader = new NakadiReader<>(streamUri, requestFactory, new NoBackoffStrategy(), cursorManager,
+                Collections.singleton(Corpus.ORDER_CREATED), Optional.empty(), Optional.empty(), eventReader, batch -> { },
+                DefaultBatchHandler.INSTANCE, NoMetricsCollector.NO_METRICS_COLLECTOR, ReaderParameters.DEFAULT.withResponseCompression(responseCompression));
+
+        try {
+            nakadiReader.runInternal();
+        } catch (BackoffException e) {
+            // end of the stream
+        }
+        traffic.bytes += streamBytes;
+        return consumedEvents;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void publish() throws IOException {
+        nakadiClient.publish(Corpus.ORDER_CREATED, events);
+    }
+
+    long getPublishedEvents() {
+        return simulator.getEventCount(Corpus.ORDER_CREATED) - EVENTS;
+    }
+}
@@ -0,0 +1,131 @@
+package org.zalando.fahrschein;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs every benchmark once, to make sure that they measure what they should and do not break unnoticed.
+ */
+public class BenchmarksTest {
+
+    @Test
+    public void nakadiReaderShouldProcessAllBatches() throws IOException {
+        final NakadiReaderBenchmark benchmark = new NakadiReaderBenchmark();
+        benchmark.eventsPerBatch = 50;
+        benchmark.keepAlivesPerBatch = 1;
+        benchmark.setup();
+
+        assertEquals(NakadiReaderBenchmark.BATCHES, benchmark.readBatches());
+    }
+
+    @Test
+    public void eventReadersShouldReadAllEvents() throws IOException {
+        final EventReaderBenchmark benchmark = new EventReaderBenchmark();
+        benchmark.eventsPerBatch = 1000;
+        benchmark.parallelism = 4;
+        benchmark.setup();
+        try {
+            assertEquals(1000, benchmark.mapping().size());
+            assertEquals(1000, benchmark.polymorphic().size());
+            assertEquals(1000, benchmark.raw().size());
+            assertEquals(1000, benchmark.parallel().size());
+            assertTrue(benchmark.polymorphic().get(3) instanceof Corpus.OrderShipped);
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    @Test
+    public void offsetsShouldBeCompared() {
+        final OffsetBenchmark benchmark = new OffsetBenchmark();
+        benchmark.setup();
+
+        assertEquals(OffsetBenchmark.PARTITIONS - 1, benchmark.watermarks());
+        assertEquals(-1, benchmark.compare());
+        assertEquals(1L, benchmark.distance());
+    }
+
+    @Test
+    public void errorResponsesShouldBeParsed() throws IOException {
+        final ProblemHandlingRequestBenchmark benchmark = new ProblemHandlingRequestBenchmark();
+        benchmark.setup();
+
+        assertTrue(benchmark.problem() instanceof IOProblem);
+        assertTrue(benchmark.authError() instanceof IOProblem);
+        assertTrue(benchmark.batchItemResponse() instanceof EventPublishingException);
+    }
+
+    @Test
+    public void publishShouldSerializeEvents() throws IOException {
+        final PublishBenchmark benchmark = new PublishBenchmark();
+        benchmark.batchSize = 100;
+        benchmark.setup();
+
+        assertTrue(benchmark.publish() > 100 * 100);
+    }
+
+    @Test(timeout = 60000)
+    public void requestBodiesShouldBeSentByAllTransports() throws IOException {
+        for (Transport transport : Transport.values()) {
+            final List<Long> receivedBytes = new ArrayList<>();
+            for (RequestBodyBenchmark.BodyMode bodyMode : RequestBodyBenchmark.BodyMode.values()) {
+                final RequestBodyBenchmark benchmark = new RequestBodyBenchmark();
+                benchmark.transport = transport;
+                benchmark.bodyMode = bodyMode;
+                benchmark.batchSize = 1000;
+                benchmark.setup();
+                try {
+                    assertEquals(200, benchmark.publish());
+                    receivedBytes.add(benchmark.getReceivedBytes());
+                } finally {
+                    benchmark.tearDown();
+                }
+            }
+            assertTrue(receivedBytes.get(0) > 1000 * 100);
+            assertEquals(receivedBytes.get(0), receivedBytes.get(1));
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void transportsShouldConsumeAndPublishEvents() throws IOException {
+        for (Transport transport : Transport.values()) {
+            for (boolean responseCompression : new boolean[] {false, true}) {
+                final TransportThroughputBenchmark benchmark = new TransportThroughputBenchmark();
+                benchmark.transport = transport;
+                benchmark.responseCompression = responseCompression;
+                benchmark.setup();
+                try {
+                    final TransportThroughputBenchmark.Traffic traffic = new TransportThroughputBenchmark.Traffic();
+                    assertEquals(TransportThroughputBenchmark.EVENTS, benchmark.consume(traffic));
+                    assertTrue(traffic.bytes > TransportThroughputBenchmark.EVENTS * 100L);
+
+                    benchmark.publish();
+                    assertEquals(TransportThroughputBenchmark.BATCH_SIZE, benchmark.getPublishedEvents());
+                } finally {
+                    benchmark.tearDown();
+                }
+            }
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void transportsShouldDeliverBatchesAndCommitCursors() throws IOException, InterruptedException {
+        for (Transport transport : Transport.values()) {
+            final TransportLatencyBenchmark benchmark = new TransportLatencyBenchmark();
+            benchmark.transport = transport;
+            benchmark.setup();
+            try {
+                benchmark.batchLatency();
+                benchmark.commit();
+            } finally {
+                benchmark.tearDown();
+            }
+        }
+    }
+}
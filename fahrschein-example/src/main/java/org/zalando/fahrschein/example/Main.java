@@ -215,6 +215,7 @@ public class Main {
 
         nakadiClient.stream(subscription)
                 .withObjectMapper(objectMapper)
+                .withResponseCompression()
                 .listen(SalesOrderPlaced.class, listener);
     }
 
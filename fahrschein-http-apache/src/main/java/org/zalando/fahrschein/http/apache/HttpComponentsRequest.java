@@ -6,6 +6,7 @@ import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.EntityTemplate;
 import org.apache.http.protocol.HTTP;
 import org.zalando.fahrschein.http.api.Headers;
 import org.zalando.fahrschein.http.api.HeadersImpl;
@@ -35,7 +36,8 @@ final class HttpComponentsRequest implements Request {
     private final HttpUriRequest httpRequest;
 
     private final Headers headers;
-    private ByteArrayOutputStream bufferedOutput;
+    private BufferedOutput bufferedOutput;
+    private Body streamingBody;
     private boolean executed;
 
     HttpComponentsRequest(HttpClient client, HttpUriRequest request) {
@@ -55,10 +57,14 @@ final class HttpComponentsRequest implements Request {
     }
 
     private Response executeInternal(Headers headers) throws IOException {
-        final byte[] bytes = this.bufferedOutput != null ? this.bufferedOutput.toByteArray() : new byte[0];
-
-        if (headers.getContentLength() < 0) {
-            headers.setContentLength(bytes.length);
+        final HttpEntity requestEntity;
+        if (this.streamingBody != null) {
+            requestEntity = new StreamingEntity(this.streamingBody, headers.getContentLength());
+        } else {
+            requestEntity = this.bufferedOutput != null ? this.bufferedOutput.toEntity() : new ByteArrayEntity(new byte[0]);
+            if (headers.getContentLength() < 0) {
+                headers.setContentLength(requestEntity.getContentLength());
+            }
         }
 
         for (String headerName : headers.headerNames()) {
@@ -72,13 +78,13 @@ final class HttpComponentsRequest implements Request {
 
         if (this.httpRequest instanceof HttpEntityEnclosingRequest) {
             HttpEntityEnclosingRequest entityEnclosingRequest = (HttpEntityEnclosingRequest) this.httpRequest;
-            HttpEntity requestEntity = new ByteArrayEntity(bytes);
             entityEnclosingRequest.setEntity(requestEntity);
         }
 
         final HttpResponse httpResponse = this.httpClient.execute(this.httpRequest);
         final Response result = new HttpComponentsResponse(httpResponse);
         this.bufferedOutput = null;
+        this.streamingBody = null;
 
         return result;
     }
@@ -92,11 +98,22 @@ final class HttpComponentsRequest implements Request {
     public final OutputStream getBody() throws IOException {
         assertNotExecuted();
         if (this.bufferedOutput == null) {
-            this.bufferedOutput = new ByteArrayOutputStream(1024);
+            this.bufferedOutput = new BufferedOutput();
         }
+        this.streamingBody = null;
         return this.bufferedOutput;
     }
 
+    /**
+     * Writes the body directly to the connection when the request is executed, chunked unless the content length is set.
+     */
+    @Override
+    public final void setBody(Body body) {
+        assertNotExecuted();
+        this.streamingBody = body;
+        this.bufferedOutput = null;
+    }
+
     @Override
     public final Response execute() throws IOException {
         assertNotExecuted();
@@ -114,4 +131,40 @@ final class HttpComponentsRequest implements Request {
             throw new IllegalStateException("ClientHttpRequest already executed");
         }
     }
+
+    /**
+     * Exposes the buffer as entity without copying it.
+     */
+    private static final class BufferedOutput extends ByteArrayOutputStream {
+        BufferedOutput() {
+            super(1024);
+        }
+
+        HttpEntity toEntity() {
+            return new ByteArrayEntity(buf, 0, count);
+        }
+    }
+
+    /**
+     * Writes the body when the request is sent. The body is only written once, so the entity is not repeatable and retries do not resend it.
+     */
+    private static final class StreamingEntity extends EntityTemplate {
+        private final long contentLength;
+
+        StreamingEntity(Body body, long contentLength) {
+            super(body::writeTo);
+            this.contentLength = contentLength;
+            setChunked(contentLength < 0);
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return false;
+        }
+
+        @Override
+        public long getContentLength() {
+            return contentLength;
+        }
+    }
 }
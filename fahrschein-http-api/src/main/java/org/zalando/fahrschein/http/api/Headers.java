@@ -6,7 +6,9 @@ import java.util.Set;
 
 public interface Headers {
 
+    String ACCEPT_ENCODING = "Accept-Encoding";
     String AUTHORIZATION = "Authorization";
+    String CONTENT_ENCODING = "Content-Encoding";
     String CONTENT_LENGTH = "Content-Length";
     String CONTENT_TYPE = "Content-Type";
     String COOKIE = "Cookie";
@@ -5,6 +5,15 @@ import java.io.OutputStream;
 import java.net.URI;
 
 public interface Request {
+
+    /**
+     * Writes a request body while the request is executed, for example by serializing directly to the connection.
+     */
+    @FunctionalInterface
+    interface Body {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
     String getMethod();
 
     URI getURI();
@@ -13,6 +22,19 @@ public interface Request {
 
     OutputStream getBody() throws IOException;
 
+    /**
+     * Sets a body that is written while the request is executed, instead of being buffered in memory. The body is sent with the
+     * {@link Headers#getContentLength() content length} if it is set, and chunked otherwise. Since the body is not repeatable,
+     * the request is not retried by the transport.
+     *
+     * <p>The default implementation writes the body to the {@link #getBody() buffered body} immediately.
+     */
+    default void setBody(Body body) throws IOException {
+        try (final OutputStream out = getBody()) {
+            body.writeTo(out);
+        }
+    }
+
     Response execute() throws IOException;
 
 }
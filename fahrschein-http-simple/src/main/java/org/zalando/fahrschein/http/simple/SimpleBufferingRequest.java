@@ -15,7 +15,7 @@ import java.util.List;
 
 /**
  * {@link Request} implementation that uses standard JDK facilities to
- * execute buffered requests. Created via the {@link SimpleRequestFactory}.
+ * execute buffered or streaming requests. Created via the {@link SimpleRequestFactory}.
  *
  * @author Arjen Poutsma
  * @author Juergen Hoeller
@@ -24,9 +24,12 @@ import java.util.List;
  */
 final class SimpleBufferingRequest implements Request {
 
+    private static final int CHUNK_SIZE = 8192;
+
     private final HttpURLConnection connection;
     private final Headers headers;
     private ByteArrayOutputStream bufferedOutput;
+    private Body streamingBody;
     private boolean executed;
 
     SimpleBufferingRequest(HttpURLConnection connection) {
@@ -57,15 +60,7 @@ final class SimpleBufferingRequest implements Request {
             throw new IllegalStateException("Invalid Content-Length header [" + contentLength + "], request size is [" + size + "]");
         }
 
-        for (String headerName : headers.headerNames()) {
-            if (!Headers.CONTENT_LENGTH.equalsIgnoreCase(headerName)) {
-                final List<String> value = headers.get(headerName);
-                for (String headerValue : value) {
-                    final String actualHeaderValue = headerValue != null ? headerValue : "";
-                    connection.addRequestProperty(headerName, actualHeaderValue);
-                }
-            }
-        }
+        addRequestProperties();
 
         if (this.connection.getDoOutput()) {
             this.connection.setFixedLengthStreamingMode(size);
@@ -87,6 +82,43 @@ final class SimpleBufferingRequest implements Request {
         return result;
     }
 
+    private Response executeStreaming(Body body) throws IOException {
+        if (!this.connection.getDoOutput()) {
+            throw new IllegalStateException("Request method [" + getMethod() + "] does not support a body");
+        }
+
+        addRequestProperties();
+
+        final long contentLength = this.headers.getContentLength();
+        if (contentLength >= 0) {
+            this.connection.setFixedLengthStreamingMode(contentLength);
+        } else {
+            this.connection.setChunkedStreamingMode(CHUNK_SIZE);
+        }
+
+        this.connection.connect();
+
+        try (final OutputStream out = this.connection.getOutputStream()) {
+            body.writeTo(out);
+        }
+
+        final Response result = new SimpleResponse(this.connection);
+        this.streamingBody = null;
+        return result;
+    }
+
+    private void addRequestProperties() {
+        for (String headerName : headers.headerNames()) {
+            if (!Headers.CONTENT_LENGTH.equalsIgnoreCase(headerName)) {
+                final List<String> value = headers.get(headerName);
+                for (String headerValue : value) {
+                    final String actualHeaderValue = headerValue != null ? headerValue : "";
+                    connection.addRequestProperty(headerName, actualHeaderValue);
+                }
+            }
+        }
+    }
+
     @Override
     public final Headers getHeaders() {
         return (this.executed ? new HeadersImpl(this.headers, true) : this.headers);
@@ -98,13 +130,25 @@ final class SimpleBufferingRequest implements Request {
         if (this.bufferedOutput == null) {
             this.bufferedOutput = new ByteArrayOutputStream(1024);
         }
+        this.streamingBody = null;
         return this.bufferedOutput;
     }
 
+    /**
+     * Writes the body directly to the connection when the request is executed, using fixed length streaming when the content length
+     * is set and chunked transfer encoding otherwise.
+     */
+    @Override
+    public final void setBody(Body body) {
+        assertNotExecuted();
+        this.streamingBody = body;
+        this.bufferedOutput = null;
+    }
+
     @Override
     public final Response execute() throws IOException {
         assertNotExecuted();
-        final Response result = executeInternal();
+        final Response result = this.streamingBody != null ? executeStreaming(this.streamingBody) : executeInternal();
         this.executed = true;
         return result;
     }
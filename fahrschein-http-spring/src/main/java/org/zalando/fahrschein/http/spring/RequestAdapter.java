@@ -1,5 +1,6 @@
 package org.zalando.fahrschein.http.spring;
 
+import org.springframework.http.StreamingHttpOutputMessage;
 import org.springframework.http.client.ClientHttpRequest;
 import org.zalando.fahrschein.http.api.Headers;
 import org.zalando.fahrschein.http.api.Request;
@@ -36,6 +37,18 @@ class RequestAdapter implements Request {
         return clientHttpRequest.getBody();
     }
 
+    /**
+     * Streams the body if the underlying request supports it, for example with {@code bufferRequestBody} disabled, otherwise it is buffered.
+     */
+    @Override
+    public void setBody(Body body) throws IOException {
+        if (clientHttpRequest instanceof StreamingHttpOutputMessage) {
+            ((StreamingHttpOutputMessage) clientHttpRequest).setBody(body::writeTo);
+        } else {
+            Request.super.setBody(body);
+        }
+    }
+
     @Override
     public Response execute() throws IOException {
         return new ResponseAdapter(clientHttpRequest.execute());
@@ -1,9 +1,14 @@
 package org.zalando.fahrschein.metrics;
 
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import org.zalando.fahrschein.MetricsCollector;
 
+import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+
 public class DropwizardMetricsCollector implements MetricsCollector {
 
     public static final String DEFAULT_PREFIX = "org.zalando.fahrschein.";
@@ -13,17 +18,67 @@ public class DropwizardMetricsCollector implements MetricsCollector {
     private final Meter errorsWhileConsumingMeter;
     private final Meter reconnectionsMeter;
     private final Meter messagesSuccessfullyProcessedMeter;
+    private final Meter eventsFilteredMeter;
+    private final boolean timingEnabled;
+    @Nullable
+    private final Timer connectionTimer;
+    @Nullable
+    private final Timer batchReadTimer;
+    @Nullable
+    private final Timer listenerTimer;
+    @Nullable
+    private final Timer commitTimer;
+    @Nullable
+    private final Timer backoffTimer;
+    @Nullable
+    private final Histogram eventsPerBatchHistogram;
+    @Nullable
+    private final Histogram bytesPerBatchHistogram;
 
     public DropwizardMetricsCollector(final MetricRegistry metricRegistry) {
         this(metricRegistry, DEFAULT_PREFIX);
     }
 
     public DropwizardMetricsCollector(final MetricRegistry metricRegistry, final String prefix) {
+        this(metricRegistry, prefix, false);
+    }
+
+    /**
+     * @param timingEnabled Whether to register timers and histograms for the stages of reading and processing batches,
+     *                      which requires reading the clock for every batch.
+     */
+    public DropwizardMetricsCollector(final MetricRegistry metricRegistry, final String prefix, final boolean timingEnabled) {
         messagesReceivedMeter = metricRegistry.meter(prefix + "messagesReceived");
         eventsReceivedMeter = metricRegistry.meter(prefix + "eventsReceived");
         errorsWhileConsumingMeter = metricRegistry.meter(prefix + "errorsWhileConsuming");
         reconnectionsMeter = metricRegistry.meter(prefix + "reconnections");
         messagesSuccessfullyProcessedMeter = metricRegistry.meter(prefix + "messagesSuccessfullyProcessed");
+        eventsFilteredMeter = metricRegistry.meter(prefix + "eventsFiltered");
+        this.timingEnabled = timingEnabled;
+        if (timingEnabled) {
+            connectionTimer = metricRegistry.timer(prefix + "connection");
+            batchReadTimer = metricRegistry.timer(prefix + "batchRead");
+            listenerTimer = metricRegistry.timer(prefix + "listener");
+            commitTimer = metricRegistry.timer(prefix + "commit");
+            backoffTimer = metricRegistry.timer(prefix + "backoff");
+            eventsPerBatchHistogram = metricRegistry.histogram(prefix + "eventsPerBatch");
+            bytesPerBatchHistogram = metricRegistry.histogram(prefix + "bytesPerBatch");
+        } else {
+            connectionTimer = null;
+            batchReadTimer = null;
+            listenerTimer = null;
+            commitTimer = null;
+            backoffTimer = null;
+            eventsPerBatchHistogram = null;
+            bytesPerBatchHistogram = null;
+        }
+    }
+
+    /**
+     * Creates a collector that additionally reports the durations of connecting, reading batches, listeners, commits and backoff.
+     */
+    public static DropwizardMetricsCollector withTiming(final MetricRegistry metricRegistry) {
+        return new DropwizardMetricsCollector(metricRegistry, DEFAULT_PREFIX, true);
     }
 
     @Override
@@ -50,4 +105,51 @@ public class DropwizardMetricsCollector implements MetricsCollector {
     public void markMessageSuccessfullyProcessed() {
         messagesSuccessfullyProcessedMeter.mark();
     }
+
+    @Override
+    public void markEventsFiltered(final int size) {
+        eventsFilteredMeter.mark(size);
+    }
+
+    @Override
+    public boolean isTimingEnabled() {
+        return timingEnabled;
+    }
+
+    @Override
+    public void timeConnection(final long durationNanos) {
+        if (connectionTimer != null) {
+            connectionTimer.update(durationNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void timeBatchRead(final long durationNanos, final int events, final long bytes) {
+        if (batchReadTimer != null) {
+            batchReadTimer.update(durationNanos, TimeUnit.NANOSECONDS);
+            eventsPerBatchHistogram.update(events);
+            bytesPerBatchHistogram.update(bytes);
+        }
+    }
+
+    @Override
+    public void timeListener(final long durationNanos, final int events) {
+        if (listenerTimer != null) {
+            listenerTimer.update(durationNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void timeCommit(final long durationNanos, final int cursors) {
+        if (commitTimer != null) {
+            commitTimer.update(durationNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void timeBackoff(final long durationNanos) {
+        if (backoffTimer != null) {
+            backoffTimer.update(durationNanos, TimeUnit.NANOSECONDS);
+        }
+    }
 }
@@ -34,6 +34,41 @@ public class MultiplexingMetricsCollector implements MetricsCollector {
         delegates.stream().forEach(mc -> mc.markMessageSuccessfullyProcessed());
     }
 
+    @Override
+    public void markEventsFiltered(final int i) {
+        delegates.stream().forEach(mc -> mc.markEventsFiltered(i));
+    }
+
+    @Override
+    public boolean isTimingEnabled() {
+        return delegates.stream().anyMatch(mc -> mc.isTimingEnabled());
+    }
+
+    @Override
+    public void timeConnection(final long durationNanos) {
+        delegates.stream().forEach(mc -> mc.timeConnection(durationNanos));
+    }
+
+    @Override
+    public void timeBatchRead(final long durationNanos, final int events, final long bytes) {
+        delegates.stream().forEach(mc -> mc.timeBatchRead(durationNanos, events, bytes));
+    }
+
+    @Override
+    public void timeListener(final long durationNanos, final int events) {
+        delegates.stream().forEach(mc -> mc.timeListener(durationNanos, events));
+    }
+
+    @Override
+    public void timeCommit(final long durationNanos, final int cursors) {
+        delegates.stream().forEach(mc -> mc.timeCommit(durationNanos, cursors));
+    }
+
+    @Override
+    public void timeBackoff(final long durationNanos) {
+        delegates.stream().forEach(mc -> mc.timeBackoff(durationNanos));
+    }
+
     public MultiplexingMetricsCollector register(final MetricsCollector metricsCollector) {
         delegates.add(metricsCollector);
         return this;
@@ -0,0 +1,50 @@
+package org.zalando.fahrschein.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DropwizardMetricsCollectorTest {
+
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+
+    @Test
+    public void shouldNotRegisterTimersByDefault() {
+        final DropwizardMetricsCollector metricsCollector = new DropwizardMetricsCollector(metricRegistry);
+
+        metricsCollector.markEventsReceived(3);
+        metricsCollector.timeBatchRead(1000, 3, 100);
+
+        assertFalse(metricsCollector.isTimingEnabled());
+        assertEquals(3, metricRegistry.meter(DropwizardMetricsCollector.DEFAULT_PREFIX + "eventsReceived").getCount());
+        assertTrue(metricRegistry.getTimers().isEmpty());
+        assertTrue(metricRegistry.getHistograms().isEmpty());
+    }
+
+    @Test
+    public void shouldReportDurationsWithTiming() {
+        final DropwizardMetricsCollector metricsCollector = DropwizardMetricsCollector.withTiming(metricRegistry);
+
+        metricsCollector.timeConnection(TimeUnit.MILLISECONDS.toNanos(5));
+        metricsCollector.timeBatchRead(TimeUnit.MILLISECONDS.toNanos(2), 3, 100);
+        metricsCollector.timeListener(TimeUnit.MILLISECONDS.toNanos(7), 3);
+        metricsCollector.timeCommit(TimeUnit.MILLISECONDS.toNanos(1), 1);
+        metricsCollector.timeBackoff(TimeUnit.MILLISECONDS.toNanos(10));
+
+        final String prefix = DropwizardMetricsCollector.DEFAULT_PREFIX;
+        assertTrue(metricsCollector.isTimingEnabled());
+        assertEquals(5, metricRegistry.getTimers().size());
+        assertEquals(1, metricRegistry.timer(prefix + "connection").getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(2), metricRegistry.timer(prefix + "batchRead").getSnapshot().getMax());
+        assertEquals(1, metricRegistry.timer(prefix + "listener").getCount());
+        assertEquals(1, metricRegistry.timer(prefix + "commit").getCount());
+        assertEquals(1, metricRegistry.timer(prefix + "backoff").getCount());
+        assertEquals(3, metricRegistry.histogram(prefix + "eventsPerBatch").getSnapshot().getMax());
+        assertEquals(100, metricRegistry.histogram(prefix + "bytesPerBatch").getSnapshot().getMax());
+    }
+}
@@ -0,0 +1,45 @@
+package org.zalando.fahrschein.metrics;
+
+import org.junit.Test;
+import org.zalando.fahrschein.MetricsCollector;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MultiplexingMetricsCollectorTest {
+
+    private final MetricsCollector first = mock(MetricsCollector.class);
+    private final MetricsCollector second = mock(MetricsCollector.class);
+    private final MultiplexingMetricsCollector metricsCollector = new MultiplexingMetricsCollector().register(first).register(second);
+
+    @Test
+    public void shouldDelegateToAllCollectors() {
+        metricsCollector.markEventsFiltered(2);
+        metricsCollector.timeConnection(1);
+        metricsCollector.timeBatchRead(2, 3, 4);
+        metricsCollector.timeListener(5, 6);
+        metricsCollector.timeCommit(7, 8);
+        metricsCollector.timeBackoff(9);
+
+        for (MetricsCollector delegate : new MetricsCollector[]{first, second}) {
+            verify(delegate).markEventsFiltered(2);
+            verify(delegate).timeConnection(1);
+            verify(delegate).timeBatchRead(2, 3, 4);
+            verify(delegate).timeListener(5, 6);
+            verify(delegate).timeCommit(7, 8);
+            verify(delegate).timeBackoff(9);
+        }
+    }
+
+    @Test
+    public void shouldEnableTimingIfAnyCollectorDoes() {
+        assertFalse(metricsCollector.isTimingEnabled());
+
+        when(second.isTimingEnabled()).thenReturn(true);
+
+        assertTrue(metricsCollector.isTimingEnabled());
+    }
+}
@@ -0,0 +1,26 @@
+package org.zalando.fahrschein.simulator;
+
+import java.util.UUID;
+
+/**
+ * Generates the json of the events that partitions of the simulator are pre-filled with.
+ */
+@FunctionalInterface
+public interface EventGenerator {
+    /**
+     * @param eventType Name of the event type
+     * @param partition Id of the partition
+     * @param position Zero based position of the event inside the partition
+     * @return The event serialized as json object
+     */
+    String generate(String eventType, String partition, long position);
+
+    /**
+     * Generates events containing only metadata and their position.
+     */
+    static EventGenerator metadataOnly() {
+        return (eventType, partition, position) -> "{\"metadata\":{\"eid\":\"" + new UUID(eventType.hashCode() * 31L + partition.hashCode(), position)
+                + "\",\"event_type\":\"" + eventType + "\",\"partition\":\"" + partition
+                + "\",\"occurred_at\":\"2018-01-01T00:00:00Z\",\"received_at\":\"2018-01-01T00:00:00Z\",\"flow_id\":\"simulator\"},\"position\":" + position + "}";
+    }
+}
@@ -0,0 +1,121 @@
+package org.zalando.fahrschein.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Events of a single event type, stored per partition. Access is guarded by the lock of the simulator.
+ */
+final class EventLog {
+    static final String BEGIN = "BEGIN";
+
+    private final String eventType;
+    private final int retention;
+    private final List<List<byte[]>> partitions;
+    // position of the first retained event per partition
+    private final long[] first;
+
+    EventLog(String eventType, int partitionCount, int retention) {
+        this.eventType = eventType;
+        this.retention = retention;
+        this.partitions = new ArrayList<>(partitionCount);
+        this.first = new long[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new ArrayList<>());
+        }
+    }
+
+    String getEventType() {
+        return eventType;
+    }
+
+    int getPartitionCount() {
+        return partitions.size();
+    }
+
+    /**
+     * Appends an event. Once a partition holds twice the retention, the older half is discarded, so that appending stays cheap.
+     */
+    void append(int partition, byte[] event) {
+        final List<byte[]> events = partitions.get(partition);
+        events.add(event);
+        if (retention > 0 && events.size() >= 2 * retention) {
+            final int expired = events.size() - retention;
+            events.subList(0, expired).clear();
+            first[partition] += expired;
+        }
+    }
+
+    /**
+     * Position of the oldest available event.
+     */
+    long first(int partition) {
+        return first[partition];
+    }
+
+    /**
+     * Position after the newest event, that is the number of events ever appended to the partition.
+     */
+    long size(int partition) {
+        return first[partition] + partitions.get(partition).size();
+    }
+
+    /**
+     * Reads events starting at the given position, positions that are no longer available are skipped.
+     */
+    List<byte[]> read(int partition, long from, int maxCount) {
+        final List<byte[]> events = partitions.get(partition);
+        final int start = (int) (Math.max(from, first[partition]) - first[partition]);
+        return new ArrayList<>(events.subList(Math.min(start, events.size()), Math.min(events.size(), start + maxCount)));
+    }
+
+    long totalSize() {
+        long size = 0;
+        for (int partition = 0; partition < partitions.size(); partition++) {
+            size += size(partition);
+        }
+        return size;
+    }
+
+    /**
+     * Parses a partition id of this event type.
+     *
+     * @return The index of the partition or -1 if it does not exist
+     */
+    int partitionIndex(String partition) {
+        try {
+            final int index = Integer.parseInt(partition);
+            return index >= 0 && index < partitions.size() ? index : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Parses an offset of the given partition, {@code BEGIN} denotes the position before the oldest available event.
+     */
+    long position(int partition, String offset) {
+        return BEGIN.equals(offset) ? first[partition] - 1 : position(offset);
+    }
+
+    /**
+     * Formats the offset of the event at the given position, -1 denotes the offset before the first event.
+     */
+    static String offset(long position) {
+        return position < 0 ? BEGIN : String.format(Locale.ROOT, "001-0001-%018d", position);
+    }
+
+    /**
+     * Parses versioned and legacy offsets into the position of the event.
+     *
+     * @throws IllegalArgumentException if the offset can not be parsed.
+     */
+    static long position(String offset) {
+        if (BEGIN.equals(offset)) {
+            return -1;
+        }
+        final int separator = offset.lastIndexOf('-');
+        return Long.parseLong(offset.substring(separator + 1));
+    }
+}
@@ -0,0 +1,738 @@
+package org.zalando.fahrschein.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Embeddable Nakadi server for load and integration tests, listening on localhost.
+ *
+ * Implements streaming of event types and subscriptions including cursor commits, partition information and publishing.
+ * Request bodies can be gzip compressed, streams are compressed when requested with {@code Accept-Encoding: gzip}.
+ * Events are kept in memory. Streams send the available events of each partition immediately, up to {@code batch_limit},
+ * and keep alive batches after the {@code batch_flush_timeout} if no events are available. Subscription streams stop sending
+ * events when {@code max_uncommitted_events} are not committed yet. Only one stream at a time can consume a subscription.
+ */
+public final class NakadiSimulator implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NakadiSimulator.class);
+
+    private static final Pattern EVENT_TYPE_PARTITIONS = Pattern.compile("/event-types/([^/]+)/partitions");
+    private static final Pattern EVENT_TYPE_EVENTS = Pattern.compile("/event-types/([^/]+)/events");
+    private static final Pattern SUBSCRIPTIONS = Pattern.compile("/subscriptions");
+    private static final Pattern SUBSCRIPTION = Pattern.compile("/subscriptions/([^/]+)");
+    private static final Pattern SUBSCRIPTION_EVENTS = Pattern.compile("/subscriptions/([^/]+)/events");
+    private static final Pattern SUBSCRIPTION_CURSORS = Pattern.compile("/subscriptions/([^/]+)/cursors");
+
+    private static final int DEFAULT_MAX_UNCOMMITTED_EVENTS = 10;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ReentrantLock lock = new ReentrantLock();
+    // signalled when events are appended, cursors are committed or the simulator is closed
+    private final Condition changed = lock.newCondition();
+    private final Map<String, EventLog> eventLogs = new LinkedHashMap<>();
+    private final Map<String, SubscriptionState> subscriptions = new HashMap<>();
+    private final AtomicInteger injectedFailures = new AtomicInteger();
+    private volatile int injectedFailureStatus;
+
+    private final int streamRate;
+    private final long keepAliveIntervalMillis;
+    private final long latencyMillis;
+    private final double failureProbability;
+    private final Random random;
+    private final int disconnectAfterBatches;
+
+    private final ExecutorService executorService;
+    private final HttpServer server;
+    private volatile boolean closed;
+
+    public static NakadiSimulatorBuilder builder() {
+        return new NakadiSimulatorBuilder();
+    }
+
+    NakadiSimulator(int port, Map<String, Integer> eventTypes, int eventsPerPartition, int retention, EventGenerator eventGenerator, int streamRate,
+                    long keepAliveIntervalMillis, long latencyMillis, double failureProbability, long seed, int disconnectAfterBatches) throws IOException {
+        this.streamRate = streamRate;
+        this.keepAliveIntervalMillis = keepAliveIntervalMillis;
+        this.latencyMillis = latencyMillis;
+        this.failureProbability = failureProbability;
+        this.random = new Random(seed);
+        this.disconnectAfterBatches = disconnectAfterBatches;
+
+        for (Map.Entry<String, Integer> eventType : eventTypes.entrySet()) {
+            final EventLog eventLog = new EventLog(eventType.getKey(), eventType.getValue(), retention);
+            for (int partition = 0; partition < eventLog.getPartitionCount(); partition++) {
+                for (long position = 0; position < eventsPerPartition; position++) {
+                    eventLog.append(partition, eventGenerator.generate(eventType.getKey(), String.valueOf(partition), position).getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            eventLogs.put(eventType.getKey(), eventLog);
+        }
+
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.executorService = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "nakadi-simulator-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.server.setExecutor(executorService);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    public URI getBaseUri() {
+        final InetSocketAddress address = server.getAddress();
+        return URI.create("http://" + address.getHostString() + ":" + address.getPort());
+    }
+
+    /**
+     * Answers the next requests with the given status code.
+     */
+    public void failNextRequests(int count, int statusCode) {
+        injectedFailureStatus = statusCode;
+        injectedFailures.set(count);
+    }
+
+    /**
+     * Appends events to the given partition, as if they were published.
+     */
+    public void append(String eventType, String partition, List<String> events) {
+        lock.lock();
+        try {
+            final EventLog eventLog = getEventLog(eventType);
+            final int index = eventLog.partitionIndex(partition);
+            checkArgument(index >= 0, "Unknown partition [" + partition + "] of event type [" + eventType + "]");
+            for (String event : events) {
+                eventLog.append(index, event.getBytes(StandardCharsets.UTF_8));
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of events ever appended to the event type, including events that are no longer retained.
+     */
+    public long getEventCount(String eventType) {
+        lock.lock();
+        try {
+            return getEventLog(eventType).totalSize();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Committed offsets of the subscription by partition.
+     */
+    public Map<String, String> getCommittedOffsets(String subscriptionId, String eventType) {
+        lock.lock();
+        try {
+            final SubscriptionState subscription = subscriptions.get(subscriptionId);
+            checkArgument(subscription != null, "Unknown subscription [" + subscriptionId + "]");
+            final long[] committed = subscription.committed.get(eventType);
+            checkArgument(committed != null, "Subscription [" + subscriptionId + "] does not contain event type [" + eventType + "]");
+            final Map<String, String> offsets = new LinkedHashMap<>();
+            for (int partition = 0; partition < committed.length; partition++) {
+                offsets.put(String.valueOf(partition), EventLog.offset(committed[partition]));
+            }
+            return offsets;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        lock.lock();
+        try {
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        server.stop(0);
+        executorService.shutdownNow();
+        try {
+            executorService.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private EventLog getEventLog(String eventType) {
+        final EventLog eventLog = eventLogs.get(eventType);
+        checkArgument(eventLog != null, "Unknown event type [" + eventType + "]");
+        return eventLog;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            if (shouldFail()) {
+                final int status = injectedFailureStatus != 0 && injectedFailures.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0 ? injectedFailureStatus : 503;
+                problem(exchange, status, "Injected failure");
+                return;
+            }
+            route(exchange);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IllegalArgumentException e) {
+            problem(exchange, 422, e.getMessage());
+        } catch (IOException e) {
+            LOG.debug("Request to [{}] failed", exchange.getRequestURI(), e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private boolean shouldFail() {
+        if (injectedFailures.get() > 0) {
+            return true;
+        }
+        if (failureProbability > 0) {
+            lock.lock();
+            try {
+                return random.nextDouble() < failureProbability;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return false;
+    }
+
+    private void route(HttpExchange exchange) throws IOException, InterruptedException {
+        final String method = exchange.getRequestMethod();
+        final String path = exchange.getRequestURI().getPath();
+
+        Matcher matcher;
+        if ("GET".equals(method) && (matcher = EVENT_TYPE_PARTITIONS.matcher(path)).matches()) {
+            partitions(exchange, matcher.group(1));
+        } else if ("GET".equals(method) && (matcher = EVENT_TYPE_EVENTS.matcher(path)).matches()) {
+            streamEventType(exchange, matcher.group(1));
+        } else if ("POST".equals(method) && (matcher = EVENT_TYPE_EVENTS.matcher(path)).matches()) {
+            publish(exchange, matcher.group(1));
+        } else if ("POST".equals(method) && SUBSCRIPTIONS.matcher(path).matches()) {
+            createSubscription(exchange);
+        } else if ("GET".equals(method) && (matcher = SUBSCRIPTION_EVENTS.matcher(path)).matches()) {
+            streamSubscription(exchange, matcher.group(1));
+        } else if ("POST".equals(method) && (matcher = SUBSCRIPTION_CURSORS.matcher(path)).matches()) {
+            commit(exchange, matcher.group(1));
+        } else if ("DELETE".equals(method) && (matcher = SUBSCRIPTION.matcher(path)).matches()) {
+            deleteSubscription(exchange, matcher.group(1));
+        } else {
+            problem(exchange, 404, "No handler for [" + method + "] [" + path + "]");
+        }
+    }
+
+    private void partitions(HttpExchange exchange, String eventType) throws IOException {
+        final ArrayNode partitions = objectMapper.createArrayNode();
+        lock.lock();
+        try {
+            final EventLog eventLog = eventLogs.get(eventType);
+            if (eventLog == null) {
+                problem(exchange, 404, "EventType [" + eventType + "] does not exist");
+                return;
+            }
+            for (int partition = 0; partition < eventLog.getPartitionCount(); partition++) {
+                partitions.addObject()
+                        .put("partition", String.valueOf(partition))
+                        .put("oldest_available_offset", EventLog.offset(eventLog.first(partition)))
+                        .put("newest_available_offset", EventLog.offset(eventLog.size(partition) - 1));
+            }
+        } finally {
+            lock.unlock();
+        }
+        json(exchange, 200, partitions);
+    }
+
+    private void publish(HttpExchange exchange, String eventType) throws IOException {
+        final JsonNode events = readBody(exchange);
+        checkArgument(events.isArray(), "Expected array of events");
+        lock.lock();
+        try {
+            final EventLog eventLog = eventLogs.get(eventType);
+            if (eventLog == null) {
+                problem(exchange, 404, "EventType [" + eventType + "] does not exist");
+                return;
+            }
+            int next = 0;
+            for (JsonNode event : events) {
+                final String eid = event.path("metadata").path("eid").asText(null);
+                final int partition = eid != null ? Math.floorMod(eid.hashCode(), eventLog.getPartitionCount()) : next++ % eventLog.getPartitionCount();
+                eventLog.append(partition, objectMapper.writeValueAsBytes(event));
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private void createSubscription(HttpExchange exchange) throws IOException {
+        final JsonNode request = readBody(exchange);
+        final Set<String> eventTypes = new LinkedHashSet<>();
+        for (JsonNode eventType : request.path("event_types")) {
+            eventTypes.add(eventType.asText());
+        }
+        checkArgument(!eventTypes.isEmpty(), "Subscription should contain at least one event type");
+        final String readFrom = request.path("read_from").asText("end");
+
+        final ObjectNode response = objectMapper.createObjectNode();
+        lock.lock();
+        try {
+            final Map<String, long[]> committed = new LinkedHashMap<>();
+            for (String eventType : eventTypes) {
+                final EventLog eventLog = eventLogs.get(eventType);
+                if (eventLog == null) {
+                    problem(exchange, 422, "EventType [" + eventType + "] does not exist");
+                    return;
+                }
+                final long[] offsets = new long[eventLog.getPartitionCount()];
+                for (int partition = 0; partition < offsets.length; partition++) {
+                    offsets[partition] = "begin".equals(readFrom) ? eventLog.first(partition) - 1 : eventLog.size(partition) - 1;
+                }
+                committed.put(eventType, offsets);
+            }
+            if ("cursors".equals(readFrom)) {
+                for (JsonNode cursor : request.path("initial_cursors")) {
+                    final String eventType = cursor.path("event_type").asText();
+                    final long[] offsets = committed.get(eventType);
+                    checkArgument(offsets != null, "Initial cursor for unknown event type");
+                    final EventLog eventLog = eventLogs.get(eventType);
+                    final int partition = eventLog.partitionIndex(cursor.path("partition").asText());
+                    checkArgument(partition >= 0, "Initial cursor for unknown partition");
+                    offsets[partition] = eventLog.position(partition, cursor.path("offset").asText());
+                }
+            }
+
+            final SubscriptionState subscription = new SubscriptionState(UUID.randomUUID().toString(), committed);
+            subscriptions.put(subscription.id, subscription);
+
+            response.put("id", subscription.id)
+                    .put("owning_application", request.path("owning_application").asText())
+                    .put("consumer_group", request.path("consumer_group").asText("default"))
+                    .put("created_at", OffsetDateTime.now().toString())
+                    .put("read_from", readFrom);
+            final ArrayNode eventTypesNode = response.putArray("event_types");
+            eventTypes.forEach(eventTypesNode::add);
+        } finally {
+            lock.unlock();
+        }
+        json(exchange, 201, response);
+    }
+
+    private void deleteSubscription(HttpExchange exchange, String subscriptionId) throws IOException {
+        final boolean removed;
+        lock.lock();
+        try {
+            removed = subscriptions.remove(subscriptionId) != null;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (removed) {
+            exchange.sendResponseHeaders(204, -1);
+        } else {
+            problem(exchange, 404, "Subscription [" + subscriptionId + "] does not exist");
+        }
+    }
+
+    private void commit(HttpExchange exchange, String subscriptionId) throws IOException {
+        final JsonNode request = readBody(exchange);
+        final String streamId = exchange.getRequestHeaders().getFirst("X-Nakadi-StreamId");
+        lock.lock();
+        try {
+            final SubscriptionState subscription = subscriptions.get(subscriptionId);
+            if (subscription == null) {
+                problem(exchange, 404, "Subscription [" + subscriptionId + "] does not exist");
+                return;
+            }
+            if (streamId == null || !streamId.equals(subscription.streamId)) {
+                problem(exchange, 422, "Session with stream id [" + streamId + "] not found");
+                return;
+            }
+            for (JsonNode cursor : request.path("items")) {
+                final String eventType = cursor.path("event_type").asText();
+                final long[] committed = subscription.committed.get(eventType);
+                checkArgument(committed != null, "Cursor for unknown event type [" + eventType + "]");
+                final int partition = eventLogs.get(eventType).partitionIndex(cursor.path("partition").asText());
+                checkArgument(partition >= 0, "Cursor for unknown partition");
+                committed[partition] = Math.max(committed[partition], EventLog.position(cursor.path("offset").asText()));
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    private void streamEventType(HttpExchange exchange, String eventType) throws IOException, InterruptedException {
+        final List<StreamPartition> partitions = new ArrayList<>();
+        final String cursorsHeader = exchange.getRequestHeaders().getFirst("X-Nakadi-Cursors");
+        lock.lock();
+        try {
+            final EventLog eventLog = eventLogs.get(eventType);
+            if (eventLog == null) {
+                problem(exchange, 404, "EventType [" + eventType + "] does not exist");
+                return;
+            }
+            if (cursorsHeader == null) {
+                for (int partition = 0; partition < eventLog.getPartitionCount(); partition++) {
+                    partitions.add(new StreamPartition(eventLog, partition, eventLog.size(partition) - 1, null));
+                }
+            } else {
+                for (JsonNode cursor : objectMapper.readTree(cursorsHeader)) {
+                    final int partition = eventLog.partitionIndex(cursor.path("partition").asText());
+                    checkArgument(partition >= 0, "Cursor for unknown partition");
+                    final long position = eventLog.position(partition, cursor.path("offset").asText());
+                    checkArgument(position >= eventLog.first(partition) - 1 && position < eventLog.size(partition), "Cursor offset is not available");
+                    partitions.add(new StreamPartition(eventLog, partition, position, null));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        sendStream(exchange, partitions, null);
+    }
+
+    private void streamSubscription(HttpExchange exchange, String subscriptionId) throws IOException, InterruptedException {
+        final String streamId = UUID.randomUUID().toString();
+        final List<StreamPartition> partitions = new ArrayList<>();
+        final SubscriptionState subscription;
+        lock.lock();
+        try {
+            subscription = subscriptions.get(subscriptionId);
+            if (subscription == null) {
+                problem(exchange, 404, "Subscription [" + subscriptionId + "] does not exist");
+                return;
+            }
+            if (subscription.streamId != null) {
+                problem(exchange, 409, "No free slots for streaming available");
+                return;
+            }
+            subscription.streamId = streamId;
+            for (Map.Entry<String, long[]> committed : subscription.committed.entrySet()) {
+                final EventLog eventLog = eventLogs.get(committed.getKey());
+                for (int partition = 0; partition < committed.getValue().length; partition++) {
+                    partitions.add(new StreamPartition(eventLog, partition, committed.getValue()[partition], committed.getValue()));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            exchange.getResponseHeaders().set("X-Nakadi-StreamId", streamId);
+            sendStream(exchange, partitions, subscription);
+        } finally {
+            lock.lock();
+            try {
+                if (streamId.equals(subscription.streamId)) {
+                    subscription.streamId = null;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void sendStream(HttpExchange exchange, List<StreamPartition> partitions, @Nullable SubscriptionState subscription) throws IOException, InterruptedException {
+        final String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        final boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        exchange.getResponseHeaders().set("Content-Type", "application/x-json-stream");
+        if (gzip) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(200, 0);
+
+        final StreamParameters parameters = StreamParameters.of(exchange, keepAliveIntervalMillis);
+        if (gzip) {
+            // Flushing the compressor after every batch, so that batches are not delayed
+            try (final OutputStream out = new GZIPOutputStream(exchange.getResponseBody(), true)) {
+                stream(out, parameters, partitions, subscription);
+            }
+        } else {
+            stream(exchange.getResponseBody(), parameters, partitions, subscription);
+        }
+    }
+
+    private void stream(OutputStream out, StreamParameters parameters, List<StreamPartition> partitions, @Nullable SubscriptionState subscription) throws IOException, InterruptedException {
+        final long start = System.nanoTime();
+        final long deadline = parameters.streamTimeoutSeconds > 0 ? start + TimeUnit.SECONDS.toNanos(parameters.streamTimeoutSeconds) : Long.MAX_VALUE;
+        long nextEmit = start;
+        long sentEvents = 0;
+        int sentBatches = 0;
+        int keepAlives = 0;
+
+        while (!closed && System.nanoTime() < deadline) {
+            boolean sent = false;
+            for (StreamPartition partition : partitions) {
+                final List<byte[]> events;
+                lock.lock();
+                try {
+                    if (subscription != null && subscriptions.get(subscription.id) != subscription) {
+                        // subscription was deleted
+                        return;
+                    }
+                    int maxCount = parameters.batchLimit;
+                    if (parameters.streamLimit > 0) {
+                        maxCount = (int) Math.min(maxCount, parameters.streamLimit - sentEvents);
+                    }
+                    if (subscription != null) {
+                        maxCount = (int) Math.min(maxCount, parameters.maxUncommittedEvents - uncommitted(partitions));
+                    }
+                    // events that expired while the stream was behind are skipped
+                    partition.position = Math.max(partition.position, partition.eventLog.first(partition.partition) - 1);
+                    events = maxCount > 0 ? partition.eventLog.read(partition.partition, partition.position + 1, maxCount) : Collections.emptyList();
+                } finally {
+                    lock.unlock();
+                }
+                if (events.isEmpty()) {
+                    continue;
+                }
+
+                if (streamRate > 0) {
+                    final long delay = nextEmit - System.nanoTime();
+                    if (delay > 0) {
+                        TimeUnit.NANOSECONDS.sleep(delay);
+                    }
+                    nextEmit = Math.max(nextEmit, System.nanoTime() - TimeUnit.SECONDS.toNanos(1)) + events.size() * TimeUnit.SECONDS.toNanos(1) / streamRate;
+                }
+
+                partition.position += events.size();
+                writeBatch(out, partition, subscription, events);
+                sent = true;
+                keepAlives = 0;
+                sentEvents += events.size();
+                if (++sentBatches == disconnectAfterBatches || (parameters.streamLimit > 0 && sentEvents >= parameters.streamLimit)) {
+                    return;
+                }
+            }
+
+            if (!sent && !awaitChange(partitions, subscription, parameters)) {
+                for (StreamPartition partition : partitions) {
+                    writeBatch(out, partition, subscription, Collections.emptyList());
+                    if (++sentBatches == disconnectAfterBatches) {
+                        return;
+                    }
+                }
+                if (++keepAlives == parameters.streamKeepAliveLimit) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits until one of the partitions might have events to send.
+     *
+     * @return false if the flush timeout elapsed without changes
+     */
+    private boolean awaitChange(List<StreamPartition> partitions, @Nullable SubscriptionState subscription, StreamParameters parameters) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(parameters.batchFlushTimeoutMillis);
+        lock.lock();
+        try {
+            while (!closed) {
+                if (subscription == null || uncommitted(partitions) < parameters.maxUncommittedEvents) {
+                    for (StreamPartition partition : partitions) {
+                        if (partition.eventLog.size(partition.partition) > partition.position + 1) {
+                            return true;
+                        }
+                    }
+                }
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = changed.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long uncommitted(List<StreamPartition> partitions) {
+        long uncommitted = 0;
+        for (StreamPartition partition : partitions) {
+            uncommitted += partition.position - Math.max(partition.committed[partition.partition], partition.eventLog.first(partition.partition) - 1);
+        }
+        return uncommitted;
+    }
+
+    private void writeBatch(OutputStream out, StreamPartition partition, @Nullable SubscriptionState subscription, List<byte[]> events) throws IOException {
+        final ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        final ObjectNode cursor = objectMapper.createObjectNode()
+                .put("partition", String.valueOf(partition.partition))
+                .put("offset", EventLog.offset(partition.position));
+        if (subscription != null) {
+            cursor.put("event_type", partition.eventLog.getEventType())
+                    .put("cursor_token", UUID.randomUUID().toString());
+        }
+        batch.write("{\"cursor\":".getBytes(StandardCharsets.UTF_8));
+        objectMapper.writeValue(batch, cursor);
+        if (!events.isEmpty()) {
+            batch.write(",\"events\":[".getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < events.size(); i++) {
+                if (i > 0) {
+                    batch.write(',');
+                }
+                batch.write(events.get(i));
+            }
+            batch.write(']');
+        }
+        batch.write("}\n".getBytes(StandardCharsets.UTF_8));
+        batch.writeTo(out);
+        out.flush();
+    }
+
+    private JsonNode readBody(HttpExchange exchange) throws IOException {
+        final boolean gzip = "gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+        try (final InputStream in = gzip ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody()) {
+            return objectMapper.readTree(in);
+        }
+    }
+
+    private void json(HttpExchange exchange, int status, JsonNode json) throws IOException {
+        final byte[] body = objectMapper.writeValueAsBytes(json);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (final OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void problem(HttpExchange exchange, int status, String detail) throws IOException {
+        final ObjectNode problem = objectMapper.createObjectNode()
+                .put("type", "https://httpstatus.es/" + status)
+                .put("title", "Simulated problem")
+                .put("status", status)
+                .put("detail", detail);
+        final byte[] body = objectMapper.writeValueAsBytes(problem);
+        exchange.getResponseHeaders().set("Content-Type", "application/problem+json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (final OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    static void checkArgument(boolean expression, String errorMessage) {
+        if (!expression) {
+            throw new IllegalArgumentException(errorMessage);
+        }
+    }
+
+    private static final class SubscriptionState {
+        private final String id;
+        // committed position per partition, by event type
+        private final Map<String, long[]> committed;
+        @Nullable
+        private String streamId;
+
+        SubscriptionState(String id, Map<String, long[]> committed) {
+            this.id = id;
+            this.committed = committed;
+        }
+    }
+
+    private static final class StreamPartition {
+        private final EventLog eventLog;
+        private final int partition;
+        // position of the last event sent
+        private long position;
+        // committed positions of the subscription, null for streams of an event type
+        @Nullable
+        private final long[] committed;
+
+        StreamPartition(EventLog eventLog, int partition, long position, @Nullable long[] committed) {
+            this.eventLog = eventLog;
+            this.partition = partition;
+            this.position = position;
+            this.committed = committed;
+        }
+    }
+
+    private static final class StreamParameters {
+        private final int batchLimit;
+        private final long streamLimit;
+        private final long streamTimeoutSeconds;
+        private final int streamKeepAliveLimit;
+        private final long batchFlushTimeoutMillis;
+        private final long maxUncommittedEvents;
+
+        private StreamParameters(int batchLimit, long streamLimit, long streamTimeoutSeconds, int streamKeepAliveLimit, long batchFlushTimeoutMillis, long maxUncommittedEvents) {
+            this.batchLimit = batchLimit;
+            this.streamLimit = streamLimit;
+            this.streamTimeoutSeconds = streamTimeoutSeconds;
+            this.streamKeepAliveLimit = streamKeepAliveLimit;
+            this.batchFlushTimeoutMillis = batchFlushTimeoutMillis;
+            this.maxUncommittedEvents = maxUncommittedEvents;
+        }
+
+        static StreamParameters of(HttpExchange exchange, long defaultBatchFlushTimeoutMillis) throws IOException {
+            final Map<String, String> query = new HashMap<>();
+            final String rawQuery = exchange.getRequestURI().getRawQuery();
+            if (rawQuery != null) {
+                for (String param : rawQuery.split("&")) {
+                    final int separator = param.indexOf('=');
+                    if (separator > 0) {
+                        query.put(URLDecoder.decode(param.substring(0, separator), "UTF-8"), URLDecoder.decode(param.substring(separator + 1), "UTF-8"));
+                    }
+                }
+            }
+            final int batchLimit = Integer.parseInt(query.getOrDefault("batch_limit", "1"));
+            checkArgument(batchLimit > 0, "batch_limit should be bigger than 0");
+            final String batchFlushTimeout = query.get("batch_flush_timeout");
+            return new StreamParameters(batchLimit,
+                    Long.parseLong(query.getOrDefault("stream_limit", "0")),
+                    Long.parseLong(query.getOrDefault("stream_timeout", "0")),
+                    Integer.parseInt(query.getOrDefault("stream_keep_alive_limit", "0")),
+                    batchFlushTimeout != null ? TimeUnit.SECONDS.toMillis(Long.parseLong(batchFlushTimeout)) : defaultBatchFlushTimeoutMillis,
+                    Long.parseLong(query.getOrDefault("max_uncommitted_events", String.valueOf(DEFAULT_MAX_UNCOMMITTED_EVENTS))));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.zalando.fahrschein.simulator;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.zalando.fahrschein.simulator.NakadiSimulator.checkArgument;
+
+public final class NakadiSimulatorBuilder {
+    private int port;
+    private final Map<String, Integer> eventTypes = new LinkedHashMap<>();
+    private long eventsPerPartition;
+    private int retention;
+    private EventGenerator eventGenerator = EventGenerator.metadataOnly();
+    private int streamRate;
+    private long keepAliveIntervalMillis = 1000;
+    private long latencyMillis;
+    private double failureProbability;
+    private long seed;
+    private int disconnectAfterBatches;
+
+    NakadiSimulatorBuilder() {
+    }
+
+    /**
+     * Port to listen on, by default a free port is chosen.
+     */
+    public NakadiSimulatorBuilder withPort(int port) {
+        checkArgument(port >= 0, "Port should not be negative");
+        this.port = port;
+        return this;
+    }
+
+    public NakadiSimulatorBuilder withEventType(String eventType, int partitions) {
+        checkArgument(partitions > 0, "Number of partitions should be bigger than 0");
+        eventTypes.put(eventType, partitions);
+        return this;
+    }
+
+    /**
+     * Number of events that every partition contains on start.
+     */
+    public NakadiSimulatorBuilder withEvents(long eventsPerPartition) {
+        checkArgument(eventsPerPartition >= 0 && eventsPerPartition <= Integer.MAX_VALUE, "Number of events should be between 0 and Integer.MAX_VALUE");
+        this.eventsPerPartition = eventsPerPartition;
+        return this;
+    }
+
+    /**
+     * Minimum number of events retained per partition, older events are discarded like after the retention time of Nakadi.
+     * Streams that fall behind skip discarded events. Useful to bound memory when publishing in long running tests, 0 to keep all events.
+     */
+    public NakadiSimulatorBuilder withRetention(int eventsPerPartition) {
+        checkArgument(eventsPerPartition >= 0, "Retention should not be negative");
+        this.retention = eventsPerPartition;
+        return this;
+    }
+
+    public NakadiSimulatorBuilder withEventGenerator(EventGenerator eventGenerator) {
+        this.eventGenerator = eventGenerator;
+        return this;
+    }
+
+    /**
+     * Maximum number of events per second sent to each stream, 0 for no limit.
+     */
+    public NakadiSimulatorBuilder withStreamRate(int eventsPerSecond) {
+        checkArgument(eventsPerSecond >= 0, "Stream rate should not be negative");
+        this.streamRate = eventsPerSecond;
+        return this;
+    }
+
+    /**
+     * Interval of keep alive batches when no events are available, used if the client does not specify a {@code batch_flush_timeout}.
+     */
+    public NakadiSimulatorBuilder withKeepAliveInterval(long keepAliveInterval, TimeUnit timeUnit) {
+        checkArgument(keepAliveInterval > 0, "Keep alive interval should be bigger than 0");
+        this.keepAliveIntervalMillis = timeUnit.toMillis(keepAliveInterval);
+        return this;
+    }
+
+    /**
+     * Delay before every response.
+     */
+    public NakadiSimulatorBuilder withLatency(long latency, TimeUnit timeUnit) {
+        checkArgument(latency >= 0, "Latency should not be negative");
+        this.latencyMillis = timeUnit.toMillis(latency);
+        return this;
+    }
+
+    /**
+     * Probability of answering a request with {@code 503 Service Unavailable}. Failures are chosen by a random generator
+     * with the given seed, so that runs are reproducible.
+     */
+    public NakadiSimulatorBuilder withFailureProbability(double failureProbability, long seed) {
+        checkArgument(failureProbability >= 0 && failureProbability <= 1, "Failure probability should be between 0 and 1");
+        this.failureProbability = failureProbability;
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Closes every stream after the given number of batches, including keep alive batches, to exercise reconnects. 0 to never close streams.
+     */
+    public NakadiSimulatorBuilder withDisconnectAfterBatches(int batches) {
+        checkArgument(batches >= 0, "Number of batches should not be negative");
+        this.disconnectAfterBatches = batches;
+        return this;
+    }
+
+    public NakadiSimulator start() throws IOException {
+        return new NakadiSimulator(port, eventTypes, (int) eventsPerPartition, retention, eventGenerator, streamRate, keepAliveIntervalMillis, latencyMillis,
+                failureProbability, seed, disconnectAfterBatches);
+    }
+}
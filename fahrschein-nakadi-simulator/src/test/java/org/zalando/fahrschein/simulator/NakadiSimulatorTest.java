@@ -0,0 +1,264 @@
+package org.zalando.fahrschein.simulator;
+
+import org.junit.After;
+import org.junit.Test;
+import org.zalando.fahrschein.CompressionParameters;
+import org.zalando.fahrschein.ExponentialBackoffStrategy;
+import org.zalando.fahrschein.IOProblem;
+import org.zalando.fahrschein.IORunnable;
+import org.zalando.fahrschein.NakadiClient;
+import org.zalando.fahrschein.StreamParameters;
+import org.zalando.fahrschein.domain.Partition;
+import org.zalando.fahrschein.domain.Subscription;
+import org.zalando.fahrschein.http.api.Headers;
+import org.zalando.fahrschein.http.api.Request;
+import org.zalando.fahrschein.http.api.Response;
+import org.zalando.fahrschein.http.simple.SimpleRequestFactory;
+import org.zalando.fahrschein.inmemory.InMemoryCursorManager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class NakadiSimulatorTest {
+    private static final String EVENT_NAME = "order_created";
+
+    public static class SomeEvent {
+        public long position;
+    }
+
+    private final ExecutorService executorService = Executors.newCachedThreadPool();
+    private NakadiSimulator simulator;
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+        if (simulator != null) {
+            simulator.close();
+        }
+    }
+
+    private NakadiClient nakadiClient() {
+        return NakadiClient.builder(simulator.getBaseUri())
+                .withRequestFactory(new SimpleRequestFactory())
+                .withCursorManager(new InMemoryCursorManager())
+                .build();
+    }
+
+    private static ExponentialBackoffStrategy fastBackoff() {
+        return new ExponentialBackoffStrategy(10, 1.5, 100, 100);
+    }
+
+    private List<Long> consume(IORunnable runnable, Collector collector) throws InterruptedException {
+        executorService.submit(() -> {
+            runnable.run();
+            return null;
+        });
+        assertTrue("Expected all events within timeout", collector.await());
+        return collector.positions();
+    }
+
+    private static class Collector {
+        private final CountDownLatch latch;
+        private final List<Long> positions = Collections.synchronizedList(new ArrayList<>());
+
+        Collector(int expectedEvents) {
+            this.latch = new CountDownLatch(expectedEvents);
+        }
+
+        void accept(List<SomeEvent> events) {
+            for (SomeEvent event : events) {
+                positions.add(event.position);
+                latch.countDown();
+            }
+        }
+
+        boolean await() throws InterruptedException {
+            return latch.await(10, TimeUnit.SECONDS);
+        }
+
+        List<Long> positions() {
+            synchronized (positions) {
+                return new ArrayList<>(positions);
+            }
+        }
+    }
+
+    @Test
+    public void shouldServePartitionsAndPublishedEvents() throws IOException {
+        simulator = NakadiSimulator.builder().withEventType(EVENT_NAME, 2).withEvents(5).start();
+        final NakadiClient nakadiClient = nakadiClient();
+
+        final List<Partition> partitions = nakadiClient.getPartitions(EVENT_NAME);
+        assertEquals(2, partitions.size());
+        assertEquals("001-0001-000000000000000000", partitions.get(0).getOldestAvailableOffset());
+        assertEquals("001-0001-000000000000000004", partitions.get(0).getNewestAvailableOffset());
+
+        nakadiClient.publish(EVENT_NAME, Arrays.asList(new SomeEvent(), new SomeEvent(), new SomeEvent()));
+
+        assertEquals(13, simulator.getEventCount(EVENT_NAME));
+    }
+
+    @Test
+    public void shouldAcceptCompressedEvents() throws IOException {
+        simulator = NakadiSimulator.builder().withEventType(EVENT_NAME, 2).start();
+        final NakadiClient nakadiClient = NakadiClient.builder(simulator.getBaseUri())
+                .withRequestFactory(new SimpleRequestFactory())
+                .withCursorManager(new InMemoryCursorManager())
+                .withRequestCompression(new CompressionParameters().withMinSize(100))
+                .build();
+
+        final List<SomeEvent> events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            events.add(new SomeEvent());
+        }
+        nakadiClient.publish(EVENT_NAME, events);
+        nakadiClient.publish(EVENT_NAME, events);
+        nakadiClient.publish(EVENT_NAME, Collections.singletonList(new SomeEvent()));
+
+        assertEquals(201, simulator.getEventCount(EVENT_NAME));
+    }
+
+    @Test
+    public void shouldStreamEventTypeFromBegin() throws IOException, InterruptedException {
+        simulator = NakadiSimulator.builder().withEventType(EVENT_NAME, 2).withEvents(50).start();
+        final NakadiClient nakadiClient = nakadiClient();
+        final Collector collector = new Collector(100);
+
+        final IORunnable runnable = nakadiClient.stream(EVENT_NAME)
+                .readFromBegin(nakadiClient.getPartitions(EVENT_NAME))
+                .withStreamParameters(new StreamParameters().withBatchLimit(10))
+                .runnable(SomeEvent.class, collector::accept);
+
+        final List<Long> positions = consume(runnable, collector);
+        assertEquals(100, positions.size());
+        assertEquals(50, new HashSet<>(positions).size());
+    }
+
+    @Test
+    public void shouldStreamCompressedEvents() throws IOException, InterruptedException {
+        simulator = NakadiSimulator.builder().withEventType(EVENT_NAME, 2).withEvents(50).start();
+        final NakadiClient nakadiClient = nakadiClient();
+        final Collector collector = new Collector(100);
+
+        final IORunnable runnable = nakadiClient.stream(EVENT_NAME)
+                .readFromBegin(nakadiClient.getPartitions(EVENT_NAME))
+                .withStreamParameters(new StreamParameters().withBatchLimit(10))
+                .withResponseCompression()
+                .runnable(SomeEvent.class, collector::accept);
+
+        final List<Long> positions = consume(runnable, collector);
+        assertEquals(100, positions.size());
+        assertEquals(50, new HashSet<>(positions).size());
+
+        final Request request = new SimpleRequestFactory().createRequest(simulator.getBaseUri().resolve("/event-types/" + EVENT_NAME + "/events?stream_limit=1"), "GET");
+        request.getHeaders().put(Headers.ACCEPT_ENCODING, "gzip");
+        try (Response response = request.execute()) {
+            assertEquals("gzip", response.getHeaders().getFirst(Headers.CONTENT_ENCODING));
+        }
+    }
+
+    @Test
+    public void shouldResumeFromCursorsAfterDisconnect() throws IOException, InterruptedException {
+        simulator = NakadiSimulator.builder().withEventType(EVENT_NAME, 1).withEvents(100).withDisconnectAfterBatches(3).start();
+        final NakadiClient nakadiClient = nakadiClient();
+        final Collector collector = new Collector(100);
+
+        final IORunnable runnable = nakadiClient.stream(EVENT_NAME)
+                .readFromBegin(nakadiClient.getPartitions(EVENT_NAME))
+                .withStreamParameters(new StreamParameters().withBatchLimit(7))
+                .withBackoffStrategy(fastBackoff())
+                .runnable(SomeEvent.class, collector::accept);
+
+        final List<Long> positions = consume(runnable, collector);
+        final List<Long> expected = new ArrayList<>();
+        for (long i = 0; i < 100; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, positions);
+    }
+
+    @Test
+    public void shouldStreamSubscriptionAndCommitCursors() throws IOException, InterruptedException {
+        simulator = NakadiSimulator.builder().withEventType(EVENT_NAME, 2).withEvents(50).start();
+        final NakadiClient nakadiClient = NakadiClient.builder(simulator.getBaseUri()).withRequestFactory(new SimpleRequestFactory()).build();
+        final Subscription subscription = nakadiClient.subscription("test", EVENT_NAME).readFromBegin().subscribe();
+        final Collector collector = new Collector(100);
+
+        // more events than max uncommitted events, so the stream only continues when cursors are committed
+        final IORunnable runnable = nakadiClient.stream(subscription)
+                .withStreamParameters(new StreamParameters().withBatchLimit(5).withMaxUncommittedEvents(10))
+                .runnable(SomeEvent.class, collector::accept);
+
+        final List<Long> positions = consume(runnable, collector);
+        assertEquals(100, positions.size());
+
+        final long deadline = System.currentTimeMillis() + 5000;
+        Map<String, String> committedOffsets;
+        while (!(committedOffsets = simulator.getCommittedOffsets(subscription.getId(), EVENT_NAME)).values().stream().allMatch("001-0001-000000000000000049"::equals)) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Cursors were not committed: " + committedOffsets);
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void shouldDiscardEventsExceedingRetention() throws IOException, InterruptedException {
+        simulator = NakadiSimulator.builder().withEventType(EVENT_NAME, 1).withEvents(10).withRetention(10).start();
+        final NakadiClient nakadiClient = nakadiClient();
+        final List<String> events = new ArrayList<>();
+        for (int i = 10; i < 25; i++) {
+            events.add("{\"position\":" + i + "}");
+        }
+        simulator.append(EVENT_NAME, "0", events);
+
+        assertEquals(25, simulator.getEventCount(EVENT_NAME));
+        final Partition partition = nakadiClient.getPartitions(EVENT_NAME).get(0);
+        assertEquals("001-0001-000000000000000010", partition.getOldestAvailableOffset());
+        assertEquals("001-0001-000000000000000024", partition.getNewestAvailableOffset());
+
+        final Collector collector = new Collector(15);
+        final IORunnable runnable = nakadiClient.stream(EVENT_NAME)
+                .readFromBegin(nakadiClient.getPartitions(EVENT_NAME))
+                .runnable(SomeEvent.class, collector::accept);
+
+        final List<Long> positions = consume(runnable, collector);
+        assertEquals(Long.valueOf(10), positions.get(0));
+        assertEquals(Long.valueOf(24), positions.get(14));
+    }
+
+    @Test
+    public void shouldInjectFailures() throws IOException {
+        simulator = NakadiSimulator.builder().withEventType(EVENT_NAME, 1).start();
+        final NakadiClient nakadiClient = nakadiClient();
+        simulator.failNextRequests(1, 503);
+
+        try {
+            nakadiClient.getPartitions(EVENT_NAME);
+            fail("Expected an injected failure");
+        } catch (IOProblem e) {
+            assertEquals(503, e.getStatusCode());
+        }
+
+        final Set<String> partitions = new HashSet<>();
+        for (Partition partition : nakadiClient.getPartitions(EVENT_NAME)) {
+            partitions.add(partition.getPartition());
+        }
+        assertEquals(Collections.singleton("0"), partitions);
+        assertEquals("BEGIN", nakadiClient.getPartitions(EVENT_NAME).get(0).getNewestAvailableOffset());
+    }
+}
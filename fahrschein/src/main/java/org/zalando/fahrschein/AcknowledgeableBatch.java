@@ -0,0 +1,51 @@
+package org.zalando.fahrschein;
+
+import org.zalando.fahrschein.domain.Cursor;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A batch of events emitted by a {@link StreamBuilder#publisher(EventReader, java.util.concurrent.Executor) publisher}.
+ * The cursor of the batch is only committed when the subscriber calls {@link #acknowledge()}.
+ */
+public final class AcknowledgeableBatch<T> {
+    private final String eventName;
+    private final Cursor cursor;
+    private final List<T> events;
+    private final CursorManager cursorManager;
+    @Nullable
+    private final EidDeduplicator eidDeduplicator;
+
+    AcknowledgeableBatch(String eventName, Cursor cursor, List<T> events, CursorManager cursorManager, @Nullable EidDeduplicator eidDeduplicator) {
+        this.eventName = eventName;
+        this.cursor = cursor;
+        this.events = events;
+        this.cursorManager = cursorManager;
+        this.eidDeduplicator = eidDeduplicator;
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+
+    public Cursor getCursor() {
+        return cursor;
+    }
+
+    public List<T> getEvents() {
+        return events;
+    }
+
+    /**
+     * Commits the cursor of this batch. Batches of the same partition should be acknowledged in the order they were received.
+     * With eid deduplication, the events of this batch are only treated as processed once it was acknowledged.
+     */
+    public void acknowledge() throws IOException {
+        cursorManager.onSuccess(eventName, cursor);
+        if (eidDeduplicator != null) {
+            eidDeduplicator.markProcessed(events);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.zalando.fahrschein;
+
+import org.zalando.fahrschein.domain.Cursor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accumulates events of consecutive batches and remembers the latest cursor of each partition.
+ * Only used by the reading thread, so this class is not thread safe.
+ */
+class BatchCoalescer<T> {
+
+    static final class CoalescedBatch<T> {
+        private final List<T> events;
+        private final Map<String, List<Cursor>> cursors;
+        private final int batchCount;
+
+        private CoalescedBatch(List<T> events, Map<String, List<Cursor>> cursors, int batchCount) {
+            this.events = events;
+            this.cursors = cursors;
+            this.batchCount = batchCount;
+        }
+
+        List<T> getEvents() {
+            return events;
+        }
+
+        /**
+         * @return The latest cursor of each partition by event name.
+         */
+        Map<String, List<Cursor>> getCursors() {
+            return cursors;
+        }
+
+        int getBatchCount() {
+            return batchCount;
+        }
+    }
+
+    private final CoalescingParameters parameters;
+
+    private List<T> events = new ArrayList<>();
+    private final Map<String, Map<String, Cursor>> cursors = new LinkedHashMap<>();
+    private int batchCount;
+    private long bytes;
+    private long firstEventNanos;
+
+    BatchCoalescer(CoalescingParameters parameters) {
+        this.parameters = parameters;
+    }
+
+    void add(String eventName, Cursor cursor, List<T> events, long bytes, long nowNanos) {
+        if (this.batchCount == 0) {
+            firstEventNanos = nowNanos;
+        }
+        this.events.addAll(events);
+        this.cursors.computeIfAbsent(eventName, key -> new LinkedHashMap<>()).put(cursor.getPartition(), cursor);
+        this.batchCount++;
+        this.bytes += bytes;
+    }
+
+    boolean isEmpty() {
+        return batchCount == 0;
+    }
+
+    boolean isReady(long nowNanos) {
+        return batchCount > 0 && (events.size() >= parameters.getMinEvents()
+                || bytes >= parameters.getMinBytes()
+                || nowNanos - firstEventNanos >= parameters.getMaxLingerNanos());
+    }
+
+    /**
+     * Returns the accumulated events and cursors and starts accumulating a new batch.
+     */
+    CoalescedBatch<T> take() {
+        final Map<String, List<Cursor>> cursorsByEventName = new LinkedHashMap<>(cursors.size());
+        for (Map.Entry<String, Map<String, Cursor>> entry : cursors.entrySet()) {
+            cursorsByEventName.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue().values())));
+        }
+        final CoalescedBatch<T> batch = new CoalescedBatch<>(Collections.unmodifiableList(events), Collections.unmodifiableMap(cursorsByEventName), batchCount);
+        clear();
+        return batch;
+    }
+
+    /**
+     * Discards the accumulated events, they will be received again since their cursors were not committed.
+     */
+    void clear() {
+        events = new ArrayList<>();
+        cursors.clear();
+        batchCount = 0;
+        bytes = 0;
+    }
+}
@@ -0,0 +1,181 @@
+package org.zalando.fahrschein;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+
+/**
+ * Hands over batches from the reading thread to one or more processing threads using bounded queues,
+ * so that reading and parsing the next batch can overlap with processing of the previous one.
+ *
+ * Each processing thread owns one lane, batches are assigned to a lane by the hash of their partition.
+ * Batches within one lane are processed in the order they were submitted, batches in different lanes are processed concurrently.
+ * After the first failure all remaining batches are discarded and the failure is rethrown on the reading thread
+ * by the next call to {@link #submit(int, IORunnable)} or {@link #checkFailure()}.
+ */
+class BatchPipeline implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchPipeline.class);
+
+    private final List<BlockingQueue<IORunnable>> queues;
+    private final List<Thread> workers;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition idle = lock.newCondition();
+    private int pending;
+    @Nullable
+    private Throwable failure;
+
+    BatchPipeline(String name, int lanes, int capacity) {
+        checkArgument(lanes > 0, "Number of lanes should be bigger than 0");
+        checkArgument(capacity > 0, "Capacity should be bigger than 0");
+
+        this.queues = new ArrayList<>(lanes);
+        this.workers = new ArrayList<>(lanes);
+        for (int i = 0; i < lanes; i++) {
+            final BlockingQueue<IORunnable> queue = new ArrayBlockingQueue<>(capacity);
+            final Thread worker = Threads.newThread(lanes == 1 ? name : name + "-" + i, () -> work(queue));
+            queues.add(queue);
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+    }
+
+    private void work(BlockingQueue<IORunnable> queue) {
+        while (true) {
+            final IORunnable task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                LOG.trace("Pipeline worker was interrupted");
+                return;
+            }
+
+            lock.lock();
+            final boolean failed;
+            try {
+                failed = failure != null;
+            } finally {
+                lock.unlock();
+            }
+
+            Throwable throwable = null;
+            if (!failed) {
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    throwable = t;
+                }
+            }
+
+            lock.lock();
+            try {
+                if (throwable != null && failure == null) {
+                    failure = throwable;
+                }
+                pending--;
+                if (pending == 0) {
+                    idle.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Enqueues the given task into the lane selected by {@code hash}, blocking while the queue of that lane is full.
+     *
+     * @throws IOException if a previously submitted task failed with an {@link IOException}
+     */
+    void submit(int hash, IORunnable task) throws IOException, InterruptedException {
+        checkFailure();
+
+        final BlockingQueue<IORunnable> queue = queues.get(Math.floorMod(hash, queues.size()));
+
+        lock.lock();
+        try {
+            pending++;
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            queue.put(task);
+        } catch (InterruptedException e) {
+            lock.lock();
+            try {
+                pending--;
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Rethrows the failure of a previously submitted task, after waiting for the discarded tasks to be removed from the queue.
+     */
+    void checkFailure() throws IOException, InterruptedException {
+        lock.lock();
+        try {
+            if (failure == null) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        drain();
+    }
+
+    /**
+     * Waits until all submitted tasks are either processed or discarded and rethrows the first failure.
+     * The failure is reset afterwards, so the pipeline can be reused after reconnecting.
+     */
+    void drain() throws IOException, InterruptedException {
+        final Throwable throwable;
+        lock.lock();
+        try {
+            while (pending > 0) {
+                idle.await();
+            }
+            throwable = failure;
+            failure = null;
+        } finally {
+            lock.unlock();
+        }
+        rethrow(throwable);
+    }
+
+    private static void rethrow(@Nullable Throwable throwable) throws IOException {
+        if (throwable instanceof IOException) {
+            throw (IOException) throwable;
+        } else if (throwable instanceof RuntimeException) {
+            throw (RuntimeException) throwable;
+        } else if (throwable instanceof Error) {
+            throw (Error) throwable;
+        } else if (throwable != null) {
+            throw new IllegalStateException(throwable);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+}
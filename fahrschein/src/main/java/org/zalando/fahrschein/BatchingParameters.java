@@ -0,0 +1,146 @@
+package org.zalando.fahrschein;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+
+/**
+ * Configures how a {@link BatchingPublisher} accumulates events before publishing them, see {@link NakadiClient#batchingPublisher(BatchingParameters)}.
+ *
+ * The buffered events of an event type are published as soon as one of the batch thresholds is reached or the linger time passed.
+ * Up to {@link #withMaxInFlight(int) maxInFlight} batches of an event type are published concurrently, the actual limit is adapted to
+ * rate limiting and the {@link #withTargetLatency(long, TimeUnit) target latency}.
+ */
+public final class BatchingParameters {
+
+    private static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+    private static final long DEFAULT_MAX_BATCH_BYTES = 1024 * 1024;
+    private static final long DEFAULT_LINGER_MILLIS = 10;
+    private static final long DEFAULT_BUFFER_MEMORY = 32 * 1024 * 1024;
+    private static final long DEFAULT_MAX_BLOCK_MILLIS = 60 * 1000;
+    private static final int DEFAULT_MAX_IN_FLIGHT = 1;
+
+    private final int maxBatchSize;
+    private final long maxBatchBytes;
+    private final long lingerNanos;
+    private final long bufferMemory;
+    private final long maxBlockNanos;
+    private final int maxInFlight;
+    private final long targetLatencyNanos;
+
+    private BatchingParameters(int maxBatchSize, long maxBatchBytes, long lingerNanos, long bufferMemory, long maxBlockNanos, int maxInFlight, long targetLatencyNanos) {
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchBytes = maxBatchBytes;
+        this.lingerNanos = lingerNanos;
+        this.bufferMemory = bufferMemory;
+        this.maxBlockNanos = maxBlockNanos;
+        this.maxInFlight = maxInFlight;
+        this.targetLatencyNanos = targetLatencyNanos;
+    }
+
+    public BatchingParameters() {
+        this(DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_BATCH_BYTES, TimeUnit.MILLISECONDS.toNanos(DEFAULT_LINGER_MILLIS), DEFAULT_BUFFER_MEMORY, TimeUnit.MILLISECONDS.toNanos(DEFAULT_MAX_BLOCK_MILLIS),
+                DEFAULT_MAX_IN_FLIGHT, Long.MAX_VALUE);
+    }
+
+    /**
+     * Maximum number of events published in a single request, defaults to 1000.
+     */
+    public BatchingParameters withMaxBatchSize(int maxBatchSize) {
+        checkArgument(maxBatchSize > 0, "Maximum batch size should be bigger than 0");
+        return new BatchingParameters(maxBatchSize, maxBatchBytes, lingerNanos, bufferMemory, maxBlockNanos, maxInFlight, targetLatencyNanos);
+    }
+
+    /**
+     * Maximum size in bytes of the serialized events published in a single request, defaults to 1 MiB.
+     * Events bigger than this limit are published on their own.
+     */
+    public BatchingParameters withMaxBatchBytes(long maxBatchBytes) {
+        checkArgument(maxBatchBytes > 0, "Maximum batch bytes should be bigger than 0");
+        checkArgument(maxBatchBytes <= bufferMemory, "Maximum batch bytes should not be bigger than the buffer memory");
+        return new BatchingParameters(maxBatchSize, maxBatchBytes, lingerNanos, bufferMemory, maxBlockNanos, maxInFlight, targetLatencyNanos);
+    }
+
+    /**
+     * Time events are buffered after the first event of a batch was added, waiting for further events, defaults to 10 milliseconds.
+     */
+    public BatchingParameters withLinger(long linger, TimeUnit timeUnit) {
+        checkArgument(linger >= 0, "Linger time should not be negative");
+        return new BatchingParameters(maxBatchSize, maxBatchBytes, timeUnit.toNanos(linger), bufferMemory, maxBlockNanos, maxInFlight, targetLatencyNanos);
+    }
+
+    /**
+     * Maximum size in bytes of the serialized events that were not yet published, including the batches that are currently published, defaults to 32 MiB.
+     */
+    public BatchingParameters withBufferMemory(long bufferMemory) {
+        checkArgument(bufferMemory >= maxBatchBytes, "Buffer memory should not be smaller than the maximum batch bytes");
+        return new BatchingParameters(maxBatchSize, maxBatchBytes, lingerNanos, bufferMemory, maxBlockNanos, maxInFlight, targetLatencyNanos);
+    }
+
+    /**
+     * Maximum time {@link BatchingPublisher#publish(String, Object)} blocks when the buffer memory is exhausted, defaults to one minute.
+     * With a maximum of zero, publishing fails immediately instead.
+     */
+    public BatchingParameters withMaxBlock(long maxBlock, TimeUnit timeUnit) {
+        checkArgument(maxBlock >= 0, "Maximum block time should not be negative");
+        return new BatchingParameters(maxBatchSize, maxBatchBytes, lingerNanos, bufferMemory, timeUnit.toNanos(maxBlock), maxInFlight, targetLatencyNanos);
+    }
+
+    /**
+     * Maximum number of concurrent publishing requests per event type, defaults to 1. With more than one request in flight, batches
+     * are not published in order, except for events with the same partition key, see {@link BatchingPublisher#publish(String, String, Object)}.
+     */
+    public BatchingParameters withMaxInFlight(int maxInFlight) {
+        checkArgument(maxInFlight > 0, "Maximum in flight requests should be bigger than 0");
+        return new BatchingParameters(maxBatchSize, maxBatchBytes, lingerNanos, bufferMemory, maxBlockNanos, maxInFlight, targetLatencyNanos);
+    }
+
+    /**
+     * Publishing requests taking longer than the target latency halve the concurrency limit of the event type, like rate limited requests do.
+     * Without a target latency, which is the default, the limit is only reduced by rate limiting.
+     */
+    public BatchingParameters withTargetLatency(long targetLatency, TimeUnit timeUnit) {
+        checkArgument(targetLatency > 0, "Target latency should be bigger than 0");
+        return new BatchingParameters(maxBatchSize, maxBatchBytes, lingerNanos, bufferMemory, maxBlockNanos, maxInFlight, timeUnit.toNanos(targetLatency));
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public long getMaxBatchBytes() {
+        return maxBatchBytes;
+    }
+
+    public long getLinger(TimeUnit timeUnit) {
+        return timeUnit.convert(lingerNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getBufferMemory() {
+        return bufferMemory;
+    }
+
+    public long getMaxBlock(TimeUnit timeUnit) {
+        return timeUnit.convert(maxBlockNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public long getTargetLatency(TimeUnit timeUnit) {
+        return timeUnit.convert(targetLatencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    long getLingerNanos() {
+        return lingerNanos;
+    }
+
+    long getMaxBlockNanos() {
+        return maxBlockNanos;
+    }
+
+    long getTargetLatencyNanos() {
+        return targetLatencyNanos;
+    }
+}
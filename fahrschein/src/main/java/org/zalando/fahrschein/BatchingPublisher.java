@@ -0,0 +1,464 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zalando.fahrschein.domain.BatchItemResponse;
+import org.zalando.fahrschein.domain.Event;
+import org.zalando.fahrschein.domain.Metadata;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Accumulates single events per event type and publishes them in batches, see {@link BatchingParameters} for the thresholds.
+ * Events are serialized by the calling thread, batches are published on background threads, with up to
+ * {@link BatchingParameters#withMaxInFlight(int) maxInFlight} concurrent requests per event type.
+ *
+ * The concurrency limit of an event type starts at the maximum and is adapted to the responses: it is halved when nakadi rate limits a request
+ * or a request takes longer than the {@link BatchingParameters#withTargetLatency(long, TimeUnit) target latency}, and grows again by one
+ * for each limit worth of successful requests.
+ *
+ * The future returned for each event completes with the {@link BatchItemResponse} of the event. When nakadi rejects some events of a batch,
+ * the futures of these events complete with an {@link EventPublishingException} containing their response. Responses are matched to events
+ * by the eid of their {@link Metadata}, if the events of a failed batch do not implement {@link Event}, all of their futures fail.
+ * Futures complete on the background threads, so dependent actions should not block.
+ */
+public class BatchingPublisher implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchingPublisher.class);
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int UNPINNED = -1;
+
+    @FunctionalInterface
+    interface Sender {
+        void send(String eventName, List<byte[]> events) throws IOException;
+    }
+
+    private final Sender sender;
+    private final ObjectMapper objectMapper;
+    private final BatchingParameters parameters;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService executor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition memoryReleased = lock.newCondition();
+    private final Map<String, EventTypeWindow> windows = new HashMap<>();
+    private final Set<Batch> pendingBatches = new HashSet<>();
+    private long availableMemory;
+    private boolean closed;
+
+    BatchingPublisher(Sender sender, ObjectMapper objectMapper, BatchingParameters parameters) {
+        this.sender = sender;
+        this.objectMapper = objectMapper;
+        this.parameters = parameters;
+        this.availableMemory = parameters.getBufferMemory();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Threads.platformThreadFactory("fahrschein-batching-publisher-"));
+        this.executor = Executors.newCachedThreadPool(Threads.platformThreadFactory("fahrschein-batching-publisher-sender-"));
+    }
+
+    private static final class PendingEvent {
+        private final byte[] json;
+        @Nullable
+        private final String eid;
+        private final CompletableFuture<BatchItemResponse> future = new CompletableFuture<>();
+
+        PendingEvent(byte[] json, @Nullable String eid) {
+            this.json = json;
+            this.eid = eid;
+        }
+    }
+
+    private static final class EventBuffer {
+        private final EventTypeWindow window;
+        private final int lane;
+        private List<PendingEvent> events = new ArrayList<>();
+        private long bytes;
+        // Incremented whenever the events are taken, so that a scheduled flush of a previous batch is ignored
+        private long generation;
+
+        EventBuffer(EventTypeWindow window, int lane) {
+            this.window = window;
+            this.lane = lane;
+        }
+
+        List<PendingEvent> take() {
+            final List<PendingEvent> taken = events;
+            events = new ArrayList<>();
+            bytes = 0;
+            generation++;
+            return taken;
+        }
+    }
+
+    private static final class Batch {
+        private final EventTypeWindow window;
+        private final int lane;
+        private final List<PendingEvent> events;
+        private final CompletableFuture<Void> published = new CompletableFuture<>();
+
+        Batch(EventTypeWindow window, int lane, List<PendingEvent> events) {
+            this.window = window;
+            this.lane = lane;
+            this.events = events;
+        }
+    }
+
+    /**
+     * The buffers and in flight requests of an event type. Events with a partition key are buffered in the lane of their key,
+     * and each lane has at most one request in flight, so that their order is kept.
+     */
+    private static final class EventTypeWindow {
+        private final String eventName;
+        private final int maxInFlight;
+        private final EventBuffer unpinned;
+        private final EventBuffer[] lanes;
+        private final boolean[] busyLanes;
+        private final Deque<Batch> ready = new ArrayDeque<>();
+        private double limit;
+        private int inFlight;
+        private long lastDecrease = System.nanoTime();
+
+        EventTypeWindow(String eventName, int maxInFlight) {
+            this.eventName = eventName;
+            this.maxInFlight = maxInFlight;
+            this.unpinned = new EventBuffer(this, UNPINNED);
+            this.lanes = new EventBuffer[maxInFlight];
+            this.busyLanes = new boolean[maxInFlight];
+            this.limit = maxInFlight;
+        }
+
+        EventBuffer buffer(@Nullable String partitionKey) {
+            if (partitionKey == null) {
+                return unpinned;
+            }
+            final int lane = Math.floorMod(partitionKey.hashCode(), lanes.length);
+            if (lanes[lane] == null) {
+                lanes[lane] = new EventBuffer(this, lane);
+            }
+            return lanes[lane];
+        }
+
+        boolean hasCapacity() {
+            return inFlight < (int) limit;
+        }
+
+        void onPublished(long startNanos, boolean congested) {
+            if (congested) {
+                // Requests that were started before the last decrease saw the same congestion and should not decrease the limit again
+                if (startNanos - lastDecrease >= 0) {
+                    limit = Math.max(1, limit / 2);
+                    lastDecrease = System.nanoTime();
+                }
+            } else {
+                limit = Math.min(maxInFlight, limit + 1 / limit);
+            }
+        }
+    }
+
+    /**
+     * Adds an event to the batch of the event type. Blocks for at most the {@link BatchingParameters#withMaxBlock(long, TimeUnit) maximum block time}
+     * while the buffer memory is exhausted. Events published this way are not ordered if more than one request per event type is in flight.
+     *
+     * @throws IOException if the event could not be serialized, the buffer memory stayed exhausted or this publisher was closed
+     */
+    public CompletableFuture<BatchItemResponse> publish(String eventName, Object event) throws IOException {
+        return publish(eventName, null, event);
+    }
+
+    /**
+     * Adds an event to the batch of the event type like {@link #publish(String, Object)}. Events with the same partition key are
+     * published in order, since the key pins them to a lane, which only publishes one batch at a time.
+     */
+    public CompletableFuture<BatchItemResponse> publish(String eventName, @Nullable String partitionKey, Object event) throws IOException {
+        final PendingEvent pendingEvent = new PendingEvent(objectMapper.writeValueAsBytes(event), PublishingRetry.getEid(event));
+        final int size = pendingEvent.json.length;
+
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IOException("Publisher was closed");
+            }
+
+            reserve(size);
+
+            final EventTypeWindow window = windows.computeIfAbsent(eventName, name -> new EventTypeWindow(name, parameters.getMaxInFlight()));
+            final EventBuffer buffer = window.buffer(partitionKey);
+            if (!buffer.events.isEmpty() && buffer.bytes + size > parameters.getMaxBatchBytes()) {
+                send(buffer);
+            }
+
+            buffer.events.add(pendingEvent);
+            buffer.bytes += size;
+
+            if (buffer.events.size() >= parameters.getMaxBatchSize() || buffer.bytes >= parameters.getMaxBatchBytes()) {
+                send(buffer);
+            } else if (buffer.events.size() == 1) {
+                final long generation = buffer.generation;
+                scheduler.schedule(() -> lingerExpired(buffer, generation), parameters.getLingerNanos(), TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        return pendingEvent.future;
+    }
+
+    /**
+     * Publishes all buffered events and waits until all batches were published.
+     */
+    public void flush() throws IOException {
+        final List<CompletableFuture<Void>> published;
+        lock.lock();
+        try {
+            sendAll();
+            published = pendingFutures();
+        } finally {
+            lock.unlock();
+        }
+        awaitPublished(published);
+    }
+
+    /**
+     * Publishes all buffered events and stops the background threads. Events can not be published after closing.
+     */
+    @Override
+    public void close() throws IOException {
+        final List<CompletableFuture<Void>> published;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            sendAll();
+            published = pendingFutures();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            awaitPublished(published);
+        } finally {
+            scheduler.shutdownNow();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Number of requests of the event type that are currently in flight, for example to be registered as a gauge.
+     */
+    public int getInFlight(String eventName) {
+        lock.lock();
+        try {
+            final EventTypeWindow window = windows.get(eventName);
+            return window == null ? 0 : window.inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Current concurrency limit of the event type, between one and the {@link BatchingParameters#withMaxInFlight(int) maximum}.
+     */
+    public int getInFlightLimit(String eventName) {
+        lock.lock();
+        try {
+            final EventTypeWindow window = windows.get(eventName);
+            return window == null ? parameters.getMaxInFlight() : (int) window.limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reserve(int size) throws IOException {
+        if (size > parameters.getBufferMemory()) {
+            throw new IOException(String.format("Event of [%d] bytes is bigger than the buffer memory of [%d] bytes", size, parameters.getBufferMemory()));
+        }
+
+        long remainingNanos = parameters.getMaxBlockNanos();
+        if (availableMemory < size) {
+            // Buffered events would otherwise only release their memory after the linger time
+            sendAll();
+        }
+        while (availableMemory < size) {
+            if (remainingNanos <= 0) {
+                throw new IOException(String.format("Buffer memory of [%d] bytes exhausted", parameters.getBufferMemory()));
+            }
+            try {
+                remainingNanos = memoryReleased.awaitNanos(remainingNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for buffer memory");
+            }
+            if (closed) {
+                throw new IOException("Publisher was closed");
+            }
+        }
+        availableMemory -= size;
+    }
+
+    private void lingerExpired(EventBuffer buffer, long generation) {
+        lock.lock();
+        try {
+            if (buffer.generation == generation && !buffer.events.isEmpty()) {
+                send(buffer);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sendAll() {
+        for (EventTypeWindow window : windows.values()) {
+            if (!window.unpinned.events.isEmpty()) {
+                send(window.unpinned);
+            }
+            for (EventBuffer lane : window.lanes) {
+                if (lane != null && !lane.events.isEmpty()) {
+                    send(lane);
+                }
+            }
+        }
+    }
+
+    private void send(EventBuffer buffer) {
+        final Batch batch = new Batch(buffer.window, buffer.lane, buffer.take());
+        pendingBatches.add(batch);
+        buffer.window.ready.add(batch);
+        dispatch(buffer.window);
+    }
+
+    /**
+     * Starts the ready batches of the event type while the concurrency limit allows. Batches of busy lanes are skipped,
+     * so that the next batch of a lane is started once its previous batch was published.
+     */
+    private void dispatch(EventTypeWindow window) {
+        final Iterator<Batch> iterator = window.ready.iterator();
+        while (window.hasCapacity() && iterator.hasNext()) {
+            final Batch batch = iterator.next();
+            if (batch.lane != UNPINNED) {
+                if (window.busyLanes[batch.lane]) {
+                    continue;
+                }
+                window.busyLanes[batch.lane] = true;
+            }
+            iterator.remove();
+            window.inFlight++;
+            executor.execute(() -> publishBatch(batch));
+        }
+    }
+
+    private List<CompletableFuture<Void>> pendingFutures() {
+        final List<CompletableFuture<Void>> futures = new ArrayList<>(pendingBatches.size());
+        for (Batch batch : pendingBatches) {
+            futures.add(batch.published);
+        }
+        return futures;
+    }
+
+    private static void awaitPublished(List<CompletableFuture<Void>> published) throws IOException {
+        try {
+            CompletableFuture.allOf(published.toArray(new CompletableFuture<?>[0])).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for batches to be published");
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private void publishBatch(Batch batch) {
+        final String eventName = batch.window.eventName;
+        final List<PendingEvent> events = batch.events;
+        final List<byte[]> jsons = new ArrayList<>(events.size());
+        long bytes = 0;
+        for (PendingEvent event : events) {
+            jsons.add(event.json);
+            bytes += event.json.length;
+        }
+
+        final long start = System.nanoTime();
+        boolean congested = false;
+        try {
+            sender.send(eventName, jsons);
+            LOG.debug("Published batch of [{}] events for [{}]", events.size(), eventName);
+            for (PendingEvent event : events) {
+                event.future.complete(new BatchItemResponse(event.eid, BatchItemResponse.PublishingStatus.SUBMITTED, BatchItemResponse.Step.NONE, null));
+            }
+        } catch (EventPublishingException e) {
+            LOG.warn("Could not publish [{}] of [{}] events for [{}]", e.getResponses().length, events.size(), eventName);
+            completeExceptionally(events, e);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Could not publish batch of [{}] events for [{}]", events.size(), eventName, e);
+            congested = e instanceof IOProblem && ((IOProblem) e).getStatusCode() == TOO_MANY_REQUESTS;
+            for (PendingEvent event : events) {
+                event.future.completeExceptionally(e);
+            }
+        } finally {
+            congested |= System.nanoTime() - start > parameters.getTargetLatencyNanos();
+            published(batch, start, congested, bytes);
+        }
+    }
+
+    private void published(Batch batch, long startNanos, boolean congested, long bytes) {
+        final EventTypeWindow window = batch.window;
+        lock.lock();
+        try {
+            window.inFlight--;
+            if (batch.lane != UNPINNED) {
+                window.busyLanes[batch.lane] = false;
+            }
+            window.onPublished(startNanos, congested);
+            pendingBatches.remove(batch);
+            availableMemory += bytes;
+            memoryReleased.signalAll();
+            dispatch(window);
+        } finally {
+            lock.unlock();
+        }
+        batch.published.complete(null);
+    }
+
+    private static void completeExceptionally(List<PendingEvent> events, EventPublishingException exception) {
+        final Map<String, BatchItemResponse> failed = new HashMap<>();
+        boolean matchable = true;
+        for (BatchItemResponse response : exception.getResponses()) {
+            if (response.getEid() == null) {
+                matchable = false;
+            } else {
+                failed.put(response.getEid(), response);
+            }
+        }
+
+        for (PendingEvent event : events) {
+            final BatchItemResponse response = event.eid == null ? null : failed.get(event.eid);
+            if (response != null) {
+                event.future.completeExceptionally(new EventPublishingException(new BatchItemResponse[]{response}));
+            } else if (matchable && event.eid != null) {
+                event.future.complete(new BatchItemResponse(event.eid, BatchItemResponse.PublishingStatus.SUBMITTED, BatchItemResponse.Step.NONE, null));
+            } else {
+                event.future.completeExceptionally(exception);
+            }
+        }
+    }
+}
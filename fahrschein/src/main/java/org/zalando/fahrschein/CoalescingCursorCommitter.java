@@ -0,0 +1,219 @@
+package org.zalando.fahrschein;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zalando.fahrschein.domain.Cursor;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+
+/**
+ * Collects cursors per subscription and commits only the latest cursor of each partition of each event type, with a single request
+ * per subscription, either after {@code maxPendingCommits} cursors were added or after {@code maxCommitDelay} passed since the first
+ * uncommitted cursor was added. Commits happen on a background thread, a failed commit is rethrown on the next call to
+ * {@link #add(String, String, Cursor)}.
+ */
+class CoalescingCursorCommitter implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CoalescingCursorCommitter.class);
+
+    @FunctionalInterface
+    interface Commit {
+        void commit(String subscriptionId, List<Cursor> cursors) throws IOException;
+    }
+
+    private static final class EventPartition {
+        private final String eventName;
+        private final String partition;
+
+        EventPartition(String eventName, String partition) {
+            this.eventName = eventName;
+            this.partition = partition;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof EventPartition)) {
+                return false;
+            }
+            final EventPartition that = (EventPartition) o;
+            return eventName.equals(that.eventName) && partition.equals(that.partition);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * eventName.hashCode() + partition.hashCode();
+        }
+    }
+
+    private final Commit commit;
+    private final int maxPendingCommits;
+    private final long maxCommitDelayMillis;
+    private final ScheduledExecutorService executor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private Map<String, Map<EventPartition, Cursor>> pending = new LinkedHashMap<>();
+    private int pendingCommits;
+    @Nullable
+    private Future<?> scheduledFlush;
+    @Nullable
+    private IOException failure;
+
+    CoalescingCursorCommitter(Commit commit, int maxPendingCommits, long maxCommitDelay, TimeUnit timeUnit) {
+        checkArgument(maxPendingCommits > 0, "Maximum number of pending commits should be bigger than 0");
+        checkArgument(maxCommitDelay > 0, "Maximum commit delay should be bigger than 0");
+
+        this.commit = commit;
+        this.maxPendingCommits = maxPendingCommits;
+        this.maxCommitDelayMillis = timeUnit.toMillis(maxCommitDelay);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "fahrschein-cursor-committer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void add(String subscriptionId, String eventName, Cursor cursor) throws IOException {
+        lock.lock();
+        try {
+            if (failure != null) {
+                final IOException exception = failure;
+                failure = null;
+                throw exception;
+            }
+
+            pending.computeIfAbsent(subscriptionId, key -> new LinkedHashMap<>()).put(new EventPartition(eventName, cursor.getPartition()), cursor);
+            pendingCommits++;
+
+            if (pendingCommits >= maxPendingCommits) {
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                }
+                scheduledFlush = executor.submit(this::flushInBackground);
+            } else if (scheduledFlush == null) {
+                scheduledFlush = executor.schedule(this::flushInBackground, maxCommitDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushInBackground() {
+        try {
+            flush(true);
+        } catch (IOException e) {
+            LOG.warn("Could not commit cursors", e);
+        }
+    }
+
+    /**
+     * Commits all pending cursors on the calling thread. Cursors which could not be committed are kept for the next flush,
+     * unless a newer cursor for the same partition was added in the meantime.
+     */
+    void flush() throws IOException {
+        flush(false);
+    }
+
+    private void flush(boolean keepFailure) throws IOException {
+        flushLock.lock();
+        try {
+            final Map<String, Map<EventPartition, Cursor>> cursors;
+            lock.lock();
+            try {
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                    scheduledFlush = null;
+                }
+                cursors = pending;
+                pending = new LinkedHashMap<>();
+                pendingCommits = 0;
+            } finally {
+                lock.unlock();
+            }
+
+            final Iterator<Map.Entry<String, Map<EventPartition, Cursor>>> it = cursors.entrySet().iterator();
+            while (it.hasNext()) {
+                final Map.Entry<String, Map<EventPartition, Cursor>> entry = it.next();
+                try {
+                    commit.commit(entry.getKey(), new ArrayList<>(entry.getValue().values()));
+                } catch (IOException e) {
+                    // Still holding the flush lock, so that a concurrent reset can not be undone by restoring cursors or keeping the failure
+                    restore(cursors, keepFailure ? e : null);
+                    throw e;
+                }
+                it.remove();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void restore(Map<String, Map<EventPartition, Cursor>> cursors, @Nullable IOException exception) {
+        lock.lock();
+        try {
+            if (exception != null && failure == null) {
+                failure = exception;
+            }
+            for (Map.Entry<String, Map<EventPartition, Cursor>> entry : cursors.entrySet()) {
+                final Map<EventPartition, Cursor> cursorsByPartition = pending.computeIfAbsent(entry.getKey(), key -> new LinkedHashMap<>());
+                for (Map.Entry<EventPartition, Cursor> cursor : entry.getValue().entrySet()) {
+                    if (cursorsByPartition.putIfAbsent(cursor.getKey(), cursor.getValue()) == null) {
+                        pendingCommits++;
+                    }
+                }
+            }
+            if (scheduledFlush == null && pendingCommits > 0) {
+                scheduledFlush = executor.schedule(this::flushInBackground, maxCommitDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Discards all pending cursors and failures, for example because they belong to a stream that is no longer active.
+     * Waits for a commit that is currently running, so that no cursors are committed or restored after the reset.
+     */
+    void reset() {
+        flushLock.lock();
+        lock.lock();
+        try {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            pending = new LinkedHashMap<>();
+            pendingCommits = 0;
+            failure = null;
+        } finally {
+            lock.unlock();
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
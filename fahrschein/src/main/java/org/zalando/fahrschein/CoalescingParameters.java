@@ -0,0 +1,78 @@
+package org.zalando.fahrschein;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+
+/**
+ * Configures how events of consecutive batches are accumulated before invoking the {@link Listener}, see {@link StreamBuilder#withBatchCoalescing(CoalescingParameters)}.
+ *
+ * Accumulated events are handed over as soon as one of the thresholds is reached.
+ */
+public final class CoalescingParameters {
+
+    private static final int DEFAULT_MIN_EVENTS = 500;
+    private static final long DEFAULT_MIN_BYTES = 1024 * 1024;
+    private static final long DEFAULT_MAX_LINGER_MILLIS = 1000;
+
+    private final int minEvents;
+    private final long minBytes;
+    private final long maxLingerNanos;
+
+    private CoalescingParameters(int minEvents, long minBytes, long maxLingerNanos) {
+        this.minEvents = minEvents;
+        this.minBytes = minBytes;
+        this.maxLingerNanos = maxLingerNanos;
+    }
+
+    public CoalescingParameters() {
+        this(DEFAULT_MIN_EVENTS, DEFAULT_MIN_BYTES, TimeUnit.MILLISECONDS.toNanos(DEFAULT_MAX_LINGER_MILLIS));
+    }
+
+    /**
+     * Number of accumulated events that triggers invoking the listener, defaults to 500.
+     *
+     * When using the subscription api, max_uncommitted_events of the {@link StreamParameters} needs to be bigger than this number,
+     * otherwise nakadi stops sending events before the threshold is reached and the listener is only invoked after the maximum linger time.
+     */
+    public CoalescingParameters withMinEvents(int minEvents) {
+        checkArgument(minEvents > 0, "Minimum number of events should be bigger than 0");
+        return new CoalescingParameters(minEvents, minBytes, maxLingerNanos);
+    }
+
+    /**
+     * Estimated size in bytes of the accumulated events that triggers invoking the listener, defaults to 1 MiB.
+     * The size is estimated from the length of the serialized events in the stream.
+     */
+    public CoalescingParameters withMinBytes(long minBytes) {
+        checkArgument(minBytes > 0, "Minimum number of bytes should be bigger than 0");
+        return new CoalescingParameters(minEvents, minBytes, maxLingerNanos);
+    }
+
+    /**
+     * Maximum time events are accumulated after the first of them was received, defaults to one second.
+     *
+     * The time is only checked when the next batch arrives, so the listener might be invoked later, at most
+     * after the batch_flush_timeout of the {@link StreamParameters}, when nakadi sends an empty keep alive batch.
+     */
+    public CoalescingParameters withMaxLinger(long maxLinger, TimeUnit timeUnit) {
+        checkArgument(maxLinger >= 0, "Maximum linger time should not be negative");
+        return new CoalescingParameters(minEvents, minBytes, timeUnit.toNanos(maxLinger));
+    }
+
+    public int getMinEvents() {
+        return minEvents;
+    }
+
+    public long getMinBytes() {
+        return minBytes;
+    }
+
+    public long getMaxLinger(TimeUnit timeUnit) {
+        return timeUnit.convert(maxLingerNanos, TimeUnit.NANOSECONDS);
+    }
+
+    long getMaxLingerNanos() {
+        return maxLingerNanos;
+    }
+}
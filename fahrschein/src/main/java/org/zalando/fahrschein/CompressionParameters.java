@@ -0,0 +1,50 @@
+package org.zalando.fahrschein;
+
+import java.util.zip.Deflater;
+
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+
+/**
+ * Configures the gzip compression of published events and subscription requests, see {@link NakadiClientBuilder#withRequestCompression(CompressionParameters)}.
+ */
+public final class CompressionParameters {
+
+    private static final int DEFAULT_LEVEL = 6;
+    private static final int DEFAULT_MIN_SIZE = 1024;
+
+    private final int level;
+    private final int minSize;
+
+    private CompressionParameters(int level, int minSize) {
+        this.level = level;
+        this.minSize = minSize;
+    }
+
+    public CompressionParameters() {
+        this(DEFAULT_LEVEL, DEFAULT_MIN_SIZE);
+    }
+
+    /**
+     * Compression level from 1 for the fastest to 9 for the best compression, defaults to 6.
+     */
+    public CompressionParameters withLevel(int level) {
+        checkArgument(level >= Deflater.BEST_SPEED && level <= Deflater.BEST_COMPRESSION, "Compression level should be between 1 and 9");
+        return new CompressionParameters(level, minSize);
+    }
+
+    /**
+     * Request bodies smaller than this number of bytes are sent uncompressed, defaults to 1 KiB.
+     */
+    public CompressionParameters withMinSize(int minSize) {
+        checkArgument(minSize >= 0, "Minimum size should not be negative");
+        return new CompressionParameters(level, minSize);
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+}
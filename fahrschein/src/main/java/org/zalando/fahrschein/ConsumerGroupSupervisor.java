@@ -0,0 +1,217 @@
+package org.zalando.fahrschein;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+import static org.zalando.fahrschein.Preconditions.checkState;
+
+/**
+ * Owns a group of streams, starts them in parallel and stops them in a coordinated way.
+ *
+ * On {@link #shutdown(long, TimeUnit) shutdown} all streams stop reading new batches, batches that are currently processed by a listener
+ * are finished and their cursors committed, pending cursors are flushed and connections closed. Streams that did not stop
+ * within the deadline are interrupted, which might lead to redelivery of the batch they were processing.
+ */
+public final class ConsumerGroupSupervisor implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConsumerGroupSupervisor.class);
+    private static final long DEFAULT_SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    public enum State {
+        NEW, RUNNING, STOPPING, STOPPED, FAILED
+    }
+
+    private final StreamRunner streamRunner;
+    private final boolean ownsStreamRunner;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, SupervisedStream> streams = new LinkedHashMap<>();
+    private boolean started;
+
+    public ConsumerGroupSupervisor() {
+        this(StreamRunner.create("fahrschein-stream-"), true);
+    }
+
+    /**
+     * @param streamRunner Runner for the supervised streams, it is not closed by this supervisor.
+     */
+    public ConsumerGroupSupervisor(StreamRunner streamRunner) {
+        this(streamRunner, false);
+    }
+
+    private ConsumerGroupSupervisor(StreamRunner streamRunner, boolean ownsStreamRunner) {
+        this.streamRunner = streamRunner;
+        this.ownsStreamRunner = ownsStreamRunner;
+    }
+
+    private static class SupervisedStream {
+        private final String name;
+        private final IORunnable runnable;
+        private volatile State state = State.NEW;
+        @Nullable
+        private volatile Throwable failure;
+        @Nullable
+        private Future<?> future;
+
+        SupervisedStream(String name, IORunnable runnable) {
+            this.name = name;
+            this.runnable = runnable;
+        }
+
+        void run() throws IOException {
+            state = State.RUNNING;
+            try {
+                runnable.run();
+                state = State.STOPPED;
+            } catch (IOException | RuntimeException | Error e) {
+                failure = e;
+                state = State.FAILED;
+                throw e;
+            }
+        }
+
+        void stop() {
+            if (state == State.RUNNING) {
+                state = State.STOPPING;
+            }
+            if (runnable instanceof StoppableRunnable) {
+                ((StoppableRunnable) runnable).stop();
+            } else if (future != null) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    public <T> ConsumerGroupSupervisor add(String name, StreamBuilder streamBuilder, Class<T> eventClass, Listener<T> listener) {
+        return add(name, streamBuilder.runnable(eventClass, listener));
+    }
+
+    public <T> ConsumerGroupSupervisor add(String name, StreamBuilder streamBuilder, EventReader<T> eventReader, Listener<T> listener) {
+        return add(name, streamBuilder.runnable(eventReader, listener));
+    }
+
+    /**
+     * Adds a stream, for example one created by {@link StreamBuilder#runnable(Class, Listener)}.
+     * Streams are stopped gracefully if they implement {@link StoppableRunnable}, other runnables can only be stopped by interrupting them.
+     */
+    public ConsumerGroupSupervisor add(String name, IORunnable stream) {
+        lock.lock();
+        try {
+            checkState(!started, "Streams can only be added before starting");
+            checkArgument(!streams.containsKey(name), "Stream [%s] was already added", name);
+            streams.put(name, new SupervisedStream(name, stream));
+            return this;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void start() {
+        lock.lock();
+        try {
+            checkState(!started, "Supervisor was already started");
+            started = true;
+            for (SupervisedStream stream : streams.values()) {
+                LOG.info("Starting stream [{}]", stream.name);
+                stream.future = streamRunner.start(stream::run);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, State> getStates() {
+        final Map<String, State> states = new LinkedHashMap<>();
+        for (SupervisedStream stream : streams.values()) {
+            states.put(stream.name, stream.state);
+        }
+        return Collections.unmodifiableMap(states);
+    }
+
+    /**
+     * @return The failure of the given stream or {@code null} if it did not fail.
+     */
+    @Nullable
+    public Throwable getFailure(String name) {
+        final SupervisedStream stream = streams.get(name);
+        checkArgument(stream != null, "Unknown stream [%s]", name);
+        return stream.failure;
+    }
+
+    /**
+     * @return {@code true} if all streams are running.
+     */
+    public boolean isHealthy() {
+        for (SupervisedStream stream : streams.values()) {
+            if (stream.state != State.RUNNING) {
+                return false;
+            }
+        }
+        return !streams.isEmpty();
+    }
+
+    /**
+     * Stops all streams gracefully and waits for them up to the given timeout, remaining streams are interrupted afterwards.
+     *
+     * @return {@code true} if all streams stopped within the timeout.
+     */
+    public boolean shutdown(long timeout, TimeUnit timeUnit) {
+        final long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+
+        lock.lock();
+        try {
+            for (SupervisedStream stream : streams.values()) {
+                LOG.info("Stopping stream [{}]", stream.name);
+                stream.stop();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        boolean stoppedInTime = true;
+        for (SupervisedStream stream : streams.values()) {
+            if (stream.future == null) {
+                continue;
+            }
+            try {
+                stream.future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                LOG.warn("Stream [{}] did not stop in time, interrupting it", stream.name);
+                stream.future.cancel(true);
+                stoppedInTime = false;
+            } catch (ExecutionException | CancellationException e) {
+                LOG.debug("Stream [{}] terminated with failure", stream.name, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stream.future.cancel(true);
+                stoppedInTime = false;
+            }
+        }
+        return stoppedInTime;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            shutdown(DEFAULT_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } finally {
+            if (ownsStreamRunner) {
+                streamRunner.close();
+            }
+        }
+    }
+}
@@ -25,4 +25,11 @@ public interface CursorManager {
 
     }
 
+    /**
+     * Commits cursors that were buffered by previous calls to {@code onSuccess}. Called before a stream gets closed for reconnecting.
+     */
+    default void flush() throws IOException {
+
+    }
+
 }
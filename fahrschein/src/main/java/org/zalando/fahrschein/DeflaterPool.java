@@ -0,0 +1,33 @@
+package org.zalando.fahrschein;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Reuses {@link Deflater} instances, which allocate native memory for their state, between requests.
+ */
+final class DeflaterPool {
+    private final int level;
+    private final BlockingQueue<Deflater> deflaters;
+
+    DeflaterPool(int level, int maxIdle) {
+        this.level = level;
+        this.deflaters = new ArrayBlockingQueue<>(maxIdle);
+    }
+
+    /**
+     * Returns an idle deflater without gzip header and trailer, or creates one if all are in use.
+     */
+    Deflater acquire() {
+        final Deflater deflater = deflaters.poll();
+        return deflater != null ? deflater : new Deflater(level, true);
+    }
+
+    void release(Deflater deflater) {
+        deflater.reset();
+        if (!deflaters.offer(deflater)) {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package org.zalando.fahrschein;
+
+import org.zalando.fahrschein.domain.Event;
+import org.zalando.fahrschein.domain.Metadata;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+
+/**
+ * Drops events whose {@link Metadata#getEid() eid} was already processed, for example because they are delivered again after reconnecting.
+ *
+ * Eids are remembered in two generations of fixed size open addressing tables of 128 bit values, so memory usage does not grow
+ * with the number of events. When the current generation is full the older one is cleared and reused, so at least the last
+ * {@code capacity} eids are remembered. Eids in uuid format are stored exactly, other eids are hashed and could cause false positives,
+ * which are counted separately. Events that do not implement {@link Event} or have no eid are never dropped.
+ *
+ * Eids are only remembered after the {@link Listener} processed the batch successfully, so events of a failed batch will be delivered again.
+ * For a {@link StreamBuilder#publisher(EventReader, java.util.concurrent.Executor) publisher}, eids are remembered when the batch is
+ * {@link AcknowledgeableBatch#acknowledge() acknowledged}.
+ * An instance should only be used for a single stream.
+ */
+public final class EidDeduplicator {
+
+    private final int capacity;
+    private final int mask;
+    private long[] current;
+    private long[] previous;
+    private int currentSize;
+    private boolean currentContainsZero;
+    private boolean previousContainsZero;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private long duplicates;
+    private long hashedEids;
+
+    /**
+     * @param capacity the minimum number of eids to remember, memory usage is about {@code 64 * capacity} bytes
+     */
+    public EidDeduplicator(int capacity) {
+        checkArgument(capacity > 0, "Capacity should be bigger than 0");
+        checkArgument(capacity <= 1 << 28, "Capacity should not be bigger than 2^28");
+
+        // keep the load factor at or below 0.5
+        final int slots = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        this.capacity = capacity;
+        this.mask = slots - 1;
+        this.current = new long[slots * 2];
+        this.previous = new long[slots * 2];
+    }
+
+    /**
+     * @return the number of events that were dropped as duplicates
+     */
+    public long getDuplicates() {
+        lock.lock();
+        try {
+            return duplicates;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of processed eids that were not in uuid format and are stored as a hash, which might lead to false positives
+     */
+    public long getHashedEids() {
+        lock.lock();
+        try {
+            return hashedEids;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    <T> EventReader<T> wrapEventReader(EventReader<T> eventReader) {
+        return jsonParser -> removeDuplicates(eventReader.read(jsonParser));
+    }
+
+    <T> Listener<T> wrapListener(Listener<T> listener) {
+        return events -> {
+            listener.accept(events);
+            markProcessed(events);
+        };
+    }
+
+    private <T> List<T> removeDuplicates(List<T> events) {
+        lock.lock();
+        try {
+            // only allocate a new list if there actually are duplicates
+            List<T> result = null;
+            for (int i = 0; i < events.size(); i++) {
+                final T event = events.get(i);
+                final String eid = getEid(event);
+                if (eid != null && contains(eid)) {
+                    duplicates++;
+                    if (result == null) {
+                        result = new ArrayList<>(events.subList(0, i));
+                    }
+                } else if (result != null) {
+                    result.add(event);
+                }
+            }
+            return result != null ? result : events;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    <T> void markProcessed(List<T> events) {
+        lock.lock();
+        try {
+            for (int i = 0; i < events.size(); i++) {
+                final String eid = getEid(events.get(i));
+                if (eid != null) {
+                    add(eid);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Nullable
+    private static String getEid(Object event) {
+        if (event instanceof Event) {
+            final Metadata metadata = ((Event) event).getMetadata();
+            return metadata == null ? null : metadata.getEid();
+        }
+        return null;
+    }
+
+    private boolean contains(String eid) {
+        final long hi = mostSignificantBits(eid);
+        final long lo = leastSignificantBits(eid);
+        if (hi == 0 && lo == 0) {
+            return currentContainsZero || previousContainsZero;
+        }
+        return contains(current, hi, lo) || contains(previous, hi, lo);
+    }
+
+    private boolean contains(long[] table, long hi, long lo) {
+        for (int slot = slot(hi, lo); ; slot = (slot + 1) & mask) {
+            final long h = table[2 * slot];
+            final long l = table[2 * slot + 1];
+            if (h == hi && l == lo) {
+                return true;
+            } else if (h == 0 && l == 0) {
+                return false;
+            }
+        }
+    }
+
+    private void add(String eid) {
+        final long hi = mostSignificantBits(eid);
+        final long lo = leastSignificantBits(eid);
+        if (!isUuid(eid)) {
+            hashedEids++;
+        }
+        if (hi == 0 && lo == 0) {
+            currentContainsZero = true;
+            return;
+        }
+        if (contains(current, hi, lo)) {
+            return;
+        }
+        if (currentSize >= capacity) {
+            rotate();
+        }
+        for (int slot = slot(hi, lo); ; slot = (slot + 1) & mask) {
+            if (current[2 * slot] == 0 && current[2 * slot + 1] == 0) {
+                current[2 * slot] = hi;
+                current[2 * slot + 1] = lo;
+                currentSize++;
+                return;
+            }
+        }
+    }
+
+    private void rotate() {
+        final long[] table = previous;
+        Arrays.fill(table, 0L);
+        previous = current;
+        current = table;
+        previousContainsZero = currentContainsZero;
+        currentContainsZero = false;
+        currentSize = 0;
+    }
+
+    private int slot(long hi, long lo) {
+        long h = hi * 31 + lo;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private static long mostSignificantBits(String eid) {
+        if (isUuid(eid)) {
+            return hex(eid, 0, 8) << 32 | hex(eid, 9, 13) << 16 | hex(eid, 14, 18);
+        }
+        return fnv(eid, 0xcbf29ce484222325L);
+    }
+
+    private static long leastSignificantBits(String eid) {
+        if (isUuid(eid)) {
+            return hex(eid, 19, 23) << 48 | hex(eid, 24, 36);
+        }
+        return fnv(eid, 0x84222325cbf29ce4L);
+    }
+
+    private static boolean isUuid(String eid) {
+        if (eid.length() != 36 || eid.charAt(8) != '-' || eid.charAt(13) != '-' || eid.charAt(18) != '-' || eid.charAt(23) != '-') {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            if (i != 8 && i != 13 && i != 18 && i != 23 && Character.digit(eid.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hex(String eid, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            value = value << 4 | Character.digit(eid.charAt(i), 16);
+        }
+        return value;
+    }
+
+    private static long fnv(String eid, long seed) {
+        long hash = seed;
+        for (int i = 0; i < eid.length(); i++) {
+            hash ^= eid.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
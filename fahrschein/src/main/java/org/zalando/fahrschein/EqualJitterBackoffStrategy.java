@@ -25,6 +25,10 @@ public class EqualJitterBackoffStrategy extends ExponentialBackoffStrategy {
         return new EqualJitterBackoffStrategy(super.withMaxRetries(maxRetries));
     }
 
+    public EqualJitterBackoffStrategy withMetricsCollector(MetricsCollector metricsCollector) {
+        return new EqualJitterBackoffStrategy(super.withMetricsCollector(metricsCollector));
+    }
+
     protected long calculateDelay(double count) {
         final long ceil = super.calculateDelay(count);
         return (ceil / 2) + (long)(random.nextDouble() * ceil / 2);
@@ -3,8 +3,19 @@ package org.zalando.fahrschein;
 import com.fasterxml.jackson.core.JsonParser;
 
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 
 public interface EventReader<T> {
     List<T> read(JsonParser jsonParser) throws IOException;
+
+    /**
+     * Reads the events of a batch one by one for an {@link EventStreamListener}. The parser is positioned behind the events
+     * once the returned iterator is exhausted, failures while reading are thrown as {@link java.io.UncheckedIOException}.
+     *
+     * The default implementation reads the whole batch using {@link #read(JsonParser)}.
+     */
+    default Iterator<T> iterate(JsonParser jsonParser) throws IOException {
+        return read(jsonParser).iterator();
+    }
 }
@@ -0,0 +1,19 @@
+package org.zalando.fahrschein;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Alternative to {@link Listener} that receives the events of a batch one by one while the batch is still being parsed,
+ * so that only a single event has to be kept in memory at a time.
+ *
+ * The cursor of the batch is committed after this method returned and the iterator was fully consumed.
+ * Failures while reading events are thrown as {@link java.io.UncheckedIOException} by the iterator and lead to a reconnect,
+ * same as with a {@link Listener}. Returning without consuming all events is an error and stops the stream.
+ */
+@FunctionalInterface
+public interface EventStreamListener<T> {
+
+    void accept(final Iterator<T> events) throws IOException, EventAlreadyProcessedException;
+
+}
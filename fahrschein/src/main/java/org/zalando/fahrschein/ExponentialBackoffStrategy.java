@@ -19,26 +19,39 @@ public class ExponentialBackoffStrategy implements BackoffStrategy {
     private final double backoffFactor;
     private final long maxDelay;
     private final int maxRetries;
+    private final MetricsCollector metricsCollector;
 
     public ExponentialBackoffStrategy() {
         this(DEFAULT_INITIAL_DELAY, DEFAULT_BACKOFF_FACTOR, DEFAULT_MAX_DELAY, -1);
     }
 
     public ExponentialBackoffStrategy(int initialDelay, double backoffFactor, long maxDelay, int maxRetries) {
+        this(initialDelay, backoffFactor, maxDelay, maxRetries, NoMetricsCollector.NO_METRICS_COLLECTOR);
+    }
+
+    private ExponentialBackoffStrategy(int initialDelay, double backoffFactor, long maxDelay, int maxRetries, MetricsCollector metricsCollector) {
         checkState(initialDelay > 0, "Initial delay should be bigger than 0");
 
         this.initialDelay = initialDelay;
         this.backoffFactor = backoffFactor;
         this.maxDelay = maxDelay;
         this.maxRetries = maxRetries;
+        this.metricsCollector = metricsCollector;
     }
 
     protected ExponentialBackoffStrategy(ExponentialBackoffStrategy other) {
-        this(other.initialDelay, other.backoffFactor, other.maxDelay, other.maxRetries);
+        this(other.initialDelay, other.backoffFactor, other.maxDelay, other.maxRetries, other.metricsCollector);
     }
 
     public ExponentialBackoffStrategy withMaxRetries(int maxRetries) {
-        return new ExponentialBackoffStrategy(initialDelay, backoffFactor, maxDelay, maxRetries);
+        return new ExponentialBackoffStrategy(initialDelay, backoffFactor, maxDelay, maxRetries, metricsCollector);
+    }
+
+    /**
+     * Reports the time slept before each retry to {@link MetricsCollector#timeBackoff(long)}.
+     */
+    public ExponentialBackoffStrategy withMetricsCollector(MetricsCollector metricsCollector) {
+        return new ExponentialBackoffStrategy(initialDelay, backoffFactor, maxDelay, maxRetries, metricsCollector);
     }
 
     protected long calculateDelay(double count) {
@@ -48,7 +61,16 @@ public class ExponentialBackoffStrategy implements BackoffStrategy {
     private void sleepForRetries(final int count) throws InterruptedException {
         final long delay = calculateDelay(count);
         LOG.info("Retry [{}], sleeping for [{}] milliseconds", count, delay);
-        Thread.sleep(delay);
+        if (metricsCollector.isTimingEnabled()) {
+            final long start = System.nanoTime();
+            try {
+                Thread.sleep(delay);
+            } finally {
+                metricsCollector.timeBackoff(System.nanoTime() - start);
+            }
+        } else {
+            Thread.sleep(delay);
+        }
     }
 
     private void checkMaxRetries(final IOException exception, final int count) throws BackoffException {
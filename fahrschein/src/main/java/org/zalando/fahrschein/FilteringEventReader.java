@@ -0,0 +1,193 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserSequence;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.zalando.fahrschein.domain.Metadata;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.zalando.fahrschein.JsonParserHelper.expectToken;
+
+/**
+ * Reads only those events whose {@code metadata} matches the given predicate. The metadata of each event is decoded first,
+ * properties of rejected events are skipped without deserializing them. Events without metadata are always accepted.
+ * When the metadata is the first property, as in events sent by nakadi, accepted events are bound directly from the stream,
+ * otherwise the properties preceding the metadata are buffered.
+ *
+ * Filtered events still belong to the batch, so its cursor is committed even if all events of a batch were rejected.
+ * The number of rejected events per batch is reported to {@link MetricsCollector#markEventsFiltered(int)}.
+ */
+public class FilteringEventReader<T> implements EventReader<T> {
+    private static final String METADATA = "metadata";
+
+    private final Class<T> eventClass;
+    private final ObjectReader eventReader;
+    private final ObjectReader metadataReader;
+    private final Predicate<Metadata> predicate;
+    private final MetricsCollector metricsCollector;
+
+    public FilteringEventReader(Class<T> eventClass, ObjectMapper objectMapper, Predicate<Metadata> predicate) {
+        this(eventClass, objectMapper, predicate, NoMetricsCollector.NO_METRICS_COLLECTOR);
+    }
+
+    public FilteringEventReader(Class<T> eventClass, ObjectMapper objectMapper, Predicate<Metadata> predicate, MetricsCollector metricsCollector) {
+        this.eventClass = eventClass;
+        this.eventReader = objectMapper.readerFor(eventClass);
+        this.metadataReader = objectMapper.readerFor(Metadata.class).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.predicate = predicate;
+        this.metricsCollector = metricsCollector;
+    }
+
+    /**
+     * Accepts events with one of the given event types.
+     */
+    public static Predicate<Metadata> eventTypeIn(String... eventTypes) {
+        final Set<String> set = new HashSet<>(Arrays.asList(eventTypes));
+        return metadata -> set.contains(metadata.getEventType());
+    }
+
+    /**
+     * Accepts events that occurred at or after {@code from} and before {@code to}.
+     */
+    public static Predicate<Metadata> occurredBetween(OffsetDateTime from, OffsetDateTime to) {
+        return metadata -> {
+            final OffsetDateTime occurredAt = metadata.getOccurredAt();
+            return occurredAt != null && !occurredAt.isBefore(from) && occurredAt.isBefore(to);
+        };
+    }
+
+    @Override
+    public List<T> read(JsonParser jsonParser) throws IOException {
+        expectToken(jsonParser, JsonToken.START_ARRAY);
+
+        final List<T> events = new ArrayList<>();
+        int filtered = 0;
+
+        JsonToken token;
+        while ((token = jsonParser.nextToken()) != JsonToken.END_ARRAY) {
+            expectToken(token, JsonToken.START_OBJECT);
+            final JsonStreamContext arrayContext = jsonParser.getParsingContext().getParent();
+
+            try {
+                if (jsonParser.nextToken() == JsonToken.FIELD_NAME && METADATA.equals(jsonParser.getCurrentName())) {
+                    if (!readWithLeadingMetadata(jsonParser, events)) {
+                        filtered++;
+                    }
+                } else {
+                    final TokenBuffer buffer = readIfAccepted(jsonParser);
+                    if (buffer == null) {
+                        filtered++;
+                    } else {
+                        events.add(eventClass.cast(eventReader.readValue(buffer.asParser())));
+                    }
+                }
+            } catch (JsonMappingException e) {
+                // the event might have been bound directly from the stream, so skip its remaining properties
+                while (jsonParser.getParsingContext() != arrayContext && jsonParser.nextToken() != null) {
+                    jsonParser.skipChildren();
+                }
+                onMappingException(e);
+            }
+        }
+
+        if (filtered > 0) {
+            metricsCollector.markEventsFiltered(filtered);
+        }
+
+        return events;
+    }
+
+    /**
+     * Reads the metadata at the current field of the event, skips the remaining properties if it is rejected. Otherwise the event
+     * is bound from the buffered metadata followed by the remaining properties, which are read directly from the stream.
+     *
+     * @return whether the event was accepted
+     */
+    private boolean readWithLeadingMetadata(JsonParser jsonParser, List<T> events) throws IOException {
+        final TokenBuffer buffer = new TokenBuffer(jsonParser);
+        buffer.writeStartObject();
+        buffer.writeFieldName(METADATA);
+        final JsonToken token = jsonParser.nextToken();
+        buffer.copyCurrentStructure(jsonParser);
+
+        if (token == JsonToken.START_OBJECT) {
+            final JsonParser metadataParser = buffer.asParser();
+            // skip the start of the event and the field name
+            metadataParser.nextToken();
+            metadataParser.nextToken();
+            metadataParser.nextToken();
+            final Metadata metadata = metadataReader.readValue(metadataParser);
+            if (!predicate.test(metadata)) {
+                skipRemainingProperties(jsonParser);
+                return false;
+            }
+        }
+
+        events.add(eventClass.cast(eventReader.readValue(JsonParserSequence.createFlattened(false, buffer.asParser(), jsonParser))));
+        return true;
+    }
+
+    /**
+     * Copies the current event, starting at its current field, into a buffer until its metadata is found, skips the remaining properties if it is rejected.
+     *
+     * @return the buffered event or {@code null} if it was rejected
+     */
+    @Nullable
+    private TokenBuffer readIfAccepted(JsonParser jsonParser) throws IOException {
+        final TokenBuffer buffer = new TokenBuffer(jsonParser);
+        buffer.writeStartObject();
+
+        for (JsonToken fieldToken = jsonParser.getCurrentToken(); fieldToken == JsonToken.FIELD_NAME; fieldToken = jsonParser.nextToken()) {
+            final String field = jsonParser.getCurrentName();
+            final JsonToken token = jsonParser.nextToken();
+
+            buffer.writeFieldName(field);
+
+            if (METADATA.equals(field) && token == JsonToken.START_OBJECT) {
+                final TokenBuffer metadataBuffer = new TokenBuffer(jsonParser);
+                metadataBuffer.copyCurrentStructure(jsonParser);
+
+                final Metadata metadata = metadataReader.readValue(metadataBuffer.asParser());
+                if (!predicate.test(metadata)) {
+                    skipRemainingProperties(jsonParser);
+                    return null;
+                }
+
+                buffer.append(metadataBuffer);
+            } else {
+                buffer.copyCurrentStructure(jsonParser);
+            }
+        }
+        expectToken(jsonParser.getCurrentToken(), JsonToken.END_OBJECT);
+
+        buffer.writeEndObject();
+        return buffer;
+    }
+
+    private static void skipRemainingProperties(JsonParser jsonParser) throws IOException {
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            jsonParser.nextToken();
+            jsonParser.skipChildren();
+        }
+        expectToken(jsonParser.getCurrentToken(), JsonToken.END_OBJECT);
+    }
+
+    protected void onMappingException(JsonMappingException exception) throws IOException {
+        throw exception;
+    }
+}
@@ -25,6 +25,10 @@ public class FullJitterBackoffStrategy extends ExponentialBackoffStrategy {
         return new FullJitterBackoffStrategy(super.withMaxRetries(maxRetries));
     }
 
+    public FullJitterBackoffStrategy withMetricsCollector(MetricsCollector metricsCollector) {
+        return new FullJitterBackoffStrategy(super.withMetricsCollector(metricsCollector));
+    }
+
     protected long calculateDelay(double count) {
         final long ceil = super.calculateDelay(count);
         return (long)(random.nextDouble() * ceil);
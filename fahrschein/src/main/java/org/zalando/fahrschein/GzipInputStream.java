@@ -0,0 +1,167 @@
+package org.zalando.fahrschein;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decompresses a gzip stream like {@link java.util.zip.GZIPInputStream}, but with an {@link Inflater} from a pool.
+ *
+ * Reads return as soon as any decompressed bytes are available, the underlying stream is only read when the inflater needs more input,
+ * so that a small keep alive batch is returned without waiting for further data. Closing this stream returns the inflater to the pool,
+ * but does not close the underlying stream, which is owned by the response.
+ */
+final class GzipInputStream extends InputStream {
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private final InputStream in;
+    private final InflaterPool inflaterPool;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final byte[] single = new byte[1];
+    private final CRC32 crc = new CRC32();
+    private Inflater inflater;
+    // Range of the buffer that was not passed to the inflater, only used while reading the header and trailer
+    private int position;
+    private int limit;
+    private boolean headerRead;
+    private boolean eof;
+
+    GzipInputStream(InputStream in, InflaterPool inflaterPool) {
+        this.in = in;
+        this.inflaterPool = inflaterPool;
+        this.inflater = inflaterPool.acquire();
+    }
+
+    @Override
+    public int read() throws IOException {
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (inflater == null) {
+            throw new IOException("Stream closed");
+        }
+        if (eof) {
+            return -1;
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (!headerRead) {
+            readHeader();
+            headerRead = true;
+            inflater.setInput(buffer, position, limit - position);
+        }
+
+        try {
+            while (true) {
+                final int n = inflater.inflate(b, off, len);
+                if (n > 0) {
+                    crc.update(b, off, n);
+                    return n;
+                }
+                if (inflater.finished()) {
+                    position = limit - inflater.getRemaining();
+                    readTrailer();
+                    eof = true;
+                    return -1;
+                }
+                if (inflater.needsDictionary()) {
+                    throw new ZipException("Unsupported preset dictionary");
+                }
+                if (inflater.needsInput()) {
+                    fill();
+                    inflater.setInput(buffer, 0, limit);
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException(e.getMessage());
+        }
+    }
+
+    private void readHeader() throws IOException {
+        if (readUnsignedByte() != 0x1f || readUnsignedByte() != 0x8b) {
+            throw new ZipException("Not in gzip format");
+        }
+        if (readUnsignedByte() != 8) {
+            throw new ZipException("Unsupported compression method");
+        }
+        final int flags = readUnsignedByte();
+        // modification time, extra flags and operating system
+        skipBytes(6);
+        if ((flags & FEXTRA) == FEXTRA) {
+            skipBytes(readUnsignedByte() | readUnsignedByte() << 8);
+        }
+        if ((flags & FNAME) == FNAME) {
+            skipZeroTerminated();
+        }
+        if ((flags & FCOMMENT) == FCOMMENT) {
+            skipZeroTerminated();
+        }
+        if ((flags & FHCRC) == FHCRC) {
+            skipBytes(2);
+        }
+    }
+
+    private void readTrailer() throws IOException {
+        if (readInt() != crc.getValue()) {
+            throw new ZipException("Corrupt gzip trailer");
+        }
+        if (readInt() != (inflater.getBytesWritten() & 0xffffffffL)) {
+            throw new ZipException("Corrupt gzip trailer");
+        }
+    }
+
+    private long readInt() throws IOException {
+        return (readUnsignedByte() | readUnsignedByte() << 8 | readUnsignedByte() << 16 | (long) readUnsignedByte() << 24);
+    }
+
+    private void skipBytes(int n) throws IOException {
+        for (int i = 0; i < n; i++) {
+            readUnsignedByte();
+        }
+    }
+
+    private void skipZeroTerminated() throws IOException {
+        while (readUnsignedByte() != 0) {
+            // skip
+        }
+    }
+
+    private int readUnsignedByte() throws IOException {
+        if (position == limit) {
+            fill();
+        }
+        return buffer[position++] & 0xff;
+    }
+
+    private void fill() throws IOException {
+        int n;
+        do {
+            n = in.read(buffer, 0, buffer.length);
+        } while (n == 0);
+        if (n < 0) {
+            throw new EOFException("Unexpected end of gzip stream");
+        }
+        position = 0;
+        limit = n;
+    }
+
+    @Override
+    public void close() {
+        if (inflater != null) {
+            inflaterPool.release(inflater);
+            inflater = null;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.zalando.fahrschein;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes the gzip format like {@link java.util.zip.GZIPOutputStream}, but with a given {@link Deflater}, which is not ended when this stream is closed.
+ * The deflater has to be created without zlib header, see {@link Deflater#Deflater(int, boolean)}.
+ */
+final class GzipOutputStream extends DeflaterOutputStream {
+    private static final byte[] HEADER = {
+            0x1f, (byte) 0x8b, // magic number
+            Deflater.DEFLATED, // compression method
+            0, // flags
+            0, 0, 0, 0, // modification time
+            0, // extra flags
+            0 // operating system
+    };
+
+    private final CRC32 crc = new CRC32();
+
+    GzipOutputStream(OutputStream out, Deflater deflater, int bufferSize) throws IOException {
+        super(out, deflater, bufferSize);
+        out.write(HEADER);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        super.write(b, off, len);
+        crc.update(b, off, len);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (def.finished()) {
+            return;
+        }
+        def.finish();
+        while (!def.finished()) {
+            final int len = def.deflate(buf, 0, buf.length);
+            if (len > 0) {
+                out.write(buf, 0, len);
+            }
+        }
+        final byte[] trailer = new byte[8];
+        writeInt(trailer, 0, (int) crc.getValue());
+        writeInt(trailer, 4, (int) def.getBytesRead());
+        out.write(trailer);
+    }
+
+    private static void writeInt(byte[] b, int offset, int value) {
+        b[offset] = (byte) value;
+        b[offset + 1] = (byte) (value >> 8);
+        b[offset + 2] = (byte) (value >> 16);
+        b[offset + 3] = (byte) (value >> 24);
+    }
+}
@@ -0,0 +1,31 @@
+package org.zalando.fahrschein;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Inflater;
+
+/**
+ * Reuses {@link Inflater} instances, which allocate native memory for their state, between streams.
+ */
+final class InflaterPool {
+    private final BlockingQueue<Inflater> inflaters;
+
+    InflaterPool(int maxIdle) {
+        this.inflaters = new ArrayBlockingQueue<>(maxIdle);
+    }
+
+    /**
+     * Returns an idle inflater without zlib header, or creates one if all are in use.
+     */
+    Inflater acquire() {
+        final Inflater inflater = inflaters.poll();
+        return inflater != null ? inflater : new Inflater(true);
+    }
+
+    void release(Inflater inflater) {
+        inflater.reset();
+        if (!inflaters.offer(inflater)) {
+            inflater.end();
+        }
+    }
+}
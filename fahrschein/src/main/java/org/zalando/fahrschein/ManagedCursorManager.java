@@ -11,6 +11,9 @@ import org.zalando.fahrschein.http.api.ContentType;
 import org.zalando.fahrschein.http.api.Request;
 import org.zalando.fahrschein.http.api.RequestFactory;
 import org.zalando.fahrschein.http.api.Response;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -19,18 +22,22 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import static org.zalando.fahrschein.NakadiClientBuilder.wrapClientHttpRequestFactory;
 import static java.util.Collections.singletonList;
+import static org.zalando.fahrschein.Preconditions.checkArgument;
 
-public class ManagedCursorManager implements CursorManager {
+public class ManagedCursorManager implements CursorManager, Closeable {
 
     private static final Logger LOG = LoggerFactory.getLogger(ManagedCursorManager.class);
+    private static final long DEFAULT_COMMIT_TIMEOUT_MILLIS = 60 * 1000L;
 
     static final class SubscriptionStream {
         private final String eventName;
         private final String subscriptionId;
-        private String streamId;
+        // Set by the reading thread, read by the threads committing cursors
+        private volatile String streamId;
 
         SubscriptionStream(String eventName, String subscriptionId) {
             this.eventName = eventName;
@@ -71,32 +78,85 @@ public class ManagedCursorManager implements CursorManager {
     private final RequestFactory clientHttpRequestFactory;
     private final ObjectMapper objectMapper;
     private final Map<String, SubscriptionStream> streams;
+    // Any stream of each subscription, they all share the stream id
+    private final Map<String, SubscriptionStream> streamsBySubscription;
+    @Nullable
+    private final CoalescingCursorCommitter committer;
+    private final MetricsCollector metricsCollector;
 
     public ManagedCursorManager(URI baseUri, RequestFactory clientHttpRequestFactory, AuthorizationProvider authorizationProvider) {
         this(baseUri, wrapClientHttpRequestFactory(clientHttpRequestFactory, authorizationProvider), true);
     }
 
+    /**
+     * Creates a cursor manager that reports the duration of every commit to {@link MetricsCollector#timeCommit(long, int)}.
+     */
+    public ManagedCursorManager(URI baseUri, RequestFactory clientHttpRequestFactory, @Nullable AuthorizationProvider authorizationProvider, MetricsCollector metricsCollector) {
+        this(baseUri, wrapClientHttpRequestFactory(clientHttpRequestFactory, authorizationProvider), metricsCollector);
+    }
+
     public ManagedCursorManager(URI baseUri, RequestFactory clientHttpRequestFactory) {
         this(baseUri, wrapClientHttpRequestFactory(clientHttpRequestFactory, null), true);
     }
 
+    /**
+     * Creates a cursor manager that commits asynchronously. Cursors are collected per subscription and only the latest cursor of each partition
+     * of each event type is committed, in a single request per subscription, after {@code maxPendingCommits} batches were processed or at the latest after {@code maxCommitDelay}.
+     *
+     * The delay has to be considerably lower than the {@link StreamParameters#withCommitTimeout(int) commit timeout} of the stream,
+     * otherwise nakadi will close the stream before the cursors get committed. Similarly, {@code maxPendingCommits} should be
+     * lower than the {@link StreamParameters#withMaxUncommittedEvents(int) maximum number of uncommitted events} divided by the batch limit.
+     * Pending cursors are committed before the stream is reconnected and when this cursor manager is {@link #close() closed}.
+     */
+    public ManagedCursorManager(URI baseUri, RequestFactory clientHttpRequestFactory, @Nullable AuthorizationProvider authorizationProvider, int maxPendingCommits, long maxCommitDelay, TimeUnit timeUnit) {
+        this(baseUri, clientHttpRequestFactory, authorizationProvider, maxPendingCommits, maxCommitDelay, timeUnit, NoMetricsCollector.NO_METRICS_COLLECTOR);
+    }
+
+    public ManagedCursorManager(URI baseUri, RequestFactory clientHttpRequestFactory, @Nullable AuthorizationProvider authorizationProvider, int maxPendingCommits, long maxCommitDelay, TimeUnit timeUnit, MetricsCollector metricsCollector) {
+        this(baseUri, wrapClientHttpRequestFactory(clientHttpRequestFactory, authorizationProvider), maxPendingCommits, timeUnit.toMillis(maxCommitDelay), metricsCollector);
+    }
+
     ManagedCursorManager(URI baseUri, RequestFactory clientHttpRequestFactory, boolean clientHttpRequestFactoryIsAlreadyWrapped) {
+        this(baseUri, clientHttpRequestFactory, NoMetricsCollector.NO_METRICS_COLLECTOR);
+    }
+
+    private ManagedCursorManager(URI baseUri, RequestFactory clientHttpRequestFactory, MetricsCollector metricsCollector) {
+        this.baseUri = baseUri;
+        this.clientHttpRequestFactory = clientHttpRequestFactory;
+        this.objectMapper = DefaultObjectMapper.INSTANCE;
+        this.streams = new ConcurrentHashMap<>();
+        this.streamsBySubscription = new ConcurrentHashMap<>();
+        this.committer = null;
+        this.metricsCollector = metricsCollector;
+    }
+
+    private ManagedCursorManager(URI baseUri, RequestFactory clientHttpRequestFactory, int maxPendingCommits, long maxCommitDelayMillis, MetricsCollector metricsCollector) {
+        checkArgument(maxCommitDelayMillis < DEFAULT_COMMIT_TIMEOUT_MILLIS, "Maximum commit delay should be lower than the default commit timeout of [%s] milliseconds", DEFAULT_COMMIT_TIMEOUT_MILLIS);
         this.baseUri = baseUri;
         this.clientHttpRequestFactory = clientHttpRequestFactory;
         this.objectMapper = DefaultObjectMapper.INSTANCE;
         this.streams = new ConcurrentHashMap<>();
+        this.streamsBySubscription = new ConcurrentHashMap<>();
+        this.committer = new CoalescingCursorCommitter(this::commitSubscription, maxPendingCommits, maxCommitDelayMillis, TimeUnit.MILLISECONDS);
+        this.metricsCollector = metricsCollector;
     }
 
     @Override
     public void addSubscription(Subscription subscription) {
         for(String eventName: subscription.getEventTypes()){
             LOG.debug("Adding subscription [{}] to event [{}]", subscription.getId(), eventName);
-            streams.put(eventName, new SubscriptionStream(eventName, subscription.getId()));
+            final SubscriptionStream stream = new SubscriptionStream(eventName, subscription.getId());
+            streams.put(eventName, stream);
+            streamsBySubscription.put(subscription.getId(), stream);
         }
     }
 
     @Override
     public void addStreamId(Subscription subscription, String streamId) {
+        if (committer != null) {
+            // Cursors that could not be committed belong to the previous stream and would be rejected
+            committer.reset();
+        }
         for(String eventName: subscription.getEventTypes()) {
             LOG.debug("Adding stream id [{}] for subscription [{}] to event [{}]", streamId, subscription.getId(), eventName);
             streams.get(eventName).setStreamId(streamId);
@@ -105,12 +165,67 @@ public class ManagedCursorManager implements CursorManager {
 
     @Override
     public void onSuccess(String eventName, Cursor cursor) throws IOException {
+        if (committer != null) {
+            committer.add(streams.get(eventName).getSubscriptionId(), eventName, cursor);
+        } else {
+            commit(eventName, singletonList(cursor));
+        }
+    }
+
+    @Override
+    public void onSuccess(String eventName, List<Cursor> cursors) throws IOException {
+        if (committer != null) {
+            final String subscriptionId = streams.get(eventName).getSubscriptionId();
+            for (Cursor cursor : cursors) {
+                committer.add(subscriptionId, eventName, cursor);
+            }
+        } else if (!cursors.isEmpty()) {
+            commit(eventName, cursors);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (committer != null) {
+            committer.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (committer != null) {
+            committer.close();
+        }
+    }
+
+    private void commit(String eventName, List<Cursor> cursors) throws IOException {
+        commit(streams.get(eventName), cursors);
+    }
+
+    private void commitSubscription(String subscriptionId, List<Cursor> cursors) throws IOException {
+        commit(streamsBySubscription.get(subscriptionId), cursors);
+    }
+
+    private void commit(SubscriptionStream stream, List<Cursor> cursors) throws IOException {
+        if (metricsCollector.isTimingEnabled()) {
+            final long start = System.nanoTime();
+            postCursors(stream, cursors);
+            metricsCollector.timeCommit(System.nanoTime() - start, cursors.size());
+        } else {
+            postCursors(stream, cursors);
+        }
+    }
+
+    private void postCursors(SubscriptionStream stream, List<Cursor> cursors) throws IOException {
 
-        final SubscriptionStream stream = streams.get(eventName);
         final String subscriptionId = stream.getSubscriptionId();
         final URI subscriptionUrl = baseUri.resolve(String.format("/subscriptions/%s/cursors", subscriptionId));
 
-        LOG.debug("Committing cursors for subscription [{}] to event [{}] in partition [{}] with offset [{}]", subscriptionId, stream.getEventName(), cursor.getPartition(), cursor.getOffset());
+        if (LOG.isDebugEnabled()) {
+            for (Cursor cursor : cursors) {
+                LOG.debug("Committing cursors for subscription [{}] to event [{}] in partition [{}] with offset [{}]", subscriptionId, cursor.getEventType() != null ? cursor.getEventType() : stream.getEventName(), cursor.getPartition(), cursor.getOffset());
+            }
+        }
 
         final Request request = clientHttpRequestFactory.createRequest(subscriptionUrl, "POST");
 
@@ -118,29 +233,22 @@ public class ManagedCursorManager implements CursorManager {
         request.getHeaders().put("X-Nakadi-StreamId", stream.getStreamId());
 
         try (OutputStream os = request.getBody()) {
-            objectMapper.writeValue(os, new CursorWrapper(singletonList(cursor)));
+            objectMapper.writeValue(os, new CursorWrapper(cursors));
         }
 
         try (final Response response = request.execute()) {
 
             final int status = response.getStatusCode();
             if (status == 204) {
-                LOG.debug("Successfully committed cursor for subscription [{}] to event [{}] in partition [{}] with offset [{}]", subscriptionId, eventName, cursor.getPartition(), cursor.getOffset());
+                LOG.debug("Successfully committed [{}] cursors for subscription [{}]", cursors.size(), subscriptionId);
             } else if (status == 200) {
-                LOG.warn("Cursor for subscription [{}] to event [{}] in partition [{}] with offset [{}] was already committed", subscriptionId, eventName, cursor.getPartition(), cursor.getOffset());
+                LOG.warn("Some of the [{}] cursors for subscription [{}] were already committed", cursors.size(), subscriptionId);
             } else {
-                throw new IOException(String.format("Unexpected status code [%s] for subscription [%s] to event [%s]", status, subscriptionId, eventName));
+                throw new IOException(String.format("Unexpected status code [%s] for subscription [%s]", status, subscriptionId));
             }
         }
     }
 
-    @Override
-    public void onSuccess(String eventName, List<Cursor> cursors) throws IOException {
-        for (Cursor cursor : cursors) {
-            onSuccess(eventName, cursor);
-        }
-    }
-
     @Override
     public Collection<Cursor> getCursors(String eventName) throws IOException {
         final SubscriptionStream stream = streams.get(eventName);
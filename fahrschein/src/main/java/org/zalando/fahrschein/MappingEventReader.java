@@ -8,14 +8,19 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import static org.zalando.fahrschein.JsonParserHelper.expectToken;
 
 public class MappingEventReader<T> implements EventReader<T> {
     private final Class<T> eventClass;
     private final ObjectReader eventReader;
+    // Size of the previous batch, to avoid growing the list for every batch. Only a hint, so it does not need to be synchronized.
+    private int expectedSize = 10;
 
     public MappingEventReader(Class<T> eventClass, ObjectMapper objectMapper) {
         this.eventClass = eventClass;
@@ -29,7 +34,7 @@ public class MappingEventReader<T> implements EventReader<T> {
 
         final MappingIterator<T> eventIterator = eventReader.readValues(jsonParser);
 
-        final List<T> events = new ArrayList<>();
+        final List<T> events = new ArrayList<>(expectedSize);
         while (true) {
             try {
                 // MappingIterator#hasNext can theoretically also throw RuntimeExceptions, that's why we use this strange loop structure
@@ -49,10 +54,63 @@ public class MappingEventReader<T> implements EventReader<T> {
                 }
             }
         }
+        expectedSize = Math.max(events.size(), 1);
         return events;
 
     }
 
+    @Override
+    public Iterator<T> iterate(JsonParser jsonParser) throws IOException {
+        expectToken(jsonParser, JsonToken.START_ARRAY);
+        jsonParser.clearCurrentToken();
+
+        final MappingIterator<T> eventIterator = eventReader.readValues(jsonParser);
+
+        return new Iterator<T>() {
+            private boolean ready;
+            private T next;
+
+            @Override
+            public boolean hasNext() {
+                while (!ready) {
+                    try {
+                        if (eventIterator.hasNext()) {
+                            next = eventClass.cast(eventIterator.next());
+                            ready = true;
+                        } else {
+                            return false;
+                        }
+                    } catch (RuntimeException e) {
+                        final Throwable cause = e.getCause();
+                        try {
+                            if (cause instanceof JsonMappingException) {
+                                onMappingException((JsonMappingException) cause);
+                            } else if (cause instanceof IOException) {
+                                throw (IOException) cause;
+                            } else {
+                                throw e;
+                            }
+                        } catch (IOException ioException) {
+                            throw new UncheckedIOException(ioException);
+                        }
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final T event = next;
+                next = null;
+                ready = false;
+                return event;
+            }
+        };
+    }
+
     protected void onMappingException(JsonMappingException exception) throws IOException {
         throw exception;
     }
@@ -10,4 +10,55 @@ public interface MetricsCollector {
     void markReconnection();
 
     void markMessageSuccessfullyProcessed();
+
+    /**
+     * Called by {@link FilteringEventReader} with the number of events of a batch that were skipped without being deserialized.
+     */
+    default void markEventsFiltered(int size) {
+
+    }
+
+    /**
+     * Whether durations should be measured and reported to the {@code time} methods. Disabled by default, so that collectors
+     * which only count messages do not pay for reading the clock on every batch.
+     */
+    default boolean isTimingEnabled() {
+        return false;
+    }
+
+    /**
+     * Called with the time from executing the stream request until the response headers were received.
+     */
+    default void timeConnection(long durationNanos) {
+
+    }
+
+    /**
+     * Called with the time spent deserializing the events of a batch, the number of events and the size of the events in bytes.
+     * Waiting for the network is not included, as long as the events are received as a single chunk.
+     */
+    default void timeBatchRead(long durationNanos, int events, long bytes) {
+
+    }
+
+    /**
+     * Called with the time spent by the listener processing a batch. For an {@link EventStreamListener} this includes the deserialization of the events.
+     */
+    default void timeListener(long durationNanos, int events) {
+
+    }
+
+    /**
+     * Called by {@link ManagedCursorManager} with the time spent committing the given number of cursors.
+     */
+    default void timeCommit(long durationNanos, int cursors) {
+
+    }
+
+    /**
+     * Called by {@link ExponentialBackoffStrategy} with the time slept before retrying.
+     */
+    default void timeBackoff(long durationNanos) {
+
+    }
 }
@@ -17,7 +17,6 @@ import org.zalando.fahrschein.http.api.Response;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
@@ -37,17 +36,24 @@ public class NakadiClient {
     private final ObjectMapper internalObjectMapper;
     private final ObjectMapper objectMapper;
     private final CursorManager cursorManager;
+    @Nullable
+    private final RequestCompression requestCompression;
 
     public static NakadiClientBuilder builder(URI baseUri) {
         return new NakadiClientBuilder(baseUri);
     }
 
     NakadiClient(URI baseUri, RequestFactory clientHttpRequestFactory, ObjectMapper objectMapper, CursorManager cursorManager) {
+        this(baseUri, clientHttpRequestFactory, objectMapper, cursorManager, null);
+    }
+
+    NakadiClient(URI baseUri, RequestFactory clientHttpRequestFactory, ObjectMapper objectMapper, CursorManager cursorManager, @Nullable CompressionParameters compressionParameters) {
         this.baseUri = baseUri;
         this.clientHttpRequestFactory = clientHttpRequestFactory;
         this.objectMapper = objectMapper;
         this.internalObjectMapper = DefaultObjectMapper.INSTANCE;
         this.cursorManager = cursorManager;
+        this.requestCompression = compressionParameters != null ? new RequestCompression(compressionParameters) : null;
     }
 
     public List<Partition> getPartitions(String eventName) throws IOException {
@@ -61,20 +67,88 @@ public class NakadiClient {
     }
 
     public <T> void publish(String eventName, List<T> events) throws IOException {
-        final URI uri = baseUri.resolve(String.format("/event-types/%s/events", eventName));
-        final Request request = clientHttpRequestFactory.createRequest(uri, "POST");
+        final Request request = createPublishRequest(eventName);
 
-        request.getHeaders().setContentType(ContentType.APPLICATION_JSON);
+        // Serialized while the request is executed, so that big batches are not buffered
+        setBody(request, body -> objectMapper.writeValue(body, events));
 
-        try (final OutputStream body = request.getBody()) {
-            objectMapper.writeValue(body, events);
+        try (final Response response = request.execute()) {
+            LOG.debug("Successfully published [{}] events for [{}]", events.size(), eventName);
         }
+    }
+
+    /**
+     * Publishes events and retries the events that nakadi rejected with a {@link org.zalando.fahrschein.domain.BatchItemResponse}, without resending
+     * the events that were already submitted. Responses are correlated to events by eid, so this requires events implementing {@link org.zalando.fahrschein.domain.Event}.
+     * Requests failing for other reasons are retried with all remaining events.
+     *
+     * @return the events that could not be published when the events were rejected permanently or the backoff strategy gave up
+     */
+    public <T> PublishingResult<T> publish(String eventName, List<T> events, BackoffStrategy backoffStrategy) throws IOException {
+        return new PublishingRetry<T>(this::publish, eventName, events).run(backoffStrategy);
+    }
+
+    /**
+     * Creates a publisher that accumulates single events into batches per event type and publishes them in the background.
+     * The publisher should be {@link BatchingPublisher#close() closed} to publish the remaining events.
+     */
+    public BatchingPublisher batchingPublisher(BatchingParameters parameters) {
+        return new BatchingPublisher(this::publishSerialized, objectMapper, parameters);
+    }
+
+    /**
+     * Publishes events that were already serialized to json.
+     */
+    void publishSerialized(String eventName, List<byte[]> events) throws IOException {
+        final Request request = createPublishRequest(eventName);
+
+        // Brackets and commas between the events
+        long contentLength = Math.max(events.size() - 1, 0) + 2;
+        for (byte[] event : events) {
+            contentLength += event.length;
+        }
+        setBody(request, body -> {
+            body.write('[');
+            for (int i = 0; i < events.size(); i++) {
+                if (i > 0) {
+                    body.write(',');
+                }
+                body.write(events.get(i));
+            }
+            body.write(']');
+        }, contentLength);
 
         try (final Response response = request.execute()) {
             LOG.debug("Successfully published [{}] events for [{}]", events.size(), eventName);
         }
     }
 
+    private void setBody(Request request, Request.Body body) throws IOException {
+        if (requestCompression != null) {
+            requestCompression.setBody(request, body);
+        } else {
+            request.setBody(body);
+        }
+    }
+
+    private void setBody(Request request, Request.Body body, long contentLength) throws IOException {
+        if (requestCompression != null) {
+            requestCompression.setBody(request, body, contentLength);
+        } else {
+            request.getHeaders().setContentLength(contentLength);
+            request.setBody(body);
+        }
+    }
+
+    private Request createPublishRequest(String eventName) throws IOException {
+        final URI uri = baseUri.resolve(String.format("/event-types/%s/events", eventName));
+        final Request request = clientHttpRequestFactory.createRequest(uri, "POST");
+
+        request.getHeaders().setContentType(ContentType.APPLICATION_JSON);
+
+        return request;
+    }
+
     /**
      * Create a subscription for a single event type.
      *
@@ -131,9 +205,8 @@ public class NakadiClient {
 
         request.getHeaders().setContentType(ContentType.APPLICATION_JSON);
 
-        try (final OutputStream os = request.getBody()) {
-            internalObjectMapper.writeValue(os, subscription);
-        }
+        final byte[] json = internalObjectMapper.writeValueAsBytes(subscription);
+        setBody(request, body -> body.write(json), json.length);
 
         try (final Response response = request.execute()) {
             try (final InputStream is = response.getBody()) {
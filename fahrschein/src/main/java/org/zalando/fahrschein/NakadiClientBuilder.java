@@ -21,21 +21,24 @@ public final class NakadiClientBuilder {
     private final RequestFactory clientHttpRequestFactory;
     @Nullable
     private final CursorManager cursorManager;
+    @Nullable
+    private final CompressionParameters compressionParameters;
 
     NakadiClientBuilder(final URI baseUri) {
-        this(baseUri, DefaultObjectMapper.INSTANCE, null, null, null);
+        this(baseUri, DefaultObjectMapper.INSTANCE, null, null, null, null);
     }
 
-    private NakadiClientBuilder(URI baseUri, @Nullable ObjectMapper objectMapper, @Nullable AuthorizationProvider authorizationProvider, @Nullable RequestFactory clientHttpRequestFactory, @Nullable CursorManager cursorManager) {
+    private NakadiClientBuilder(URI baseUri, @Nullable ObjectMapper objectMapper, @Nullable AuthorizationProvider authorizationProvider, @Nullable RequestFactory clientHttpRequestFactory, @Nullable CursorManager cursorManager, @Nullable CompressionParameters compressionParameters) {
         this.objectMapper = objectMapper;
         this.baseUri = checkNotNull(baseUri, "Base URI should not be null");
         this.authorizationProvider = authorizationProvider;
         this.clientHttpRequestFactory = clientHttpRequestFactory;
         this.cursorManager = cursorManager;
+        this.compressionParameters = compressionParameters;
     }
 
     public NakadiClientBuilder withObjectMapper(ObjectMapper objectMapper) {
-        return new NakadiClientBuilder(baseUri, objectMapper, authorizationProvider, clientHttpRequestFactory, cursorManager);
+        return new NakadiClientBuilder(baseUri, objectMapper, authorizationProvider, clientHttpRequestFactory, cursorManager, compressionParameters);
     }
 
     public NakadiClientBuilder withAccessTokenProvider(AccessTokenProvider accessTokenProvider) {
@@ -43,15 +46,22 @@ public final class NakadiClientBuilder {
     }
 
     public NakadiClientBuilder withAuthorizationProvider(AuthorizationProvider authorizationProvider) {
-        return new NakadiClientBuilder(baseUri, objectMapper, authorizationProvider, clientHttpRequestFactory, cursorManager);
+        return new NakadiClientBuilder(baseUri, objectMapper, authorizationProvider, clientHttpRequestFactory, cursorManager, compressionParameters);
     }
 
     public NakadiClientBuilder withRequestFactory(RequestFactory clientHttpRequestFactory) {
-        return new NakadiClientBuilder(baseUri, objectMapper, authorizationProvider, clientHttpRequestFactory, cursorManager);
+        return new NakadiClientBuilder(baseUri, objectMapper, authorizationProvider, clientHttpRequestFactory, cursorManager, compressionParameters);
     }
 
     public NakadiClientBuilder withCursorManager(CursorManager cursorManager) {
-        return new NakadiClientBuilder(baseUri, objectMapper, authorizationProvider, clientHttpRequestFactory, cursorManager);
+        return new NakadiClientBuilder(baseUri, objectMapper, authorizationProvider, clientHttpRequestFactory, cursorManager, compressionParameters);
+    }
+
+    /**
+     * Enables the gzip compression of published events and subscription requests that are bigger than the {@link CompressionParameters#withMinSize(int) minimum size}.
+     */
+    public NakadiClientBuilder withRequestCompression(CompressionParameters compressionParameters) {
+        return new NakadiClientBuilder(baseUri, objectMapper, authorizationProvider, clientHttpRequestFactory, cursorManager, compressionParameters);
     }
 
     private RequestFactory defaultClientHttpRequestFactory() {
@@ -75,6 +85,6 @@ public final class NakadiClientBuilder {
         final CursorManager cursorManager = this.cursorManager != null ? this.cursorManager : new ManagedCursorManager(baseUri, clientHttpRequestFactory, true);
         final ObjectMapper objectMapper = this.objectMapper != null ? this.objectMapper : DefaultObjectMapper.INSTANCE;
 
-        return new NakadiClient(baseUri, clientHttpRequestFactory, objectMapper, cursorManager);
+        return new NakadiClient(baseUri, clientHttpRequestFactory, objectMapper, cursorManager, compressionParameters);
     }
 }
@@ -0,0 +1,274 @@
+package org.zalando.fahrschein;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zalando.fahrschein.domain.Cursor;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Publishes batches read by a {@link NakadiReader} to a single {@link Subscriber}.
+ *
+ * The reader is started on the given executor when the subscriber requests the first batch and waits for further demand
+ * before handing over each batch, so that at most one batch is read ahead and back pressure propagates to the connection.
+ * Instead of committing cursors after processing, the cursor of each batch is committed when the subscriber acknowledges it,
+ * which is also when the eids of its events are remembered by an optional {@link EidDeduplicator}.
+ */
+class NakadiPublisher<T> implements Publisher<AcknowledgeableBatch<T>> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NakadiPublisher.class);
+
+    @FunctionalInterface
+    interface ReaderFactory<T> {
+        IORunnable create(CursorManager cursorManager, Listener<T> listener);
+    }
+
+    private final CursorManager cursorManager;
+    private final ReaderFactory<T> readerFactory;
+    private final Executor executor;
+    @Nullable
+    private final EidDeduplicator eidDeduplicator;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    NakadiPublisher(CursorManager cursorManager, ReaderFactory<T> readerFactory, Executor executor) {
+        this(cursorManager, readerFactory, executor, null);
+    }
+
+    NakadiPublisher(CursorManager cursorManager, ReaderFactory<T> readerFactory, Executor executor, @Nullable EidDeduplicator eidDeduplicator) {
+        this.cursorManager = cursorManager;
+        this.readerFactory = readerFactory;
+        this.executor = executor;
+        this.eidDeduplicator = eidDeduplicator;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super AcknowledgeableBatch<T>> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber should not be null");
+        }
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("Publisher only supports a single subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new StreamSubscription(subscriber));
+    }
+
+    private class StreamSubscription implements Subscription, Listener<T>, CursorManager {
+        private final Subscriber<? super AcknowledgeableBatch<T>> subscriber;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition demandAvailable = lock.newCondition();
+        private long demand;
+        private boolean started;
+        private boolean cancelled;
+        @Nullable
+        private Throwable invalidRequest;
+        @Nullable
+        private Thread readerThread;
+
+        @Nullable
+        private List<T> events;
+
+        StreamSubscription(Subscriber<? super AcknowledgeableBatch<T>> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            Throwable error = null;
+            boolean start = false;
+            lock.lock();
+            try {
+                if (cancelled) {
+                    return;
+                }
+                if (n <= 0) {
+                    final Throwable exception = new IllegalArgumentException("Number of requested batches should be bigger than 0, but was " + n);
+                    if (started) {
+                        // the reader thread signals the error after it stopped
+                        invalidRequest = exception;
+                    } else {
+                        error = exception;
+                    }
+                    cancelLocked();
+                } else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                    demandAvailable.signalAll();
+                    start = !started;
+                    started = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (error != null) {
+                subscriber.onError(error);
+            } else if (start) {
+                try {
+                    executor.execute(this::run);
+                } catch (RejectedExecutionException e) {
+                    cancel();
+                    subscriber.onError(e);
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            lock.lock();
+            try {
+                cancelLocked();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void cancelLocked() {
+            cancelled = true;
+            demandAvailable.signalAll();
+            if (readerThread != null) {
+                readerThread.interrupt();
+            }
+        }
+
+        private void run() {
+            final boolean run;
+            lock.lock();
+            try {
+                run = !cancelled;
+                if (run) {
+                    readerThread = Thread.currentThread();
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            Throwable failure = null;
+            if (run) {
+                try {
+                    readerFactory.create(this, this).run();
+                } catch (IOException | RuntimeException e) {
+                    failure = e;
+                } finally {
+                    lock.lock();
+                    try {
+                        readerThread = null;
+                        // do not leak the interrupt used for cancellation into the executor
+                        Thread.interrupted();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+
+            final Throwable invalidRequest;
+            final boolean wasCancelled;
+            lock.lock();
+            try {
+                invalidRequest = this.invalidRequest;
+                wasCancelled = cancelled;
+                cancelled = true;
+            } finally {
+                lock.unlock();
+            }
+
+            if (invalidRequest != null) {
+                subscriber.onError(invalidRequest);
+            } else if (wasCancelled) {
+                LOG.debug("Subscription was cancelled");
+            } else if (failure != null) {
+                subscriber.onError(failure);
+            } else {
+                subscriber.onComplete();
+            }
+        }
+
+        private void awaitDemand() throws InterruptedIOException {
+            lock.lock();
+            try {
+                while (demand == 0 && !cancelled) {
+                    demandAvailable.await();
+                }
+                if (cancelled) {
+                    throw new InterruptedIOException("Subscription was cancelled");
+                }
+                if (demand != Long.MAX_VALUE) {
+                    demand--;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for demand");
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void accept(List<T> events) {
+            // called by the reader right before onSuccess with the cursor of the same batch
+            this.events = events;
+        }
+
+        @Override
+        public void onSuccess(String eventName, Cursor cursor) throws IOException {
+            final List<T> events = this.events;
+            this.events = null;
+
+            awaitDemand();
+
+            try {
+                subscriber.onNext(new AcknowledgeableBatch<>(eventName, cursor, events, cursorManager, eidDeduplicator));
+            } catch (RuntimeException e) {
+                LOG.warn("Subscriber failed in onNext, cancelling subscription", e);
+                cancel();
+                throw e;
+            }
+        }
+
+        @Override
+        public void onSuccess(String eventName, List<Cursor> cursors) throws IOException {
+            cursorManager.onSuccess(eventName, cursors);
+        }
+
+        @Override
+        public Collection<Cursor> getCursors(String eventName) throws IOException {
+            return cursorManager.getCursors(eventName);
+        }
+
+        @Override
+        public void addSubscription(org.zalando.fahrschein.domain.Subscription subscription) {
+            cursorManager.addSubscription(subscription);
+        }
+
+        @Override
+        public void addStreamId(org.zalando.fahrschein.domain.Subscription subscription, String streamId) {
+            cursorManager.addStreamId(subscription, streamId);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            cursorManager.flush();
+        }
+    }
+}
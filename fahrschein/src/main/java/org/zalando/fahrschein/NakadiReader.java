@@ -17,25 +17,33 @@ import org.zalando.fahrschein.http.api.Response;
 import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static org.zalando.fahrschein.JsonParserHelper.expectToken;
 import static org.zalando.fahrschein.Preconditions.checkState;
 
-class NakadiReader<T> implements IORunnable {
+class NakadiReader<T> implements StoppableRunnable {
 
     private static final Logger LOG = LoggerFactory.getLogger(NakadiReader.class);
     private static final TypeReference<Collection<Cursor>> COLLECTION_OF_CURSORS = new TypeReference<Collection<Cursor>>() {
     };
+    private static final int MAX_SYMBOLS = 16 * 1024;
+    private static final String GZIP = "gzip";
+    // Shared by all readers, each open stream holds one inflater
+    private static final InflaterPool INFLATER_POOL = new InflaterPool(Runtime.getRuntime().availableProcessors());
 
     private final URI uri;
     private final RequestFactory requestFactory;
@@ -46,13 +54,39 @@ class NakadiReader<T> implements IORunnable {
     private final Optional<Subscription> subscription;
     private final Optional<Lock> lock;
     private final EventReader<T> eventReader;
+    @Nullable
     private final Listener<T> listener;
+    @Nullable
+    private final EventStreamListener<T> eventStreamListener;
     private final BatchHandler batchHandler;
 
     private final JsonFactory jsonFactory;
     private final ObjectWriter cursorHeaderWriter;
 
     private final MetricsCollector metricsCollector;
+    // Read once, so that the clock is not read for every batch when the collector does not measure durations
+    private final boolean timingEnabled;
+    private final int pipelineCapacity;
+    private final int partitionParallelism;
+    @Nullable
+    private final CoalescingParameters coalescingParameters;
+    private final boolean responseCompression;
+
+    private final String defaultEventName;
+    // Reused by the reading thread for every batch, so that keep alive batches and the framing of event batches do not allocate
+    private final SymbolTable symbols = new SymbolTable(MAX_SYMBOLS);
+    private final CursorFields cursorFields = new CursorFields();
+    private final DirectBatch directBatch = new DirectBatch();
+
+    private final ReentrantLock stateLock = new ReentrantLock();
+    private boolean stopRequested;
+    private boolean processing;
+    @Nullable
+    private JsonInput currentInput;
+    // Set while the reading thread waits before reconnecting, so that stop can wake it up
+    @Nullable
+    private Thread backoffThread;
+    private boolean interruptedByStop;
 
     /*
      * @VisibleForTesting
@@ -62,8 +96,25 @@ class NakadiReader<T> implements IORunnable {
     }
 
     NakadiReader(URI uri, RequestFactory requestFactory, BackoffStrategy backoffStrategy, CursorManager cursorManager, Set<String> eventNames, Optional<Subscription> subscription, Optional<Lock> lock, EventReader<T> eventReader, Listener<T> listener, BatchHandler batchHandler, final MetricsCollector metricsCollector) {
+        this(uri, requestFactory, backoffStrategy, cursorManager, eventNames, subscription, lock, eventReader, listener, batchHandler, metricsCollector, ReaderParameters.DEFAULT);
+    }
+
+    NakadiReader(URI uri, RequestFactory requestFactory, BackoffStrategy backoffStrategy, CursorManager cursorManager, Set<String> eventNames, Optional<Subscription> subscription, Optional<Lock> lock, EventReader<T> eventReader, Listener<T> listener, BatchHandler batchHandler, final MetricsCollector metricsCollector, ReaderParameters readerParameters) {
+        this(uri, requestFactory, backoffStrategy, cursorManager, eventNames, subscription, lock, eventReader, listener, null, batchHandler, metricsCollector, readerParameters);
+    }
+
+    /**
+     * Creates a reader passing events one by one to the given listener while parsing, so batches are always processed on the reading thread.
+     */
+    static <T> NakadiReader<T> streaming(URI uri, RequestFactory requestFactory, BackoffStrategy backoffStrategy, CursorManager cursorManager, Set<String> eventNames, Optional<Subscription> subscription, Optional<Lock> lock, EventReader<T> eventReader, EventStreamListener<T> eventStreamListener, BatchHandler batchHandler, final MetricsCollector metricsCollector, ReaderParameters readerParameters) {
+        checkState(readerParameters.isSequentialProcessing(), "Streaming listeners can not be combined with pipelined processing, partition parallelism or batch coalescing");
+        return new NakadiReader<>(uri, requestFactory, backoffStrategy, cursorManager, eventNames, subscription, lock, eventReader, null, eventStreamListener, batchHandler, metricsCollector, readerParameters);
+    }
+
+    private NakadiReader(URI uri, RequestFactory requestFactory, BackoffStrategy backoffStrategy, CursorManager cursorManager, Set<String> eventNames, Optional<Subscription> subscription, Optional<Lock> lock, EventReader<T> eventReader, @Nullable Listener<T> listener, @Nullable EventStreamListener<T> eventStreamListener, BatchHandler batchHandler, final MetricsCollector metricsCollector, ReaderParameters readerParameters) {
 
         checkState(subscription.isPresent() || eventNames.size() == 1, "Low level api only supports reading from a single event");
+        checkState(readerParameters.getCoalescingParameters() == null || readerParameters.getPartitionParallelism() == 1, "Batch coalescing can not be combined with partition parallelism");
 
         this.uri = uri;
         this.requestFactory = requestFactory;
@@ -74,8 +125,15 @@ class NakadiReader<T> implements IORunnable {
         this.lock = lock;
         this.eventReader = eventReader;
         this.listener = listener;
+        this.eventStreamListener = eventStreamListener;
         this.batchHandler = batchHandler;
         this.metricsCollector = metricsCollector;
+        this.timingEnabled = metricsCollector.isTimingEnabled();
+        this.pipelineCapacity = readerParameters.getPipelineCapacity();
+        this.partitionParallelism = readerParameters.getPartitionParallelism();
+        this.coalescingParameters = readerParameters.getCoalescingParameters();
+        this.responseCompression = readerParameters.isResponseCompression();
+        this.defaultEventName = eventNames.iterator().next();
 
         this.jsonFactory = DefaultObjectMapper.INSTANCE.getFactory();
         this.cursorHeaderWriter = DefaultObjectMapper.INSTANCE.writerFor(COLLECTION_OF_CURSORS);
@@ -103,6 +161,8 @@ class NakadiReader<T> implements IORunnable {
         private final JsonFactory jsonFactory;
         private final Response response;
         private JsonParser jsonParser;
+        @Nullable
+        private GzipInputStream gzipInput;
 
         JsonInput(JsonFactory jsonFactory, Response response) {
             this.jsonFactory = jsonFactory;
@@ -115,11 +175,20 @@ class NakadiReader<T> implements IORunnable {
 
         JsonParser getJsonParser() throws IOException {
             if (jsonParser == null) {
-                jsonParser = jsonFactory.createParser(response.getBody()).disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+                jsonParser = jsonFactory.createParser(getBody()).disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
             }
             return jsonParser;
         }
 
+        private InputStream getBody() throws IOException {
+            final Headers headers = response.getHeaders();
+            if (headers != null && GZIP.equalsIgnoreCase(headers.getFirst(Headers.CONTENT_ENCODING))) {
+                gzipInput = new GzipInputStream(response.getBody(), INFLATER_POOL);
+                return gzipInput;
+            }
+            return response.getBody();
+        }
+
         @Override
         public void close() {
             try {
@@ -132,6 +201,9 @@ class NakadiReader<T> implements IORunnable {
                         LOG.warn("Could not close json parser", e);
                     }
                 }
+                if (gzipInput != null) {
+                    gzipInput.close();
+                }
             } finally {
                 LOG.trace("Trying to close response");
                 response.close();
@@ -152,7 +224,14 @@ class NakadiReader<T> implements IORunnable {
         if (cursorsHeader != null) {
             request.getHeaders().put("X-Nakadi-Cursors", cursorsHeader);
         }
+        if (responseCompression) {
+            request.getHeaders().put(Headers.ACCEPT_ENCODING, GZIP);
+        }
+        final long start = timingEnabled ? System.nanoTime() : 0L;
         final Response response = request.execute();
+        if (timingEnabled) {
+            metricsCollector.timeConnection(System.nanoTime() - start);
+        }
         try {
             final Optional<String> streamId = getStreamId(response);
 
@@ -196,34 +275,248 @@ class NakadiReader<T> implements IORunnable {
 
     private String getCurrentEventName(final Cursor cursor) {
         final String eventName = cursor.getEventType();
-        return eventName != null ? eventName : eventNames.iterator().next();
+        return eventName != null ? eventName : defaultEventName;
     }
 
     private void processBatch(final Batch<T> batch) throws IOException {
         final Cursor cursor = batch.getCursor();
         final String eventName = getCurrentEventName(cursor);
+        batchHandler.processBatch(new IORunnable() {
+            @Override
+            public void run() throws IOException {
+                acceptAndCommit(eventName, cursor, batch.getEvents());
+            }
+        });
+    }
+
+    private void acceptAndCommit(final String eventName, final Cursor cursor, final List<T> events) throws IOException {
+        try {
+            accept(events);
+            cursorManager.onSuccess(eventName, cursor);
+        } catch (EventAlreadyProcessedException e) {
+            LOG.info("Events for [{}] partition [{}] at offset [{}] were already processed", eventName, cursor.getPartition(), cursor.getOffset());
+        } catch (Throwable throwable) {
+            LOG.warn("Exception while processing events for [{}] on partition [{}] at offset [{}]", eventName, cursor.getPartition(), cursor.getOffset(), throwable);
+
+            throw throwable;
+        }
+    }
+
+    private void accept(final List<T> events) throws IOException, EventAlreadyProcessedException {
+        if (timingEnabled) {
+            final long start = System.nanoTime();
+            listener.accept(events);
+            metricsCollector.timeListener(System.nanoTime() - start, events.size());
+        } else {
+            listener.accept(events);
+        }
+    }
+
+    /**
+     * Continuation for batches processed on the reading thread, reused to avoid allocating a closure for every batch.
+     */
+    private final class DirectBatch implements IORunnable {
+        private String eventName;
+        private Cursor cursor;
+        private List<T> events;
+
+        void process(String eventName, Cursor cursor, List<T> events) throws IOException {
+            this.eventName = eventName;
+            this.cursor = cursor;
+            this.events = events;
+            try {
+                batchHandler.processBatch(this);
+            } finally {
+                this.eventName = null;
+                this.cursor = null;
+                this.events = null;
+            }
+        }
+
+        @Override
+        public void run() throws IOException {
+            acceptAndCommit(eventName, cursor, events);
+        }
+    }
+
+    /**
+     * Mutable holder for the fields of the current cursor. Partitions and event types are canonicalized by the symbol table,
+     * offsets and cursor tokens are only copied into strings when the batch contains events.
+     */
+    private static final class CursorFields {
+        @Nullable
+        private String partition;
+        @Nullable
+        private String eventType;
+        private final TextValue offset = new TextValue();
+        private final TextValue cursorToken = new TextValue();
+
+        void reset() {
+            partition = null;
+            eventType = null;
+            offset.reset();
+            cursorToken.reset();
+        }
+
+        String getEventName(String defaultEventName) {
+            return eventType != null ? eventType : defaultEventName;
+        }
+
+        Cursor toCursor() {
+            return new Cursor(partition, offset.value(), eventType, cursorToken.value());
+        }
+    }
+
+    private static final class TextValue {
+        private char[] chars = new char[32];
+        private int length = -1;
+
+        void reset() {
+            length = -1;
+        }
+
+        boolean isPresent() {
+            return length >= 0;
+        }
+
+        void read(JsonParser jsonParser) throws IOException {
+            if (jsonParser.nextToken() == JsonToken.VALUE_STRING) {
+                final int length = jsonParser.getTextLength();
+                if (length > chars.length) {
+                    chars = new char[Math.max(length, 2 * chars.length)];
+                }
+                System.arraycopy(jsonParser.getTextCharacters(), jsonParser.getTextOffset(), chars, 0, length);
+                this.length = length;
+            } else {
+                this.length = -1;
+            }
+        }
+
+        @Nullable
+        String value() {
+            return length >= 0 ? new String(chars, 0, length) : null;
+        }
+
+        @Override
+        public String toString() {
+            return length >= 0 ? new String(chars, 0, length) : "<absent>";
+        }
+    }
+
+    private void processCoalescedBatch(final BatchCoalescer.CoalescedBatch<T> batch) throws IOException {
         batchHandler.processBatch(new IORunnable() {
             @Override
             public void run() throws IOException {
                 try {
-                    listener.accept(batch.getEvents());
-                    cursorManager.onSuccess(eventName, cursor);
+                    accept(batch.getEvents());
+                    for (Map.Entry<String, List<Cursor>> entry : batch.getCursors().entrySet()) {
+                        cursorManager.onSuccess(entry.getKey(), entry.getValue());
+                    }
                 } catch (EventAlreadyProcessedException e) {
-                    LOG.info("Events for [{}] partition [{}] at offset [{}] were already processed", eventName, cursor.getPartition(), cursor.getOffset());
+                    LOG.info("Events for {} were already processed", batch.getCursors());
                 } catch (Throwable throwable) {
-                    LOG.warn("Exception while processing events for [{}] on partition [{}] at offset [{}]", eventName, cursor.getPartition(), cursor.getOffset(), throwable);
+                    LOG.warn("Exception while processing [{}] coalesced events for {}", batch.getEvents().size(), batch.getCursors(), throwable);
 
                     throw throwable;
                 }
             }
         });
+
+        for (int i = 0; i < batch.getBatchCount(); i++) {
+            metricsCollector.markMessageSuccessfullyProcessed();
+        }
+    }
+
+    private void handOver(final BatchCoalescer.CoalescedBatch<T> batch, @Nullable BatchPipeline pipeline) throws IOException {
+        if (pipeline == null) {
+            setProcessing(true);
+            try {
+                processCoalescedBatch(batch);
+            } finally {
+                setProcessing(false);
+            }
+        } else {
+            try {
+                // Coalescing is only supported with a single lane, so the hash does not matter
+                pipeline.submit(0, () -> processCoalescedBatch(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for batch pipeline");
+            }
+        }
     }
 
-    private Cursor readCursor(JsonParser jsonParser) throws IOException {
-        String partition = null;
-        String offset = null;
-        String eventType = null;
-        String cursorToken = null;
+    private int processEventStream(final JsonParser jsonParser, final Cursor cursor, final EventStreamListener<T> eventStreamListener) throws IOException {
+        final String eventName = getCurrentEventName(cursor);
+        final CountingIterator<T> events = new CountingIterator<>(eventReader.iterate(jsonParser));
+
+        setProcessing(true);
+        try {
+            batchHandler.processBatch(new IORunnable() {
+                @Override
+                public void run() throws IOException {
+                    try {
+                        final long start = timingEnabled ? System.nanoTime() : 0L;
+                        eventStreamListener.accept(events);
+                        if (timingEnabled) {
+                            metricsCollector.timeListener(System.nanoTime() - start, events.getCount());
+                        }
+                        checkState(!events.hasNext(), "Listener did not consume all events for [%s] on partition [%s] at offset [%s]", eventName, cursor.getPartition(), cursor.getOffset());
+                        cursorManager.onSuccess(eventName, cursor);
+                    } catch (EventAlreadyProcessedException e) {
+                        LOG.info("Events for [{}] partition [{}] at offset [{}] were already processed", eventName, cursor.getPartition(), cursor.getOffset());
+                        events.skipRemaining();
+                    } catch (UncheckedIOException e) {
+                        throw e.getCause();
+                    } catch (Throwable throwable) {
+                        LOG.warn("Exception while processing events for [{}] on partition [{}] at offset [{}]", eventName, cursor.getPartition(), cursor.getOffset(), throwable);
+
+                        throw throwable;
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            setProcessing(false);
+        }
+
+        return events.getCount();
+    }
+
+    private static final class CountingIterator<T> implements Iterator<T> {
+        private final Iterator<T> delegate;
+        private int count;
+
+        CountingIterator(Iterator<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public T next() {
+            final T event = delegate.next();
+            count++;
+            return event;
+        }
+
+        void skipRemaining() {
+            while (delegate.hasNext()) {
+                delegate.next();
+            }
+        }
+
+        int getCount() {
+            return count;
+        }
+    }
+
+    private void readCursor(JsonParser jsonParser, CursorFields cursor) throws IOException {
+        cursor.reset();
 
         expectToken(jsonParser, JsonToken.START_OBJECT);
 
@@ -231,16 +524,16 @@ class NakadiReader<T> implements IORunnable {
             String field = jsonParser.getCurrentName();
             switch (field) {
                 case "partition":
-                    partition = jsonParser.nextTextValue();
+                    cursor.partition = nextSymbol(jsonParser);
                     break;
                 case "offset":
-                    offset = jsonParser.nextTextValue();
+                    cursor.offset.read(jsonParser);
                     break;
                 case "event_type":
-                    eventType = jsonParser.nextTextValue();
+                    cursor.eventType = nextSymbol(jsonParser);
                     break;
                 case "cursor_token":
-                    cursorToken = jsonParser.nextTextValue();
+                    cursor.cursorToken.read(jsonParser);
                     break;
                 default:
                     LOG.warn("Unexpected field [{}] in cursor", field);
@@ -250,14 +543,127 @@ class NakadiReader<T> implements IORunnable {
             }
         }
 
-        if (partition == null) {
+        if (cursor.partition == null) {
             throw new IllegalStateException("Could not read partition from cursor");
         }
-        if (offset == null) {
-            throw new IllegalStateException("Could not read offset from cursor for partition [" + partition + "]");
+        if (!cursor.offset.isPresent()) {
+            throw new IllegalStateException("Could not read offset from cursor for partition [" + cursor.partition + "]");
+        }
+    }
+
+    @Nullable
+    private String nextSymbol(JsonParser jsonParser) throws IOException {
+        if (jsonParser.nextToken() != JsonToken.VALUE_STRING) {
+            return null;
+        }
+        return symbols.intern(jsonParser.getTextCharacters(), jsonParser.getTextOffset(), jsonParser.getTextLength());
+    }
+
+    /**
+     * Requests the reader to stop after the batch that is currently processed by the listener.
+     * If the reader is waiting for the next batch, the connection is closed to unblock it, a reader waiting to reconnect is interrupted.
+     * Batches already handed over to a pipeline are processed and pending cursors are flushed before {@link #run()} returns.
+     * A stopped reader can not be started again.
+     */
+    @Override
+    public void stop() {
+        stateLock.lock();
+        try {
+            stopRequested = true;
+            if (backoffThread != null) {
+                interruptedByStop = true;
+                backoffThread.interrupt();
+            } else if (!processing && currentInput != null) {
+                // Only the response is closed here, the parser is closed by the reading thread
+                currentInput.getResponse().close();
+            }
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    private boolean isStopRequested() {
+        stateLock.lock();
+        try {
+            return stopRequested;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    private boolean enterBackoff() {
+        stateLock.lock();
+        try {
+            if (stopRequested) {
+                return false;
+            }
+            backoffThread = Thread.currentThread();
+            return true;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * @return {@code true} if the reading thread was interrupted by {@link #stop()}, the interrupt is cleared in that case.
+     */
+    private boolean leaveBackoff() {
+        stateLock.lock();
+        try {
+            backoffThread = null;
+            if (interruptedByStop) {
+                interruptedByStop = false;
+                Thread.interrupted();
+                return true;
+            }
+            return false;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    private void setCurrentInput(@Nullable JsonInput jsonInput) {
+        stateLock.lock();
+        try {
+            currentInput = jsonInput;
+        } finally {
+            stateLock.unlock();
         }
+    }
 
-        return new Cursor(partition, offset, eventType, cursorToken);
+    private void setProcessing(boolean processing) {
+        stateLock.lock();
+        try {
+            this.processing = processing;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    private void stopGracefully(JsonInput jsonInput, @Nullable BatchPipeline pipeline, @Nullable BatchCoalescer<T> coalescer) {
+        LOG.info("Stopping to listen for events for {}", eventNames);
+        if (coalescer != null && !coalescer.isEmpty()) {
+            try {
+                handOver(coalescer.take(), pipeline);
+            } catch (IOException e) {
+                LOG.warn("Got [{}] [{}] while processing coalesced events for {}", e.getClass().getSimpleName(), e.getMessage(), eventNames, e);
+            }
+        }
+        if (pipeline != null) {
+            try {
+                pipeline.drain();
+            } catch (IOException e) {
+                LOG.warn("Got [{}] [{}] while processing remaining batches for {}", e.getClass().getSimpleName(), e.getMessage(), eventNames, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            cursorManager.flush();
+        } catch (IOException e) {
+            LOG.warn("Could not commit pending cursors for {} while stopping", eventNames, e);
+        }
+        jsonInput.close();
     }
 
     @Override
@@ -269,68 +675,147 @@ class NakadiReader<T> implements IORunnable {
         }
     }
 
+    @Nullable
+    private BatchPipeline openPipeline() {
+        if (pipelineCapacity == 0 && partitionParallelism == 1) {
+            return null;
+        }
+        return new BatchPipeline("fahrschein-pipeline-" + eventNames, partitionParallelism, pipelineCapacity > 0 ? pipelineCapacity : 1);
+    }
+
     /*
      * @VisibleForTesting
      */
     void runInternal() throws IOException, BackoffException {
         LOG.info("Starting to listen for events for {}", eventNames);
 
+        if (isStopRequested()) {
+            LOG.info("Reader for {} was already stopped", eventNames);
+            return;
+        }
+
         JsonInput jsonInput = openJsonInput();
+        setCurrentInput(jsonInput);
+
+        final BatchPipeline pipeline = openPipeline();
+        final BatchCoalescer<T> coalescer = coalescingParameters != null ? new BatchCoalescer<>(coalescingParameters) : null;
 
         int errorCount = 0;
 
-        while (true) {
-            try {
-                final JsonParser jsonParser = jsonInput.getJsonParser();
+        try {
+            while (true) {
+                try {
+                    if (isStopRequested()) {
+                        stopGracefully(jsonInput, pipeline, coalescer);
+                        break;
+                    }
 
-                if (Thread.currentThread().isInterrupted()) {
-                    throw new InterruptedIOException("Interrupted");
-                }
+                    final JsonParser jsonParser = jsonInput.getJsonParser();
 
-                readBatch(jsonParser);
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedIOException("Interrupted");
+                    }
 
-                errorCount = 0;
-            } catch (IOException e) {
-                // Remember interrupted flag in case it accidentally gets cleared before the break
-                final boolean wasInterrupted = Thread.currentThread().isInterrupted();
+                    readBatch(jsonParser, pipeline, coalescer);
 
-                metricsCollector.markErrorWhileConsuming();
+                    errorCount = 0;
+                } catch (IOException e) {
+                    // Remember interrupted flag in case it accidentally gets cleared before the break
+                    final boolean wasInterrupted = Thread.currentThread().isInterrupted();
 
-                if (errorCount > 0) {
-                    LOG.warn("Got [{}] [{}] while reading events for {} after [{}] retries", e.getClass().getSimpleName(), e.getMessage(), eventNames, errorCount, e);
-                } else {
-                    LOG.info("Got [{}] [{}] while reading events for {}", e.getClass().getSimpleName(), e.getMessage(), eventNames, e);
-                }
+                    if (isStopRequested() && !wasInterrupted) {
+                        LOG.debug("Got [{}] [{}] after stop was requested", e.getClass().getSimpleName(), e.getMessage());
+                        stopGracefully(jsonInput, pipeline, coalescer);
+                        break;
+                    }
 
-                jsonInput.close();
+                    metricsCollector.markErrorWhileConsuming();
 
-                if (wasInterrupted || Thread.currentThread().isInterrupted()) {
-                    LOG.warn("Thread was interrupted");
-                    break;
-                }
+                    if (errorCount > 0) {
+                        LOG.warn("Got [{}] [{}] while reading events for {} after [{}] retries", e.getClass().getSimpleName(), e.getMessage(), eventNames, errorCount, e);
+                    } else {
+                        LOG.info("Got [{}] [{}] while reading events for {}", e.getClass().getSimpleName(), e.getMessage(), eventNames, e);
+                    }
 
-                try {
-                    LOG.debug("Reconnecting after [{}] errors", errorCount);
-                    jsonInput = backoffStrategy.call(errorCount, e, this::openJsonInput);
-                    LOG.info("Reconnected after [{}] errors", errorCount);
-                    metricsCollector.markReconnection();
-                } catch (InterruptedException interruptedException) {
-                    LOG.warn("Interrupted during reconnection", interruptedException);
+                    if ((pipeline != null || coalescer != null) && !wasInterrupted) {
+                        // Batches already read from this connection have to be processed before reconnecting
+                        try {
+                            if (coalescer != null && !coalescer.isEmpty()) {
+                                handOver(coalescer.take(), pipeline);
+                            }
+                            if (pipeline != null) {
+                                pipeline.drain();
+                            }
+                        } catch (IOException failure) {
+                            LOG.debug("Discarded remaining batches for {} after [{}] [{}]", eventNames, failure.getClass().getSimpleName(), failure.getMessage());
+                        } catch (InterruptedException interruptedException) {
+                            Thread.currentThread().interrupt();
+                        } catch (Throwable throwable) {
+                            jsonInput.close();
+                            throw throwable;
+                        }
+                    }
 
-                    Thread.currentThread().interrupt();
-                    return;
-                }
+                    if (coalescer != null) {
+                        coalescer.clear();
+                    }
 
-                errorCount++;
-            } catch (Throwable e) {
-                LOG.warn("Got [{}] [{}] while reading events for {}", e.getClass().getSimpleName(), e.getMessage(), eventNames, e);
+                    try {
+                        // Buffered cursors can only be committed while the stream they belong to is still open
+                        cursorManager.flush();
+                    } catch (IOException failure) {
+                        LOG.warn("Could not commit pending cursors for {} before reconnecting", eventNames, failure);
+                    }
 
-                try {
                     jsonInput.close();
-                } catch (Throwable suppressed) {
-                    e.addSuppressed(e);
+
+                    if (wasInterrupted || Thread.currentThread().isInterrupted()) {
+                        LOG.warn("Thread was interrupted");
+                        break;
+                    }
+
+                    if (!enterBackoff()) {
+                        LOG.info("Not reconnecting {} after stop was requested", eventNames);
+                        break;
+                    }
+
+                    try {
+                        LOG.debug("Reconnecting after [{}] errors", errorCount);
+                        jsonInput = backoffStrategy.call(errorCount, e, this::openJsonInput);
+                        setCurrentInput(jsonInput);
+                        LOG.info("Reconnected after [{}] errors", errorCount);
+                        metricsCollector.markReconnection();
+                    } catch (InterruptedException interruptedException) {
+                        if (leaveBackoff()) {
+                            LOG.info("Stopped reconnecting {} after stop was requested", eventNames);
+                            return;
+                        }
+
+                        LOG.warn("Interrupted during reconnection", interruptedException);
+
+                        Thread.currentThread().interrupt();
+                        return;
+                    } finally {
+                        // A stop requested after reconnecting is handled by the next iteration
+                        leaveBackoff();
+                    }
+
+                    errorCount++;
+                } catch (Throwable e) {
+                    LOG.warn("Got [{}] [{}] while reading events for {}", e.getClass().getSimpleName(), e.getMessage(), eventNames, e);
+
+                    try {
+                        jsonInput.close();
+                    } catch (Throwable suppressed) {
+                        e.addSuppressed(e);
+                    }
+                    throw e;
                 }
-                throw e;
+            }
+        } finally {
+            setCurrentInput(null);
+            if (pipeline != null) {
+                pipeline.close();
             }
         }
     }
@@ -341,31 +826,52 @@ class NakadiReader<T> implements IORunnable {
     void readSingleBatch() throws IOException {
         try (final JsonInput jsonInput = openJsonInput()) {
             final JsonParser jsonParser = jsonInput.getJsonParser();
-            readBatch(jsonParser);
+            readBatch(jsonParser, null, null);
         } catch (IOException e) {
             metricsCollector.markErrorWhileConsuming();
             throw e;
         }
     }
 
-    private void readBatch(final JsonParser jsonParser) throws IOException {
+    private void readBatch(final JsonParser jsonParser, @Nullable BatchPipeline pipeline, @Nullable BatchCoalescer<T> coalescer) throws IOException {
         LOG.debug("Waiting for next batch of events for {}", eventNames);
 
         expectToken(jsonParser, JsonToken.START_OBJECT);
         metricsCollector.markMessageReceived();
 
-        Cursor cursor = null;
+        final CursorFields cursorFields = this.cursorFields;
+        boolean hasCursor = false;
         List<T> events = null;
+        long eventBytes = 0;
+        int streamedEvents = -1;
 
         while (jsonParser.nextToken() != JsonToken.END_OBJECT) {
             final String field = jsonParser.getCurrentName();
             switch (field) {
                 case "cursor": {
-                    cursor = readCursor(jsonParser);
+                    readCursor(jsonParser, cursorFields);
+                    hasCursor = true;
                     break;
                 }
                 case "events": {
-                    events = eventReader.read(jsonParser);
+                    if (eventStreamListener != null) {
+                        if (!hasCursor) {
+                            throw new IOException("Expected cursor before events in batch");
+                        }
+                        streamedEvents = processEventStream(jsonParser, cursorFields.toCursor(), eventStreamListener);
+                    } else if (timingEnabled) {
+                        final long start = System.nanoTime();
+                        final long offset = jsonParser.getCurrentLocation().getByteOffset();
+                        events = eventReader.read(jsonParser);
+                        eventBytes = jsonParser.getCurrentLocation().getByteOffset() - offset;
+                        metricsCollector.timeBatchRead(System.nanoTime() - start, events.size(), eventBytes);
+                    } else if (coalescer != null) {
+                        final long offset = jsonParser.getCurrentLocation().getByteOffset();
+                        events = eventReader.read(jsonParser);
+                        eventBytes = jsonParser.getCurrentLocation().getByteOffset() - offset;
+                    } else {
+                        events = eventReader.read(jsonParser);
+                    }
                     break;
                 }
                 case "info": {
@@ -383,23 +889,69 @@ class NakadiReader<T> implements IORunnable {
             }
         }
 
-        if (cursor == null) {
+        if (!hasCursor) {
             throw new IOException("Could not read cursor");
         }
 
-        final String eventName = getCurrentEventName(cursor);
-        LOG.debug("Cursor for [{}] partition [{}] at offset [{}]", eventName, cursor.getPartition(), cursor.getOffset());
+        final String eventName = cursorFields.getEventName(defaultEventName);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Cursor for [{}] partition [{}] at offset [{}]", eventName, cursorFields.partition, cursorFields.offset);
+        }
 
-        if (events == null) {
+        if (streamedEvents >= 0) {
+            metricsCollector.markEventsReceived(streamedEvents);
+            metricsCollector.markMessageSuccessfullyProcessed();
+        } else if (events == null) {
             metricsCollector.markEventsReceived(0);
+        } else if (coalescer != null) {
+            metricsCollector.markEventsReceived(events.size());
+
+            coalescer.add(eventName, cursorFields.toCursor(), events, eventBytes, System.nanoTime());
         } else {
             metricsCollector.markEventsReceived(events.size());
 
-            final Batch<T> batch = new Batch<>(cursor, Collections.unmodifiableList(events));
+            final Cursor cursor = cursorFields.toCursor();
+            final List<T> unmodifiableEvents = Collections.unmodifiableList(events);
 
-            processBatch(batch);
+            if (pipeline == null) {
+                setProcessing(true);
+                try {
+                    directBatch.process(eventName, cursor, unmodifiableEvents);
+                } finally {
+                    setProcessing(false);
+                }
 
-            metricsCollector.markMessageSuccessfullyProcessed();
+                metricsCollector.markMessageSuccessfullyProcessed();
+            } else {
+                final Batch<T> batch = new Batch<>(cursor, unmodifiableEvents);
+                try {
+                    // Batches of the same partition always end up in the same lane to preserve their order
+                    final int hash = 31 * eventName.hashCode() + cursor.getPartition().hashCode();
+                    pipeline.submit(hash, () -> {
+                        processBatch(batch);
+
+                        metricsCollector.markMessageSuccessfullyProcessed();
+                    });
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for batch pipeline");
+                }
+            }
+        }
+
+        // Checked for every batch, including empty keep alive batches, so that the maximum linger time is also applied without further events
+        if (coalescer != null && coalescer.isReady(System.nanoTime())) {
+            handOver(coalescer.take(), pipeline);
+        }
+
+        if (pipeline != null) {
+            try {
+                // Propagate failures of the processing thread even when only receiving keep alive batches
+                pipeline.checkFailure();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for batch pipeline");
+            }
         }
     }
 }
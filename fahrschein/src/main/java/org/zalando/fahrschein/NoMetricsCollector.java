@@ -29,4 +29,9 @@ public class NoMetricsCollector implements MetricsCollector {
         // do nothing
     }
 
+    @Override
+    public void markEventsFiltered(final int size) {
+        // do nothing
+    }
+
 }
@@ -0,0 +1,147 @@
+package org.zalando.fahrschein;
+
+import org.zalando.fahrschein.domain.Cursor;
+import org.zalando.fahrschein.domain.Offset;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+
+/**
+ * Offsets per partition of a single event type, stored in primitive arrays so that watermark checks over thousands of partitions
+ * neither allocate nor compare strings.
+ *
+ * This class is not thread safe.
+ */
+public final class OffsetTable {
+    private final Map<String, Integer> slots;
+    private int[] versions;
+    private int[] timelines;
+    private long[] positions;
+
+    public OffsetTable() {
+        this(16);
+    }
+
+    public OffsetTable(int expectedPartitions) {
+        checkArgument(expectedPartitions >= 0, "Expected number of partitions should not be negative");
+        final int capacity = Math.max(expectedPartitions, 1);
+        this.slots = new HashMap<>(capacity * 4 / 3 + 1);
+        this.versions = new int[capacity];
+        this.timelines = new int[capacity];
+        this.positions = new long[capacity];
+    }
+
+    /**
+     * Creates a table containing the offsets of the given cursors.
+     *
+     * @throws IllegalArgumentException if one of the offsets can not be parsed.
+     */
+    public static OffsetTable of(Collection<Cursor> cursors) {
+        final OffsetTable table = new OffsetTable(cursors.size());
+        for (Cursor cursor : cursors) {
+            table.put(cursor.getPartition(), cursor.parseOffset());
+        }
+        return table;
+    }
+
+    public void put(String partition, Offset offset) {
+        final int slot = slotOrCreate(partition);
+        versions[slot] = offset.getVersion();
+        timelines[slot] = offset.getTimeline();
+        positions[slot] = offset.getPosition();
+    }
+
+    /**
+     * Updates the offset of the partition if the given offset is after the current one, or if the partition is not yet contained.
+     *
+     * @return whether the offset was updated.
+     */
+    public boolean advance(String partition, Offset offset) {
+        final Integer slot = slots.get(partition);
+        if (slot != null && compare(slot, offset) >= 0) {
+            return false;
+        }
+        put(partition, offset);
+        return true;
+    }
+
+    public boolean contains(String partition) {
+        return slots.containsKey(partition);
+    }
+
+    @Nullable
+    public Offset get(String partition) {
+        final Integer slot = slots.get(partition);
+        if (slot == null) {
+            return null;
+        }
+        return timelines[slot] < 0 ? Offset.BEGIN : Offset.of(versions[slot], timelines[slot], positions[slot]);
+    }
+
+    /**
+     * Compares the offset of the partition with the given offset, with the same result as {@link Offset#compareTo(Offset)}.
+     *
+     * @throws IllegalArgumentException if the partition is not contained.
+     */
+    public int compare(String partition, Offset offset) {
+        return compare(existingSlot(partition), offset);
+    }
+
+    /**
+     * Number of events after the offset of the partition up to and including the given offset.
+     *
+     * @throws IllegalArgumentException if the partition is not contained or the offsets are in different timelines.
+     * @see Offset#distance(Offset)
+     */
+    public long distance(String partition, Offset offset) {
+        final int slot = existingSlot(partition);
+        if (timelines[slot] < 0) {
+            return Offset.BEGIN.distance(offset);
+        } else if (offset.isBegin()) {
+            return -(positions[slot] + 1);
+        }
+        checkArgument(timelines[slot] == offset.getTimeline(), "Can not calculate distance between offsets in different timelines");
+        return offset.getPosition() - positions[slot];
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    private int compare(int slot, Offset offset) {
+        if (timelines[slot] != offset.getTimeline()) {
+            return Integer.compare(timelines[slot], offset.getTimeline());
+        } else if (positions[slot] != offset.getPosition()) {
+            return Long.compare(positions[slot], offset.getPosition());
+        } else {
+            return Integer.compare(versions[slot], offset.getVersion());
+        }
+    }
+
+    private int existingSlot(String partition) {
+        final Integer slot = slots.get(partition);
+        checkArgument(slot != null, "Unknown partition");
+        return slot;
+    }
+
+    private int slotOrCreate(String partition) {
+        final Integer existing = slots.get(partition);
+        if (existing != null) {
+            return existing;
+        }
+        final int slot = slots.size();
+        if (slot == positions.length) {
+            final int capacity = positions.length * 2;
+            versions = Arrays.copyOf(versions, capacity);
+            timelines = Arrays.copyOf(timelines, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+        }
+        slots.put(partition, slot);
+        return slot;
+    }
+}
@@ -0,0 +1,203 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.zalando.fahrschein.JsonParserHelper.expectToken;
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+
+/**
+ * Deserializes the events of big batches in parallel. Events are bound directly from the stream on the calling thread, like {@link MappingEventReader}
+ * does, until the configured threshold of bytes was read. The remaining events of bigger batches are copied as raw json into a buffer, which only
+ * requires tokenizing, then slices of the buffer are bound to objects concurrently and reassembled in the original order.
+ *
+ * This pays off for event types with heavy payloads, where databinding and not reading from the connection limits throughput.
+ * {@link #onMappingException(JsonMappingException)} might be called concurrently from different threads.
+ */
+public class ParallelMappingEventReader<T> implements EventReader<T> {
+    private static final int TASKS_PER_THREAD = 4;
+
+    private final Class<T> eventClass;
+    private final JsonFactory jsonFactory;
+    private final ObjectReader eventReader;
+    private final long parallelThresholdBytes;
+    private final Executor executor;
+    private final int parallelism;
+
+    /**
+     * Uses the {@link ForkJoinPool#commonPool() common pool}.
+     *
+     * @param parallelThresholdBytes Minimum size of the serialized events of a batch to deserialize them in parallel.
+     */
+    public ParallelMappingEventReader(Class<T> eventClass, ObjectMapper objectMapper, long parallelThresholdBytes) {
+        this(eventClass, objectMapper, parallelThresholdBytes, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * @param parallelThresholdBytes Minimum size of the serialized events of a batch to deserialize them in parallel.
+     * @param executor Executor running the deserialization tasks.
+     * @param parallelism Number of threads of the executor, used to decide into how many slices a batch is split.
+     */
+    public ParallelMappingEventReader(Class<T> eventClass, ObjectMapper objectMapper, long parallelThresholdBytes, Executor executor, int parallelism) {
+        checkArgument(parallelThresholdBytes >= 0, "Parallel threshold should not be negative");
+        checkArgument(parallelism > 0, "Parallelism should be bigger than 0");
+        this.eventClass = eventClass;
+        this.jsonFactory = objectMapper.getFactory();
+        this.eventReader = objectMapper.readerFor(eventClass);
+        this.parallelThresholdBytes = parallelThresholdBytes;
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public List<T> read(JsonParser jsonParser) throws IOException {
+        expectToken(jsonParser, JsonToken.START_ARRAY);
+        jsonParser.clearCurrentToken();
+
+        final long start = offset(jsonParser);
+        final MappingIterator<T> eventIterator = eventReader.readValues(jsonParser);
+        final List<T> events = new ArrayList<>();
+        // after a mapping exception the iterator has to skip the rest of the failed event, so it is used for the remaining events
+        boolean failed = false;
+        while (failed || offset(jsonParser) - start < parallelThresholdBytes) {
+            try {
+                if (eventIterator.hasNext()) {
+                    events.add(eventClass.cast(eventIterator.next()));
+                } else {
+                    return events;
+                }
+            } catch (RuntimeException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof JsonMappingException) {
+                    failed = true;
+                    onMappingException((JsonMappingException) cause);
+                } else if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else {
+                    throw e;
+                }
+            }
+        }
+
+        events.addAll(readInParallel(jsonParser));
+        return events;
+    }
+
+    private static long offset(JsonParser jsonParser) {
+        final JsonLocation location = jsonParser.getCurrentLocation();
+        final long byteOffset = location.getByteOffset();
+        return byteOffset >= 0 ? byteOffset : location.getCharOffset();
+    }
+
+    private List<T> readInParallel(JsonParser jsonParser) throws IOException {
+        final byte[] buffer;
+        // end offset of each event in the buffer
+        int[] offsets = new int[16];
+        int eventCount = 0;
+        try (final ByteArrayBuilder builder = new ByteArrayBuilder()) {
+            try (final JsonGenerator jsonGenerator = jsonFactory.createGenerator(builder, JsonEncoding.UTF8)) {
+                jsonGenerator.setRootValueSeparator(null);
+                JsonToken token;
+                while ((token = jsonParser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (token == null) {
+                        expectToken(token, JsonToken.END_ARRAY);
+                    }
+                    jsonGenerator.copyCurrentStructure(jsonParser);
+                    jsonGenerator.flush();
+                    if (eventCount == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                    }
+                    offsets[eventCount++] = builder.size();
+                }
+            }
+            buffer = builder.toByteArray();
+        }
+
+        if (eventCount < 2) {
+            return bind(buffer, offsets, 0, eventCount);
+        }
+
+        final int[] eventOffsets = offsets;
+
+        final int taskCount = Math.min(eventCount, parallelism * TASKS_PER_THREAD);
+        final long bytesPerTask = buffer.length / taskCount;
+
+        final List<CompletableFuture<List<T>>> tasks = new ArrayList<>(taskCount);
+        int from = 0;
+        for (int i = 0; i < eventCount; i++) {
+            final int start = from == 0 ? 0 : eventOffsets[from - 1];
+            if (eventOffsets[i] - start >= bytesPerTask || i == eventCount - 1) {
+                final int taskFrom = from;
+                final int taskTo = i + 1;
+                tasks.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return bind(buffer, eventOffsets, taskFrom, taskTo);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor));
+                from = taskTo;
+            }
+        }
+
+        final List<T> events = new ArrayList<>(eventCount);
+        for (CompletableFuture<List<T>> task : tasks) {
+            try {
+                events.addAll(task.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while deserializing events");
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) cause).getCause();
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                } else {
+                    throw new IOException(cause);
+                }
+            }
+        }
+        return events;
+    }
+
+    private List<T> bind(byte[] buffer, int[] offsets, int from, int to) throws IOException {
+        final List<T> events = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            final int start = i == 0 ? 0 : offsets[i - 1];
+            final int end = offsets[i];
+            try {
+                events.add(eventClass.cast(eventReader.readValue(buffer, start, end - start)));
+            } catch (JsonMappingException e) {
+                onMappingException(e);
+            }
+        }
+        return events;
+    }
+
+    protected void onMappingException(JsonMappingException exception) throws IOException {
+        throw exception;
+    }
+}
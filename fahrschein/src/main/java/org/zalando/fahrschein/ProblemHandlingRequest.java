@@ -1,5 +1,7 @@
 package org.zalando.fahrschein;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.zalando.fahrschein.domain.BatchItemResponse;
@@ -42,17 +44,25 @@ class ProblemHandlingRequest implements Request {
                 final ContentType contentType = headers.getContentType();
 
                 if (mightBeProblematic(contentType)) {
-
-                    final JsonNode json = objectMapper.readTree(response.getBody());
-
-                    if (isBatchItemResponse(json)) {
-                        handleBatchItemResponse(json);
-                    } else if (isAuthError(json)) {
-                        handleAuthError(json, statusCode);
-                    } else if (isProblem(json)) {
-                        handleProblem(json, statusCode);
-                    } else {
-                        throw new IOProblem(DEFAULT_PROBLEM_TYPE, statusText, statusCode);
+                    try (final JsonParser parser = objectMapper.getFactory().createParser(response.getBody())) {
+                        final JsonToken token = parser.nextToken();
+
+                        if (token == JsonToken.START_ARRAY) {
+                            // Batch item responses contain an item for every published event, so they are not read into a tree
+                            handleBatchItemResponse(parser, statusText, statusCode);
+                        } else if (token == JsonToken.START_OBJECT) {
+                            final JsonNode json = objectMapper.readTree(parser);
+
+                            if (isAuthError(json)) {
+                                handleAuthError(json, statusCode);
+                            } else if (isProblem(json)) {
+                                handleProblem(json, statusCode);
+                            } else {
+                                throw new IOProblem(DEFAULT_PROBLEM_TYPE, statusText, statusCode);
+                            }
+                        } else {
+                            throw new IOProblem(DEFAULT_PROBLEM_TYPE, statusText, statusCode);
+                        }
                     }
                 } else {
                     throw new IOProblem(DEFAULT_PROBLEM_TYPE, statusText, statusCode);
@@ -86,10 +96,6 @@ class ProblemHandlingRequest implements Request {
         return json.has("error") && json.has("error_description");
     }
 
-    private static boolean isBatchItemResponse(final JsonNode json) {
-        return json.isArray() && json.size() > 0 && json.get(0).has("publishing_status");
-    }
-
     private void handleProblem(final JsonNode rootNode, final int statusCode) throws IOException {
         final JsonNode typeNode = rootNode.get("type");
         final String type = typeNode == null ? "about:blank" : typeNode.asText();
@@ -112,16 +118,23 @@ class ProblemHandlingRequest implements Request {
         throw new IOProblem(DEFAULT_PROBLEM_TYPE, error, statusCode, description);
     }
 
-    private void handleBatchItemResponse(JsonNode rootNode) throws IOException {
-        final BatchItemResponse[] responses = objectMapper.treeToValue(rootNode, BatchItemResponse[].class);
-        final List<BatchItemResponse> failed = new ArrayList<>(responses.length);
-        for (BatchItemResponse batchItemResponse : responses) {
+    private void handleBatchItemResponse(final JsonParser parser, final String statusText, final int statusCode) throws IOException {
+        final List<BatchItemResponse> failed = new ArrayList<>();
+        int count = 0;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            final BatchItemResponse batchItemResponse = objectMapper.readValue(parser, BatchItemResponse.class);
+            if (count++ == 0 && batchItemResponse.getPublishingStatus() == null) {
+                throw new IOProblem(DEFAULT_PROBLEM_TYPE, statusText, statusCode);
+            }
             if (batchItemResponse.getPublishingStatus() != BatchItemResponse.PublishingStatus.SUBMITTED) {
                 failed.add(batchItemResponse);
             }
         }
+        if (count == 0) {
+            throw new IOProblem(DEFAULT_PROBLEM_TYPE, statusText, statusCode);
+        }
         if (!failed.isEmpty()) {
-            // TODO: attach corresponding events?
+            // Only failed items are included, callers correlate them to their events by eid
             throw new EventPublishingException(failed.toArray(new BatchItemResponse[failed.size()]));
         }
     }
@@ -146,4 +159,9 @@ class ProblemHandlingRequest implements Request {
         return request.getBody();
     }
 
+    @Override
+    public void setBody(Body body) throws IOException {
+        request.setBody(body);
+    }
+
 }
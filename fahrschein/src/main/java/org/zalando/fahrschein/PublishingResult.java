@@ -0,0 +1,72 @@
+package org.zalando.fahrschein;
+
+import org.zalando.fahrschein.domain.BatchItemResponse;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.List;
+
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Outcome of {@link NakadiClient#publish(String, List, BackoffStrategy)}, listing the events that could not be published after retrying.
+ */
+public final class PublishingResult<T> {
+
+    public static final class FailedEvent<T> {
+        private final T event;
+        @Nullable
+        private final BatchItemResponse response;
+
+        FailedEvent(T event, @Nullable BatchItemResponse response) {
+            this.event = event;
+            this.response = response;
+        }
+
+        public T getEvent() {
+            return event;
+        }
+
+        /**
+         * The last response of nakadi for this event, or {@code null} if the last attempt failed without a response for the event.
+         */
+        @Nullable
+        public BatchItemResponse getResponse() {
+            return response;
+        }
+    }
+
+    private final List<FailedEvent<T>> failedEvents;
+    private final int retries;
+    @Nullable
+    private final IOException exception;
+
+    PublishingResult(List<FailedEvent<T>> failedEvents, int retries, @Nullable IOException exception) {
+        this.failedEvents = unmodifiableList(failedEvents);
+        this.retries = retries;
+        this.exception = exception;
+    }
+
+    public boolean isSuccessful() {
+        return failedEvents.isEmpty();
+    }
+
+    public List<FailedEvent<T>> getFailedEvents() {
+        return failedEvents;
+    }
+
+    /**
+     * Number of requests after the first one.
+     */
+    public int getRetries() {
+        return retries;
+    }
+
+    /**
+     * The exception of the last failed request, or {@code null} if all events were published.
+     */
+    @Nullable
+    public IOException getException() {
+        return exception;
+    }
+}
@@ -0,0 +1,157 @@
+package org.zalando.fahrschein;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zalando.fahrschein.domain.BatchItemResponse;
+import org.zalando.fahrschein.domain.Event;
+import org.zalando.fahrschein.domain.Metadata;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes a batch of events and retries only the events that nakadi rejected, correlating the {@link BatchItemResponse batch item responses}
+ * to the events by the eid of their {@link Metadata}. Events that were aborted or failed while publishing are retried, validation, partitioning
+ * and enrichment failures are permanent since they would fail again. Requests failing without batch item responses are retried with the same events.
+ *
+ * Responses can only be correlated for events implementing {@link Event}, otherwise a rejected batch is not retried.
+ */
+class PublishingRetry<T> implements IOCallable<Void> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PublishingRetry.class);
+
+    @FunctionalInterface
+    interface Publish<T> {
+        void publish(String eventName, List<T> events) throws IOException;
+    }
+
+    private final Publish<T> publish;
+    private final String eventName;
+    private List<T> pending;
+    private final List<PublishingResult.FailedEvent<T>> failed = new ArrayList<>();
+    private int attempts;
+    @Nullable
+    private IOException lastException;
+    // Responses of the last request by eid, to report them for events that are still rejected when giving up
+    private Map<String, BatchItemResponse> lastResponses = new HashMap<>();
+
+    PublishingRetry(Publish<T> publish, String eventName, List<T> events) {
+        this.publish = publish;
+        this.eventName = eventName;
+        this.pending = events;
+    }
+
+    PublishingResult<T> run(BackoffStrategy backoffStrategy) throws IOException {
+        try {
+            call();
+        } catch (IOException e) {
+            try {
+                backoffStrategy.call(0, e, this);
+            } catch (BackoffException backoffException) {
+                LOG.warn("Giving up to publish [{}] events for [{}] after [{}] retries", pending.size(), eventName, backoffException.getRetries());
+                addFailed(pending);
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while retrying to publish events");
+            }
+        }
+        return new PublishingResult<>(failed, attempts - 1, failed.isEmpty() ? null : lastException);
+    }
+
+    @Override
+    public Void call() throws IOException {
+        attempts++;
+        try {
+            publish.publish(eventName, pending);
+            pending = new ArrayList<>();
+            return null;
+        } catch (EventPublishingException e) {
+            lastException = e;
+            if (!retryRejected(e)) {
+                return null;
+            }
+            throw e;
+        } catch (IOException e) {
+            lastException = e;
+            lastResponses = new HashMap<>();
+            throw e;
+        }
+    }
+
+    /**
+     * Replaces the pending events by the rejected events that should be retried.
+     *
+     * @return true if any events should be retried
+     */
+    private boolean retryRejected(EventPublishingException exception) {
+        final Map<String, BatchItemResponse> responses = new HashMap<>();
+        boolean correlated = true;
+        for (BatchItemResponse response : exception.getResponses()) {
+            if (response.getEid() == null) {
+                correlated = false;
+            } else {
+                responses.put(response.getEid(), response);
+            }
+        }
+        for (T event : pending) {
+            if (getEid(event) == null) {
+                correlated = false;
+            }
+        }
+        lastResponses = responses;
+
+        if (!correlated) {
+            return giveUp();
+        }
+
+        final List<T> retry = new ArrayList<>();
+        for (T event : pending) {
+            final BatchItemResponse response = responses.get(getEid(event));
+            if (response == null) {
+                continue;
+            }
+            if (isRetryable(response)) {
+                retry.add(event);
+            } else {
+                failed.add(new PublishingResult.FailedEvent<>(event, response));
+            }
+        }
+
+        LOG.info("Retrying [{}] of [{}] events for [{}], [{}] events failed permanently", retry.size(), pending.size(), eventName, failed.size());
+        pending = retry;
+        return !retry.isEmpty();
+    }
+
+    private boolean giveUp() {
+        LOG.warn("Could not correlate batch item responses to events for [{}], not retrying", eventName);
+        addFailed(pending);
+        return false;
+    }
+
+    private void addFailed(List<T> events) {
+        for (T event : events) {
+            final String eid = getEid(event);
+            failed.add(new PublishingResult.FailedEvent<>(event, eid == null ? null : lastResponses.get(eid)));
+        }
+        pending = new ArrayList<>();
+    }
+
+    private static boolean isRetryable(BatchItemResponse response) {
+        return response.getPublishingStatus() == BatchItemResponse.PublishingStatus.ABORTED
+                || response.getStep() == BatchItemResponse.Step.PUBLISHING;
+    }
+
+    @Nullable
+    static String getEid(Object event) {
+        if (event instanceof Event) {
+            final Metadata metadata = ((Event) event).getMetadata();
+            return metadata == null ? null : metadata.getEid();
+        }
+        return null;
+    }
+}
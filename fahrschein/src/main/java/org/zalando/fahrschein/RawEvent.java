@@ -0,0 +1,81 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.zalando.fahrschein.domain.Metadata;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.zalando.fahrschein.JsonParserHelper.expectToken;
+
+/**
+ * A single event as UTF-8 encoded json, as read by {@link RawEventReader}.
+ *
+ * The metadata of the event is only decoded when {@link #getMetadata()} is called for the first time.
+ */
+public final class RawEvent {
+    private final byte[] bytes;
+    private final ObjectReader metadataReader;
+    @Nullable
+    private volatile Metadata metadata;
+
+    RawEvent(byte[] bytes, ObjectReader metadataReader) {
+        this.bytes = bytes;
+        this.metadataReader = metadataReader;
+    }
+
+    /**
+     * Returns the json of this event. The returned array is not copied and should not be modified.
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    public int size() {
+        return bytes.length;
+    }
+
+    /**
+     * Decodes the {@code metadata} property of this event, skipping over all other properties.
+     *
+     * @return the metadata or {@code null} if the event does not contain metadata, as for example undefined events.
+     */
+    @Nullable
+    public Metadata getMetadata() throws IOException {
+        Metadata metadata = this.metadata;
+        if (metadata == null) {
+            metadata = readMetadata();
+            this.metadata = metadata;
+        }
+        return metadata;
+    }
+
+    @Nullable
+    private Metadata readMetadata() throws IOException {
+        try (final JsonParser jsonParser = metadataReader.getFactory().createParser(bytes)) {
+            expectToken(jsonParser, JsonToken.START_OBJECT);
+            while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = jsonParser.getCurrentName();
+                final JsonToken token = jsonParser.nextToken();
+                if ("metadata".equals(field) && token == JsonToken.START_OBJECT) {
+                    return metadataReader.readValue(jsonParser);
+                }
+                jsonParser.skipChildren();
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,58 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.zalando.fahrschein.domain.Metadata;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.zalando.fahrschein.JsonParserHelper.expectToken;
+
+/**
+ * Reads events as {@link RawEvent raw json}, without binding them to objects or building an intermediate tree.
+ * Intended for consumers that only forward events to another system.
+ *
+ * Events are copied token by token, so insignificant whitespace and escaping might differ from the original payload.
+ */
+public class RawEventReader implements EventReader<RawEvent> {
+    private final JsonFactory jsonFactory;
+    private final ObjectReader metadataReader;
+
+    public RawEventReader() {
+        this(DefaultObjectMapper.INSTANCE);
+    }
+
+    public RawEventReader(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.metadataReader = objectMapper.readerFor(Metadata.class);
+    }
+
+    @Override
+    public List<RawEvent> read(JsonParser jsonParser) throws IOException {
+        expectToken(jsonParser, JsonToken.START_ARRAY);
+
+        final List<RawEvent> events = new ArrayList<>();
+        try (final ByteArrayBuilder buffer = new ByteArrayBuilder()) {
+            JsonToken token;
+            while ((token = jsonParser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    expectToken(token, JsonToken.END_ARRAY);
+                }
+                try (final JsonGenerator jsonGenerator = jsonFactory.createGenerator(buffer, JsonEncoding.UTF8)) {
+                    jsonGenerator.copyCurrentStructure(jsonParser);
+                }
+                events.add(new RawEvent(buffer.toByteArray(), metadataReader));
+                buffer.reset();
+            }
+        }
+        return events;
+    }
+}
@@ -0,0 +1,88 @@
+package org.zalando.fahrschein;
+
+import javax.annotation.Nullable;
+
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+
+/**
+ * Optional settings of a {@link NakadiReader}, collected by the {@link StreamBuilder}. By default batches are processed sequentially
+ * on the reading thread, without coalescing and without response compression.
+ */
+final class ReaderParameters {
+
+    static final ReaderParameters DEFAULT = new ReaderParameters(0, 1, null, false);
+
+    private final int pipelineCapacity;
+    private final int partitionParallelism;
+    @Nullable
+    private final CoalescingParameters coalescingParameters;
+    private final boolean responseCompression;
+
+    private ReaderParameters(int pipelineCapacity, int partitionParallelism, @Nullable CoalescingParameters coalescingParameters, boolean responseCompression) {
+        this.pipelineCapacity = pipelineCapacity;
+        this.partitionParallelism = partitionParallelism;
+        this.coalescingParameters = coalescingParameters;
+        this.responseCompression = responseCompression;
+    }
+
+    /**
+     * @param pipelineCapacity Number of parsed batches that can be queued for processing on a separate thread, or 0 to process batches on the reading thread.
+     */
+    ReaderParameters withPipelineCapacity(int pipelineCapacity) {
+        checkArgument(pipelineCapacity >= 0, "Pipeline capacity should not be negative");
+        return new ReaderParameters(pipelineCapacity, partitionParallelism, coalescingParameters, responseCompression);
+    }
+
+    /**
+     * @param partitionParallelism Number of threads processing batches of different partitions concurrently, or 1 to process all batches sequentially.
+     */
+    ReaderParameters withPartitionParallelism(int partitionParallelism) {
+        checkArgument(partitionParallelism > 0, "Partition parallelism should be bigger than 0");
+        return new ReaderParameters(pipelineCapacity, partitionParallelism, coalescingParameters, responseCompression);
+    }
+
+    /**
+     * @param coalescingParameters Thresholds for accumulating events of consecutive batches before invoking the listener, or {@code null} to invoke the listener for every batch.
+     */
+    ReaderParameters withCoalescingParameters(@Nullable CoalescingParameters coalescingParameters) {
+        return new ReaderParameters(pipelineCapacity, partitionParallelism, coalescingParameters, responseCompression);
+    }
+
+    /**
+     * @param responseCompression Whether to request the events gzip compressed.
+     */
+    ReaderParameters withResponseCompression(boolean responseCompression) {
+        return new ReaderParameters(pipelineCapacity, partitionParallelism, coalescingParameters, responseCompression);
+    }
+
+    /**
+     * @return Parameters with the same transport settings, processing batches sequentially on the reading thread.
+     */
+    ReaderParameters withSequentialProcessing() {
+        return new ReaderParameters(0, 1, null, responseCompression);
+    }
+
+    /**
+     * @return {@code true} if batches are handed to the listener one by one on the reading thread.
+     */
+    boolean isSequentialProcessing() {
+        return pipelineCapacity == 0 && partitionParallelism == 1 && coalescingParameters == null;
+    }
+
+    int getPipelineCapacity() {
+        return pipelineCapacity;
+    }
+
+    int getPartitionParallelism() {
+        return partitionParallelism;
+    }
+
+    @Nullable
+    CoalescingParameters getCoalescingParameters() {
+        return coalescingParameters;
+    }
+
+    boolean isResponseCompression() {
+        return responseCompression;
+    }
+}
@@ -0,0 +1,207 @@
+package org.zalando.fahrschein;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zalando.fahrschein.http.api.Headers;
+import org.zalando.fahrschein.http.api.Request;
+import org.zalando.fahrschein.http.api.RequestFactory;
+import org.zalando.fahrschein.http.api.Response;
+
+import javax.annotation.Nullable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decorates a {@link RequestFactory} to record the bodies of event streams together with the time each chunk was received. Every successful
+ * {@code GET} request to an {@code /events} resource is written to a gzip compressed file in the given directory, other requests are passed through.
+ * The recordings can be served back by {@link ReplayRequestFactory}, for example to benchmark listeners and deserialization with production traffic.
+ *
+ * Chunks are compressed in the thread that reads the stream. Failures while recording are logged and stop the recording, but not the stream.
+ */
+public class RecordingRequestFactory implements RequestFactory {
+    private static final Logger LOG = LoggerFactory.getLogger(RecordingRequestFactory.class);
+
+    private final RequestFactory delegate;
+    private final Path directory;
+    private final AtomicInteger sequence;
+
+    public RecordingRequestFactory(RequestFactory delegate, Path directory) throws IOException {
+        this.delegate = delegate;
+        this.directory = Files.createDirectories(directory);
+        this.sequence = new AtomicInteger(StreamRecording.list(directory).size());
+    }
+
+    @Override
+    public Request createRequest(URI uri, String method) throws IOException {
+        final Request request = delegate.createRequest(uri, method);
+        return StreamRecording.isEventStream(uri, method) ? new RecordingRequest(request) : request;
+    }
+
+    private final class RecordingRequest implements Request {
+        private final Request request;
+
+        RecordingRequest(Request request) {
+            this.request = request;
+        }
+
+        @Override
+        public String getMethod() {
+            return request.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return request.getURI();
+        }
+
+        @Override
+        public Headers getHeaders() {
+            return request.getHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return request.getBody();
+        }
+
+        @Override
+        public void setBody(Body body) throws IOException {
+            request.setBody(body);
+        }
+
+        @Override
+        public Response execute() throws IOException {
+            final long start = System.nanoTime();
+            final Response response = request.execute();
+            if (response.getStatusCode() != 200) {
+                return response;
+            }
+
+            final Path file = StreamRecording.file(directory, sequence.getAndIncrement());
+            try {
+                final StreamRecording.Writer writer = new StreamRecording.Writer(file, request.getURI(), response.getStatusCode(), response.getStatusText(), response.getHeaders(), start);
+                LOG.debug("Recording stream from [{}] to [{}]", request.getURI(), file);
+                return new RecordingResponse(response, writer, file);
+            } catch (IOException e) {
+                LOG.warn("Could not record stream from [{}] to [{}]", request.getURI(), file, e);
+                return response;
+            }
+        }
+    }
+
+    private static final class RecordingResponse implements Response {
+        private final Response response;
+        private final Path file;
+        // Guards the writer, which is closed by whichever thread closes the response
+        private final ReentrantLock lock = new ReentrantLock();
+        @Nullable
+        private StreamRecording.Writer writer;
+        @Nullable
+        private InputStream body;
+
+        RecordingResponse(Response response, StreamRecording.Writer writer, Path file) {
+            this.response = response;
+            this.writer = writer;
+            this.file = file;
+        }
+
+        @Override
+        public int getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public Headers getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterInputStream(response.getBody()) {
+                    private final byte[] single = new byte[1];
+
+                    @Override
+                    public int read() throws IOException {
+                        final int b = in.read();
+                        if (b >= 0) {
+                            single[0] = (byte) b;
+                            record(single, 0, 1);
+                        }
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        final int read = in.read(buffer, offset, length);
+                        if (read > 0) {
+                            record(buffer, offset, read);
+                        }
+                        return read;
+                    }
+
+                    @Override
+                    public long skip(long n) throws IOException {
+                        final byte[] buffer = new byte[(int) Math.min(n, 8192)];
+                        final int read = read(buffer, 0, buffer.length);
+                        return Math.max(read, 0);
+                    }
+                };
+            }
+            return body;
+        }
+
+        private void record(byte[] buffer, int offset, int length) {
+            lock.lock();
+            try {
+                if (writer != null) {
+                    try {
+                        writer.write(buffer, offset, length);
+                    } catch (IOException e) {
+                        LOG.warn("Stopped recording to [{}]", file, e);
+                        closeWriter();
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void closeWriter() {
+            lock.lock();
+            try {
+                if (writer != null) {
+                    try {
+                        writer.close();
+                    } catch (IOException e) {
+                        LOG.warn("Could not close recording [{}]", file, e);
+                    }
+                    writer = null;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                closeWriter();
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package org.zalando.fahrschein;
+
+import org.zalando.fahrschein.http.api.Headers;
+import org.zalando.fahrschein.http.api.HeadersImpl;
+import org.zalando.fahrschein.http.api.Request;
+import org.zalando.fahrschein.http.api.RequestFactory;
+import org.zalando.fahrschein.http.api.Response;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves event streams recorded by {@link RecordingRequestFactory}. Every {@code GET} request to an {@code /events} resource is answered with
+ * the next recording of the directory, in the order they were recorded and regardless of the uri, so a replay is deterministic.
+ * When all recordings were served, further stream requests fail with an {@link IOException}.
+ *
+ * Other requests, like committing cursors, are passed to the optional fallback, otherwise they fail. When replaying subscription streams without
+ * a fallback, use a cursor manager that does not commit over http.
+ */
+public class ReplayRequestFactory implements RequestFactory {
+    public enum Speed {
+        /**
+         * Chunks of the body are available at the same time after executing the request as they were received when recording.
+         */
+        RECORDED,
+        /**
+         * Chunks of the body are available immediately.
+         */
+        MAXIMUM
+    }
+
+    private final Path directory;
+    private final Queue<Path> recordings;
+    private final Speed speed;
+    @Nullable
+    private final RequestFactory fallback;
+
+    public ReplayRequestFactory(Path directory, Speed speed) throws IOException {
+        this(directory, speed, null);
+    }
+
+    public ReplayRequestFactory(Path directory, Speed speed, @Nullable RequestFactory fallback) throws IOException {
+        this.directory = directory;
+        this.recordings = new ConcurrentLinkedQueue<>(StreamRecording.list(directory));
+        this.speed = speed;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Number of recordings that were not yet served.
+     */
+    public int getRemainingRecordings() {
+        return recordings.size();
+    }
+
+    @Override
+    public Request createRequest(URI uri, String method) throws IOException {
+        if (StreamRecording.isEventStream(uri, method)) {
+            return new ReplayRequest(uri, method);
+        } else if (fallback != null) {
+            return fallback.createRequest(uri, method);
+        } else {
+            throw new IOException(String.format("Only event streams can be replayed, not [%s] [%s]", method, uri));
+        }
+    }
+
+    private final class ReplayRequest implements Request {
+        private final URI uri;
+        private final String method;
+        private final Headers headers = new HeadersImpl();
+
+        ReplayRequest(URI uri, String method) {
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public String getMethod() {
+            return method;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        public Headers getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return new ByteArrayOutputStream();
+        }
+
+        @Override
+        public Response execute() throws IOException {
+            final long start = System.nanoTime();
+            final Path file = recordings.poll();
+            if (file == null) {
+                throw new IOException(String.format("All recorded streams in [%s] were replayed", directory));
+            }
+            return new ReplayResponse(new StreamRecording.Reader(file), speed, start);
+        }
+    }
+
+    private static final class ReplayResponse implements Response {
+        private final StreamRecording.Reader reader;
+        private final InputStream body;
+
+        ReplayResponse(StreamRecording.Reader reader, Speed speed, long start) {
+            this.reader = reader;
+            this.body = new ReplayInputStream(reader, speed, start);
+        }
+
+        @Override
+        public int getStatusCode() {
+            return reader.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() {
+            return reader.getStatusText();
+        }
+
+        @Override
+        public Headers getHeaders() {
+            return reader.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                // nothing left to replay
+            }
+        }
+    }
+
+    private static final class ReplayInputStream extends InputStream {
+        private final StreamRecording.Reader reader;
+        private final Speed speed;
+        // start of the replay as System.nanoTime, which might be negative
+        private final long start;
+        private int position;
+        private boolean finished;
+
+        ReplayInputStream(StreamRecording.Reader reader, Speed speed, long start) {
+            this.reader = reader;
+            this.speed = speed;
+            this.start = start;
+        }
+
+        private boolean fill() throws IOException {
+            while (!finished && position == reader.getChunkLength()) {
+                if (reader.next()) {
+                    position = 0;
+                    awaitChunk();
+                } else {
+                    finished = true;
+                }
+            }
+            return !finished;
+        }
+
+        private void awaitChunk() throws InterruptedIOException {
+            if (speed == Speed.RECORDED) {
+                final long delay = start + reader.getElapsedNanos() - System.nanoTime();
+                if (delay > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(delay);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while replaying stream");
+                    }
+                }
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            return fill() ? reader.getChunk()[position++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            final int count = Math.min(length, reader.getChunkLength() - position);
+            System.arraycopy(reader.getChunk(), position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return finished ? 0 : reader.getChunkLength() - position;
+        }
+    }
+}
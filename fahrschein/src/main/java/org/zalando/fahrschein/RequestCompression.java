@@ -0,0 +1,138 @@
+package org.zalando.fahrschein;
+
+import org.zalando.fahrschein.http.api.Headers;
+import org.zalando.fahrschein.http.api.Request;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+
+/**
+ * Sets request bodies gzip compressed if they are at least the {@link CompressionParameters#getMinSize() minimum size}, using pooled deflaters.
+ * Bodies of known size are compressed while they are streamed to the connection.
+ */
+final class RequestCompression {
+    private static final String GZIP = "gzip";
+    private static final int BUFFER_SIZE = 8192;
+
+    private final CompressionParameters parameters;
+    private final DeflaterPool deflaterPool;
+
+    RequestCompression(CompressionParameters parameters) {
+        this.parameters = parameters;
+        this.deflaterPool = new DeflaterPool(parameters.getLevel(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Sets a body of unknown size. The body is written into a buffer, once it reaches the minimum size the buffered prefix and
+     * the rest of the body are compressed into the buffer instead, so that the body is only serialized once. Since the
+     * content encoding has to be known before sending, the body is then sent from the buffer with its content length.
+     */
+    void setBody(Request request, Request.Body body) throws IOException {
+        if (parameters.getMinSize() > 0) {
+            final CompressingBuffer buffer = new CompressingBuffer(parameters.getMinSize());
+            try {
+                body.writeTo(buffer);
+                buffer.finish();
+            } finally {
+                buffer.release();
+            }
+            if (buffer.isCompressed()) {
+                request.getHeaders().put(Headers.CONTENT_ENCODING, GZIP);
+            }
+            request.getHeaders().setContentLength(buffer.size());
+            request.setBody(buffer::writeTo);
+        } else {
+            setCompressedBody(request, body);
+        }
+    }
+
+    /**
+     * Sets a body of known size, which is sent with that content length if it is not compressed.
+     */
+    void setBody(Request request, Request.Body body, long contentLength) throws IOException {
+        if (contentLength >= parameters.getMinSize()) {
+            setCompressedBody(request, body);
+        } else {
+            request.getHeaders().setContentLength(contentLength);
+            request.setBody(body);
+        }
+    }
+
+    private void setCompressedBody(Request request, Request.Body body) throws IOException {
+        request.getHeaders().put(Headers.CONTENT_ENCODING, GZIP);
+        request.setBody(out -> {
+            final Deflater deflater = deflaterPool.acquire();
+            try (final OutputStream gzip = new GzipOutputStream(out, deflater, BUFFER_SIZE)) {
+                body.writeTo(gzip);
+            } finally {
+                deflaterPool.release(deflater);
+            }
+        });
+    }
+
+    /**
+     * Buffers writes until the limit is reached, then compresses the buffered and all following writes.
+     */
+    private final class CompressingBuffer extends OutputStream {
+        private final int limit;
+        private ByteArrayOutputStream buffer;
+        @Nullable
+        private Deflater deflater;
+        @Nullable
+        private GzipOutputStream gzip;
+
+        CompressingBuffer(int limit) {
+            this.limit = limit;
+            this.buffer = new ByteArrayOutputStream(Math.min(limit, 1024));
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            output(1).write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            output(len).write(b, off, len);
+        }
+
+        private OutputStream output(int len) throws IOException {
+            if (gzip == null && buffer.size() + len >= limit) {
+                final ByteArrayOutputStream uncompressed = buffer;
+                buffer = new ByteArrayOutputStream(Math.max(1024, uncompressed.size() / 4));
+                deflater = deflaterPool.acquire();
+                gzip = new GzipOutputStream(buffer, deflater, BUFFER_SIZE);
+                uncompressed.writeTo(gzip);
+            }
+            return gzip != null ? gzip : buffer;
+        }
+
+        void finish() throws IOException {
+            if (gzip != null) {
+                gzip.finish();
+            }
+        }
+
+        void release() {
+            if (deflater != null) {
+                deflaterPool.release(deflater);
+                deflater = null;
+            }
+        }
+
+        boolean isCompressed() {
+            return gzip != null;
+        }
+
+        int size() {
+            return buffer.size();
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            buffer.writeTo(out);
+        }
+    }
+}
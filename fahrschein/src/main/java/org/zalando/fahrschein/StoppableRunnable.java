@@ -0,0 +1,13 @@
+package org.zalando.fahrschein;
+
+/**
+ * A stream that can be asked to stop gracefully, so that {@link ConsumerGroupSupervisor} does not have to interrupt it.
+ *
+ * {@link #stop()} is called from a different thread than {@link #run()} and must not block until the stream stopped,
+ * {@link #run()} is expected to return once the stream finished its current work.
+ */
+public interface StoppableRunnable extends IORunnable {
+
+    void stop();
+
+}
@@ -1,11 +1,13 @@
 package org.zalando.fahrschein;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
 import org.zalando.fahrschein.domain.Lock;
 import org.zalando.fahrschein.domain.Partition;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 public interface StreamBuilder {
 
@@ -18,6 +20,23 @@ public interface StreamBuilder {
         SubscriptionStreamBuilder withBatchHandler(BatchHandler batchHandler);
         @Override
         SubscriptionStreamBuilder withStreamParameters(StreamParameters streamParameters);
+        @Override
+        SubscriptionStreamBuilder withPipelinedProcessing(int queueCapacity);
+        @Override
+        SubscriptionStreamBuilder withEidDeduplication(EidDeduplicator eidDeduplicator);
+        @Override
+        SubscriptionStreamBuilder withBatchCoalescing(CoalescingParameters coalescingParameters);
+        @Override
+        SubscriptionStreamBuilder withResponseCompression();
+
+        /**
+         * Processes batches of different partitions concurrently, while batches of the same partition are still processed in order.
+         * Partitions are assigned to a fixed number of processing threads, the cursor of each batch is committed as soon as its processing finished.
+         * The {@link Listener} and {@link CursorManager} need to be thread safe when using this option.
+         *
+         * @param partitionParallelism Number of threads processing batches, the queue capacity per thread can be configured using {@link #withPipelinedProcessing(int)}.
+         */
+        SubscriptionStreamBuilder withPartitionParallelism(int partitionParallelism);
     }
 
     interface LowLevelStreamBuilder extends StreamBuilder {
@@ -29,6 +48,14 @@ public interface StreamBuilder {
         LowLevelStreamBuilder withBatchHandler(BatchHandler batchHandler);
         @Override
         LowLevelStreamBuilder withStreamParameters(StreamParameters streamParameters);
+        @Override
+        LowLevelStreamBuilder withPipelinedProcessing(int queueCapacity);
+        @Override
+        LowLevelStreamBuilder withEidDeduplication(EidDeduplicator eidDeduplicator);
+        @Override
+        LowLevelStreamBuilder withBatchCoalescing(CoalescingParameters coalescingParameters);
+        @Override
+        LowLevelStreamBuilder withResponseCompression();
 
         LowLevelStreamBuilder withLock(Lock lock);
 
@@ -47,10 +74,65 @@ public interface StreamBuilder {
 
     StreamBuilder withBackoffStrategy(BackoffStrategy backoffStrategy);
 
+    /**
+     * Reads and deserializes batches on the calling thread while the {@link Listener} and the {@link CursorManager} are invoked on a separate thread.
+     * Batches are still processed in order, cursors are committed after the listener returned, same as without pipelining.
+     *
+     * @param queueCapacity Maximum number of parsed batches waiting to be processed, reading blocks while this number is reached.
+     */
+    StreamBuilder withPipelinedProcessing(int queueCapacity);
+
+    /**
+     * Drops events implementing {@link org.zalando.fahrschein.domain.Event} whose eid was already processed successfully by the {@link Listener}.
+     * Cursors of batches containing only duplicates are still committed.
+     *
+     * @param eidDeduplicator Remembers processed eids using a fixed amount of memory, should not be shared between streams.
+     */
+    StreamBuilder withEidDeduplication(EidDeduplicator eidDeduplicator);
+
+    /**
+     * Accumulates events of consecutive batches, possibly of different partitions, until one of the thresholds of the given parameters is reached.
+     * The {@link Listener} is then invoked once with all accumulated events and the latest cursor of each partition is committed afterwards.
+     * Accumulated events are also handed over before reconnecting or stopping, when the reading thread gets interrupted they are received again instead.
+     *
+     * Can not be combined with {@link SubscriptionStreamBuilder#withPartitionParallelism(int) partition parallelism}.
+     */
+    StreamBuilder withBatchCoalescing(CoalescingParameters coalescingParameters);
+
+    /**
+     * Requests the events gzip compressed with {@code Accept-Encoding: gzip}. Compressed responses are decompressed incrementally while reading,
+     * so that batches and keep alives are not delayed. With {@code HttpComponentsRequestFactory} the content compression of the http client
+     * should be disabled, otherwise the http client decompresses the response itself.
+     */
+    StreamBuilder withResponseCompression();
+
     <T> IORunnable runnable(Class<T> eventClass, Listener<T> listener);
     <T> IORunnable runnable(EventReader<T> eventReader, Listener<T> listener);
 
     <T> void listen(Class<T> eventClass, Listener<T> listener) throws IOException;
     <T> void listen(EventReader<T> eventReader, Listener<T> listener) throws IOException;
 
+    /**
+     * Passes the events of each batch one by one to the listener while the batch is parsed, instead of deserializing the whole batch first.
+     * This bounds memory usage by the size of a single event for big batches.
+     *
+     * Can not be combined with pipelined processing, batch coalescing, partition parallelism or eid deduplication.
+     */
+    <T> IORunnable streamingRunnable(Class<T> eventClass, EventStreamListener<T> listener);
+    <T> IORunnable streamingRunnable(EventReader<T> eventReader, EventStreamListener<T> listener);
+
+    <T> void listenStreaming(Class<T> eventClass, EventStreamListener<T> listener) throws IOException;
+    <T> void listenStreaming(EventReader<T> eventReader, EventStreamListener<T> listener) throws IOException;
+
+    /**
+     * Creates a publisher that supports a single subscriber. Reading starts on the given executor once the subscriber requested the first batch,
+     * the next batch is only handed over after more batches were requested. Cursors are not committed automatically,
+     * but only when the subscriber calls {@link AcknowledgeableBatch#acknowledge()}.
+     *
+     * The stream completes when the reading thread gets interrupted and fails with the exception that would be thrown by {@link #listen(EventReader, Listener)}.
+     * Cancelling the subscription stops reading and closes the connection.
+     */
+    <T> Publisher<AcknowledgeableBatch<T>> publisher(EventReader<T> eventReader, Executor executor);
+    <T> Publisher<AcknowledgeableBatch<T>> publisher(Class<T> eventClass, Executor executor);
+
 }
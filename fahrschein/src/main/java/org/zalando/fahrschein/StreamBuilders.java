@@ -1,8 +1,10 @@
 package org.zalando.fahrschein;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
 import org.zalando.fahrschein.domain.Cursor;
 import org.zalando.fahrschein.domain.Lock;
+import org.zalando.fahrschein.domain.Offset;
 import org.zalando.fahrschein.domain.Partition;
 import org.zalando.fahrschein.domain.Subscription;
 import org.zalando.fahrschein.http.api.RequestFactory;
@@ -12,14 +14,14 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import static java.util.Optional.ofNullable;
-import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toMap;
+import static org.zalando.fahrschein.Preconditions.checkArgument;
+import static org.zalando.fahrschein.Preconditions.checkState;
 
 class StreamBuilders {
     abstract static class AbstractStreamBuilder implements StreamBuilder {
@@ -35,8 +37,11 @@ class StreamBuilders {
         protected final BatchHandler batchHandler;
         @Nullable
         protected final MetricsCollector metricsCollector;
+        @Nullable
+        protected final EidDeduplicator eidDeduplicator;
+        protected final ReaderParameters readerParameters;
 
-        protected AbstractStreamBuilder(URI baseUri, RequestFactory requestFactory, CursorManager cursorManager, ObjectMapper objectMapper, @Nullable BackoffStrategy backoffStrategy, @Nullable StreamParameters streamParameters, @Nullable BatchHandler batchHandler, @Nullable MetricsCollector metricsCollector) {
+        protected AbstractStreamBuilder(URI baseUri, RequestFactory requestFactory, CursorManager cursorManager, ObjectMapper objectMapper, @Nullable BackoffStrategy backoffStrategy, @Nullable StreamParameters streamParameters, @Nullable BatchHandler batchHandler, @Nullable MetricsCollector metricsCollector, @Nullable EidDeduplicator eidDeduplicator, ReaderParameters readerParameters) {
             this.baseUri = baseUri;
             this.requestFactory = requestFactory;
             this.cursorManager = cursorManager;
@@ -45,6 +50,8 @@ class StreamBuilders {
             this.streamParameters = streamParameters;
             this.batchHandler = batchHandler;
             this.metricsCollector = metricsCollector;
+            this.eidDeduplicator = eidDeduplicator;
+            this.readerParameters = readerParameters;
         }
 
         protected abstract URI getURI(String queryString);
@@ -64,6 +71,23 @@ class StreamBuilders {
 
         @Override
         public final <T> IORunnable runnable(EventReader<T> eventReader, Listener<T> listener) {
+            return createReader(cursorManager, eventReader, listener, readerParameters, eidDeduplicator);
+        }
+
+        @Override
+        public final <T> Publisher<AcknowledgeableBatch<T>> publisher(EventReader<T> eventReader, Executor executor) {
+            // batches are handed over to the subscriber on the reading thread, so pipelining and coalescing do not apply,
+            // and eids are only remembered when a batch is acknowledged, since unacknowledged batches are delivered again
+            final EventReader<T> reader = eidDeduplicator != null ? eidDeduplicator.wrapEventReader(eventReader) : eventReader;
+            return new NakadiPublisher<>(cursorManager, (cursorManager, listener) -> createReader(cursorManager, reader, listener, readerParameters.withSequentialProcessing(), null), executor, eidDeduplicator);
+        }
+
+        @Override
+        public final <T> Publisher<AcknowledgeableBatch<T>> publisher(Class<T> eventClass, Executor executor) {
+            return publisher(new MappingEventReader<>(eventClass, objectMapper), executor);
+        }
+
+        private <T> IORunnable createReader(CursorManager cursorManager, EventReader<T> eventReader, Listener<T> listener, ReaderParameters readerParameters, @Nullable EidDeduplicator eidDeduplicator) {
             final StreamParameters streamParameters = this.streamParameters != null ? this.streamParameters : new StreamParameters();
             final String queryString = streamParameters.toQueryString();
 
@@ -76,8 +100,13 @@ class StreamBuilders {
             final MetricsCollector metricsCollector = this.metricsCollector != null ? this.metricsCollector : NoMetricsCollector.NO_METRICS_COLLECTOR;
             final BatchHandler batchHandler = this.batchHandler != null ? this.batchHandler : DefaultBatchHandler.INSTANCE;
 
+            if (eidDeduplicator != null) {
+                return new NakadiReader<>(uri, requestFactory, backoffStrategy, cursorManager,
+                        eventNames, subscription, lock, eidDeduplicator.wrapEventReader(eventReader), eidDeduplicator.wrapListener(listener), batchHandler, metricsCollector, readerParameters);
+            }
+
             return new NakadiReader<>(uri, requestFactory, backoffStrategy, cursorManager,
-                    eventNames, subscription, lock, eventReader, listener, batchHandler, metricsCollector);
+                    eventNames, subscription, lock, eventReader, listener, batchHandler, metricsCollector, readerParameters);
         }
 
         @Override
@@ -86,17 +115,46 @@ class StreamBuilders {
             return runnable(eventReader, listener);
         }
 
+        @Override
+        public final <T> void listenStreaming(Class<T> eventClass, EventStreamListener<T> listener) throws IOException {
+            streamingRunnable(eventClass, listener).run();
+        }
+
+        @Override
+        public final <T> void listenStreaming(EventReader<T> eventReader, EventStreamListener<T> listener) throws IOException {
+            streamingRunnable(eventReader, listener).run();
+        }
+
+        @Override
+        public final <T> IORunnable streamingRunnable(Class<T> eventClass, EventStreamListener<T> listener) {
+            return streamingRunnable(new MappingEventReader<>(eventClass, objectMapper), listener);
+        }
+
+        @Override
+        public final <T> IORunnable streamingRunnable(EventReader<T> eventReader, EventStreamListener<T> listener) {
+            checkState(readerParameters.isSequentialProcessing() && eidDeduplicator == null,
+                    "Streaming listeners can not be combined with pipelined processing, partition parallelism, batch coalescing or eid deduplication");
+
+            final StreamParameters streamParameters = this.streamParameters != null ? this.streamParameters : new StreamParameters();
+            final BackoffStrategy backoffStrategy = this.backoffStrategy != null ? this.backoffStrategy : new EqualJitterBackoffStrategy();
+            final MetricsCollector metricsCollector = this.metricsCollector != null ? this.metricsCollector : NoMetricsCollector.NO_METRICS_COLLECTOR;
+            final BatchHandler batchHandler = this.batchHandler != null ? this.batchHandler : DefaultBatchHandler.INSTANCE;
+
+            return NakadiReader.streaming(getURI(streamParameters.toQueryString()), requestFactory, backoffStrategy, cursorManager,
+                    getEventNames(), getSubscription(), getLock(), eventReader, listener, batchHandler, metricsCollector, readerParameters);
+        }
+
     }
 
     static class SubscriptionStreamBuilderImpl extends AbstractStreamBuilder implements StreamBuilder.SubscriptionStreamBuilder {
         private final Subscription subscription;
 
         SubscriptionStreamBuilderImpl(URI baseUri, RequestFactory clientHttpRequestFactory, CursorManager cursorManager, ObjectMapper objectMapper, Subscription subscription) {
-            this(baseUri, clientHttpRequestFactory, cursorManager, objectMapper, null, null, null, null, subscription);
+            this(baseUri, clientHttpRequestFactory, cursorManager, objectMapper, null, null, null, null, null, ReaderParameters.DEFAULT, subscription);
         }
 
-        private SubscriptionStreamBuilderImpl(URI baseUri, RequestFactory clientHttpRequestFactory, CursorManager cursorManager, ObjectMapper objectMapper, @Nullable BackoffStrategy backoffStrategy, @Nullable StreamParameters streamParameters, @Nullable BatchHandler batchHandler, @Nullable MetricsCollector metricsCollector, Subscription subscription) {
-            super(baseUri, clientHttpRequestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector);
+        private SubscriptionStreamBuilderImpl(URI baseUri, RequestFactory clientHttpRequestFactory, CursorManager cursorManager, ObjectMapper objectMapper, @Nullable BackoffStrategy backoffStrategy, @Nullable StreamParameters streamParameters, @Nullable BatchHandler batchHandler, @Nullable MetricsCollector metricsCollector, @Nullable EidDeduplicator eidDeduplicator, ReaderParameters readerParameters, Subscription subscription) {
+            super(baseUri, clientHttpRequestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters);
             this.subscription = subscription;
         }
 
@@ -122,27 +180,54 @@ class StreamBuilders {
 
         @Override
         public SubscriptionStreamBuilder withBackoffStrategy(BackoffStrategy backoffStrategy) {
-            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, subscription);
+            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters, subscription);
         }
 
         @Override
         public SubscriptionStreamBuilder withBatchHandler(BatchHandler batchHandler) {
-            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, subscription);
+            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters, subscription);
         }
 
         @Override
         public SubscriptionStreamBuilder withMetricsCollector(MetricsCollector metricsCollector) {
-            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, subscription);
+            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters, subscription);
         }
 
         @Override
         public SubscriptionStreamBuilder withStreamParameters(StreamParameters streamParameters) {
-            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, subscription);
+            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters, subscription);
         }
 
         @Override
         public SubscriptionStreamBuilder withObjectMapper(ObjectMapper objectMapper) {
-            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, subscription);
+            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters, subscription);
+        }
+
+        @Override
+        public SubscriptionStreamBuilder withPipelinedProcessing(int queueCapacity) {
+            checkArgument(queueCapacity > 0, "Queue capacity should be bigger than 0");
+            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters.withPipelineCapacity(queueCapacity), subscription);
+        }
+
+        @Override
+        public SubscriptionStreamBuilder withPartitionParallelism(int partitionParallelism) {
+            checkArgument(partitionParallelism > 0, "Partition parallelism should be bigger than 0");
+            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters.withPartitionParallelism(partitionParallelism), subscription);
+        }
+
+        @Override
+        public SubscriptionStreamBuilder withEidDeduplication(EidDeduplicator eidDeduplicator) {
+            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters, subscription);
+        }
+
+        @Override
+        public SubscriptionStreamBuilder withBatchCoalescing(CoalescingParameters coalescingParameters) {
+            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters.withCoalescingParameters(coalescingParameters), subscription);
+        }
+
+        @Override
+        public SubscriptionStreamBuilder withResponseCompression() {
+            return new SubscriptionStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters.withResponseCompression(true), subscription);
         }
     }
 
@@ -151,11 +236,11 @@ class StreamBuilders {
         private final Lock lock;
 
         LowLevelStreamBuilderImpl(URI baseUri, RequestFactory clientHttpRequestFactory, CursorManager cursorManager, ObjectMapper objectMapper, String eventName) {
-            this(baseUri, clientHttpRequestFactory, cursorManager, objectMapper, null, null, null, null, eventName, null);
+            this(baseUri, clientHttpRequestFactory, cursorManager, objectMapper, null, null, null, null, null, ReaderParameters.DEFAULT, eventName, null);
         }
 
-        private LowLevelStreamBuilderImpl(URI baseUri, RequestFactory clientHttpRequestFactory, CursorManager cursorManager, ObjectMapper objectMapper, @Nullable BackoffStrategy backoffStrategy, @Nullable StreamParameters streamParameters, @Nullable BatchHandler batchHandler, @Nullable MetricsCollector metricsCollector, String eventName, @Nullable Lock lock) {
-            super(baseUri, clientHttpRequestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector);
+        private LowLevelStreamBuilderImpl(URI baseUri, RequestFactory clientHttpRequestFactory, CursorManager cursorManager, ObjectMapper objectMapper, @Nullable BackoffStrategy backoffStrategy, @Nullable StreamParameters streamParameters, @Nullable BatchHandler batchHandler, @Nullable MetricsCollector metricsCollector, @Nullable EidDeduplicator eidDeduplicator, ReaderParameters readerParameters, String eventName, @Nullable Lock lock) {
+            super(baseUri, clientHttpRequestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters);
             this.eventName = eventName;
             this.lock = lock;
         }
@@ -182,32 +267,53 @@ class StreamBuilders {
 
         @Override
         public LowLevelStreamBuilder withBackoffStrategy(BackoffStrategy backoffStrategy) {
-            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eventName, lock);
+            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters, eventName, lock);
         }
 
         @Override
         public LowLevelStreamBuilder withMetricsCollector(MetricsCollector metricsCollector) {
-            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eventName, lock);
+            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters, eventName, lock);
         }
 
         @Override
         public LowLevelStreamBuilder withBatchHandler(BatchHandler batchHandler) {
-            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eventName, lock);
+            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters, eventName, lock);
         }
 
         @Override
         public LowLevelStreamBuilder withStreamParameters(StreamParameters streamParameters) {
-            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eventName, lock);
+            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters, eventName, lock);
         }
 
         @Override
         public LowLevelStreamBuilder withObjectMapper(ObjectMapper objectMapper) {
-            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eventName, lock);
+            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters, eventName, lock);
+        }
+
+        @Override
+        public LowLevelStreamBuilder withPipelinedProcessing(int queueCapacity) {
+            checkArgument(queueCapacity > 0, "Queue capacity should be bigger than 0");
+            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters.withPipelineCapacity(queueCapacity), eventName, lock);
+        }
+
+        @Override
+        public LowLevelStreamBuilder withEidDeduplication(EidDeduplicator eidDeduplicator) {
+            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters, eventName, lock);
+        }
+
+        @Override
+        public LowLevelStreamBuilder withBatchCoalescing(CoalescingParameters coalescingParameters) {
+            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters.withCoalescingParameters(coalescingParameters), eventName, lock);
+        }
+
+        @Override
+        public LowLevelStreamBuilder withResponseCompression() {
+            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters.withResponseCompression(true), eventName, lock);
         }
 
         @Override
         public LowLevelStreamBuilder withLock(Lock lock) {
-            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eventName, lock);
+            return new LowLevelStreamBuilderImpl(baseUri, requestFactory, cursorManager, objectMapper, backoffStrategy, streamParameters, batchHandler, metricsCollector, eidDeduplicator, readerParameters, eventName, lock);
         }
 
         /**
@@ -233,8 +339,8 @@ class StreamBuilders {
          * Updates cursors in case the currently stored offset is no longer available. Streaming will start at the oldest available offset (BEGIN) to minimize the amount of events skipped.
          */
         public LowLevelStreamBuilder skipUnavailableOffsets(List<Partition> partitions) throws IOException {
-            final Map<String, Cursor> cursorsByPartition = cursorManager.getCursors(eventName).stream().collect(toMap(Cursor::getPartition, identity()));
-            final List<Cursor> cursors = partitions.stream().filter(p -> isNoLongerAvailable(cursorsByPartition, p)).map(p -> new Cursor(p.getPartition(), "BEGIN")).collect(toList());
+            final OffsetTable committedOffsets = OffsetTable.of(cursorManager.getCursors(eventName));
+            final List<Cursor> cursors = partitions.stream().filter(p -> isNoLongerAvailable(committedOffsets, p)).map(p -> new Cursor(p.getPartition(), "BEGIN")).collect(toList());
 
             if (!cursors.isEmpty()) {
                 cursorManager.onSuccess(eventName, cursors);
@@ -243,9 +349,10 @@ class StreamBuilders {
             return this;
         }
 
-        private static boolean isNoLongerAvailable(Map<String, Cursor> cursorsByPartition, Partition p) {
-            final Cursor cursor = cursorsByPartition.get(p.getPartition());
-            return (cursor == null || (!"BEGIN".equals(cursor.getOffset()) && OffsetComparator.INSTANCE.compare(cursor.getOffset(), p.getOldestAvailableOffset()) < 0));
+        private static boolean isNoLongerAvailable(OffsetTable committedOffsets, Partition p) {
+            final String partition = p.getPartition();
+            return !committedOffsets.contains(partition)
+                    || (committedOffsets.compare(partition, Offset.BEGIN) != 0 && committedOffsets.compare(partition, Offset.parse(p.getOldestAvailableOffset())) < 0);
         }
     }
 }
@@ -0,0 +1,196 @@
+package org.zalando.fahrschein;
+
+import org.zalando.fahrschein.http.api.Headers;
+import org.zalando.fahrschein.http.api.HeadersImpl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * File format shared by {@link RecordingRequestFactory} and {@link ReplayRequestFactory}. A recording is a gzip compressed sequence of
+ * the request uri, status and headers of the response, followed by the chunks of the body, each with the nanoseconds elapsed since the
+ * request was executed. A chunk of length -1 marks the end of the body, truncated files are treated as ending at the last complete chunk.
+ */
+final class StreamRecording {
+    private static final int MAGIC = 0x4E524543;
+    private static final String GLOB = "stream-*.gz";
+
+    private StreamRecording() {
+    }
+
+    static boolean isEventStream(URI uri, String method) {
+        final String path = uri.getPath();
+        return "GET".equals(method) && path != null && path.endsWith("/events");
+    }
+
+    static Path file(Path directory, int sequence) {
+        return directory.resolve(String.format(Locale.ROOT, "stream-%06d.gz", sequence));
+    }
+
+    /**
+     * Recordings of the directory in the order they were recorded.
+     */
+    static List<Path> list(Path directory) throws IOException {
+        final List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, GLOB)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    static final class Writer implements Closeable {
+        private final DataOutputStream out;
+        private final long start;
+
+        Writer(Path file, URI uri, int statusCode, String statusText, Headers headers, long start) throws IOException {
+            this.out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE_NEW))));
+            this.start = start;
+            try {
+                out.writeInt(MAGIC);
+                out.writeUTF(uri.toString());
+                out.writeInt(statusCode);
+                out.writeUTF(statusText == null ? "" : statusText);
+                final List<String> names = new ArrayList<>();
+                final List<String> values = new ArrayList<>();
+                for (String name : headers.headerNames()) {
+                    for (String value : headers.get(name)) {
+                        names.add(name);
+                        values.add(value);
+                    }
+                }
+                out.writeInt(names.size());
+                for (int i = 0; i < names.size(); i++) {
+                    out.writeUTF(names.get(i));
+                    out.writeUTF(values.get(i));
+                }
+            } catch (IOException e) {
+                out.close();
+                throw e;
+            }
+        }
+
+        void write(byte[] buffer, int offset, int length) throws IOException {
+            out.writeLong(System.nanoTime() - start);
+            out.writeInt(length);
+            out.write(buffer, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                out.writeLong(System.nanoTime() - start);
+                out.writeInt(-1);
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    static final class Reader implements Closeable {
+        private final DataInputStream in;
+        private final URI uri;
+        private final int statusCode;
+        private final String statusText;
+        private final Headers headers;
+
+        private long elapsedNanos;
+        private byte[] chunk = new byte[0];
+        private int chunkLength;
+
+        Reader(Path file) throws IOException {
+            this.in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file))));
+            try {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException("File [" + file + "] is not a stream recording");
+                }
+                this.uri = URI.create(in.readUTF());
+                this.statusCode = in.readInt();
+                this.statusText = in.readUTF();
+                final Headers headers = new HeadersImpl();
+                final int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    headers.add(in.readUTF(), in.readUTF());
+                }
+                this.headers = new HeadersImpl(headers, true);
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        URI getUri() {
+            return uri;
+        }
+
+        int getStatusCode() {
+            return statusCode;
+        }
+
+        String getStatusText() {
+            return statusText;
+        }
+
+        Headers getHeaders() {
+            return headers;
+        }
+
+        /**
+         * Reads the next chunk of the body.
+         *
+         * @return false at the end of the body
+         */
+        boolean next() throws IOException {
+            try {
+                elapsedNanos = in.readLong();
+                final int length = in.readInt();
+                if (length < 0) {
+                    return false;
+                }
+                if (length > chunk.length) {
+                    chunk = new byte[length];
+                }
+                in.readFully(chunk, 0, length);
+                chunkLength = length;
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        byte[] getChunk() {
+            return chunk;
+        }
+
+        int getChunkLength() {
+            return chunkLength;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
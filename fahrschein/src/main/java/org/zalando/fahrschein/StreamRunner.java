@@ -0,0 +1,100 @@
+package org.zalando.fahrschein;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs streams, each on its own thread. On JDKs supporting virtual threads every stream gets a virtual thread,
+ * so that blocking while reading from the connection, sleeping during backoff and invoking the listener does not occupy a platform thread.
+ * Helper threads for {@link StreamBuilder#withPipelinedProcessing(int) pipelined processing} are then also created as virtual threads.
+ * Otherwise streams run on daemon platform threads.
+ *
+ * The runner can also be used as {@link Executor} for {@link StreamBuilder#publisher(EventReader, Executor) publishers}.
+ */
+public final class StreamRunner implements Executor, Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StreamRunner.class);
+
+    private final ExecutorService executorService;
+    private final boolean virtual;
+
+    private StreamRunner(ExecutorService executorService, boolean virtual) {
+        this.executorService = executorService;
+        this.virtual = virtual;
+    }
+
+    /**
+     * Creates a runner using virtual threads if supported by the JDK and platform threads otherwise.
+     *
+     * @param namePrefix Prefix for the names of the created threads
+     */
+    public static StreamRunner create(String namePrefix) {
+        final ThreadFactory threadFactory = Threads.virtualThreadFactory(namePrefix);
+        if (threadFactory != null) {
+            final ExecutorService executorService = Threads.newThreadPerTaskExecutor(threadFactory);
+            if (executorService != null) {
+                return new StreamRunner(executorService, true);
+            }
+        }
+        return platformThreads(namePrefix);
+    }
+
+    /**
+     * Creates a runner using daemon platform threads.
+     *
+     * @param namePrefix Prefix for the names of the created threads
+     */
+    public static StreamRunner platformThreads(String namePrefix) {
+        return new StreamRunner(Executors.newCachedThreadPool(Threads.platformThreadFactory(namePrefix)), false);
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Starts the given stream, usually created by {@link StreamBuilder#runnable(Class, Listener)}. Failures of the stream are logged.
+     *
+     * @return A future that can be used to stop the stream by {@link Future#cancel(boolean) cancelling} it with interruption.
+     */
+    public Future<?> start(IORunnable stream) {
+        return executorService.submit(() -> {
+            try {
+                stream.run();
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("Stream terminated with [{}] [{}]", e.getClass().getSimpleName(), e.getMessage(), e);
+                throw e;
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executorService.execute(command);
+    }
+
+    /**
+     * Interrupts all running streams and waits for them to stop.
+     */
+    @Override
+    public void close() throws IOException {
+        executorService.shutdownNow();
+        try {
+            if (!executorService.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOG.warn("Streams did not stop within 10 seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
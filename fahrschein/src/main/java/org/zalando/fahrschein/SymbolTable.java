@@ -0,0 +1,84 @@
+package org.zalando.fahrschein;
+
+/**
+ * Canonicalizes frequently repeated string values like partitions and event types, so that reading them from the parser does not allocate
+ * a new string for every batch. Lookups compare the characters from the parser buffer with the stored symbols.
+ *
+ * Only used by the reading thread, so this class is not thread safe.
+ */
+final class SymbolTable {
+    private final int maxSymbols;
+    private String[] symbols;
+    private int size;
+
+    SymbolTable(int maxSymbols) {
+        this.maxSymbols = maxSymbols;
+        this.symbols = new String[16];
+    }
+
+    String intern(char[] chars, int offset, int length) {
+        final int hash = hash(chars, offset, length);
+        int mask = symbols.length - 1;
+        int index = hash & mask;
+        String symbol;
+        while ((symbol = symbols[index]) != null) {
+            if (matches(symbol, chars, offset, length)) {
+                return symbol;
+            }
+            index = (index + 1) & mask;
+        }
+
+        symbol = new String(chars, offset, length);
+        if (size >= maxSymbols) {
+            // do not grow without bound if a stream contains unexpectedly many distinct values
+            return symbol;
+        }
+
+        symbols[index] = symbol;
+        size++;
+        if (size * 2 > symbols.length) {
+            rehash();
+        }
+        return symbol;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void rehash() {
+        final String[] oldSymbols = symbols;
+        symbols = new String[oldSymbols.length * 2];
+        final int mask = symbols.length - 1;
+        for (String symbol : oldSymbols) {
+            if (symbol != null) {
+                int index = symbol.hashCode() & mask;
+                while (symbols[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                symbols[index] = symbol;
+            }
+        }
+    }
+
+    // same as String#hashCode, so that rehashing can use the cached hash code of the stored symbols
+    private static int hash(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        return hash;
+    }
+
+    private static boolean matches(String symbol, char[] chars, int offset, int length) {
+        if (symbol.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (symbol.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
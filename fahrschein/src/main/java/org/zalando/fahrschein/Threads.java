@@ -0,0 +1,128 @@
+package org.zalando.fahrschein;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates virtual threads when running on a JDK that supports them, using reflection since the library is compiled for Java 8.
+ */
+final class Threads {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Threads.class);
+
+    @Nullable
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+    @Nullable
+    private static final Method IS_VIRTUAL = findMethod(Thread.class, "isVirtual");
+    @Nullable
+    private static final Method BUILDER_NAME = findMethod(findClass("java.lang.Thread$Builder"), "name", String.class, long.class);
+    @Nullable
+    private static final Method BUILDER_FIXED_NAME = findMethod(findClass("java.lang.Thread$Builder"), "name", String.class);
+    @Nullable
+    private static final Method BUILDER_UNSTARTED = findMethod(findClass("java.lang.Thread$Builder"), "unstarted", Runnable.class);
+    @Nullable
+    private static final Method BUILDER_FACTORY = findMethod(findClass("java.lang.Thread$Builder"), "factory");
+    @Nullable
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR = findMethod(Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class);
+
+    private Threads() {
+    }
+
+    @Nullable
+    private static Class<?> findClass(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Method findMethod(@Nullable Class<?> clazz, String name, Class<?>... parameterTypes) {
+        if (clazz == null) {
+            return null;
+        }
+        try {
+            return clazz.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    static boolean virtualThreadsSupported() {
+        return OF_VIRTUAL != null && BUILDER_NAME != null && BUILDER_FACTORY != null && NEW_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (Boolean) IS_VIRTUAL.invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns a factory for virtual threads named {@code prefix} followed by a counter, or {@code null} if virtual threads are not supported.
+     */
+    @Nullable
+    static ThreadFactory virtualThreadFactory(String prefix) {
+        if (!virtualThreadsSupported()) {
+            return null;
+        }
+        try {
+            final Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 0L);
+            return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.warn("Could not create virtual thread factory, falling back to platform threads", e);
+            return null;
+        }
+    }
+
+    static ThreadFactory platformThreadFactory(String prefix) {
+        final AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, prefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Nullable
+    static ExecutorService newThreadPerTaskExecutor(ThreadFactory threadFactory) {
+        if (NEW_THREAD_PER_TASK_EXECUTOR == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a daemon thread, which is virtual if the calling thread is virtual, so that helper threads of a stream use the same kind of threads as the stream itself.
+     */
+    static Thread newThread(String name, Runnable runnable) {
+        if (isVirtual(Thread.currentThread()) && BUILDER_FIXED_NAME != null && BUILDER_UNSTARTED != null) {
+            try {
+                final Object builder = BUILDER_FIXED_NAME.invoke(OF_VIRTUAL.invoke(null), name);
+                return (Thread) BUILDER_UNSTARTED.invoke(builder, runnable);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                LOG.warn("Could not create virtual thread, falling back to a platform thread", e);
+            }
+        }
+        final Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
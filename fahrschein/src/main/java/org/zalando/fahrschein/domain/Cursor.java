@@ -13,6 +13,9 @@ public final class Cursor {
     private final String eventType;
     @Nullable
     private final String cursorToken;
+    // parsed lazily, benign data race like String#hashCode
+    @Nullable
+    private Offset parsedOffset;
 
     @JsonCreator
     public Cursor(String partition, String offset, @Nullable String eventType, @Nullable String cursorToken) {
@@ -44,6 +47,20 @@ public final class Cursor {
         return offset;
     }
 
+    /**
+     * The offset of this cursor parsed into its components, for comparisons and calculating distances.
+     *
+     * @throws IllegalArgumentException if the offset can not be parsed.
+     */
+    public Offset parseOffset() {
+        Offset parsedOffset = this.parsedOffset;
+        if (parsedOffset == null) {
+            parsedOffset = Offset.parse(offset);
+            this.parsedOffset = parsedOffset;
+        }
+        return parsedOffset;
+    }
+
     /**
      * The event type of this cursor. Only available if the batch was received using the subscription api.
      */
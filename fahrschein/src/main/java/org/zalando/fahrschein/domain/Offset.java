@@ -0,0 +1,181 @@
+package org.zalando.fahrschein.domain;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Parsed representation of a Nakadi offset.
+ *
+ * Supports the special offset {@code BEGIN}, legacy numeric offsets like {@code 000000000000000123} and versioned offsets
+ * like {@code 001-0001-000000000000000123}, consisting of format version, timeline and position. Legacy offsets are treated as
+ * offsets in timeline 0, so they can be compared with versioned offsets. {@code BEGIN} is before every other offset.
+ *
+ * Comparing offsets or calculating their distance does not allocate.
+ */
+@Immutable
+public final class Offset implements Comparable<Offset> {
+
+    public static final Offset BEGIN = new Offset(0, -1, -1L);
+
+    private static final String BEGIN_STRING = "BEGIN";
+
+    private final int version;
+    private final int timeline;
+    private final long position;
+
+    private Offset(int version, int timeline, long position) {
+        this.version = version;
+        this.timeline = timeline;
+        this.position = position;
+    }
+
+    public static Offset of(int timeline, long position) {
+        return of(1, timeline, position);
+    }
+
+    public static Offset of(int version, int timeline, long position) {
+        if (version < 0 || timeline < 0 || position < 0) {
+            throw new IllegalArgumentException("Version, timeline and position of an offset should not be negative");
+        }
+        return new Offset(version, timeline, position);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the offset can not be parsed.
+     */
+    public static Offset parse(CharSequence offset) {
+        final int length = offset.length();
+        if (length == BEGIN_STRING.length() && BEGIN_STRING.contentEquals(offset)) {
+            return BEGIN;
+        }
+
+        final int firstSeparator = indexOf(offset, '-', 0);
+        if (firstSeparator < 0) {
+            return new Offset(0, 0, parseNumber(offset, 0, length));
+        }
+
+        final int secondSeparator = indexOf(offset, '-', firstSeparator + 1);
+        if (secondSeparator < 0) {
+            throw invalidOffset(offset);
+        }
+
+        final long version = parseNumber(offset, 0, firstSeparator);
+        final long timeline = parseNumber(offset, firstSeparator + 1, secondSeparator);
+        final long position = parseNumber(offset, secondSeparator + 1, length);
+        if (version > Integer.MAX_VALUE || timeline > Integer.MAX_VALUE) {
+            throw invalidOffset(offset);
+        }
+        return new Offset((int) version, (int) timeline, position);
+    }
+
+    private static int indexOf(CharSequence offset, char c, int from) {
+        for (int i = from; i < offset.length(); i++) {
+            if (offset.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long parseNumber(CharSequence offset, int from, int to) {
+        if (from >= to) {
+            throw invalidOffset(offset);
+        }
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            final char c = offset.charAt(i);
+            if (c < '0' || c > '9' || result > (Long.MAX_VALUE - (c - '0')) / 10) {
+                throw invalidOffset(offset);
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static IllegalArgumentException invalidOffset(CharSequence offset) {
+        return new IllegalArgumentException("Invalid offset [" + offset + "]");
+    }
+
+    public boolean isBegin() {
+        return timeline < 0;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * The timeline of this offset, 0 for legacy offsets and -1 for {@code BEGIN}.
+     */
+    public int getTimeline() {
+        return timeline;
+    }
+
+    /**
+     * The position of this offset inside its timeline, -1 for {@code BEGIN}.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Number of events after this offset up to and including the given offset, for example the lag between a committed offset and the newest available offset.
+     *
+     * @throws IllegalArgumentException if the offsets are in different timelines, since the number of events in previous timelines is not known.
+     */
+    public long distance(Offset other) {
+        if (isBegin()) {
+            return other.isBegin() ? 0 : other.position + 1;
+        } else if (other.isBegin()) {
+            return -(position + 1);
+        } else if (timeline != other.timeline) {
+            throw new IllegalArgumentException("Can not calculate distance between offsets in timelines [" + timeline + "] and [" + other.timeline + "]");
+        } else {
+            return other.position - position;
+        }
+    }
+
+    @Override
+    public int compareTo(Offset other) {
+        if (timeline != other.timeline) {
+            return Integer.compare(timeline, other.timeline);
+        } else if (position != other.position) {
+            return Long.compare(position, other.position);
+        } else {
+            return Integer.compare(version, other.version);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Offset)) {
+            return false;
+        }
+        final Offset other = (Offset) o;
+        return version == other.version && timeline == other.timeline && position == other.position;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = version;
+        result = 31 * result + timeline;
+        result = 31 * result + Long.hashCode(position);
+        return result;
+    }
+
+    /**
+     * Formats the offset in the format used by Nakadi, legacy offsets are padded to 18 digits.
+     */
+    @Override
+    public String toString() {
+        if (isBegin()) {
+            return BEGIN_STRING;
+        } else if (version == 0 && timeline == 0) {
+            return String.format("%018d", position);
+        } else {
+            return String.format("%03d-%04d-%018d", version, timeline, position);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package org.zalando.fahrschein;
+
+import org.junit.After;
+import org.junit.Test;
+import org.zalando.fahrschein.domain.BatchItemResponse;
+import org.zalando.fahrschein.domain.Event;
+import org.zalando.fahrschein.domain.Metadata;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BatchingPublisherTest {
+
+    public static class SomeEvent implements Event {
+        private final Metadata metadata;
+
+        SomeEvent(String eid) {
+            this.metadata = new Metadata(eid, OffsetDateTime.now());
+        }
+
+        @Override
+        public Metadata getMetadata() {
+            return metadata;
+        }
+    }
+
+    private final BlockingQueue<List<String>> batches = new LinkedBlockingQueue<>();
+    private BatchingPublisher publisher;
+
+    @After
+    public void close() throws IOException {
+        if (publisher != null) {
+            publisher.close();
+        }
+    }
+
+    private BatchingPublisher.Sender recordingSender() {
+        return (eventName, events) -> {
+            final List<String> batch = new ArrayList<>();
+            for (byte[] event : events) {
+                batch.add(new String(event, StandardCharsets.UTF_8));
+            }
+            batches.add(batch);
+        };
+    }
+
+    private BatchingPublisher createPublisher(BatchingPublisher.Sender sender, BatchingParameters parameters) {
+        publisher = new BatchingPublisher(sender, DefaultObjectMapper.INSTANCE, parameters);
+        return publisher;
+    }
+
+    @Test
+    public void shouldPublishWhenMaxBatchSizeIsReached() throws IOException, InterruptedException, ExecutionException {
+        final BatchingPublisher publisher = createPublisher(recordingSender(), new BatchingParameters().withMaxBatchSize(2).withLinger(1, TimeUnit.HOURS));
+
+        final CompletableFuture<BatchItemResponse> first = publisher.publish("foo", "a");
+        final CompletableFuture<BatchItemResponse> second = publisher.publish("foo", "b");
+        final CompletableFuture<BatchItemResponse> third = publisher.publish("bar", "c");
+
+        assertEquals(Arrays.asList("\"a\"", "\"b\""), batches.poll(1, TimeUnit.SECONDS));
+        assertEquals(BatchItemResponse.PublishingStatus.SUBMITTED, first.get().getPublishingStatus());
+        assertEquals(BatchItemResponse.PublishingStatus.SUBMITTED, second.get().getPublishingStatus());
+        assertFalse(third.isDone());
+
+        publisher.flush();
+
+        assertEquals(singletonList("\"c\""), batches.poll());
+        assertEquals(BatchItemResponse.PublishingStatus.SUBMITTED, third.get().getPublishingStatus());
+    }
+
+    @Test
+    public void shouldPublishWhenMaxBatchBytesAreReached() throws IOException, InterruptedException {
+        final BatchingPublisher publisher = createPublisher(recordingSender(), new BatchingParameters().withMaxBatchBytes(8).withLinger(1, TimeUnit.HOURS));
+
+        publisher.publish("foo", "abc");
+        publisher.publish("foo", "def");
+        publisher.publish("foo", "ghi");
+
+        assertEquals(singletonList("\"abc\""), batches.poll(1, TimeUnit.SECONDS));
+        assertEquals(singletonList("\"def\""), batches.poll(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldPublishAfterLinger() throws IOException, InterruptedException, ExecutionException {
+        final BatchingPublisher publisher = createPublisher(recordingSender(), new BatchingParameters().withLinger(50, TimeUnit.MILLISECONDS));
+
+        final CompletableFuture<BatchItemResponse> first = publisher.publish("foo", "a");
+        publisher.publish("foo", "b");
+
+        assertEquals(Arrays.asList("\"a\"", "\"b\""), batches.poll(1, TimeUnit.SECONDS));
+        assertEquals(BatchItemResponse.PublishingStatus.SUBMITTED, first.get().getPublishingStatus());
+    }
+
+    @Test
+    public void shouldCompleteWithMatchingBatchItemResponse() throws IOException, InterruptedException, ExecutionException {
+        final BatchItemResponse failed = new BatchItemResponse("2", BatchItemResponse.PublishingStatus.FAILED, BatchItemResponse.Step.VALIDATING, "invalid");
+        final BatchingPublisher publisher = createPublisher((eventName, events) -> {
+            throw new EventPublishingException(new BatchItemResponse[]{failed});
+        }, new BatchingParameters().withMaxBatchSize(2));
+
+        final CompletableFuture<BatchItemResponse> first = publisher.publish("foo", new SomeEvent("1"));
+        final CompletableFuture<BatchItemResponse> second = publisher.publish("foo", new SomeEvent("2"));
+
+        final BatchItemResponse submitted = first.get();
+        assertEquals("1", submitted.getEid());
+        assertEquals(BatchItemResponse.PublishingStatus.SUBMITTED, submitted.getPublishingStatus());
+
+        try {
+            second.get();
+            fail("Expected failed event");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(EventPublishingException.class));
+            assertEquals(singletonList(failed), Arrays.asList(((EventPublishingException) e.getCause()).getResponses()));
+        }
+    }
+
+    @Test
+    public void shouldFailAllEventsWithoutEid() throws IOException, InterruptedException {
+        final BatchingPublisher publisher = createPublisher((eventName, events) -> {
+            throw new IOException("Connection refused");
+        }, new BatchingParameters().withMaxBatchSize(2));
+
+        final CompletableFuture<BatchItemResponse> first = publisher.publish("foo", "a");
+        final CompletableFuture<BatchItemResponse> second = publisher.publish("foo", "b");
+
+        for (CompletableFuture<BatchItemResponse> future : Arrays.asList(first, second)) {
+            try {
+                future.get();
+                fail("Expected failed event");
+            } catch (ExecutionException e) {
+                assertEquals("Connection refused", e.getCause().getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void shouldFailFastWhenBufferMemoryIsExhausted() throws IOException, InterruptedException {
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final BatchingPublisher publisher = createPublisher((eventName, events) -> {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, new BatchingParameters().withMaxBatchBytes(8).withBufferMemory(8).withMaxBlock(0, TimeUnit.MILLISECONDS));
+
+        publisher.publish("foo", "abcdef");
+        sending.await();
+
+        try {
+            publisher.publish("foo", "abcdef");
+            fail("Expected exhausted buffer memory");
+        } catch (IOException e) {
+            assertEquals("Buffer memory of [8] bytes exhausted", e.getMessage());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void shouldPublishRemainingEventsWhenClosed() throws IOException, InterruptedException, ExecutionException {
+        final BatchingPublisher publisher = createPublisher(recordingSender(), new BatchingParameters().withLinger(1, TimeUnit.HOURS));
+
+        final CompletableFuture<BatchItemResponse> future = publisher.publish("foo", "a");
+        publisher.close();
+
+        assertEquals(singletonList("\"a\""), batches.poll());
+        assertNull(future.get().getDetail());
+
+        try {
+            publisher.publish("foo", "b");
+            fail("Expected closed publisher");
+        } catch (IOException e) {
+            assertEquals("Publisher was closed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldPublishConcurrentlyUpToMaxInFlight() throws IOException, InterruptedException {
+        final CountDownLatch sending = new CountDownLatch(3);
+        final CountDownLatch release = new CountDownLatch(1);
+        final BatchingPublisher publisher = createPublisher((eventName, events) -> {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            recordingSender().send(eventName, events);
+        }, new BatchingParameters().withMaxBatchSize(1).withMaxInFlight(3));
+
+        for (int i = 0; i < 5; i++) {
+            publisher.publish("foo", String.valueOf(i));
+        }
+
+        assertTrue(sending.await(1, TimeUnit.SECONDS));
+        assertEquals(3, publisher.getInFlight("foo"));
+        assertEquals(0, publisher.getInFlight("bar"));
+
+        release.countDown();
+        publisher.flush();
+
+        assertEquals(5, batches.size());
+        assertEquals(0, publisher.getInFlight("foo"));
+    }
+
+    @Test
+    public void shouldKeepOrderOfEventsWithSamePartitionKey() throws IOException {
+        final Map<String, AtomicInteger> inFlightPerKey = new ConcurrentHashMap<>();
+        final Map<String, List<Integer>> published = new ConcurrentHashMap<>();
+        final AtomicBoolean overlapping = new AtomicBoolean();
+        final Random random = new Random(42);
+        final BatchingPublisher publisher = createPublisher((eventName, events) -> {
+            final String key = new String(events.get(0), StandardCharsets.UTF_8).substring(1, 3);
+            if (inFlightPerKey.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet() > 1) {
+                overlapping.set(true);
+            }
+            try {
+                Thread.sleep(random.nextInt(3));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (byte[] event : events) {
+                final String json = new String(event, StandardCharsets.UTF_8);
+                published.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>())).add(Integer.valueOf(json.substring(4, json.length() - 1)));
+            }
+            inFlightPerKey.get(key).decrementAndGet();
+        }, new BatchingParameters().withMaxBatchSize(3).withMaxInFlight(8));
+
+        for (int i = 0; i < 100; i++) {
+            for (String key : Arrays.asList("k1", "k2", "k3")) {
+                publisher.publish("foo", key, key + "-" + i);
+            }
+        }
+        publisher.flush();
+
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(i);
+        }
+        for (String key : Arrays.asList("k1", "k2", "k3")) {
+            assertEquals(expected, published.get(key));
+        }
+        assertFalse(overlapping.get());
+    }
+
+    @Test
+    public void shouldHalveLimitWhenRateLimitedAndIncreaseItAfterSuccess() throws IOException {
+        final AtomicInteger requests = new AtomicInteger();
+        final BatchingPublisher publisher = createPublisher((eventName, events) -> {
+            if (requests.getAndIncrement() == 0) {
+                throw new IOProblem(URI.create("about:blank"), "Too Many Requests", 429);
+            }
+        }, new BatchingParameters().withMaxBatchSize(1).withMaxInFlight(4));
+
+        assertEquals(4, publisher.getInFlightLimit("foo"));
+
+        publisher.publish("foo", "a");
+        publisher.flush();
+        assertEquals(2, publisher.getInFlightLimit("foo"));
+
+        for (int i = 0; i < 3; i++) {
+            publisher.publish("foo", "b");
+            publisher.flush();
+        }
+        assertEquals(3, publisher.getInFlightLimit("foo"));
+    }
+
+    @Test
+    public void shouldHalveLimitWhenTargetLatencyIsExceeded() throws IOException {
+        final BatchingPublisher publisher = createPublisher((eventName, events) -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, new BatchingParameters().withMaxBatchSize(1).withMaxInFlight(4).withTargetLatency(1, TimeUnit.MILLISECONDS));
+
+        publisher.publish("foo", "a");
+        publisher.flush();
+        assertEquals(2, publisher.getInFlightLimit("foo"));
+
+        publisher.publish("foo", "b");
+        publisher.flush();
+        assertEquals(1, publisher.getInFlightLimit("foo"));
+    }
+}
@@ -0,0 +1,61 @@
+package org.zalando.fahrschein;
+
+import org.junit.Test;
+import org.zalando.fahrschein.domain.Cursor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CoalescingCursorCommitterTest {
+
+    @Test
+    public void shouldNotRestoreCursorsOrFailureOfCommitRunningDuringReset() throws Exception {
+        final CountDownLatch committing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> committed = Collections.synchronizedList(new ArrayList<>());
+
+        final CoalescingCursorCommitter committer = new CoalescingCursorCommitter((eventName, cursors) -> {
+            if ("1".equals(cursors.get(0).getOffset())) {
+                committing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("Stream id was replaced");
+            }
+            for (Cursor cursor : cursors) {
+                committed.add(cursor.getOffset());
+            }
+        }, 1, 10, TimeUnit.SECONDS);
+
+        try {
+            committer.add("1234", "foo", new Cursor("0", "1"));
+            assertTrue(committing.await(1, TimeUnit.SECONDS));
+
+            final CompletableFuture<Void> reset = CompletableFuture.runAsync(committer::reset);
+            Thread.sleep(50);
+            assertFalse("Reset should wait for the running commit", reset.isDone());
+
+            release.countDown();
+            reset.get(1, TimeUnit.SECONDS);
+
+            committer.add("1234", "foo", new Cursor("0", "2"));
+            committer.flush();
+
+            assertEquals(Collections.singletonList("2"), committed);
+        } finally {
+            release.countDown();
+            committer.close();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Test;
+import org.zalando.fahrschein.domain.Cursor;
+import org.zalando.fahrschein.http.api.Request;
+import org.zalando.fahrschein.http.api.RequestFactory;
+import org.zalando.fahrschein.http.api.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.emptyList;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConsumerGroupSupervisorTest {
+
+    private final CursorManager cursorManager = mock(CursorManager.class);
+    private final RequestFactory requestFactory = mock(RequestFactory.class);
+    private final StreamRunner streamRunner = StreamRunner.platformThreads("supervised-");
+
+    @After
+    public void shutdown() throws IOException {
+        streamRunner.close();
+    }
+
+    private StreamBuilder streamBuilder(String eventName) throws IOException {
+        when(cursorManager.getCursors(eventName)).thenReturn(emptyList());
+        return new StreamBuilders.LowLevelStreamBuilderImpl(URI.create("http://example.com"), requestFactory, cursorManager, new ObjectMapper(), eventName);
+    }
+
+    private void respondWithOneBatchPerConnection() throws IOException {
+        when(requestFactory.createRequest(any(URI.class), eq("GET"))).thenAnswer(createRequest -> {
+            final Request request = mock(Request.class);
+            when(request.execute()).thenAnswer(execute -> {
+                final PipedOutputStream out = new PipedOutputStream();
+                final PipedInputStream in = new PipedInputStream(out);
+                out.write("{\"cursor\":{\"partition\":\"0\",\"offset\":\"1\"},\"events\":[{\"id\":\"1\"}]}\n".getBytes("utf-8"));
+                out.flush();
+
+                final Response response = mock(Response.class);
+                when(response.getBody()).thenReturn(in);
+                doAnswer(close -> {
+                    out.close();
+                    return null;
+                }).when(response).close();
+                return response;
+            });
+            return request;
+        });
+    }
+
+    public static class SomeEvent {
+        public String id;
+    }
+
+    @Test(timeout = 5000)
+    public void shouldStartAndStopAllStreamsGracefully() throws IOException, InterruptedException {
+        respondWithOneBatchPerConnection();
+
+        final CountDownLatch processed = new CountDownLatch(2);
+        final Listener<SomeEvent> listener = events -> processed.countDown();
+
+        final ConsumerGroupSupervisor supervisor = new ConsumerGroupSupervisor(streamRunner)
+                .add("foo", streamBuilder("foo"), SomeEvent.class, listener)
+                .add("bar", streamBuilder("bar"), SomeEvent.class, listener);
+
+        supervisor.start();
+        assertTrue(processed.await(2, TimeUnit.SECONDS));
+        assertTrue(supervisor.isHealthy());
+
+        assertTrue(supervisor.shutdown(2, TimeUnit.SECONDS));
+
+        assertEquals(ConsumerGroupSupervisor.State.STOPPED, supervisor.getStates().get("foo"));
+        assertEquals(ConsumerGroupSupervisor.State.STOPPED, supervisor.getStates().get("bar"));
+        assertFalse(supervisor.isHealthy());
+        verify(cursorManager).onSuccess(eq("foo"), any(Cursor.class));
+        verify(cursorManager).onSuccess(eq("bar"), any(Cursor.class));
+        verify(cursorManager, atLeastOnce()).flush();
+    }
+
+    @Test(timeout = 5000)
+    public void shouldStopStreamsWaitingToReconnectWithoutInterruptingThem() throws IOException, InterruptedException {
+        final CountDownLatch failed = new CountDownLatch(1);
+        when(requestFactory.createRequest(any(URI.class), eq("GET"))).thenAnswer(createRequest -> {
+            final Request request = mock(Request.class);
+            when(request.execute()).thenAnswer(execute -> {
+                final Response response = mock(Response.class);
+                when(response.getBody()).thenReturn(new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        failed.countDown();
+                        throw new IOException("Connection reset");
+                    }
+                });
+                return response;
+            });
+            return request;
+        });
+
+        final StreamBuilder streamBuilder = streamBuilder("foo").withBackoffStrategy(new ExponentialBackoffStrategy(60000, 2, 60000, 10));
+        final ConsumerGroupSupervisor supervisor = new ConsumerGroupSupervisor(streamRunner)
+                .add("foo", streamBuilder, SomeEvent.class, events -> {});
+
+        supervisor.start();
+        assertTrue(failed.await(2, TimeUnit.SECONDS));
+
+        assertTrue(supervisor.shutdown(2, TimeUnit.SECONDS));
+        assertEquals(ConsumerGroupSupervisor.State.STOPPED, supervisor.getStates().get("foo"));
+    }
+
+    @Test(timeout = 5000)
+    public void shouldReportFailedStreams() throws InterruptedException {
+        final ConsumerGroupSupervisor supervisor = new ConsumerGroupSupervisor(streamRunner)
+                .add("broken", () -> {
+                    throw new IOException("Connection refused");
+                });
+
+        supervisor.start();
+        while (supervisor.getStates().get("broken") != ConsumerGroupSupervisor.State.FAILED) {
+            Thread.sleep(10);
+        }
+
+        assertFalse(supervisor.isHealthy());
+        assertThat(supervisor.getFailure("broken"), instanceOf(IOException.class));
+        assertTrue(supervisor.shutdown(1, TimeUnit.SECONDS));
+    }
+
+    @Test(timeout = 5000)
+    public void shouldInterruptOtherRunnables() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final ConsumerGroupSupervisor supervisor = new ConsumerGroupSupervisor(streamRunner)
+                .add("slow", () -> {
+                    started.countDown();
+                    try {
+                        Thread.sleep(10000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                });
+
+        supervisor.start();
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+
+        // runnables not created by a stream builder can only be stopped by interrupting them
+        assertTrue(supervisor.shutdown(1, TimeUnit.SECONDS));
+        assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotAddStreamsAfterStart() {
+        final ConsumerGroupSupervisor supervisor = new ConsumerGroupSupervisor(streamRunner);
+        supervisor.start();
+        supervisor.add("late", () -> {});
+    }
+}
@@ -0,0 +1,116 @@
+package org.zalando.fahrschein;
+
+import org.junit.Test;
+import org.zalando.fahrschein.domain.Event;
+import org.zalando.fahrschein.domain.Metadata;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+public class EidDeduplicatorTest {
+
+    private static class SomeEvent implements Event {
+        private final Metadata metadata;
+
+        SomeEvent(String eid) {
+            this.metadata = new Metadata(eid, OffsetDateTime.now());
+        }
+
+        @Override
+        public Metadata getMetadata() {
+            return metadata;
+        }
+    }
+
+    private final List<List<String>> processed = new ArrayList<>();
+
+    private List<String> process(EidDeduplicator deduplicator, String... eids) throws IOException, EventAlreadyProcessedException {
+        final List<SomeEvent> events = new ArrayList<>();
+        for (String eid : eids) {
+            events.add(new SomeEvent(eid));
+        }
+        final List<SomeEvent> filtered = deduplicator.<SomeEvent>wrapEventReader(jsonParser -> events).read(null);
+        deduplicator.<SomeEvent>wrapListener(batch -> {
+            final List<String> result = new ArrayList<>();
+            for (SomeEvent event : batch) {
+                result.add(event.getMetadata().getEid());
+            }
+            processed.add(result);
+        }).accept(filtered);
+        return processed.get(processed.size() - 1);
+    }
+
+    @Test
+    public void shouldDropProcessedEvents() throws IOException, EventAlreadyProcessedException {
+        final EidDeduplicator deduplicator = new EidDeduplicator(100);
+        final String eid1 = UUID.randomUUID().toString();
+        final String eid2 = UUID.randomUUID().toString();
+        final String eid3 = UUID.randomUUID().toString();
+
+        assertThat(process(deduplicator, eid1, eid2), contains(eid1, eid2));
+        assertThat(process(deduplicator, eid1, eid3, eid2), contains(eid3));
+        assertThat(process(deduplicator, eid3), empty());
+
+        assertEquals(3, deduplicator.getDuplicates());
+        assertEquals(0, deduplicator.getHashedEids());
+    }
+
+    @Test
+    public void shouldNotRememberEventsOfFailedBatches() throws IOException, EventAlreadyProcessedException {
+        final EidDeduplicator deduplicator = new EidDeduplicator(100);
+        final String eid = UUID.randomUUID().toString();
+        final Listener<SomeEvent> failingListener = deduplicator.wrapListener(events -> {
+            throw new IOException("failure");
+        });
+
+        try {
+            failingListener.accept(singletonList(new SomeEvent(eid)));
+        } catch (IOException e) {
+            // expected
+        }
+
+        assertThat(process(deduplicator, eid), contains(eid));
+    }
+
+    @Test
+    public void shouldRememberAtLeastCapacityEids() throws IOException, EventAlreadyProcessedException {
+        final EidDeduplicator deduplicator = new EidDeduplicator(10);
+        final List<String> eids = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            final String eid = UUID.randomUUID().toString();
+            eids.add(eid);
+            process(deduplicator, eid);
+        }
+
+        assertThat(process(deduplicator, eids.subList(15, 25).toArray(new String[0])), empty());
+        assertThat(process(deduplicator, eids.get(0)), contains(eids.get(0)));
+    }
+
+    @Test
+    public void shouldHashOtherEids() throws IOException, EventAlreadyProcessedException {
+        final EidDeduplicator deduplicator = new EidDeduplicator(100);
+
+        assertThat(process(deduplicator, "a", "b", "00000000-0000-0000-0000-000000000000"), contains("a", "b", "00000000-0000-0000-0000-000000000000"));
+        assertThat(process(deduplicator, "b", "c", "00000000-0000-0000-0000-000000000000"), contains("c"));
+        assertEquals(3, deduplicator.getHashedEids());
+    }
+
+    @Test
+    public void shouldIgnoreEventsWithoutMetadata() throws IOException {
+        final EidDeduplicator deduplicator = new EidDeduplicator(100);
+
+        final List<String> events = deduplicator.<String>wrapEventReader(jsonParser -> asList("a", "a")).read(null);
+
+        assertThat(events, contains("a", "a"));
+    }
+}
@@ -0,0 +1,117 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class FilteringEventReaderTest {
+    private final ObjectMapper objectMapper = DefaultObjectMapper.INSTANCE;
+    private final MetricsCollector metricsCollector = mock(MetricsCollector.class);
+
+    public static class OrderEvent {
+        private final String orderNumber;
+
+        @JsonCreator
+        public OrderEvent(@JsonProperty("order_number") String orderNumber) {
+            this.orderNumber = orderNumber;
+        }
+
+        public String getOrderNumber() {
+            return orderNumber;
+        }
+    }
+
+    private List<String> read(FilteringEventReader<OrderEvent> eventReader, String json) throws IOException {
+        try (final JsonParser jsonParser = objectMapper.getFactory().createParser(json)) {
+            final List<String> orderNumbers = new ArrayList<>();
+            for (OrderEvent event : eventReader.read(jsonParser)) {
+                orderNumbers.add(event.getOrderNumber());
+            }
+            return orderNumbers;
+        }
+    }
+
+    @Test
+    public void shouldSkipRejectedEvents() throws IOException {
+        final FilteringEventReader<OrderEvent> eventReader = new FilteringEventReader<>(OrderEvent.class, objectMapper, FilteringEventReader.eventTypeIn("order-placed"), metricsCollector);
+
+        final List<String> orderNumbers = read(eventReader, "["
+                + "{\"metadata\":{\"event_type\":\"order-placed\",\"eid\":\"1\",\"partition\":\"0\"},\"order_number\":\"1\"},"
+                + "{\"metadata\":{\"event_type\":\"order-cancelled\",\"eid\":\"2\"},\"order_number\":\"2\",\"items\":[{\"unknown\":true}]},"
+                + "{\"order_number\":\"3\",\"metadata\":{\"event_type\":\"order-placed\",\"eid\":\"3\"}},"
+                + "{\"order_number\":\"4\"}"
+                + "]");
+
+        assertThat(orderNumbers, contains("1", "3", "4"));
+        verify(metricsCollector).markEventsFiltered(1);
+    }
+
+    @Test
+    public void shouldFilterByOccurredAt() throws IOException {
+        final OffsetDateTime from = OffsetDateTime.parse("2016-10-26T00:00:00Z");
+        final FilteringEventReader<OrderEvent> eventReader = new FilteringEventReader<>(OrderEvent.class, objectMapper, FilteringEventReader.occurredBetween(from, from.plusDays(1)), metricsCollector);
+
+        final List<String> orderNumbers = read(eventReader, "["
+                + "{\"metadata\":{\"eid\":\"1\",\"occurred_at\":\"2016-10-25T23:59:59Z\"},\"order_number\":\"1\"},"
+                + "{\"metadata\":{\"eid\":\"2\",\"occurred_at\":\"2016-10-26T12:00:00Z\"},\"order_number\":\"2\"},"
+                + "{\"metadata\":{\"eid\":\"3\",\"occurred_at\":\"2016-10-27T00:00:00Z\"},\"order_number\":\"3\"}"
+                + "]");
+
+        assertThat(orderNumbers, contains("2"));
+        verify(metricsCollector).markEventsFiltered(2);
+    }
+
+    @Test
+    public void shouldReturnEmptyListIfAllEventsWereRejected() throws IOException {
+        final FilteringEventReader<OrderEvent> eventReader = new FilteringEventReader<>(OrderEvent.class, objectMapper, metadata -> false, metricsCollector);
+
+        final List<String> orderNumbers = read(eventReader, "[{\"metadata\":{\"eid\":\"1\"},\"order_number\":\"1\"}]");
+
+        assertThat(orderNumbers, empty());
+        verify(metricsCollector).markEventsFiltered(1);
+    }
+
+    @Test
+    public void shouldNotReportFilteredEventsIfAllWereAccepted() throws IOException {
+        final FilteringEventReader<OrderEvent> eventReader = new FilteringEventReader<>(OrderEvent.class, objectMapper, metadata -> true, metricsCollector);
+
+        final List<String> orderNumbers = read(eventReader, "[{\"metadata\":{\"eid\":\"1\"},\"order_number\":\"1\"},{\"order_number\":\"2\"}]");
+
+        assertThat(orderNumbers, contains("1", "2"));
+        verify(metricsCollector, never()).markEventsFiltered(anyInt());
+    }
+
+    @Test
+    public void shouldContinueAfterEventsThatCouldNotBeMapped() throws IOException {
+        final FilteringEventReader<OrderEvent> eventReader = new FilteringEventReader<OrderEvent>(OrderEvent.class, objectMapper, metadata -> true, metricsCollector) {
+            @Override
+            protected void onMappingException(JsonMappingException exception) {
+            }
+        };
+
+        final List<String> orderNumbers = read(eventReader, "["
+                + "{\"metadata\":{\"eid\":\"1\"},\"order_number\":{\"nested\":[1,{\"a\":2}]},\"items\":[{\"unknown\":true}]},"
+                + "{\"metadata\":{\"eid\":\"2\"},\"order_number\":\"2\"},"
+                + "{\"order_number\":[3],\"metadata\":{\"eid\":\"3\"}},"
+                + "{\"order_number\":\"4\",\"metadata\":{\"eid\":\"4\"}}"
+                + "]");
+
+        assertThat(orderNumbers, contains("2", "4"));
+    }
+}
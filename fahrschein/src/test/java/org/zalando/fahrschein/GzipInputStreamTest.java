@@ -0,0 +1,114 @@
+package org.zalando.fahrschein;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class GzipInputStreamTest {
+
+    private final InflaterPool inflaterPool = new InflaterPool(1);
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1000];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void shouldDecompress() throws IOException {
+        final byte[] bytes = new byte[100000];
+        new Random(42).nextBytes(bytes);
+        for (int i = 0; i < bytes.length; i += 2) {
+            bytes[i] = 'a';
+        }
+
+        try (InputStream in = new GzipInputStream(new ByteArrayInputStream(gzip(bytes)), inflaterPool)) {
+            assertArrayEquals(bytes, readFully(in));
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void shouldReturnFlushedDataWithoutReadingAhead() throws IOException {
+        final byte[] keepAlive = "{\"cursor\":{\"partition\":\"0\",\"offset\":\"BEGIN\"}}\n".getBytes(StandardCharsets.UTF_8);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final GZIPOutputStream gzip = new GZIPOutputStream(out, true);
+        gzip.write(keepAlive);
+        gzip.flush();
+
+        final InputStream blocking = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Should not read ahead");
+            }
+        };
+
+        try (InputStream in = new GzipInputStream(new SequenceInputStream(new ByteArrayInputStream(out.toByteArray()), blocking), inflaterPool)) {
+            final byte[] buffer = new byte[1000];
+            final int read = in.read(buffer);
+            assertEquals(keepAlive.length, read);
+            assertEquals(new String(keepAlive, StandardCharsets.UTF_8), new String(buffer, 0, read, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void shouldFailOnCorruptTrailer() throws IOException {
+        final byte[] compressed = gzip("test".getBytes(StandardCharsets.UTF_8));
+        compressed[compressed.length - 8] ^= 1;
+
+        try (InputStream in = new GzipInputStream(new ByteArrayInputStream(compressed), inflaterPool)) {
+            readFully(in);
+            fail("Expected ZipException");
+        } catch (ZipException e) {
+            assertEquals("Corrupt gzip trailer", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldFailOnMissingHeader() throws IOException {
+        try (InputStream in = new GzipInputStream(new ByteArrayInputStream("test".getBytes(StandardCharsets.UTF_8)), inflaterPool)) {
+            in.read();
+            fail("Expected ZipException");
+        } catch (ZipException e) {
+            assertEquals("Not in gzip format", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldReleaseInflaterOnClose() throws IOException {
+        final Inflater inflater = inflaterPool.acquire();
+        inflaterPool.release(inflater);
+
+        final GzipInputStream in = new GzipInputStream(new ByteArrayInputStream(gzip(new byte[10])), inflaterPool);
+        assertNotSame(inflater, inflaterPool.acquire());
+        in.close();
+        assertSame(inflater, inflaterPool.acquire());
+    }
+}
@@ -95,4 +95,19 @@ public class LowLevelStreamBuilderTest {
         run("10", "1234", "2345", "BEGIN");
     }
 
+    @Test
+    public void shouldCompareVersionedOffsets() throws IOException {
+        run("001-0001-000000000000000020", "001-0001-000000000000000010", "001-0001-000000000000000030", null);
+    }
+
+    @Test
+    public void shouldUpdatePartitionWhenOffsetIsInPreviousTimeline() throws IOException {
+        run("001-0001-000000000000000020", "001-0002-000000000000000000", "001-0002-000000000000000030", "BEGIN");
+    }
+
+    @Test
+    public void shouldComparePaddedLegacyOffsets() throws IOException {
+        run("000000000000000020", "10", "30", null);
+    }
+
 }
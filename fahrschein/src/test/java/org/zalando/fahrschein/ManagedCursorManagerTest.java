@@ -9,14 +9,22 @@ import org.zalando.fahrschein.http.api.ContentType;
 import java.io.IOException;
 import java.net.URI;
 import java.time.OffsetDateTime;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class ManagedCursorManagerTest {
     private MockServer server;
@@ -47,6 +55,26 @@ public class ManagedCursorManagerTest {
         server.verify();
     }
 
+    @Test
+    public void shouldReportCommitDuration() throws IOException {
+        server.expectRequestTo("http://example.com/subscriptions/1234/cursors", "POST")
+                .andRespondWith(204)
+                .setup();
+
+        final MetricsCollector metricsCollector = mock(MetricsCollector.class);
+        when(metricsCollector.isTimingEnabled()).thenReturn(true);
+        final ManagedCursorManager timedCursorManager = new ManagedCursorManager(URI.create("http://example.com/"), server, null, metricsCollector);
+
+        final Subscription subscription = new Subscription("1234", "nakadi-client-test", Collections.singleton("foo"), "bar", OffsetDateTime.now(), null);
+        timedCursorManager.addSubscription(subscription);
+        timedCursorManager.addStreamId(subscription, "stream-id");
+
+        timedCursorManager.onSuccess("foo", Arrays.asList(new Cursor("0", "10"), new Cursor("1", "20")));
+
+        server.verify();
+        verify(metricsCollector).timeCommit(longThat(duration -> duration >= 0), eq(2));
+    }
+
     @Test
     public void shouldGetCursors() throws IOException {
         server.expectRequestTo("http://example.com/subscriptions/1234/cursors", "GET")
@@ -73,4 +101,88 @@ public class ManagedCursorManagerTest {
         server.verify();
     }
 
+    @Test
+    public void shouldCommitMultipleCursorsInOneRequest() throws IOException {
+        server.expectRequestTo("http://example.com/subscriptions/1234/cursors", "POST")
+                .andExpectHeader("X-Nakadi-StreamId", "stream-id")
+                .andExpectJsonPath("$.items[0].partition", equalTo("0"))
+                .andExpectJsonPath("$.items[0].offset", equalTo("10"))
+                .andExpectJsonPath("$.items[1].partition", equalTo("1"))
+                .andExpectJsonPath("$.items[1].offset", equalTo("20"))
+                .andRespondWith(204)
+                .setup();
+
+        final Subscription subscription = new Subscription("1234", "nakadi-client-test", Collections.singleton("foo"), "bar", OffsetDateTime.now(), null);
+        cursorManager.addSubscription(subscription);
+        cursorManager.addStreamId(subscription, "stream-id");
+
+        cursorManager.onSuccess("foo", Arrays.asList(new Cursor("0", "10", "foo", "token"), new Cursor("1", "20", "foo", "token")));
+
+        server.verify();
+    }
+
+    @Test
+    public void shouldCommitLatestCursorPerPartitionWhenFlushing() throws IOException {
+        server.expectRequestTo("http://example.com/subscriptions/1234/cursors", "POST")
+                .andExpectHeader("X-Nakadi-StreamId", "stream-id")
+                .andExpectJsonPath("$.items[0].partition", equalTo("0"))
+                .andExpectJsonPath("$.items[0].offset", equalTo("12"))
+                .andExpectJsonPath("$.items[1].partition", equalTo("1"))
+                .andExpectJsonPath("$.items[1].offset", equalTo("20"))
+                .andRespondWith(204)
+                .setup();
+
+        try (final ManagedCursorManager coalescingCursorManager = new ManagedCursorManager(URI.create("http://example.com/"), server, null, 100, 10, TimeUnit.SECONDS)) {
+            final Subscription subscription = new Subscription("1234", "nakadi-client-test", Collections.singleton("foo"), "bar", OffsetDateTime.now(), null);
+            coalescingCursorManager.addSubscription(subscription);
+            coalescingCursorManager.addStreamId(subscription, "stream-id");
+
+            coalescingCursorManager.onSuccess("foo", new Cursor("0", "10", "foo", "token"));
+            coalescingCursorManager.onSuccess("foo", new Cursor("0", "11", "foo", "token"));
+            coalescingCursorManager.onSuccess("foo", new Cursor("1", "20", "foo", "token"));
+            coalescingCursorManager.onSuccess("foo", new Cursor("0", "12", "foo", "token"));
+
+            coalescingCursorManager.flush();
+        }
+
+        server.verify();
+    }
+
+    @Test
+    public void shouldCommitCursorsOfAllEventTypesOfSubscriptionInSingleRequest() throws IOException {
+        server.expectRequestTo("http://example.com/subscriptions/1234/cursors", "POST")
+                .andExpectHeader("X-Nakadi-StreamId", "stream-id")
+                .andExpectJsonPath("$.items.length()", equalTo(3))
+                .andExpectJsonPath("$.items[0].event_type", equalTo("foo"))
+                .andExpectJsonPath("$.items[0].partition", equalTo("0"))
+                .andExpectJsonPath("$.items[0].offset", equalTo("11"))
+                .andExpectJsonPath("$.items[1].event_type", equalTo("bar"))
+                .andExpectJsonPath("$.items[1].partition", equalTo("0"))
+                .andExpectJsonPath("$.items[1].offset", equalTo("20"))
+                .andExpectJsonPath("$.items[2].event_type", equalTo("foo"))
+                .andExpectJsonPath("$.items[2].partition", equalTo("1"))
+                .andRespondWith(204)
+                .setup();
+
+        try (final ManagedCursorManager coalescingCursorManager = new ManagedCursorManager(URI.create("http://example.com/"), server, null, 100, 10, TimeUnit.SECONDS)) {
+            final Subscription subscription = new Subscription("1234", "nakadi-client-test", new LinkedHashSet<>(Arrays.asList("foo", "bar")), "bar", OffsetDateTime.now(), null);
+            coalescingCursorManager.addSubscription(subscription);
+            coalescingCursorManager.addStreamId(subscription, "stream-id");
+
+            coalescingCursorManager.onSuccess("foo", new Cursor("0", "10", "foo", "token"));
+            coalescingCursorManager.onSuccess("bar", new Cursor("0", "20", "bar", "token"));
+            coalescingCursorManager.onSuccess("foo", new Cursor("1", "30", "foo", "token"));
+            coalescingCursorManager.onSuccess("foo", new Cursor("0", "11", "foo", "token"));
+
+            coalescingCursorManager.flush();
+        }
+
+        server.verify();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectCommitDelayAboveCommitTimeout() {
+        new ManagedCursorManager(URI.create("http://example.com/"), server, null, 100, 60, TimeUnit.SECONDS);
+    }
+
 }
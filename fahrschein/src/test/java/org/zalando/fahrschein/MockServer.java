@@ -17,14 +17,18 @@ import javax.annotation.Nullable;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -122,6 +126,7 @@ class MockServer implements RequestFactory {
         when(request.getURI()).thenReturn(expectedUri);
         when(request.getMethod()).thenReturn(expectedMethod);
         when(request.getBody()).thenReturn(requestBody = new ByteArrayOutputStream());
+        doCallRealMethod().when(request).setBody(any());
         when(request.getHeaders()).thenReturn(requestHeaders = new HeadersImpl());
 
         requestFactory = mock(RequestFactory.class);
@@ -146,9 +151,13 @@ class MockServer implements RequestFactory {
             assertThat(key, requestHeaders.getFirst(key), matcher);
         }
 
+        if (requestHeaders.getContentLength() >= 0) {
+            assertEquals("requestContentLength", requestHeaders.getContentLength(), requestBody.size());
+        }
+
 
         if (!expectedJsonPaths.isEmpty()) {
-            final String body = new String(requestBody.toByteArray(), StandardCharsets.UTF_8);
+            final String body = new String(getRequestBody(), StandardCharsets.UTF_8);
             for (Map.Entry<String, Matcher<Object>> entry : expectedJsonPaths.entrySet()) {
                 final String path = entry.getKey();
                 final JsonPath jsonPath = JsonPath.compile(path);
@@ -163,4 +172,19 @@ class MockServer implements RequestFactory {
     public Request createRequest(URI uri, String method) throws IOException {
         return requestFactory.createRequest(uri, method);
     }
+
+    private byte[] getRequestBody() throws IOException {
+        if (!"gzip".equals(requestHeaders.getFirst(Headers.CONTENT_ENCODING))) {
+            return requestBody.toByteArray();
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(requestBody.toByteArray()))) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
 }
@@ -4,10 +4,12 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.zalando.fahrschein.domain.BatchItemResponse;
 import org.zalando.fahrschein.domain.Partition;
 import org.zalando.fahrschein.domain.Subscription;
 import org.zalando.fahrschein.domain.SubscriptionRequest;
 import org.zalando.fahrschein.http.api.ContentType;
+import org.zalando.fahrschein.http.api.Headers;
 
 import java.io.IOException;
 import java.net.URI;
@@ -15,6 +17,8 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import static java.util.Arrays.asList;
 import static org.hamcrest.Matchers.equalTo;
@@ -269,6 +273,46 @@ public class NakadiClientTest {
         client.publish("foobar", asList(new SomeEvent("1"), new SomeEvent("2")));
     }
 
+    @Test
+    public void shouldPublishCompressedEvents() throws IOException {
+        server.expectRequestTo("http://example.com/event-types/foobar/events", "POST")
+                .andExpectJsonPath("$[0].id", equalTo("1"))
+                .andExpectJsonPath("$[1].id", equalTo("2"))
+                .andExpectHeader(Headers.CONTENT_ENCODING, "gzip")
+                .andRespondWith(200)
+                .setup();
+
+        final NakadiClient client = NakadiClient.builder(URI.create("http://example.com/"))
+                .withRequestFactory(server)
+                .withCursorManager(mock(CursorManager.class))
+                .withRequestCompression(new CompressionParameters().withMinSize(0))
+                .build();
+
+        client.publish("foobar", asList(new SomeEvent("1"), new SomeEvent("2")));
+
+        server.verify();
+    }
+
+    @Test
+    public void shouldPublishBatchedEvents() throws IOException, InterruptedException, ExecutionException {
+        server.expectRequestTo("http://example.com/event-types/foobar/events", "POST")
+                .andExpectJsonPath("$[0].id", equalTo("1"))
+                .andExpectJsonPath("$[1].id", equalTo("2"))
+                .andExpectHeader(Headers.CONTENT_LENGTH, notNullValue(String.class))
+                .andRespondWith(200)
+                .setup();
+
+        try (final BatchingPublisher publisher = client.batchingPublisher(new BatchingParameters().withMaxBatchSize(2))) {
+            final CompletableFuture<BatchItemResponse> first = publisher.publish("foobar", new SomeEvent("1"));
+            final CompletableFuture<BatchItemResponse> second = publisher.publish("foobar", new SomeEvent("2"));
+
+            assertEquals(BatchItemResponse.PublishingStatus.SUBMITTED, first.get().getPublishingStatus());
+            assertEquals(BatchItemResponse.PublishingStatus.SUBMITTED, second.get().getPublishingStatus());
+        }
+
+        server.verify();
+    }
+
     @Test
     public void shouldHandleMultiStatusWhenPublishing() throws IOException {
         server.expectRequestTo("http://example.com/event-types/foobar/events", "POST")
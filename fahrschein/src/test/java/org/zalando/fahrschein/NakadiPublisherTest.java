@@ -0,0 +1,212 @@
+package org.zalando.fahrschein;
+
+import org.junit.After;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.zalando.fahrschein.domain.Cursor;
+import org.zalando.fahrschein.domain.Event;
+import org.zalando.fahrschein.domain.Metadata;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class NakadiPublisherTest {
+    private final CursorManager cursorManager = mock(CursorManager.class);
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AtomicInteger batchesRead = new AtomicInteger();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static class RecordingSubscriber implements Subscriber<AcknowledgeableBatch<String>> {
+        private final BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+        private volatile Subscription subscription;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(AcknowledgeableBatch<String> batch) {
+            signals.add(batch);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            signals.add(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            signals.add("complete");
+        }
+
+        Object next() throws InterruptedException {
+            return signals.poll(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private NakadiPublisher<String> publisher(int batches) {
+        return new NakadiPublisher<>(cursorManager, (cursorManager, listener) -> () -> {
+            for (int i = 0; i < batches; i++) {
+                batchesRead.incrementAndGet();
+                try {
+                    listener.accept(singletonList("event-" + i));
+                } catch (EventAlreadyProcessedException e) {
+                    throw new IllegalStateException(e);
+                }
+                cursorManager.onSuccess("foo", new Cursor("0", String.valueOf(i)));
+            }
+        }, executor);
+    }
+
+    @Test
+    public void shouldOnlyReadRequestedBatches() throws InterruptedException, IOException {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher(3).subscribe(subscriber);
+
+        Thread.sleep(50);
+        assertEquals(0, batchesRead.get());
+
+        subscriber.subscription.request(1);
+        @SuppressWarnings("unchecked")
+        final AcknowledgeableBatch<String> first = (AcknowledgeableBatch<String>) subscriber.next();
+        assertEquals(singletonList("event-0"), first.getEvents());
+
+        Thread.sleep(50);
+        assertEquals(2, batchesRead.get());
+        assertNull(subscriber.signals.poll());
+        verifyZeroInteractions(cursorManager);
+
+        first.acknowledge();
+        verify(cursorManager).onSuccess("foo", first.getCursor());
+
+        subscriber.subscription.request(5);
+        assertThat(subscriber.next(), instanceOf(AcknowledgeableBatch.class));
+        assertThat(subscriber.next(), instanceOf(AcknowledgeableBatch.class));
+        assertEquals("complete", subscriber.next());
+    }
+
+    @Test
+    public void shouldStopReadingWhenCancelled() throws InterruptedException {
+        final CountDownLatch stopped = new CountDownLatch(1);
+        final NakadiPublisher<String> publisher = new NakadiPublisher<>(cursorManager, (cursorManager, listener) -> () -> {
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                stopped.countDown();
+                throw new InterruptedIOException();
+            }
+        }, executor);
+
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(1);
+        Thread.sleep(50);
+        subscriber.subscription.cancel();
+
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        assertNull(subscriber.signals.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void shouldSignalErrorOnInvalidRequest() throws InterruptedException {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher(3).subscribe(subscriber);
+        subscriber.subscription.request(0);
+
+        assertThat(subscriber.next(), instanceOf(IllegalArgumentException.class));
+        assertEquals(0, batchesRead.get());
+    }
+
+    @Test
+    public void shouldRejectSecondSubscriber() throws InterruptedException {
+        final NakadiPublisher<String> publisher = publisher(3);
+        publisher.subscribe(new RecordingSubscriber());
+
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+
+        assertThat(subscriber.next(), instanceOf(IllegalStateException.class));
+    }
+
+    @Test
+    public void shouldOnlyDeduplicateAcknowledgedBatches() throws InterruptedException, IOException {
+        final EidDeduplicator deduplicator = new EidDeduplicator(100);
+        final Metadata metadata = new Metadata("eid", OffsetDateTime.now());
+        final List<Event> batch = singletonList(() -> metadata);
+        final EventReader<Event> eventReader = deduplicator.wrapEventReader(jsonParser -> batch);
+
+        final NakadiPublisher<Event> publisher = new NakadiPublisher<>(cursorManager, (cursorManager, listener) -> () -> {
+            for (int i = 0; i < 4; i++) {
+                try {
+                    listener.accept(eventReader.read(null));
+                } catch (EventAlreadyProcessedException e) {
+                    throw new IllegalStateException(e);
+                }
+                cursorManager.onSuccess("foo", new Cursor("0", String.valueOf(i)));
+            }
+        }, executor, deduplicator);
+
+        final BlockingQueue<AcknowledgeableBatch<Event>> batches = new LinkedBlockingQueue<>();
+        final AtomicReference<Subscription> subscription = new AtomicReference<>();
+        publisher.subscribe(new Subscriber<AcknowledgeableBatch<Event>>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                subscription.set(s);
+            }
+
+            @Override
+            public void onNext(AcknowledgeableBatch<Event> batch) {
+                batches.add(batch);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        // the first batch was never acknowledged, so its events are delivered again
+        subscription.get().request(1);
+        assertEquals(batch, batches.poll(5, TimeUnit.SECONDS).getEvents());
+        subscription.get().request(1);
+        final AcknowledgeableBatch<Event> second = batches.poll(5, TimeUnit.SECONDS);
+        assertEquals(batch, second.getEvents());
+
+        second.acknowledge();
+
+        // the third batch was read ahead before the acknowledgement, the fourth is dropped as duplicate
+        subscription.get().request(2);
+        batches.poll(5, TimeUnit.SECONDS);
+        assertEquals(emptyList(), batches.poll(5, TimeUnit.SECONDS).getEvents());
+    }
+}
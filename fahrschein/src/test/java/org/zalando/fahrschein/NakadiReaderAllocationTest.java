@@ -0,0 +1,137 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.JsonToken;
+import org.junit.Assume;
+import org.junit.Test;
+import org.zalando.fahrschein.domain.Cursor;
+import org.zalando.fahrschein.domain.Subscription;
+import org.zalando.fahrschein.http.api.Request;
+import org.zalando.fahrschein.http.api.RequestFactory;
+import org.zalando.fahrschein.http.api.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the allocation budget of the framing path, that is everything except databinding of the events and the listener.
+ */
+public class NakadiReaderAllocationTest {
+
+    private static final int BATCHES = 200_000;
+    private static final long MAX_BYTES_PER_BATCH = 160;
+
+    private static final byte[] BATCH = ("{\"cursor\":{\"partition\":\"12\",\"offset\":\"001-0001-000000000000012345\",\"event_type\":\"sales-order-placed\"},"
+            + "\"events\":[{\"id\":\"1\"}]}\n"
+            + "{\"cursor\":{\"partition\":\"12\",\"offset\":\"001-0001-000000000000012345\",\"event_type\":\"sales-order-placed\"}}\n").getBytes(StandardCharsets.UTF_8);
+
+    private static final List<Object> EVENTS = Collections.singletonList(new Object());
+
+    private static class RepeatingInputStream extends InputStream {
+        private int remaining;
+        private int position;
+
+        RepeatingInputStream(int repetitions) {
+            this.remaining = repetitions;
+        }
+
+        @Override
+        public int read() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (remaining == 0) {
+                return -1;
+            }
+            final int count = Math.min(len, BATCH.length - position);
+            System.arraycopy(BATCH, position, b, off, count);
+            position += count;
+            if (position == BATCH.length) {
+                position = 0;
+                remaining--;
+            }
+            return count;
+        }
+    }
+
+    private static final CursorManager NO_OP_CURSOR_MANAGER = new CursorManager() {
+        @Override
+        public void onSuccess(String eventName, Cursor cursor) {
+        }
+
+        @Override
+        public void onSuccess(String eventName, List<Cursor> cursors) {
+        }
+
+        @Override
+        public Collection<Cursor> getCursors(String eventName) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void addStreamId(Subscription subscription, String streamId) {
+        }
+    };
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static long run() throws IOException {
+        final int[] processed = new int[1];
+        final Response response = mock(Response.class);
+        when(response.getBody()).thenReturn(new RepeatingInputStream(BATCHES));
+        final Request request = mock(Request.class);
+        when(request.execute()).thenReturn(response);
+        final RequestFactory requestFactory = mock(RequestFactory.class);
+        when(requestFactory.createRequest(URI.create("http://example.com/events"), "GET")).thenReturn(request);
+
+        final EventReader<Object> eventReader = jsonParser -> {
+            // skips the events, so that only the framing path is measured
+            if (jsonParser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected array");
+            }
+            jsonParser.skipChildren();
+            return EVENTS;
+        };
+
+        final NakadiReader<Object> nakadiReader = new NakadiReader<>(URI.create("http://example.com/events"), requestFactory, new NoBackoffStrategy(), NO_OP_CURSOR_MANAGER,
+                Collections.singleton("sales-order-placed"), Optional.empty(), Optional.empty(), eventReader, events -> processed[0]++, DefaultBatchHandler.INSTANCE, NoMetricsCollector.NO_METRICS_COLLECTOR);
+
+        final long before = allocatedBytes();
+        try {
+            nakadiReader.runInternal();
+        } catch (BackoffException e) {
+            // end of input
+        }
+        final long allocated = allocatedBytes() - before;
+        assertEquals(BATCHES, processed[0]);
+        return allocated;
+    }
+
+    @Test
+    public void shouldStayWithinAllocationBudgetPerBatch() throws IOException {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+
+        // warm up, so that the measurement is not dominated by class loading and the interpreter
+        run();
+        run();
+
+        final long bytesPerBatch = run() / (2L * BATCHES);
+        assertThat(bytesPerBatch, lessThan(MAX_BYTES_PER_BATCH));
+    }
+}
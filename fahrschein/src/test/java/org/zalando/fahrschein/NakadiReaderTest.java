@@ -20,10 +20,14 @@ import org.zalando.fahrschein.http.api.RequestFactory;
 import org.zalando.fahrschein.http.api.Response;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.io.SequenceInputStream;
 import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
@@ -32,6 +36,7 @@ import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -41,17 +46,22 @@ import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPOutputStream;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -382,6 +392,48 @@ public class NakadiReaderTest {
         Assert.assertNull("Thread should have completed normally", future.get());
     }
 
+    @Test
+    public void shouldRequestAndDecompressGzipStream() throws IOException, InterruptedException, BackoffException, EventAlreadyProcessedException {
+        final String input = "{\"cursor\":{\"event_type\":\""+EVENT_NAME+"\",\"partition\":\"123\",\"offset\":\"456\"},\"events\":[{\"id\":\"789\"}]}";
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(input.getBytes("utf-8"));
+        }
+
+        final Headers responseHeaders = new HeadersImpl();
+        responseHeaders.put(Headers.CONTENT_ENCODING, "gzip");
+        final Response response = mock(Response.class);
+        when(response.getHeaders()).thenReturn(responseHeaders);
+        when(response.getBody()).thenReturn(new ByteArrayInputStream(compressed.toByteArray()), new ByteArrayInputStream(new byte[0]));
+
+        final Headers requestHeaders = new HeadersImpl();
+        final Request request = mock(Request.class);
+        when(request.getHeaders()).thenReturn(requestHeaders);
+        when(request.execute()).thenReturn(response);
+
+        when(RequestFactory.createRequest(uri, "GET")).thenReturn(request);
+
+        final NakadiReader<SomeEvent> nakadiReader = new NakadiReader<>(uri, RequestFactory, new NoBackoffStrategy(), cursorManager, Collections.singleton(EVENT_NAME), Optional.empty(), Optional.empty(),
+                new MappingEventReader<>(SomeEvent.class, objectMapper), listener, DefaultBatchHandler.INSTANCE, NoMetricsCollector.NO_METRICS_COLLECTOR, ReaderParameters.DEFAULT.withResponseCompression(true));
+
+        try {
+            nakadiReader.runInternal();
+            fail("Expected IOException on reconnect");
+        } catch (BackoffException e) {
+            assertEquals("Stream was closed", e.getCause().getMessage());
+            assertEquals("gzip", requestHeaders.getFirst(Headers.ACCEPT_ENCODING));
+
+            @SuppressWarnings("unchecked")
+            final ArgumentCaptor<List<SomeEvent>> argumentCaptor = (ArgumentCaptor<List<SomeEvent>>)(Object)ArgumentCaptor.forClass(List.class);
+            verify(listener).accept(argumentCaptor.capture());
+            assertEquals("789", argumentCaptor.getValue().get(0).getId());
+
+            final ArgumentCaptor<Cursor> cursorCaptor = ArgumentCaptor.forClass(Cursor.class);
+            verify(cursorManager).onSuccess(ArgumentMatchers.eq(EVENT_NAME), cursorCaptor.capture());
+            assertEquals("456", cursorCaptor.getValue().getOffset());
+        }
+    }
+
     @Test
     public void shouldProcessEventsAndCommitCursor() throws IOException, InterruptedException, BackoffException, EventAlreadyProcessedException {
         final Response response = mock(Response.class);
@@ -429,6 +481,367 @@ public class NakadiReaderTest {
         }
     }
 
+    @Test
+    public void shouldReportStageTimingsToMetricsCollector() throws IOException, InterruptedException, BackoffException {
+        final Response response = mock(Response.class);
+        final String input = "{\"cursor\":{\"partition\":\"123\",\"offset\":\"456\"},\"events\":[{\"id\":\"789\"},{\"id\":\"790\"}]}";
+        when(response.getBody()).thenReturn(new ByteArrayInputStream(input.getBytes("utf-8")));
+
+        final Request request = mock(Request.class);
+        when(request.execute()).thenReturn(response);
+
+        when(RequestFactory.createRequest(uri, "GET")).thenReturn(request);
+
+        final MetricsCollector metricsCollector = mock(MetricsCollector.class);
+        when(metricsCollector.isTimingEnabled()).thenReturn(true);
+
+        final NakadiReader<SomeEvent> nakadiReader = new NakadiReader<>(uri, RequestFactory, new NoBackoffStrategy(), cursorManager, Collections.singleton(EVENT_NAME), Optional.empty(), Optional.empty(), new MappingEventReader<>(SomeEvent.class, objectMapper), listener, DefaultBatchHandler.INSTANCE, metricsCollector);
+
+        try {
+            nakadiReader.runInternal();
+            fail("Expected IOException on reconnect");
+        } catch (BackoffException e) {
+            verify(metricsCollector).timeConnection(ArgumentMatchers.longThat(duration -> duration >= 0));
+            verify(metricsCollector).timeBatchRead(ArgumentMatchers.longThat(duration -> duration >= 0), ArgumentMatchers.eq(2), ArgumentMatchers.longThat(bytes -> bytes > 20));
+            verify(metricsCollector).timeListener(ArgumentMatchers.longThat(duration -> duration >= 0), ArgumentMatchers.eq(2));
+        }
+    }
+
+    @Test
+    public void shouldNotMeasureDurationsWithoutTiming() throws IOException, InterruptedException, BackoffException {
+        final Response response = mock(Response.class);
+        final String input = "{\"cursor\":{\"partition\":\"123\",\"offset\":\"456\"},\"events\":[{\"id\":\"789\"}]}";
+        when(response.getBody()).thenReturn(new ByteArrayInputStream(input.getBytes("utf-8")));
+
+        final Request request = mock(Request.class);
+        when(request.execute()).thenReturn(response);
+
+        when(RequestFactory.createRequest(uri, "GET")).thenReturn(request);
+
+        final MetricsCollector metricsCollector = mock(MetricsCollector.class);
+
+        final NakadiReader<SomeEvent> nakadiReader = new NakadiReader<>(uri, RequestFactory, new NoBackoffStrategy(), cursorManager, Collections.singleton(EVENT_NAME), Optional.empty(), Optional.empty(), new MappingEventReader<>(SomeEvent.class, objectMapper), listener, DefaultBatchHandler.INSTANCE, metricsCollector);
+
+        try {
+            nakadiReader.runInternal();
+            fail("Expected IOException on reconnect");
+        } catch (BackoffException e) {
+            verify(metricsCollector).markEventsReceived(1);
+            verify(metricsCollector, never()).timeConnection(ArgumentMatchers.anyLong());
+            verify(metricsCollector, never()).timeBatchRead(ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt(), ArgumentMatchers.anyLong());
+            verify(metricsCollector, never()).timeListener(ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt());
+        }
+    }
+
+    @Test
+    public void shouldProcessEventsInOrderWithPipelining() throws IOException, InterruptedException, BackoffException, EventAlreadyProcessedException {
+        final Response response = mock(Response.class);
+        final String input = "{\"cursor\":{\"partition\":\"0\",\"offset\":\"1\"},\"events\":[{\"id\":\"1\"}]}"
+                + "{\"cursor\":{\"partition\":\"0\",\"offset\":\"2\"}}"
+                + "{\"cursor\":{\"partition\":\"0\",\"offset\":\"3\"},\"events\":[{\"id\":\"2\"},{\"id\":\"3\"}]}"
+                + "{\"cursor\":{\"partition\":\"0\",\"offset\":\"4\"},\"events\":[{\"id\":\"4\"}]}";
+        final ByteArrayInputStream initialInputStream = new ByteArrayInputStream(input.getBytes("utf-8"));
+        final ByteArrayInputStream emptyInputStream = new ByteArrayInputStream(new byte[0]);
+        when(response.getBody()).thenReturn(initialInputStream, emptyInputStream);
+
+        final Request request = mock(Request.class);
+        when(request.execute()).thenReturn(response);
+
+        when(RequestFactory.createRequest(uri, "GET")).thenReturn(request);
+
+        final NoBackoffStrategy backoffStrategy = new NoBackoffStrategy();
+
+        final List<String> ids = new ArrayList<>();
+        final Listener<SomeEvent> listener = events -> {
+            for (SomeEvent event : events) {
+                ids.add(event.getId());
+            }
+        };
+
+        final NakadiReader<SomeEvent> nakadiReader = new NakadiReader<>(uri, RequestFactory, backoffStrategy, cursorManager, Collections.singleton(EVENT_NAME), Optional.empty(), Optional.empty(), new MappingEventReader<>(SomeEvent.class, objectMapper), listener, DefaultBatchHandler.INSTANCE, NoMetricsCollector.NO_METRICS_COLLECTOR, ReaderParameters.DEFAULT.withPipelineCapacity(1));
+
+        try {
+            nakadiReader.runInternal();
+            fail("Expected IOException on reconnect");
+        } catch (BackoffException e) {
+            assertEquals("Stream was closed", e.getCause().getMessage());
+
+            assertEquals(asList("1", "2", "3", "4"), ids);
+
+            final ArgumentCaptor<Cursor> argumentCaptor = ArgumentCaptor.forClass(Cursor.class);
+            verify(cursorManager, times(3)).onSuccess(ArgumentMatchers.eq(EVENT_NAME), argumentCaptor.capture());
+
+            final List<String> offsets = new ArrayList<>();
+            for (Cursor cursor : argumentCaptor.getAllValues()) {
+                offsets.add(cursor.getOffset());
+            }
+            assertEquals(asList("1", "3", "4"), offsets);
+        }
+    }
+
+    private List<List<String>> runWithCoalescing(String input, CoalescingParameters coalescingParameters, int pipelineCapacity) throws IOException {
+        final Response response = mock(Response.class);
+        final ByteArrayInputStream initialInputStream = new ByteArrayInputStream(input.getBytes("utf-8"));
+        final ByteArrayInputStream emptyInputStream = new ByteArrayInputStream(new byte[0]);
+        when(response.getBody()).thenReturn(initialInputStream, emptyInputStream);
+
+        final Request request = mock(Request.class);
+        when(request.execute()).thenReturn(response);
+
+        when(RequestFactory.createRequest(uri, "GET")).thenReturn(request);
+
+        final List<List<String>> calls = new ArrayList<>();
+        final Listener<SomeEvent> listener = events -> {
+            final List<String> ids = new ArrayList<>();
+            for (SomeEvent event : events) {
+                ids.add(event.getId());
+            }
+            calls.add(ids);
+        };
+
+        final NakadiReader<SomeEvent> nakadiReader = new NakadiReader<>(uri, RequestFactory, new NoBackoffStrategy(), cursorManager, Collections.singleton(EVENT_NAME), Optional.empty(), Optional.empty(), new MappingEventReader<>(SomeEvent.class, objectMapper), listener, DefaultBatchHandler.INSTANCE, NoMetricsCollector.NO_METRICS_COLLECTOR, ReaderParameters.DEFAULT.withPipelineCapacity(pipelineCapacity).withCoalescingParameters(coalescingParameters));
+
+        try {
+            nakadiReader.runInternal();
+            fail("Expected IOException on reconnect");
+        } catch (BackoffException e) {
+            assertEquals("Stream was closed", e.getCause().getMessage());
+        }
+        return calls;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Cursor>> captureCommittedCursors(int times) throws IOException {
+        final ArgumentCaptor<List<Cursor>> argumentCaptor = (ArgumentCaptor<List<Cursor>>)(Object)ArgumentCaptor.forClass(List.class);
+        verify(cursorManager, times(times)).onSuccess(ArgumentMatchers.eq(EVENT_NAME), argumentCaptor.capture());
+        return argumentCaptor.getAllValues();
+    }
+
+    @Test
+    public void shouldCoalesceBatchesAndCommitLatestCursorPerPartition() throws IOException {
+        final String input = "{\"cursor\":{\"partition\":\"0\",\"offset\":\"1\"},\"events\":[{\"id\":\"1\"}]}"
+                + "{\"cursor\":{\"partition\":\"1\",\"offset\":\"7\"},\"events\":[{\"id\":\"2\"}]}"
+                + "{\"cursor\":{\"partition\":\"0\",\"offset\":\"2\"}}"
+                + "{\"cursor\":{\"partition\":\"0\",\"offset\":\"3\"},\"events\":[{\"id\":\"3\"}]}"
+                + "{\"cursor\":{\"partition\":\"1\",\"offset\":\"8\"},\"events\":[{\"id\":\"4\"}]}";
+
+        final List<List<String>> calls = runWithCoalescing(input, new CoalescingParameters().withMinEvents(3).withMaxLinger(1, TimeUnit.HOURS), 0);
+
+        assertEquals(asList(asList("1", "2", "3"), singletonList("4")), calls);
+
+        final List<List<Cursor>> cursors = captureCommittedCursors(2);
+        assertEquals(2, cursors.get(0).size());
+        assertEquals("0", cursors.get(0).get(0).getPartition());
+        assertEquals("3", cursors.get(0).get(0).getOffset());
+        assertEquals("1", cursors.get(0).get(1).getPartition());
+        assertEquals("7", cursors.get(0).get(1).getOffset());
+
+        // remaining events are handed over before reconnecting
+        assertEquals(1, cursors.get(1).size());
+        assertEquals("8", cursors.get(1).get(0).getOffset());
+    }
+
+    @Test
+    public void shouldCoalesceBatchesUntilMinBytesWithPipelining() throws IOException {
+        final String input = "{\"cursor\":{\"partition\":\"0\",\"offset\":\"1\"},\"events\":[{\"id\":\"1\"}]}"
+                + "{\"cursor\":{\"partition\":\"0\",\"offset\":\"2\"},\"events\":[{\"id\":\"2\"}]}"
+                + "{\"cursor\":{\"partition\":\"0\",\"offset\":\"3\"},\"events\":[{\"id\":\"3\"}]}";
+
+        // each serialized event array has about 12 bytes
+        final List<List<String>> calls = runWithCoalescing(input, new CoalescingParameters().withMinEvents(100).withMinBytes(20).withMaxLinger(1, TimeUnit.HOURS), 1);
+
+        assertEquals(asList(asList("1", "2"), singletonList("3")), calls);
+
+        final List<List<Cursor>> cursors = captureCommittedCursors(2);
+        assertEquals("2", cursors.get(0).get(0).getOffset());
+        assertEquals("3", cursors.get(1).get(0).getOffset());
+    }
+
+    @Test
+    public void shouldHandOverCoalescedEventsAfterMaxLinger() throws IOException {
+        final String input = "{\"cursor\":{\"partition\":\"0\",\"offset\":\"1\"},\"events\":[{\"id\":\"1\"}]}"
+                + "{\"cursor\":{\"partition\":\"0\",\"offset\":\"1\"}}"
+                + "{\"cursor\":{\"partition\":\"0\",\"offset\":\"2\"},\"events\":[{\"id\":\"2\"}]}";
+
+        final List<List<String>> calls = runWithCoalescing(input, new CoalescingParameters().withMinEvents(100).withMaxLinger(0, TimeUnit.MILLISECONDS), 0);
+
+        assertEquals(asList(singletonList("1"), singletonList("2")), calls);
+    }
+
+    @Test
+    public void shouldNotCombineCoalescingWithPartitionParallelism() {
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("partition parallelism");
+
+        new NakadiReader<>(uri, RequestFactory, new NoBackoffStrategy(), cursorManager, Collections.singleton(EVENT_NAME), Optional.empty(), Optional.empty(), new MappingEventReader<>(SomeEvent.class, objectMapper), listener, DefaultBatchHandler.INSTANCE, NoMetricsCollector.NO_METRICS_COLLECTOR, ReaderParameters.DEFAULT.withPipelineCapacity(1).withPartitionParallelism(2).withCoalescingParameters(new CoalescingParameters()));
+    }
+
+    private NakadiReader<SomeEvent> streamingReader(String input, EventStreamListener<SomeEvent> listener) throws IOException {
+        final Response response = mock(Response.class);
+        final ByteArrayInputStream initialInputStream = new ByteArrayInputStream(input.getBytes("utf-8"));
+        final ByteArrayInputStream emptyInputStream = new ByteArrayInputStream(new byte[0]);
+        when(response.getBody()).thenReturn(initialInputStream, emptyInputStream);
+
+        final Request request = mock(Request.class);
+        when(request.execute()).thenReturn(response);
+
+        when(RequestFactory.createRequest(uri, "GET")).thenReturn(request);
+
+        return NakadiReader.streaming(uri, RequestFactory, new NoBackoffStrategy(), cursorManager, Collections.singleton(EVENT_NAME), Optional.empty(), Optional.empty(), new MappingEventReader<>(SomeEvent.class, objectMapper), listener, DefaultBatchHandler.INSTANCE, NoMetricsCollector.NO_METRICS_COLLECTOR, ReaderParameters.DEFAULT);
+    }
+
+    @Test
+    public void shouldStreamEventsAndCommitCursorAfterAllEventsWereConsumed() throws IOException {
+        final String input = "{\"cursor\":{\"partition\":\"0\",\"offset\":\"2\"},\"events\":[{\"id\":\"1\"},{\"id\":\"2\"}]}"
+                + "{\"cursor\":{\"partition\":\"0\",\"offset\":\"2\"}}"
+                + "{\"cursor\":{\"partition\":\"0\",\"offset\":\"3\"},\"events\":[{\"id\":\"3\"}],\"info\":{\"debug\":\"foo\"}}";
+
+        final List<String> ids = new ArrayList<>();
+        final EventStreamListener<SomeEvent> listener = events -> {
+            while (events.hasNext()) {
+                ids.add(events.next().getId());
+                verify(cursorManager, times(ids.size() > 2 ? 1 : 0)).onSuccess(ArgumentMatchers.eq(EVENT_NAME), ArgumentMatchers.any(Cursor.class));
+            }
+        };
+
+        try {
+            streamingReader(input, listener).runInternal();
+            fail("Expected IOException on reconnect");
+        } catch (BackoffException e) {
+            assertEquals("Stream was closed", e.getCause().getMessage());
+        }
+
+        assertEquals(asList("1", "2", "3"), ids);
+
+        final ArgumentCaptor<Cursor> argumentCaptor = ArgumentCaptor.forClass(Cursor.class);
+        verify(cursorManager, times(2)).onSuccess(ArgumentMatchers.eq(EVENT_NAME), argumentCaptor.capture());
+        assertEquals("2", argumentCaptor.getAllValues().get(0).getOffset());
+        assertEquals("3", argumentCaptor.getAllValues().get(1).getOffset());
+    }
+
+    @Test
+    public void shouldFailWhenStreamingListenerDoesNotConsumeAllEvents() throws IOException, BackoffException {
+        final String input = "{\"cursor\":{\"partition\":\"0\",\"offset\":\"2\"},\"events\":[{\"id\":\"1\"},{\"id\":\"2\"}]}";
+
+        final EventStreamListener<SomeEvent> listener = events -> events.next();
+
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("did not consume all events");
+
+        try {
+            streamingReader(input, listener).runInternal();
+        } finally {
+            verify(cursorManager, never()).onSuccess(ArgumentMatchers.anyString(), ArgumentMatchers.any(Cursor.class));
+        }
+    }
+
+    @Test
+    public void shouldNotCommitWhenStreamedBatchIsBroken() throws IOException {
+        final String input = "{\"cursor\":{\"partition\":\"0\",\"offset\":\"2\"},\"events\":[{\"id\":\"1\"},{\"id\":";
+
+        final List<String> ids = new ArrayList<>();
+        final EventStreamListener<SomeEvent> listener = events -> events.forEachRemaining(event -> ids.add(event.getId()));
+
+        try {
+            streamingReader(input, listener).runInternal();
+            fail("Expected IOException on reconnect");
+        } catch (BackoffException e) {
+            assertThat(e.getCause(), instanceOf(JsonProcessingException.class));
+        }
+
+        assertEquals(singletonList("1"), ids);
+        verify(cursorManager, never()).onSuccess(ArgumentMatchers.anyString(), ArgumentMatchers.any(Cursor.class));
+    }
+
+    @Test(timeout = 5000)
+    public void shouldProcessPartitionsConcurrentlyWithPartitionParallelism() throws IOException, InterruptedException, BackoffException, EventAlreadyProcessedException {
+        final Response response = mock(Response.class);
+        final String input = "{\"cursor\":{\"partition\":\"0\",\"offset\":\"1\"},\"events\":[{\"id\":\"0-1\"}]}"
+                + "{\"cursor\":{\"partition\":\"0\",\"offset\":\"2\"},\"events\":[{\"id\":\"0-2\"}]}"
+                + "{\"cursor\":{\"partition\":\"1\",\"offset\":\"1\"},\"events\":[{\"id\":\"1-1\"}]}";
+        final ByteArrayInputStream initialInputStream = new ByteArrayInputStream(input.getBytes("utf-8"));
+        final ByteArrayInputStream emptyInputStream = new ByteArrayInputStream(new byte[0]);
+        when(response.getBody()).thenReturn(initialInputStream, emptyInputStream);
+
+        final Request request = mock(Request.class);
+        when(request.execute()).thenReturn(response);
+
+        when(RequestFactory.createRequest(uri, "GET")).thenReturn(request);
+
+        final NoBackoffStrategy backoffStrategy = new NoBackoffStrategy();
+
+        final CountDownLatch secondPartitionProcessed = new CountDownLatch(1);
+        final List<String> ids = Collections.synchronizedList(new ArrayList<>());
+        final Listener<SomeEvent> listener = events -> {
+            for (SomeEvent event : events) {
+                if (event.getId().startsWith("1-")) {
+                    ids.add(event.getId());
+                    secondPartitionProcessed.countDown();
+                } else {
+                    try {
+                        // the first partition can only make progress while the second is processed concurrently
+                        secondPartitionProcessed.await();
+                    } catch (InterruptedException e) {
+                        throw new InterruptedIOException();
+                    }
+                    ids.add(event.getId());
+                }
+            }
+        };
+
+        final NakadiReader<SomeEvent> nakadiReader = new NakadiReader<>(uri, RequestFactory, backoffStrategy, cursorManager, Collections.singleton(EVENT_NAME), Optional.empty(), Optional.empty(), new MappingEventReader<>(SomeEvent.class, objectMapper), listener, DefaultBatchHandler.INSTANCE, NoMetricsCollector.NO_METRICS_COLLECTOR, ReaderParameters.DEFAULT.withPartitionParallelism(2));
+
+        try {
+            nakadiReader.runInternal();
+            fail("Expected IOException on reconnect");
+        } catch (BackoffException e) {
+            assertEquals("Stream was closed", e.getCause().getMessage());
+
+            assertEquals(asList("1-1", "0-1", "0-2"), ids);
+
+            final ArgumentCaptor<Cursor> argumentCaptor = ArgumentCaptor.forClass(Cursor.class);
+            verify(cursorManager, times(3)).onSuccess(ArgumentMatchers.eq(EVENT_NAME), argumentCaptor.capture());
+
+            final List<String> cursors = new ArrayList<>();
+            for (Cursor cursor : argumentCaptor.getAllValues()) {
+                cursors.add(cursor.getPartition() + "-" + cursor.getOffset());
+            }
+            // commits of different partitions can happen in any order, only the order within a partition is guaranteed
+            assertThat(cursors, containsInAnyOrder("1-1", "0-1", "0-2"));
+            assertTrue(cursors.indexOf("0-1") < cursors.indexOf("0-2"));
+        }
+    }
+
+    @Test
+    public void shouldPropagateRuntimeExceptionFromListenerWithPipelining() throws IOException {
+        final Response response = mock(Response.class);
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream("{\"cursor\":{\"partition\":\"123\",\"offset\":\"456\"},\"events\":[{\"id\":\"789\"}]}".getBytes("utf-8"));
+        when(response.getBody()).thenReturn(inputStream);
+
+        final Request request = mock(Request.class);
+        when(request.execute()).thenReturn(response);
+
+        when(RequestFactory.createRequest(uri, "GET")).thenReturn(request);
+
+        final NoBackoffStrategy backoffStrategy = new NoBackoffStrategy();
+
+        final Listener<SomeEvent> listener = events -> {
+            throw new RuntimeException("from listener");
+        };
+
+        final NakadiReader<SomeEvent> nakadiReader = new NakadiReader<>(uri, RequestFactory, backoffStrategy, cursorManager, Collections.singleton(EVENT_NAME), Optional.empty(), Optional.empty(), new MappingEventReader<>(SomeEvent.class, objectMapper), listener, DefaultBatchHandler.INSTANCE, NoMetricsCollector.NO_METRICS_COLLECTOR, ReaderParameters.DEFAULT.withPipelineCapacity(4));
+
+        expectedException.expect(RuntimeException.class);
+        expectedException.expectMessage(equalTo("from listener"));
+
+        try {
+            nakadiReader.run();
+        } finally {
+            verify(response).close();
+            verify(cursorManager, times(0)).onSuccess(ArgumentMatchers.eq(EVENT_NAME), ArgumentMatchers.any(Cursor.class));
+        }
+    }
+
     @Test
     public void shouldFailWithoutCursors() throws IOException, InterruptedException, BackoffException, EventAlreadyProcessedException {
         final Response response = mock(Response.class);
@@ -740,4 +1153,89 @@ public class NakadiReaderTest {
         verify(listener, times(2)).accept(anyList());
     }
 
+    @Test(timeout = 5000)
+    public void shouldStopGracefullyWhileWaitingForBatch() throws IOException, InterruptedException, ExecutionException, EventAlreadyProcessedException {
+        final PipedOutputStream out = new PipedOutputStream();
+        final PipedInputStream in = new PipedInputStream(out);
+        final Response response = mock(Response.class);
+        when(response.getBody()).thenReturn(in);
+        doAnswer(invocation -> {
+            out.close();
+            return null;
+        }).when(response).close();
+
+        final Request request = mock(Request.class);
+        when(request.execute()).thenReturn(response);
+        when(RequestFactory.createRequest(uri, "GET")).thenReturn(request);
+
+        final CountDownLatch processed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            processed.countDown();
+            return null;
+        }).when(listener).accept(anyList());
+
+        final NakadiReader<SomeEvent> nakadiReader = new NakadiReader<>(uri, RequestFactory, new NoBackoffStrategy(), cursorManager, objectMapper, Collections.singleton(EVENT_NAME), Optional.empty(), Optional.empty(), SomeEvent.class, listener);
+
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> future = executorService.submit(nakadiReader.unchecked());
+
+            out.write("{\"cursor\":{\"partition\":\"0\",\"offset\":\"1\"},\"events\":[{\"id\":\"1\"}]}\n".getBytes("utf-8"));
+            out.flush();
+            assertTrue(processed.await(2, TimeUnit.SECONDS));
+
+            nakadiReader.stop();
+
+            Assert.assertNull("Reader should have completed normally", future.get());
+            verify(cursorManager).onSuccess(ArgumentMatchers.eq(EVENT_NAME), ArgumentMatchers.<Cursor>argThat(cursor -> "0".equals(cursor.getPartition()) && "1".equals(cursor.getOffset())));
+            verify(cursorManager).flush();
+            verify(request).execute();
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void shouldFinishCurrentBatchWhenStopped() throws IOException, InterruptedException, ExecutionException, EventAlreadyProcessedException {
+        final PipedOutputStream out = new PipedOutputStream();
+        final PipedInputStream in = new PipedInputStream(out);
+        final Response response = mock(Response.class);
+        when(response.getBody()).thenReturn(in);
+
+        final Request request = mock(Request.class);
+        when(request.execute()).thenReturn(response);
+        when(RequestFactory.createRequest(uri, "GET")).thenReturn(request);
+
+        final CountDownLatch processing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            processing.countDown();
+            release.await();
+            return null;
+        }).when(listener).accept(anyList());
+
+        final NakadiReader<SomeEvent> nakadiReader = new NakadiReader<>(uri, RequestFactory, new NoBackoffStrategy(), cursorManager, objectMapper, Collections.singleton(EVENT_NAME), Optional.empty(), Optional.empty(), SomeEvent.class, listener);
+
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> future = executorService.submit(nakadiReader.unchecked());
+
+            out.write("{\"cursor\":{\"partition\":\"0\",\"offset\":\"1\"},\"events\":[{\"id\":\"1\"}]}\n".getBytes("utf-8"));
+            out.flush();
+            assertTrue(processing.await(2, TimeUnit.SECONDS));
+
+            nakadiReader.stop();
+            verify(response, never()).close();
+
+            release.countDown();
+
+            Assert.assertNull("Reader should have completed normally", future.get());
+            verify(cursorManager).onSuccess(ArgumentMatchers.eq(EVENT_NAME), ArgumentMatchers.<Cursor>argThat(cursor -> "0".equals(cursor.getPartition()) && "1".equals(cursor.getOffset())));
+            verify(cursorManager).flush();
+            verify(response).close();
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
 }
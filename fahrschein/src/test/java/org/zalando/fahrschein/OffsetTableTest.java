@@ -0,0 +1,61 @@
+package org.zalando.fahrschein;
+
+import org.junit.Test;
+import org.zalando.fahrschein.domain.Cursor;
+import org.zalando.fahrschein.domain.Offset;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OffsetTableTest {
+
+    @Test
+    public void shouldStoreOffsetsOfManyPartitions() {
+        final List<Cursor> cursors = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            cursors.add(new Cursor(String.valueOf(i), "001-0001-" + String.format("%018d", i)));
+        }
+
+        final OffsetTable table = OffsetTable.of(cursors);
+
+        assertEquals(5000, table.size());
+        assertEquals(Offset.of(1, 4321), table.get("4321"));
+        assertEquals(0, table.compare("4321", Offset.of(1, 4321)));
+        assertEquals(-1, table.compare("4321", Offset.of(1, 4322)));
+        assertEquals(10L, table.distance("10", Offset.of(1, 20)));
+        assertNull(table.get("5000"));
+        assertFalse(table.contains("5000"));
+    }
+
+    @Test
+    public void shouldOnlyAdvanceForward() {
+        final OffsetTable table = new OffsetTable();
+
+        assertTrue(table.advance("0", Offset.parse("10")));
+        assertFalse(table.advance("0", Offset.parse("5")));
+        assertFalse(table.advance("0", Offset.parse("10")));
+        assertTrue(table.advance("0", Offset.parse("001-0001-000000000000000000")));
+
+        assertEquals(Offset.of(1, 0), table.get("0"));
+    }
+
+    @Test
+    public void shouldStoreBegin() {
+        final OffsetTable table = new OffsetTable();
+        table.put("0", Offset.BEGIN);
+
+        assertEquals(Offset.BEGIN, table.get("0"));
+        assertEquals(0, table.compare("0", Offset.BEGIN));
+        assertEquals(11L, table.distance("0", Offset.parse("10")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownPartition() {
+        new OffsetTable().compare("0", Offset.BEGIN);
+    }
+}
@@ -0,0 +1,154 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ParallelMappingEventReaderTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+    public static class SomeEvent {
+        public int id;
+        public String payload;
+    }
+
+    @After
+    public void shutdown() {
+        executorService.shutdownNow();
+    }
+
+    private static String events(int count) {
+        final StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(",\n");
+            }
+            sb.append("{\"id\":").append(i).append(",\"payload\":\"").append("payload-").append(i).append("\"}");
+        }
+        return sb.append("]").toString();
+    }
+
+    private List<SomeEvent> read(EventReader<SomeEvent> eventReader, String json) throws IOException {
+        // read from a batch object to verify that the parser is positioned behind the events afterwards
+        try (final JsonParser jsonParser = objectMapper.getFactory().createParser("{\"events\":" + json + ",\"info\":{}}")) {
+            jsonParser.nextToken();
+            jsonParser.nextToken();
+            final List<SomeEvent> events = eventReader.read(jsonParser);
+            assertEquals(JsonToken.END_ARRAY, jsonParser.getCurrentToken());
+            assertEquals("info", jsonParser.nextFieldName());
+            return events;
+        }
+    }
+
+    private static List<Integer> ids(List<SomeEvent> events) {
+        final List<Integer> ids = new ArrayList<>(events.size());
+        for (SomeEvent event : events) {
+            ids.add(event.id);
+        }
+        return ids;
+    }
+
+    @Test
+    public void shouldDeserializeInOriginalOrder() throws IOException {
+        final String json = events(1000);
+        final List<SomeEvent> expected = read(new MappingEventReader<>(SomeEvent.class, objectMapper), json);
+
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+        final ParallelMappingEventReader<SomeEvent> eventReader = new ParallelMappingEventReader<>(SomeEvent.class, objectMapper, 0, command -> executorService.execute(() -> {
+            threads.add(Thread.currentThread().getName());
+            command.run();
+        }), 4);
+
+        final List<SomeEvent> events = read(eventReader, json);
+
+        assertEquals(ids(expected), ids(events));
+        assertEquals("payload-999", events.get(999).payload);
+        assertFalse(threads.isEmpty());
+    }
+
+    @Test
+    public void shouldDeserializeSmallBatchesOnCallingThread() throws IOException {
+        final ParallelMappingEventReader<SomeEvent> eventReader = new ParallelMappingEventReader<>(SomeEvent.class, objectMapper, 1024 * 1024, command -> {
+            throw new AssertionError("Small batch should not be deserialized in parallel");
+        }, 4);
+
+        assertEquals(ids(read(new MappingEventReader<>(SomeEvent.class, objectMapper), events(10))), ids(read(eventReader, events(10))));
+        assertEquals(0, read(eventReader, "[]").size());
+    }
+
+    @Test
+    public void shouldBindLeadingEventsDirectlyAndRemainingEventsInParallel() throws IOException {
+        final String json = events(1000);
+        final List<SomeEvent> expected = read(new MappingEventReader<>(SomeEvent.class, objectMapper), json);
+
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+        final ParallelMappingEventReader<SomeEvent> eventReader = new ParallelMappingEventReader<>(SomeEvent.class, objectMapper, json.length() / 2, command -> executorService.execute(() -> {
+            threads.add(Thread.currentThread().getName());
+            command.run();
+        }), 4);
+
+        assertEquals(ids(expected), ids(read(eventReader, json)));
+        assertFalse(threads.isEmpty());
+    }
+
+    @Test
+    public void shouldDelegateMappingExceptionsOfDirectlyBoundEvents() throws IOException {
+        final List<JsonMappingException> failures = new ArrayList<>();
+        final ParallelMappingEventReader<SomeEvent> eventReader = new ParallelMappingEventReader<SomeEvent>(SomeEvent.class, objectMapper, 1024 * 1024, command -> {
+            throw new AssertionError("Small batch should not be deserialized in parallel");
+        }, 4) {
+            @Override
+            protected void onMappingException(JsonMappingException exception) {
+                failures.add(exception);
+            }
+        };
+
+        final List<SomeEvent> events = read(eventReader, "[{\"id\":1},{\"id\":\"foo\",\"payload\":\"bar\"},{\"id\":3}]");
+
+        assertEquals(2, events.size());
+        assertEquals(1, events.get(0).id);
+        assertEquals(3, events.get(1).id);
+        assertEquals(1, failures.size());
+    }
+
+    @Test
+    public void shouldDelegateMappingExceptions() throws IOException {
+        final List<JsonMappingException> failures = new ArrayList<>();
+        final ParallelMappingEventReader<SomeEvent> eventReader = new ParallelMappingEventReader<SomeEvent>(SomeEvent.class, objectMapper, 0, executorService, 4) {
+            @Override
+            protected void onMappingException(JsonMappingException exception) {
+                synchronized (failures) {
+                    failures.add(exception);
+                }
+            }
+        };
+
+        final List<SomeEvent> events = read(eventReader, "[{\"id\":1},{\"id\":\"foo\"},{\"id\":3}]");
+
+        assertEquals(2, events.size());
+        assertEquals(1, events.get(0).id);
+        assertEquals(3, events.get(1).id);
+        assertEquals(1, failures.size());
+    }
+
+    @Test(expected = JsonMappingException.class)
+    public void shouldPropagateMappingExceptionsFromParallelTasks() throws IOException {
+        final ParallelMappingEventReader<SomeEvent> eventReader = new ParallelMappingEventReader<>(SomeEvent.class, objectMapper, 0, executorService, 4);
+        read(eventReader, "[{\"id\":1},{\"id\":\"foo\"},{\"id\":3}]");
+    }
+}
@@ -131,4 +131,42 @@ public class ProblemHandlingRequestTest {
         problemHandlingRequest.execute();
     }
 
+    @Test
+    public void shouldOnlyIncludeFailedItemsOfMultiStatus() throws IOException {
+        when(response.getStatusCode()).thenReturn(207);
+        when(response.getStatusText()).thenReturn("Multistatus");
+        when(response.getBody()).thenReturn(new ByteArrayInputStream(("[{\"eid\":\"1\",\"publishing_status\":\"submitted\",\"step\":\"none\",\"extra\":{\"ignored\":[1,2]}},"
+                + "{\"eid\":\"2\",\"publishing_status\":\"failed\",\"step\":\"publishing\",\"detail\":\"baz\"}]").getBytes(StandardCharsets.UTF_8)));
+
+        final Headers headers = new HeadersImpl();
+        headers.setContentType(ContentType.APPLICATION_JSON);
+        when(response.getHeaders()).thenReturn(headers);
+
+        when(request.execute()).thenReturn(response);
+
+        expectedException.expect(instanceOf(EventPublishingException.class));
+        expectedException.expect(hasFeature("responses", (EventPublishingException e) -> e.getResponses().length, equalTo(1)));
+        expectedException.expect(hasFeature("eid", (EventPublishingException e) -> e.getResponses()[0].getEid(), equalTo("2")));
+
+        problemHandlingRequest.execute();
+    }
+
+    @Test
+    public void shouldCreateProblemFromEmptyArray() throws IOException {
+        when(response.getStatusCode()).thenReturn(422);
+        when(response.getStatusText()).thenReturn("Unprocessable Entity");
+        when(response.getBody()).thenReturn(new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8)));
+
+        final Headers headers = new HeadersImpl();
+        headers.setContentType(ContentType.APPLICATION_JSON);
+        when(response.getHeaders()).thenReturn(headers);
+
+        when(request.execute()).thenReturn(response);
+
+        expectedException.expect(instanceOf(IOProblem.class));
+        expectedException.expect(hasFeature("status code", IOProblem::getStatusCode, equalTo(422)));
+
+        problemHandlingRequest.execute();
+    }
+
 }
@@ -0,0 +1,124 @@
+package org.zalando.fahrschein;
+
+import org.junit.Test;
+import org.zalando.fahrschein.domain.BatchItemResponse;
+import org.zalando.fahrschein.domain.Event;
+import org.zalando.fahrschein.domain.Metadata;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PublishingRetryTest {
+
+    public static class SomeEvent implements Event {
+        private final Metadata metadata;
+
+        SomeEvent(String eid) {
+            this.metadata = new Metadata(eid, OffsetDateTime.now());
+        }
+
+        @Override
+        public Metadata getMetadata() {
+            return metadata;
+        }
+    }
+
+    private final SomeEvent first = new SomeEvent("1");
+    private final SomeEvent second = new SomeEvent("2");
+    private final SomeEvent third = new SomeEvent("3");
+    private final List<List<String>> requests = new ArrayList<>();
+    private final BackoffStrategy backoffStrategy = new ExponentialBackoffStrategy(1, 1.0, 1, 2);
+
+    private static BatchItemResponse response(String eid, BatchItemResponse.PublishingStatus status, BatchItemResponse.Step step) {
+        return new BatchItemResponse(eid, status, step, "detail");
+    }
+
+    private void record(List<SomeEvent> events) {
+        requests.add(events.stream().map(event -> event.getMetadata().getEid()).collect(toList()));
+    }
+
+    @Test
+    public void shouldOnlyRetryRejectedEvents() throws IOException {
+        final BatchItemResponse invalid = response("3", BatchItemResponse.PublishingStatus.FAILED, BatchItemResponse.Step.VALIDATING);
+        final PublishingRetry<SomeEvent> retry = new PublishingRetry<>((eventName, events) -> {
+            record(events);
+            if (requests.size() == 1) {
+                throw new EventPublishingException(new BatchItemResponse[]{
+                        response("2", BatchItemResponse.PublishingStatus.ABORTED, BatchItemResponse.Step.VALIDATING), invalid});
+            }
+        }, "foo", Arrays.asList(first, second, third));
+
+        final PublishingResult<SomeEvent> result = retry.run(backoffStrategy);
+
+        assertEquals(Arrays.asList(Arrays.asList("1", "2", "3"), singletonList("2")), requests);
+        assertFalse(result.isSuccessful());
+        assertEquals(1, result.getRetries());
+        assertEquals(1, result.getFailedEvents().size());
+        assertSame(third, result.getFailedEvents().get(0).getEvent());
+        assertSame(invalid, result.getFailedEvents().get(0).getResponse());
+    }
+
+    @Test
+    public void shouldGiveUpAfterMaximumRetries() throws IOException {
+        final BatchItemResponse failed = response("2", BatchItemResponse.PublishingStatus.FAILED, BatchItemResponse.Step.PUBLISHING);
+        final PublishingRetry<SomeEvent> retry = new PublishingRetry<>((eventName, events) -> {
+            record(events);
+            throw new EventPublishingException(new BatchItemResponse[]{failed});
+        }, "foo", Arrays.asList(first, second));
+
+        final PublishingResult<SomeEvent> result = retry.run(backoffStrategy);
+
+        assertEquals(Arrays.asList(Arrays.asList("1", "2"), singletonList("2"), singletonList("2")), requests);
+        assertEquals(2, result.getRetries());
+        assertEquals(1, result.getFailedEvents().size());
+        assertSame(second, result.getFailedEvents().get(0).getEvent());
+        assertSame(failed, result.getFailedEvents().get(0).getResponse());
+        assertTrue(result.getException() instanceof EventPublishingException);
+    }
+
+    @Test
+    public void shouldRetryAllEventsAfterOtherFailures() throws IOException {
+        final PublishingRetry<SomeEvent> retry = new PublishingRetry<>((eventName, events) -> {
+            record(events);
+            if (requests.size() == 1) {
+                throw new IOException("Connection reset");
+            }
+        }, "foo", Arrays.asList(first, second));
+
+        final PublishingResult<SomeEvent> result = retry.run(backoffStrategy);
+
+        assertEquals(Arrays.asList(Arrays.asList("1", "2"), Arrays.asList("1", "2")), requests);
+        assertTrue(result.isSuccessful());
+        assertEquals(1, result.getRetries());
+        assertNull(result.getException());
+    }
+
+    @Test
+    public void shouldNotRetryEventsWithoutEid() throws IOException {
+        final List<String> events = Arrays.asList("a", "b");
+        final EventPublishingException exception = new EventPublishingException(new BatchItemResponse[]{
+                response(null, BatchItemResponse.PublishingStatus.ABORTED, BatchItemResponse.Step.NONE)});
+        final PublishingRetry<String> retry = new PublishingRetry<>((eventName, batch) -> {
+            requests.add(batch);
+            throw exception;
+        }, "foo", events);
+
+        final PublishingResult<String> result = retry.run(backoffStrategy);
+
+        assertEquals(singletonList(events), requests);
+        assertEquals(0, result.getRetries());
+        assertEquals(events, result.getFailedEvents().stream().map(PublishingResult.FailedEvent::getEvent).collect(toList()));
+        assertSame(exception, result.getException());
+    }
+}
@@ -0,0 +1,47 @@
+package org.zalando.fahrschein;
+
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.Test;
+import org.zalando.fahrschein.domain.Metadata;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+public class RawEventReaderTest {
+    private final RawEventReader eventReader = new RawEventReader();
+
+    private List<RawEvent> read(String json) throws IOException {
+        try (final JsonParser jsonParser = DefaultObjectMapper.INSTANCE.getFactory().createParser(json)) {
+            return eventReader.read(jsonParser);
+        }
+    }
+
+    @Test
+    public void shouldReadEventsAsRawJson() throws IOException {
+        final List<RawEvent> events = read("[{\"metadata\":{\"eid\":\"5678\",\"occurred_at\":\"2016-10-26T19:20:21.123Z\"},\"order_number\":\"1234\"},\n {\"order_number\":\"5678\",\"items\":[1,2,{\"a\":null}]}]");
+
+        assertThat(events, hasSize(2));
+        assertEquals("{\"metadata\":{\"eid\":\"5678\",\"occurred_at\":\"2016-10-26T19:20:21.123Z\"},\"order_number\":\"1234\"}", events.get(0).toString());
+        assertEquals("{\"order_number\":\"5678\",\"items\":[1,2,{\"a\":null}]}", events.get(1).toString());
+    }
+
+    @Test
+    public void shouldDecodeMetadataLazily() throws IOException {
+        final List<RawEvent> events = read("[{\"order_number\":\"1234\",\"nested\":{\"metadata\":{\"eid\":\"1\"}},\"metadata\":{\"eid\":\"5678\",\"event_type\":\"sales-order-placed\"}},{\"order_number\":\"5678\"}]");
+
+        final Metadata metadata = events.get(0).getMetadata();
+        assertEquals("5678", metadata.getEid());
+        assertEquals("sales-order-placed", metadata.getEventType());
+        assertThat(events.get(1).getMetadata(), nullValue());
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailOnIncompleteArray() throws IOException {
+        read("[{\"order_number\":\"1234\"}");
+    }
+}
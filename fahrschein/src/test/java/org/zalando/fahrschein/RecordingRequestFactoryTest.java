@@ -0,0 +1,212 @@
+package org.zalando.fahrschein;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.zalando.fahrschein.domain.Cursor;
+import org.zalando.fahrschein.http.api.ContentType;
+import org.zalando.fahrschein.http.api.Headers;
+import org.zalando.fahrschein.http.api.HeadersImpl;
+import org.zalando.fahrschein.http.api.Request;
+import org.zalando.fahrschein.http.api.RequestFactory;
+import org.zalando.fahrschein.http.api.Response;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RecordingRequestFactoryTest {
+    private static final URI EVENTS_URI = URI.create("http://example.com/event-types/foo/events");
+    private static final URI CURSORS_URI = URI.create("http://example.com/subscriptions/1234/cursors");
+    private static final String STREAM = "{\"cursor\":{\"partition\":\"0\",\"offset\":\"0\"},\"events\":[{\"id\":\"a\"}]}\n"
+            + "{\"cursor\":{\"partition\":\"0\",\"offset\":\"1\"},\"events\":[{\"id\":\"b\"},{\"id\":\"c\"}]}\n";
+
+    public static class SomeEvent {
+        public String id;
+    }
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final RequestFactory delegate = mock(RequestFactory.class);
+
+    private void respond(int status, long chunkDelayMillis, String... chunks) throws IOException {
+        final Headers headers = new HeadersImpl();
+        headers.setContentType(ContentType.APPLICATION_JSON);
+        headers.put("X-Nakadi-StreamId", "stream-1");
+
+        final Response response = mock(Response.class);
+        when(response.getStatusCode()).thenReturn(status);
+        when(response.getStatusText()).thenReturn("OK");
+        when(response.getHeaders()).thenReturn(headers);
+        when(response.getBody()).thenReturn(new ChunkedInputStream(chunkDelayMillis, chunks));
+
+        final Request request = mock(Request.class);
+        when(request.getURI()).thenReturn(EVENTS_URI);
+        when(request.execute()).thenReturn(response);
+        when(delegate.createRequest(any(URI.class), anyString())).thenReturn(request);
+    }
+
+    private static String readBody(Response response) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = response.getBody()) {
+            final byte[] buffer = new byte[3];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+        } finally {
+            response.close();
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void shouldRecordAndReplayEventStreams() throws IOException {
+        final Path directory = temporaryFolder.getRoot().toPath().resolve("recordings");
+        final RecordingRequestFactory recordingRequestFactory = new RecordingRequestFactory(delegate, directory);
+
+        respond(200, 0, "{\"cursor\":", "{\"partition\":\"0\"}}\n");
+        assertEquals("{\"cursor\":{\"partition\":\"0\"}}\n", readBody(recordingRequestFactory.createRequest(EVENTS_URI, "GET").execute()));
+        respond(200, 0, "second");
+        assertEquals("second", readBody(recordingRequestFactory.createRequest(EVENTS_URI, "GET").execute()));
+
+        final ReplayRequestFactory replayRequestFactory = new ReplayRequestFactory(directory, ReplayRequestFactory.Speed.MAXIMUM);
+        assertEquals(2, replayRequestFactory.getRemainingRecordings());
+
+        final Response first = replayRequestFactory.createRequest(URI.create("http://localhost/event-types/bar/events"), "GET").execute();
+        assertEquals(200, first.getStatusCode());
+        assertEquals("stream-1", first.getHeaders().getFirst("X-Nakadi-StreamId"));
+        assertEquals(ContentType.APPLICATION_JSON.getValue(), first.getHeaders().getContentType().getValue());
+        assertEquals("{\"cursor\":{\"partition\":\"0\"}}\n", readBody(first));
+        assertEquals("second", readBody(replayRequestFactory.createRequest(EVENTS_URI, "GET").execute()));
+
+        try {
+            replayRequestFactory.createRequest(EVENTS_URI, "GET").execute();
+            fail("Expected an IOException after all recordings were replayed");
+        } catch (IOException e) {
+            assertEquals(0, replayRequestFactory.getRemainingRecordings());
+        }
+    }
+
+    @Test
+    public void shouldPassThroughOtherRequests() throws IOException {
+        final Path directory = temporaryFolder.getRoot().toPath();
+        respond(500, 0, "{}");
+
+        final RecordingRequestFactory recordingRequestFactory = new RecordingRequestFactory(delegate, directory);
+        final Request commit = recordingRequestFactory.createRequest(CURSORS_URI, "POST");
+        assertSame(delegate.createRequest(CURSORS_URI, "POST"), commit);
+        readBody(recordingRequestFactory.createRequest(EVENTS_URI, "GET").execute());
+
+        assertEquals(Collections.emptyList(), StreamRecording.list(directory));
+
+        final ReplayRequestFactory replayRequestFactory = new ReplayRequestFactory(directory, ReplayRequestFactory.Speed.MAXIMUM);
+        try {
+            replayRequestFactory.createRequest(CURSORS_URI, "POST");
+            fail("Expected an IOException without fallback");
+        } catch (IOException e) {
+            // expected
+        }
+        assertSame(commit, new ReplayRequestFactory(directory, ReplayRequestFactory.Speed.MAXIMUM, delegate).createRequest(CURSORS_URI, "POST"));
+    }
+
+    @Test
+    public void shouldReplayAtRecordedSpeed() throws IOException {
+        final Path directory = temporaryFolder.getRoot().toPath();
+        respond(200, 100, "a", "b", "c");
+        readBody(new RecordingRequestFactory(delegate, directory).createRequest(EVENTS_URI, "GET").execute());
+
+        final long maximumStart = System.nanoTime();
+        assertEquals("abc", readBody(new ReplayRequestFactory(directory, ReplayRequestFactory.Speed.MAXIMUM).createRequest(EVENTS_URI, "GET").execute()));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - maximumStart), lessThan(200L));
+
+        final long recordedStart = System.nanoTime();
+        assertEquals("abc", readBody(new ReplayRequestFactory(directory, ReplayRequestFactory.Speed.RECORDED).createRequest(EVENTS_URI, "GET").execute()));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - recordedStart), greaterThanOrEqualTo(200L));
+    }
+
+    @Test
+    public void shouldReplayRecordedStreamToListener() throws IOException {
+        final Path directory = temporaryFolder.getRoot().toPath();
+        final int split = STREAM.length() / 2;
+        respond(200, 0, STREAM.substring(0, split), STREAM.substring(split));
+        readBody(new RecordingRequestFactory(delegate, directory).createRequest(EVENTS_URI, "GET").execute());
+
+        final CursorManager cursorManager = mock(CursorManager.class);
+        when(cursorManager.getCursors("foo")).thenReturn(Collections.singletonList(new Cursor("0", "BEGIN")));
+        final NakadiClient nakadiClient = NakadiClient.builder(URI.create("http://example.com"))
+                .withRequestFactory(new ReplayRequestFactory(directory, ReplayRequestFactory.Speed.MAXIMUM))
+                .withCursorManager(cursorManager)
+                .build();
+
+        final List<String> ids = new ArrayList<>();
+        try {
+            nakadiClient.stream("foo")
+                    .withBackoffStrategy(new NoBackoffStrategy())
+                    .listen(SomeEvent.class, events -> events.forEach(event -> ids.add(event.id)));
+            fail("Expected an IOException after the recorded stream ended");
+        } catch (IOException e) {
+            assertEquals(Arrays.asList("a", "b", "c"), ids);
+        }
+    }
+
+    private static final class ChunkedInputStream extends InputStream {
+        private final long delayMillis;
+        private final String[] chunks;
+        private int chunk;
+        private int position;
+
+        ChunkedInputStream(long delayMillis, String... chunks) {
+            this.delayMillis = delayMillis;
+            this.chunks = chunks;
+        }
+
+        @Override
+        public int read() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (chunk == chunks.length) {
+                return -1;
+            }
+            if (chunk > 0 && position == 0 && delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            final byte[] bytes = chunks[chunk].getBytes(StandardCharsets.UTF_8);
+            final int count = Math.min(length, bytes.length - position);
+            System.arraycopy(bytes, position, buffer, offset, count);
+            position += count;
+            if (position == bytes.length) {
+                chunk++;
+                position = 0;
+            }
+            return count;
+        }
+    }
+}
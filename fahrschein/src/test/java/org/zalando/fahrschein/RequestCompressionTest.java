@@ -0,0 +1,122 @@
+package org.zalando.fahrschein;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.zalando.fahrschein.http.api.Headers;
+import org.zalando.fahrschein.http.api.HeadersImpl;
+import org.zalando.fahrschein.http.api.Request;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RequestCompressionTest {
+
+    private final RequestCompression compression = new RequestCompression(new CompressionParameters().withMinSize(100));
+    private final Headers headers = new HeadersImpl();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private Request request;
+
+    @Before
+    public void setup() throws IOException {
+        request = mock(Request.class);
+        when(request.getHeaders()).thenReturn(headers);
+        when(request.getBody()).thenReturn(body);
+        doCallRealMethod().when(request).setBody(any());
+    }
+
+    private static byte[] json(int length) {
+        final byte[] json = new byte[length];
+        Arrays.fill(json, (byte) 'a');
+        json[0] = '"';
+        json[length - 1] = '"';
+        return json;
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    @Test
+    public void shouldNotCompressSmallBodies() throws IOException {
+        final byte[] json = json(99);
+
+        compression.setBody(request, out -> out.write(json));
+
+        assertNull(headers.getFirst(Headers.CONTENT_ENCODING));
+        assertEquals(99, headers.getContentLength());
+        assertArrayEquals(json, body.toByteArray());
+    }
+
+    @Test
+    public void shouldCompressBodiesReachingMinimumSize() throws IOException {
+        final String text = "{\"text\":" + new String(json(10000), StandardCharsets.UTF_8) + "}";
+
+        final AtomicInteger writes = new AtomicInteger();
+        compression.setBody(request, out -> {
+            writes.incrementAndGet();
+            DefaultObjectMapper.INSTANCE.writeValue(out, DefaultObjectMapper.INSTANCE.readTree(text));
+        });
+
+        assertEquals("gzip", headers.getFirst(Headers.CONTENT_ENCODING));
+        assertEquals(body.size(), headers.getContentLength());
+        assertEquals(text, new String(gunzip(body.toByteArray()), StandardCharsets.UTF_8));
+        assertEquals("Body should only be serialized once", 1, writes.get());
+    }
+
+    @Test
+    public void shouldCompressBodiesOfKnownSize() throws IOException {
+        final byte[] json = json(100);
+
+        compression.setBody(request, out -> out.write(json), json.length);
+
+        assertEquals("gzip", headers.getFirst(Headers.CONTENT_ENCODING));
+        assertArrayEquals(json, gunzip(body.toByteArray()));
+    }
+
+    @Test
+    public void shouldSendSmallBodiesOfKnownSizeWithContentLength() throws IOException {
+        final byte[] json = json(10);
+
+        compression.setBody(request, out -> out.write(json), json.length);
+
+        assertNull(headers.getFirst(Headers.CONTENT_ENCODING));
+        assertEquals(10, headers.getContentLength());
+        assertArrayEquals(json, body.toByteArray());
+    }
+
+    @Test
+    public void shouldReuseDeflaters() {
+        final DeflaterPool pool = new DeflaterPool(Deflater.BEST_SPEED, 1);
+
+        final Deflater first = pool.acquire();
+        final Deflater second = pool.acquire();
+        pool.release(first);
+        pool.release(second);
+
+        assertSame(first, pool.acquire());
+    }
+}
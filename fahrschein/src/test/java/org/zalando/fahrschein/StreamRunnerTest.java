@@ -0,0 +1,69 @@
+package org.zalando.fahrschein;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class StreamRunnerTest {
+
+    @Test
+    public void shouldUseVirtualThreadsIfSupported() throws IOException {
+        try (final StreamRunner streamRunner = StreamRunner.create("stream-")) {
+            assertEquals(Threads.virtualThreadsSupported(), streamRunner.isVirtual());
+        }
+    }
+
+    @Test
+    public void shouldStopStreamWhenCancelled() throws IOException, InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch stopped = new CountDownLatch(1);
+        final AtomicReference<String> threadName = new AtomicReference<>();
+
+        try (final StreamRunner streamRunner = StreamRunner.create("stream-")) {
+            final Future<?> future = streamRunner.start(() -> {
+                threadName.set(Thread.currentThread().getName());
+                started.countDown();
+                try {
+                    Thread.sleep(10000);
+                } catch (InterruptedException e) {
+                    stopped.countDown();
+                }
+            });
+
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            future.cancel(true);
+            assertTrue(stopped.await(5, TimeUnit.SECONDS));
+            assertThat(threadName.get(), startsWith("stream-"));
+        }
+    }
+
+    @Test
+    public void shouldPropagateFailure() throws IOException, InterruptedException {
+        try (final StreamRunner streamRunner = StreamRunner.platformThreads("stream-")) {
+            final Future<?> future = streamRunner.start(() -> {
+                throw new IOException("failure");
+            });
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("Expected ExecutionException");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(IOException.class));
+            } catch (TimeoutException e) {
+                fail("Stream did not terminate");
+            }
+        }
+    }
+}
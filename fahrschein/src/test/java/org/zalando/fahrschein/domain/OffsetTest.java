@@ -0,0 +1,75 @@
+package org.zalando.fahrschein.domain;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class OffsetTest {
+
+    @Test
+    public void shouldParseVersionedOffset() {
+        final Offset offset = Offset.parse("001-0002-000000000000000123");
+        assertEquals(1, offset.getVersion());
+        assertEquals(2, offset.getTimeline());
+        assertEquals(123L, offset.getPosition());
+        assertEquals("001-0002-000000000000000123", offset.toString());
+    }
+
+    @Test
+    public void shouldParseLegacyOffsets() {
+        assertEquals(Offset.parse("123"), Offset.parse("000000000000000123"));
+        assertEquals(0, Offset.parse("123").getTimeline());
+        assertEquals("000000000000000123", Offset.parse("123").toString());
+    }
+
+    @Test
+    public void shouldParseBegin() {
+        assertSame(Offset.BEGIN, Offset.parse("BEGIN"));
+        assertTrue(Offset.BEGIN.isBegin());
+        assertEquals("BEGIN", Offset.BEGIN.toString());
+    }
+
+    @Test
+    public void shouldOrderByTimelineAndPosition() {
+        assertThat(Offset.BEGIN.compareTo(Offset.parse("0")), lessThan(0));
+        assertThat(Offset.parse("99").compareTo(Offset.parse("100")), lessThan(0));
+        assertThat(Offset.parse("999").compareTo(Offset.parse("001-0001-000000000000000000")), lessThan(0));
+        assertThat(Offset.parse("001-0002-000000000000000001").compareTo(Offset.parse("001-0001-000000000000000999")), greaterThan(0));
+        assertEquals(0, Offset.of(1, 5).compareTo(Offset.parse("001-0001-000000000000000005")));
+    }
+
+    @Test
+    public void shouldCalculateDistance() {
+        assertEquals(10L, Offset.parse("001-0001-000000000000000010").distance(Offset.parse("001-0001-000000000000000020")));
+        assertEquals(-10L, Offset.parse("20").distance(Offset.parse("10")));
+        assertEquals(21L, Offset.BEGIN.distance(Offset.parse("20")));
+        assertEquals(0L, Offset.BEGIN.distance(Offset.BEGIN));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotCalculateDistanceAcrossTimelines() {
+        Offset.parse("001-0001-000000000000000010").distance(Offset.parse("001-0002-000000000000000020"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidOffset() {
+        Offset.parse("001-abc-000000000000000010");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectOverflowingOffset() {
+        Offset.parse("99999999999999999999");
+    }
+
+    @Test
+    public void shouldParseOffsetOfCursor() {
+        final Cursor cursor = new Cursor("0", "001-0001-000000000000000042");
+        assertSame(cursor.parseOffset(), cursor.parseOffset());
+        assertEquals(42L, cursor.parseOffset().getPosition());
+    }
+}